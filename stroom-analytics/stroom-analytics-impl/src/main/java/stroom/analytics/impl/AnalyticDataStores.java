@@ -296,7 +296,7 @@ public class AnalyticDataStores implements HasResultStoreInfo {
                 .build();
         return new LmdbDataStore(
                 searchRequestSource,
-                lmdbEnvBuilder,
+                List.of(lmdbEnvBuilder),
                 storeConfig,
                 queryKey,
                 componentId,
@@ -6,10 +6,10 @@ import stroom.analytics.shared.DuplicateCheckRows;
 import stroom.analytics.shared.FindDuplicateCheckCriteria;
 import stroom.bytebuffer.impl6.ByteBufferFactory;
 import stroom.bytebuffer.impl6.ByteBufferPoolOutput;
+import stroom.lmdb2.LmdbBatchWriter;
 import stroom.lmdb2.LmdbDb;
 import stroom.lmdb2.LmdbEnv;
 import stroom.lmdb2.LmdbEnvDir;
-import stroom.lmdb2.LmdbWriter;
 import stroom.lmdb2.ReadTxn;
 import stroom.lmdb2.WriteTxn;
 import stroom.query.common.v2.DuplicateCheckStoreConfig;
@@ -31,7 +31,6 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 class DuplicateCheckStore {
@@ -51,9 +50,7 @@ class DuplicateCheckStore {
     private final LmdbEnv lmdbEnv;
     private final LmdbDb db;
     private final LmdbDb columnNamesDb;
-    private final LmdbWriter writer;
-    private final int maxPutsBeforeCommit = 100;
-    private long uncommittedCount = 0;
+    private final LmdbBatchWriter writer;
 
     DuplicateCheckStore(final DuplicateCheckDirs duplicateCheckDirs,
                         final ByteBufferFactory byteBufferFactory,
@@ -75,27 +72,28 @@ class DuplicateCheckStore {
 
         this.db = lmdbEnv.openDb("duplicate-check", DbiFlags.MDB_CREATE, DbiFlags.MDB_DUPSORT);
         this.columnNamesDb = lmdbEnv.openDb("column-names", DbiFlags.MDB_CREATE);
-        writer = new LmdbWriter(executorProvider, lmdbEnv);
+        writer = new LmdbBatchWriter(executorProvider, lmdbEnv);
     }
 
     synchronized void writeColumnNames(final List<String> columnNames) {
         writer.write(writeTxn -> {
             writeColumnNames(writeTxn, columnNames);
-        });
+            return null;
+        }).join();
     }
 
-    synchronized boolean tryInsert(final DuplicateCheckRow duplicateCheckRow) {
+    /**
+     * Not synchronised so that concurrent callers can have their inserts applied by the writer in a single batch.
+     */
+    boolean tryInsert(final DuplicateCheckRow duplicateCheckRow) {
         final LmdbKV lmdbKV = duplicateCheckRowSerde.createLmdbKV(duplicateCheckRow);
-        final AtomicBoolean res = new AtomicBoolean();
-
-        writer.write(writeTxn -> {
+        return writer.write(writeTxn -> {
             try {
                 try {
-                    boolean result = db.put(writeTxn,
+                    final boolean result = db.put(writeTxn,
                             lmdbKV.getRowKey(),
                             lmdbKV.getRowValue(),
                             PutFlags.MDB_NODUPDATA);
-                    res.set(result);
                     if (result) {
                         LOGGER.debug(() -> "New row (row=" +
                                 duplicateCheckRow +
@@ -104,7 +102,6 @@ class DuplicateCheckStore {
                                 ", lmdbEnvDir=" +
                                 lmdbEnv.getDir() +
                                 ")");
-                        uncommittedCount++;
                     } else {
                         LOGGER.debug(() -> "Duplicate row (row=" +
                                 duplicateCheckRow +
@@ -114,26 +111,16 @@ class DuplicateCheckStore {
                                 lmdbEnv.getDir() +
                                 ")");
                     }
+                    return result;
                 } finally {
                     byteBufferFactory.release(lmdbKV.getRowKey());
                     byteBufferFactory.release(lmdbKV.getRowValue());
                 }
-
-                if (uncommittedCount > 0) {
-                    final long count = uncommittedCount;
-                    if (count >= maxPutsBeforeCommit) {
-                        // Commit
-                        LOGGER.trace(() -> "Committing for max puts " + maxPutsBeforeCommit);
-                        writeTxn.commit();
-                        uncommittedCount = 0;
-                    }
-                }
             } catch (final Throwable e) {
                 LOGGER.error(e::getMessage, e);
+                return false;
             }
-        });
-
-        return res.get();
+        }).join();
     }
 
     synchronized void flush() {
@@ -230,10 +217,10 @@ class DuplicateCheckStore {
     private synchronized void delete(LmdbKV lmdbKV) {
         writer.write(writeTxn -> db.delete(writeTxn,
                 lmdbKV.getRowKey(),
-                lmdbKV.getRowValue()));
+                lmdbKV.getRowValue())).join();
     }
 
     private synchronized void commit() {
-        writer.write(WriteTxn::commit);
+        writer.flush();
     }
 }
@@ -42,14 +42,21 @@ import org.jooq.Cursor;
 import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Result;
+import org.jooq.Row2;
 import org.jooq.SelectJoinStep;
 import org.jooq.impl.DSL;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static stroom.annotation.impl.db.jooq.tables.Annotation.ANNOTATION;
@@ -166,6 +173,59 @@ class AnnotationDaoImpl implements AnnotationDao {
                 .map(this::mapToAnnotation);
     }
 
+    @Override
+    public Map<Long, Annotation> getAnnotations(final Collection<Long> annotationIds) {
+        if (annotationIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return JooqUtil.contextResult(connectionProvider, context -> context
+                        .select()
+                        .from(ANNOTATION)
+                        .where(ANNOTATION.ID.in(annotationIds))
+                        .fetch())
+                .stream()
+                .map(this::mapToAnnotation)
+                .collect(Collectors.toMap(Annotation::getId, Function.identity()));
+    }
+
+    @Override
+    public Map<EventId, List<Annotation>> getAnnotationsForEvents(final Collection<EventId> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final List<Row2<Long, Long>> rows = eventIds.stream()
+                .map(eventId -> DSL.row(eventId.getStreamId(), eventId.getEventId()))
+                .toList();
+        final Result<Record> result = JooqUtil.contextResult(connectionProvider, context -> context
+                .select()
+                .from(ANNOTATION)
+                .join(ANNOTATION_DATA_LINK).on(ANNOTATION_DATA_LINK.FK_ANNOTATION_ID.eq(ANNOTATION.ID))
+                .where(DSL.row(ANNOTATION_DATA_LINK.STREAM_ID, ANNOTATION_DATA_LINK.EVENT_ID).in(rows))
+                .fetch());
+
+        final Map<EventId, List<Annotation>> map = new HashMap<>();
+        for (final Record record : result) {
+            final EventId eventId = new EventId(
+                    record.get(ANNOTATION_DATA_LINK.STREAM_ID),
+                    record.get(ANNOTATION_DATA_LINK.EVENT_ID));
+            map.computeIfAbsent(eventId, k -> new ArrayList<>())
+                    .add(mapToAnnotation(record));
+        }
+        return map;
+    }
+
+    @Override
+    public Set<Long> getAnnotatedStreamIds(final Collection<Long> streamIds) {
+        if (streamIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(JooqUtil.contextResult(connectionProvider, context -> context
+                .selectDistinct(ANNOTATION_DATA_LINK.STREAM_ID)
+                .from(ANNOTATION_DATA_LINK)
+                .where(ANNOTATION_DATA_LINK.STREAM_ID.in(streamIds))
+                .fetch(ANNOTATION_DATA_LINK.STREAM_ID)));
+    }
+
     @Override
     public List<AnnotationDetail> getAnnotationDetailsForEvents(final long streamId, final long eventId) {
         final List<Annotation> list = getAnnotationsForEvents(streamId, eventId);
@@ -28,7 +28,10 @@ import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.ValuesConsumer;
 import stroom.util.shared.UserName;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface AnnotationDao {
 
@@ -38,6 +41,27 @@ public interface AnnotationDao {
 
     List<Annotation> getAnnotationsForEvents(long streamId, long eventId);
 
+    /**
+     * Get many annotations in one go.
+     *
+     * @return A map of annotation id to annotation. Ids that do not exist will not be in the map.
+     */
+    Map<Long, Annotation> getAnnotations(Collection<Long> annotationIds);
+
+    /**
+     * Get the annotations linked to many events in one go.
+     *
+     * @return A map of event to the annotations linked to it. Events with no annotations will not be in the map.
+     */
+    Map<EventId, List<Annotation>> getAnnotationsForEvents(Collection<EventId> eventIds);
+
+    /**
+     * Find which of the supplied streams have events linked to annotations.
+     *
+     * @return The subset of the supplied stream ids that have annotations.
+     */
+    Set<Long> getAnnotatedStreamIds(Collection<Long> streamIds);
+
     List<AnnotationDetail> getAnnotationDetailsForEvents(long streamId, long eventId);
 
     AnnotationDetail createEntry(CreateEntryRequest request, UserName currentUser);
@@ -2,6 +2,7 @@ package stroom.annotation.impl;
 
 import stroom.annotation.api.AnnotationFields;
 import stroom.annotation.shared.Annotation;
+import stroom.annotation.shared.EventId;
 import stroom.expression.matcher.ExpressionMatcher;
 import stroom.expression.matcher.ExpressionMatcherFactory;
 import stroom.index.shared.IndexConstants;
@@ -10,6 +11,7 @@ import stroom.query.api.v2.ExpressionUtil;
 import stroom.query.api.v2.Query;
 import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValDate;
 import stroom.query.language.functions.ValLong;
 import stroom.query.language.functions.ValNull;
@@ -27,6 +29,7 @@ import jakarta.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -34,12 +37,16 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 class AnnotationReceiverDecoratorFactory implements AnnotationsDecoratorFactory {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(AnnotationReceiverDecoratorFactory.class);
 
+    // The number of rows to look up annotations for in one go
+    static final int LOOKUP_BATCH_SIZE = 500;
+
     private static final Map<String, Function<Annotation, Val>> VALUE_MAPPING = Map.ofEntries(
             nullSafeEntry(AnnotationFields.ID, Annotation::getId),
             nullSafeEntry(AnnotationFields.CREATED_ON, Annotation::getCreateTime, createTimeEpochMs ->
@@ -110,53 +117,15 @@ class AnnotationReceiverDecoratorFactory implements AnnotationsDecoratorFactory
 
         final Annotation defaultAnnotation = createDefaultAnnotation();
 
-        return values -> {
-            // TODO : At present we are just going to do this synchronously but in future we may do asynchronously
-            //  in which case we would increment the completion count after providing values.
-
-            // Filter based on annotation.
-            final List<Annotation> annotations = new ArrayList<>();
-            if (annotationIdIndex != null) {
-                final Long annotationId = getLong(values, annotationIdIndex);
-                if (annotationId != null) {
-                    annotations.add(annotationDao.get(annotationId));
-                }
-            }
-
-            if (annotations.size() == 0) {
-                final Long streamId = getLong(values, streamIdIndex);
-                final Long eventId = getLong(values, eventIdIndex);
-                if (streamId != null && eventId != null) {
-                    final List<Annotation> list = annotationDao.getAnnotationsForEvents(streamId, eventId);
-                    annotations.addAll(list);
-                }
-            }
-
-            if (annotations.size() == 0) {
-                annotations.add(defaultAnnotation);
-            }
-
-            Val[] copy = values;
-            for (final Annotation annotation : annotations) {
-                try {
-                    if (filter == null || filter.apply(annotation)) {
-                        // If we have more than one annotation then copy the original values into a new
-                        // values object for each new row.
-                        if (annotations.size() > 1 || copy.length < fieldIndex.size()) {
-                            copy = Arrays.copyOf(values, fieldIndex.size());
-                        }
-
-                        for (final String field : usedFields) {
-                            setValue(copy, fieldIndex, field, annotation);
-                        }
-
-                        valuesConsumer.accept(Val.of(copy));
-                    }
-                } catch (final RuntimeException e) {
-                    LOGGER.debug(e::getMessage, e);
-                }
-            }
-        };
+        return new AnnotationDecorator(
+                valuesConsumer,
+                fieldIndex,
+                annotationIdIndex,
+                streamIdIndex,
+                eventIdIndex,
+                filter,
+                usedFields,
+                defaultAnnotation);
     }
 
     private Annotation createDefaultAnnotation() {
@@ -262,4 +231,201 @@ class AnnotationReceiverDecoratorFactory implements AnnotationsDecoratorFactory
             }
         });
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Adds annotation values to each row. Rows passed one at a time are looked up one at a time. Rows passed
+     * as a {@link ValBatch} are looked up with one query for the annotation ids and one for the events in each
+     * part of the batch, and only events in streams known to have annotations are looked up at all. Rows are
+     * passed on in the order they were received.
+     * <p>
+     * Whether a stream has annotations is checked the first time the search returns rows from it and remembered
+     * for the rest of the search, so only the streams the search actually returns are ever checked. Annotations
+     * added to a stream that had none while the search is running will not be seen by batched lookups.
+     */
+    private class AnnotationDecorator implements ValuesConsumer {
+
+        private final ValuesConsumer valuesConsumer;
+        private final FieldIndex fieldIndex;
+        private final Integer annotationIdIndex;
+        private final Integer streamIdIndex;
+        private final Integer eventIdIndex;
+        private final Function<Annotation, Boolean> filter;
+        private final Set<String> usedFields;
+        private final Annotation defaultAnnotation;
+        private final Map<Long, Boolean> annotatedStreams = new ConcurrentHashMap<>();
+
+        AnnotationDecorator(final ValuesConsumer valuesConsumer,
+                            final FieldIndex fieldIndex,
+                            final Integer annotationIdIndex,
+                            final Integer streamIdIndex,
+                            final Integer eventIdIndex,
+                            final Function<Annotation, Boolean> filter,
+                            final Set<String> usedFields,
+                            final Annotation defaultAnnotation) {
+            this.valuesConsumer = valuesConsumer;
+            this.fieldIndex = fieldIndex;
+            this.annotationIdIndex = annotationIdIndex;
+            this.streamIdIndex = streamIdIndex;
+            this.eventIdIndex = eventIdIndex;
+            this.filter = filter;
+            this.usedFields = usedFields;
+            this.defaultAnnotation = defaultAnnotation;
+        }
+
+        @Override
+        public void accept(final Val[] values) {
+            // Filter based on annotation.
+            final List<Annotation> annotations = new ArrayList<>();
+            final Long annotationId = getAnnotationId(values);
+            if (annotationId != null) {
+                annotations.add(annotationDao.get(annotationId));
+            }
+
+            if (annotations.isEmpty()) {
+                final EventId eventId = getEventId(values);
+                if (eventId != null) {
+                    annotations.addAll(annotationDao.getAnnotationsForEvents(
+                            eventId.getStreamId(), eventId.getEventId()));
+                }
+            }
+
+            decorate(values, annotations, null);
+        }
+
+        @Override
+        public void accept(final ValBatch batch) {
+            for (int start = 0; start < batch.size(); start += LOOKUP_BATCH_SIZE) {
+                final int end = Math.min(batch.size(), start + LOOKUP_BATCH_SIZE);
+
+                // Find everything we need to look up for this part of the batch.
+                final Set<Long> annotationIds = new HashSet<>();
+                final List<EventId> rowEventIds = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    final Val[] values = batch.get(i);
+                    final Long annotationId = getAnnotationId(values);
+                    if (annotationId != null) {
+                        annotationIds.add(annotationId);
+                    } else {
+                        final EventId eventId = getEventId(values);
+                        if (eventId != null) {
+                            rowEventIds.add(eventId);
+                        }
+                    }
+                }
+                final Set<EventId> eventIds = filterAnnotatedStreams(rowEventIds);
+                final Map<Long, Annotation> annotationMap = annotationDao.getAnnotations(annotationIds);
+                final Map<EventId, List<Annotation>> eventAnnotationMap =
+                        annotationDao.getAnnotationsForEvents(eventIds);
+
+                final ValBatch output = new ValBatch(end - start);
+                for (int i = start; i < end; i++) {
+                    final Val[] values = batch.get(i);
+                    final List<Annotation> annotations = new ArrayList<>();
+                    final Long annotationId = getAnnotationId(values);
+                    if (annotationId != null) {
+                        annotations.add(annotationMap.get(annotationId));
+                    } else {
+                        final EventId eventId = getEventId(values);
+                        if (eventId != null) {
+                            annotations.addAll(eventAnnotationMap.getOrDefault(eventId, Collections.emptyList()));
+                        }
+                    }
+                    decorate(values, annotations, output);
+                }
+                if (!output.isEmpty()) {
+                    valuesConsumer.accept(output);
+                }
+            }
+        }
+
+        /**
+         * Output a row for each annotation that passes the filter, or a single row with the default
+         * annotation if there are no annotations. Rows are added to output if supplied, which is passed
+         * to the consumer whenever it fills up, else they are passed to the consumer one at a time.
+         */
+        private void decorate(final Val[] values,
+                              final List<Annotation> annotations,
+                              final ValBatch output) {
+            if (annotations.isEmpty()) {
+                annotations.add(defaultAnnotation);
+            }
+
+            Val[] copy = values;
+            for (final Annotation annotation : annotations) {
+                try {
+                    if (filter == null || filter.apply(annotation)) {
+                        // If we have more than one annotation then copy the original values into a new
+                        // values object for each new row.
+                        if (annotations.size() > 1 || copy.length < fieldIndex.size()) {
+                            copy = Arrays.copyOf(values, fieldIndex.size());
+                        }
+
+                        for (final String field : usedFields) {
+                            setValue(copy, fieldIndex, field, annotation);
+                        }
+
+                        if (output == null) {
+                            valuesConsumer.accept(Val.of(copy));
+                        } else if (output.add(Val.of(copy))) {
+                            valuesConsumer.accept(output);
+                            output.clear();
+                        }
+                    }
+                } catch (final RuntimeException e) {
+                    LOGGER.debug(e::getMessage, e);
+                }
+            }
+        }
+
+        private Long getAnnotationId(final Val[] values) {
+            if (annotationIdIndex == null) {
+                return null;
+            }
+            return getLong(values, annotationIdIndex);
+        }
+
+        private EventId getEventId(final Val[] values) {
+            if (streamIdIndex == null || eventIdIndex == null) {
+                return null;
+            }
+            final Long streamId = getLong(values, streamIdIndex);
+            final Long eventId = getLong(values, eventIdIndex);
+            if (streamId == null || eventId == null) {
+                return null;
+            }
+            return new EventId(streamId, eventId);
+        }
+
+        /**
+         * @return The events that are in streams with annotations. Streams that this search has not seen before
+         * are checked with one query and remembered.
+         */
+        private Set<EventId> filterAnnotatedStreams(final List<EventId> eventIds) {
+            final Set<Long> unknownStreamIds = new HashSet<>();
+            for (final EventId eventId : eventIds) {
+                if (!annotatedStreams.containsKey(eventId.getStreamId())) {
+                    unknownStreamIds.add(eventId.getStreamId());
+                }
+            }
+            if (!unknownStreamIds.isEmpty()) {
+                final Set<Long> annotated = annotationDao.getAnnotatedStreamIds(unknownStreamIds);
+                LOGGER.debug(() -> annotated.size() + " of " + unknownStreamIds.size() + " new streams annotated");
+                for (final Long streamId : unknownStreamIds) {
+                    annotatedStreams.put(streamId, annotated.contains(streamId));
+                }
+            }
+
+            final Set<EventId> result = new HashSet<>();
+            for (final EventId eventId : eventIds) {
+                if (annotatedStreams.getOrDefault(eventId.getStreamId(), Boolean.FALSE)) {
+                    result.add(eventId);
+                }
+            }
+            return result;
+        }
+    }
 }
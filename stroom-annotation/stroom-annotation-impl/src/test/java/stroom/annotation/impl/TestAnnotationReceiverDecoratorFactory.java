@@ -0,0 +1,231 @@
+package stroom.annotation.impl;
+
+import stroom.annotation.api.AnnotationFields;
+import stroom.annotation.shared.Annotation;
+import stroom.annotation.shared.EventId;
+import stroom.expression.matcher.ExpressionMatcher;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.index.shared.IndexConstants;
+import stroom.query.api.v2.ExpressionOperator;
+import stroom.query.api.v2.ExpressionTerm.Condition;
+import stroom.query.api.v2.Query;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
+import stroom.query.language.functions.ValLong;
+import stroom.query.language.functions.ValuesConsumer;
+import stroom.security.api.SecurityContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestAnnotationReceiverDecoratorFactory {
+
+    private static final long ANNOTATED_STREAM_ID = 1;
+    private static final long OTHER_STREAM_ID = 2;
+    private static final String OPEN = "Open";
+    private static final String CLOSED = "Closed";
+
+    @Mock
+    private AnnotationDao annotationDao;
+    @Mock
+    private ExpressionMatcherFactory expressionMatcherFactory;
+    @Mock
+    private SecurityContext securityContext;
+    @Captor
+    private ArgumentCaptor<Collection<EventId>> eventIdsCaptor;
+    @Captor
+    private ArgumentCaptor<Collection<Long>> streamIdsCaptor;
+
+    private final AnnotationConfig annotationConfig = new AnnotationConfig();
+    private final FieldIndex fieldIndex = new FieldIndex();
+    private final List<Val[]> output = new ArrayList<>();
+    private int streamIdPos;
+    private int eventIdPos;
+    private int statusPos;
+
+    @BeforeEach
+    void setup() {
+        streamIdPos = fieldIndex.create(IndexConstants.STREAM_ID);
+        eventIdPos = fieldIndex.create(IndexConstants.EVENT_ID);
+        statusPos = fieldIndex.create(AnnotationFields.STATUS);
+        when(securityContext.getUserIdentityForAudit()).thenReturn("user");
+    }
+
+    @Test
+    void testBatchChunking() {
+        mockAnnotatedStreams();
+        // Every 100th event in the annotated stream has an annotation.
+        mockEventAnnotations(eventId -> eventId.getEventId() % 100 == 0
+                ? List.of(createAnnotation(OPEN))
+                : List.of());
+
+        // Rows from the annotated stream span the first two lookup batches and the rest are from the other stream.
+        final int rowCount = (AnnotationReceiverDecoratorFactory.LOOKUP_BATCH_SIZE * 2) + 200;
+        final int annotatedRowCount = AnnotationReceiverDecoratorFactory.LOOKUP_BATCH_SIZE + 100;
+        final ValBatch batch = new ValBatch(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            batch.add(createRow(i < annotatedRowCount
+                    ? ANNOTATED_STREAM_ID
+                    : OTHER_STREAM_ID, i));
+        }
+
+        createDecorator(ExpressionOperator.builder().build()).accept(batch);
+
+        // Every row is output in order with the annotation status or the default.
+        assertThat(output).hasSize(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            final Val[] values = output.get(i);
+            assertThat(values[eventIdPos].toLong()).isEqualTo(i);
+            final String expected = i < annotatedRowCount && i % 100 == 0
+                    ? OPEN
+                    : annotationConfig.getCreateText();
+            assertThat(values[statusPos].toString()).isEqualTo(expected);
+        }
+
+        // One event lookup per chunk.
+        verify(annotationDao, times(3)).getAnnotationsForEvents(eventIdsCaptor.capture());
+        final List<Collection<EventId>> lookups = eventIdsCaptor.getAllValues();
+        assertThat(lookups.get(0)).hasSize(AnnotationReceiverDecoratorFactory.LOOKUP_BATCH_SIZE);
+        assertThat(lookups.get(1)).hasSize(100);
+        // Events in streams with no annotations are never looked up.
+        assertThat(lookups.get(2)).isEmpty();
+        assertThat(lookups)
+                .flatMap(eventIds -> eventIds)
+                .allMatch(eventId -> eventId.getStreamId() == ANNOTATED_STREAM_ID);
+
+        // Each stream is only checked for annotations the first time we see it.
+        verify(annotationDao, times(2)).getAnnotatedStreamIds(streamIdsCaptor.capture());
+        assertThat(streamIdsCaptor.getAllValues())
+                .containsExactly(Set.of(ANNOTATED_STREAM_ID), Set.of(OTHER_STREAM_ID));
+    }
+
+    @Test
+    void testRowsWithoutAnnotations() {
+        mockAnnotatedStreams();
+
+        final ValBatch batch = new ValBatch(10);
+        for (int i = 0; i < 10; i++) {
+            batch.add(createRow(OTHER_STREAM_ID, i));
+        }
+
+        createDecorator(ExpressionOperator.builder().build()).accept(batch);
+
+        assertThat(output).hasSize(10);
+        assertThat(output)
+                .extracting(values -> values[statusPos].toString())
+                .containsOnly(annotationConfig.getCreateText());
+        verify(annotationDao).getAnnotationsForEvents(eventIdsCaptor.capture());
+        assertThat(eventIdsCaptor.getValue()).isEmpty();
+    }
+
+    @Test
+    void testFilteredRows() {
+        when(expressionMatcherFactory.create(any()))
+                .thenAnswer(invocation -> new ExpressionMatcher(invocation.getArgument(0)));
+        mockAnnotatedStreams();
+        mockEventAnnotations(eventId -> switch ((int) eventId.getEventId()) {
+            case 0 -> List.of(createAnnotation(OPEN));
+            case 1 -> List.of(createAnnotation(CLOSED));
+            case 2 -> List.of(createAnnotation(OPEN), createAnnotation(CLOSED));
+            default -> List.of();
+        });
+
+        final ValBatch batch = new ValBatch(5);
+        for (int i = 0; i < 4; i++) {
+            batch.add(createRow(ANNOTATED_STREAM_ID, i));
+        }
+        batch.add(createRow(OTHER_STREAM_ID, 4));
+
+        createDecorator(ExpressionOperator.builder()
+                .addTerm(AnnotationFields.STATUS, Condition.EQUALS, OPEN)
+                .build())
+                .accept(batch);
+
+        // Only rows with a matching annotation are output, and only once for the matching annotation.
+        assertThat(output)
+                .extracting(values -> values[eventIdPos].toLong())
+                .containsExactly(0L, 2L);
+        assertThat(output)
+                .extracting(values -> values[statusPos].toString())
+                .containsOnly(OPEN);
+    }
+
+    private ValuesConsumer createDecorator(final ExpressionOperator expression) {
+        final AnnotationReceiverDecoratorFactory factory = new AnnotationReceiverDecoratorFactory(
+                annotationDao,
+                expressionMatcherFactory,
+                annotationConfig,
+                securityContext);
+        final ValuesConsumer consumer = new ValuesConsumer() {
+            @Override
+            public void accept(final Val[] values) {
+                output.add(values);
+            }
+
+            @Override
+            public void accept(final ValBatch batch) {
+                // Batches are reused so only keep the rows.
+                output.addAll(batch.asList());
+            }
+        };
+        return factory.create(consumer, fieldIndex, Query.builder().expression(expression).build());
+    }
+
+    private void mockAnnotatedStreams() {
+        when(annotationDao.getAnnotatedStreamIds(anyCollection())).thenAnswer(invocation -> {
+            final Set<Long> streamIds = new HashSet<>(invocation.getArgument(0));
+            streamIds.retainAll(Set.of(ANNOTATED_STREAM_ID));
+            return streamIds;
+        });
+    }
+
+    private void mockEventAnnotations(final Function<EventId, List<Annotation>> function) {
+        when(annotationDao.getAnnotationsForEvents(anyCollection())).thenAnswer(invocation -> {
+            final Collection<EventId> eventIds = invocation.getArgument(0);
+            final Map<EventId, List<Annotation>> map = new HashMap<>();
+            for (final EventId eventId : eventIds) {
+                final List<Annotation> annotations = function.apply(eventId);
+                if (!annotations.isEmpty()) {
+                    map.put(eventId, annotations);
+                }
+            }
+            return map;
+        });
+    }
+
+    private Val[] createRow(final long streamId, final long eventId) {
+        final Val[] values = new Val[fieldIndex.size()];
+        values[streamIdPos] = ValLong.create(streamId);
+        values[eventIdPos] = ValLong.create(eventId);
+        return values;
+    }
+
+    private Annotation createAnnotation(final String status) {
+        final Annotation annotation = new Annotation();
+        annotation.setStatus(status);
+        return annotation;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package stroom.pipeline;
+
+import stroom.docref.DocRef;
+import stroom.pipeline.errorhandler.ErrorReceiverProxy;
+import stroom.pipeline.errorhandler.LoggingErrorReceiver;
+import stroom.pipeline.factory.Pipeline;
+import stroom.pipeline.factory.PipelineDataCache;
+import stroom.pipeline.factory.PipelineFactory;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.pipeline.shared.data.PipelineData;
+import stroom.pipeline.shared.data.PipelineDataUtil;
+import stroom.pipeline.shared.data.PipelineProperty;
+import stroom.pipeline.shared.data.PipelinePropertyValue;
+import stroom.pipeline.state.RecordCount;
+import stroom.pipeline.xslt.XsltStore;
+import stroom.task.api.SimpleTaskContext;
+import stroom.test.AbstractProcessIntegrationTest;
+import stroom.test.common.StroomPipelineTestFileUtil;
+import stroom.util.io.FileUtil;
+import stroom.util.io.StreamUtil;
+import stroom.util.pipeline.scope.PipelineScopeRunnable;
+import stroom.util.shared.Severity;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestXsltFilterTransformThreads extends AbstractProcessIntegrationTest {
+
+    private static final String DIR = "TestXsltFilterTransformThreads/";
+
+    private static final int NUMBER_OF_RECORDS = 10;
+
+    private static final String INPUT = "TestXMLTransformer/XML-EVENTS.nxml";
+    private static final String PIPELINE = DIR + "TransformThreads.Pipeline.data.xml";
+    private static final String LOOKUP_XSLT = DIR + "TransformThreads-lookup.xsl";
+    private static final String MESSAGE_XSLT = DIR + "TransformThreads-message.xsl";
+
+    @Inject
+    private Provider<PipelineFactory> pipelineFactoryProvider;
+    @Inject
+    private Provider<ErrorReceiverProxy> errorReceiverProvider;
+    @Inject
+    private Provider<RecordCount> recordCountProvider;
+    @Inject
+    private XsltStore xsltStore;
+    @Inject
+    private PipelineStore pipelineStore;
+    @Inject
+    private PipelineDataCache pipelineDataCache;
+    @Inject
+    private PipelineScopeRunnable pipelineScopeRunnable;
+
+    @Test
+    void testParallel() {
+        final Result sequential = process(MESSAGE_XSLT, 1);
+        final Result parallel = process(MESSAGE_XSLT, 4);
+
+        // Records must be output in the order they were read along with the errors from each one.
+        assertThat(parallel.output()).isEqualTo(sequential.output());
+        assertThat(sequential.errors()).isEqualTo(NUMBER_OF_RECORDS / 2);
+        assertThat(parallel.errors()).isEqualTo(sequential.errors());
+        assertThat(parallel.warnings()).isZero();
+        assertThat(parallel.fatalErrors()).isZero();
+    }
+
+    @Test
+    void testLookupTransformedInSequence() {
+        final Result sequential = process(LOOKUP_XSLT, 1);
+        final Result parallel = process(LOOKUP_XSLT, 4);
+
+        // There are no reference loaders so every lookup logs an error.
+        assertThat(sequential.errors()).isEqualTo(NUMBER_OF_RECORDS);
+
+        // Lookups can only be made on the pipeline thread so we should get a warning and the records should be
+        // transformed in sequence with the same output and errors.
+        assertThat(parallel.output()).isEqualTo(sequential.output());
+        assertThat(parallel.errors()).isEqualTo(sequential.errors());
+        assertThat(parallel.warnings()).isEqualTo(sequential.warnings() + 1);
+        assertThat(parallel.fatalErrors()).isZero();
+    }
+
+    private DocRef createPipeline(final String xsltPath, final int transformThreads) {
+        final DocRef xsltRef = xsltStore.createDocument("Test XSLT");
+        final XsltDoc xsltDoc = xsltStore.readDocument(xsltRef);
+        xsltDoc.setData(StroomPipelineTestFileUtil.getString(xsltPath));
+        xsltStore.writeDocument(xsltDoc);
+
+        final String data = StroomPipelineTestFileUtil.getString(PIPELINE);
+        final DocRef pipelineRef = PipelineTestUtil.createTestPipeline(pipelineStore, data);
+        final PipelineDoc pipelineDoc = pipelineStore.readDocument(pipelineRef);
+        pipelineDoc.getPipelineData()
+                .addProperty(PipelineDataUtil.createProperty("translationFilter", "xslt", xsltRef));
+        final PipelineProperty threadsProperty = new PipelineProperty();
+        threadsProperty.setElement("translationFilter");
+        threadsProperty.setName("transformThreads");
+        threadsProperty.setValue(new PipelinePropertyValue(transformThreads));
+        pipelineDoc.getPipelineData().addProperty(threadsProperty);
+        pipelineStore.writeDocument(pipelineDoc);
+        return pipelineRef;
+    }
+
+    private Result process(final String xsltPath, final int transformThreads) {
+        final DocRef pipelineRef = createPipeline(xsltPath, transformThreads);
+        return pipelineScopeRunnable.scopeResult(() -> {
+            try (final InputStream inputStream = StroomPipelineTestFileUtil.getInputStream(INPUT)) {
+                final Path outputFile = getCurrentTestDir().resolve("TestXsltFilterTransformThreads.xml");
+                final Path outputLockFile = getCurrentTestDir().resolve("TestXsltFilterTransformThreads.xml.lock");
+                FileUtil.deleteFile(outputFile);
+                FileUtil.deleteFile(outputLockFile);
+
+                final LoggingErrorReceiver loggingErrorReceiver = new LoggingErrorReceiver();
+                errorReceiverProvider.get().setErrorReceiver(loggingErrorReceiver);
+
+                final PipelineDoc pipelineDoc = pipelineStore.readDocument(pipelineRef);
+                final PipelineData pipelineData = pipelineDataCache.get(pipelineDoc);
+                final Pipeline pipeline = pipelineFactoryProvider.get().create(pipelineData, new SimpleTaskContext());
+
+                pipeline.startProcessing();
+                pipeline.process(inputStream);
+                pipeline.endProcessing();
+
+                assertThat(recordCountProvider.get().getRead()).isEqualTo(NUMBER_OF_RECORDS);
+
+                return new Result(
+                        StreamUtil.fileToString(outputFile),
+                        loggingErrorReceiver.getTotal(Severity.WARNING),
+                        loggingErrorReceiver.getTotal(Severity.ERROR),
+                        loggingErrorReceiver.getTotal(Severity.FATAL_ERROR));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Result(String output, long warnings, long errors, long fatalErrors) {
+
+    }
+}
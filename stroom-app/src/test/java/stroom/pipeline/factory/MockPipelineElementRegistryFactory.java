@@ -132,6 +132,7 @@ public class MockPipelineElementRegistryFactory implements ElementRegistryFactor
                         null,
                         null,
                         null,
+                        null,
                         null);
             }
             if (elementClass.equals(SchemaFilterSplit.class)) {
@@ -85,6 +85,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -189,6 +197,21 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
 
     @Test
     void testSimple() {
+        doSimpleTest(1);
+    }
+
+    @Test
+    void testSimpleWithConcurrentLoads() {
+        doSimpleTest(2);
+
+        // Each lookup time needs an effective stream from both feeds so they are always loaded in pairs
+        Mockito.verify(mockReferenceDataLoader, Mockito.times(6))
+                .loadAsync(Mockito.any(RefStreamDefinition.class));
+        Mockito.verify(mockReferenceDataLoader, Mockito.never())
+                .load(Mockito.any(RefStreamDefinition.class));
+    }
+
+    private void doSimpleTest(final int maxConcurrentLoads) {
         pipelineScopeRunnable.scopeRunnable(() -> {
             final DocRef feed1Ref = feedStore.createDocument("TEST_FEED_1");
             final DocRef feed2Ref = feedStore.createDocument("TEST_FEED_2");
@@ -217,6 +240,7 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                 effectiveMetasByFeed.put(feedName, streamSet);
             }
 
+            final ExecutorService executorService = Executors.newFixedThreadPool(maxConcurrentLoads);
             try (CacheManager cacheManager = new CacheManagerImpl()) {
 
                 final EffectiveStreamCache effectiveStreamCache = new EffectiveStreamCache(
@@ -241,7 +265,8 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                         pipelineStore,
                         new MockSecurityContext(),
                         taskContextFactory,
-                        null);
+                        null,
+                        () -> new ReferenceDataConfig().withMaxConcurrentLoads(maxConcurrentLoads));
 
                 Map<RefStreamDefinition, Runnable> mockLoaderActionsMap = new HashMap<>();
 
@@ -259,13 +284,41 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                         mockLoaderActionsMap);
 
                 // set up the mock loader to load the appropriate data when triggered by a lookup call
-                Mockito.doAnswer(invocation -> {
-                    RefStreamDefinition refStreamDefinition = invocation.getArgument(0);
-
-                    Runnable action = mockLoaderActionsMap.get(refStreamDefinition);
-                    action.run();
-                    return null;
-                }).when(mockReferenceDataLoader).load(Mockito.any(RefStreamDefinition.class));
+                final AtomicInteger activeLoads = new AtomicInteger();
+                final AtomicInteger maxActiveLoads = new AtomicInteger();
+                // Loads are started together so make each one wait for the others to start before it
+                // loads. If they were run one after another this would time out.
+                final CyclicBarrier loadBarrier = new CyclicBarrier(maxConcurrentLoads);
+                if (maxConcurrentLoads > 1) {
+                    Mockito.doAnswer(invocation -> {
+                        RefStreamDefinition refStreamDefinition = invocation.getArgument(0);
+
+                        Runnable action = mockLoaderActionsMap.get(refStreamDefinition);
+                        return CompletableFuture.supplyAsync(() -> {
+                            maxActiveLoads.accumulateAndGet(activeLoads.incrementAndGet(), Math::max);
+                            try {
+                                loadBarrier.await(10, TimeUnit.SECONDS);
+                                action.run();
+                            } catch (final InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new RuntimeException(e);
+                            } catch (final BrokenBarrierException | TimeoutException e) {
+                                throw new RuntimeException(e);
+                            } finally {
+                                activeLoads.decrementAndGet();
+                            }
+                            return null;
+                        }, executorService);
+                    }).when(mockReferenceDataLoader).loadAsync(Mockito.any(RefStreamDefinition.class));
+                } else {
+                    Mockito.doAnswer(invocation -> {
+                        RefStreamDefinition refStreamDefinition = invocation.getArgument(0);
+
+                        Runnable action = mockLoaderActionsMap.get(refStreamDefinition);
+                        action.run();
+                        return null;
+                    }).when(mockReferenceDataLoader).load(Mockito.any(RefStreamDefinition.class));
+                }
 
                 // perform lookups (which will trigger a load if required) and assert the result
                 // Feed 1 contains these maps
@@ -287,8 +340,15 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                         pipelineReferences,
                         SID_TO_PF_4,
                         effectiveMetasByFeed.get(feed2Ref.getName()).asList());
+
+                if (maxConcurrentLoads > 1) {
+                    assertThat(maxActiveLoads)
+                            .hasValue(maxConcurrentLoads);
+                }
             } catch (final RuntimeException e) {
                 throw new RuntimeException(e.getMessage(), e);
+            } finally {
+                executorService.shutdownNow();
             }
         });
     }
@@ -344,7 +404,8 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                         pipelineStore,
                         new MockSecurityContext(),
                         taskContextFactory,
-                        null);
+                        null,
+                        ReferenceDataConfig::new);
 
                 Map<RefStreamDefinition, Runnable> mockLoaderActionsMap = new HashMap<>();
 
@@ -591,7 +652,8 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                         pipelineStore,
                         new MockSecurityContext(),
                         taskContextFactory,
-                        null);
+                        null,
+                        ReferenceDataConfig::new);
 
                 Map<RefStreamDefinition, Runnable> mockLoaderActionsMap = new HashMap<>();
 
@@ -674,7 +736,8 @@ class TestReferenceData extends AbstractCoreIntegrationTest {
                         pipelineStore,
                         new MockSecurityContext(),
                         taskContextFactory,
-                        null);
+                        null,
+                        ReferenceDataConfig::new);
 
                 Map<RefStreamDefinition, Runnable> mockLoaderActionsMap = new HashMap<>();
 
@@ -10,6 +10,7 @@ import stroom.config.common.CommonDbConfig;
 import stroom.config.common.NodeUriConfig;
 import stroom.config.common.PublicUriConfig;
 import stroom.config.common.UiUriConfig;
+import stroom.dictionary.impl.DictionaryConfig;
 import stroom.docstore.impl.db.DocStoreConfig;
 import stroom.event.logging.impl.LoggingConfig;
 import stroom.explorer.impl.ExplorerConfig;
@@ -35,6 +36,7 @@ import stroom.search.solr.SolrConfig;
 import stroom.servicediscovery.impl.ServiceDiscoveryConfig;
 import stroom.state.impl.StateConfig;
 import stroom.storedquery.impl.StoredQueryConfig;
+import stroom.task.impl.ExecutorConfig;
 import stroom.ui.config.shared.UiConfig;
 import stroom.util.io.StroomPathConfig;
 import stroom.util.shared.AbstractConfig;
@@ -72,8 +74,10 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
     public static final String PROP_NAME_CONTENT_PACK_IMPORT = "contentPackImport";
     public static final String PROP_NAME_CORE = "core";
     public static final String PROP_NAME_DATA = "data";
+    public static final String PROP_NAME_DICTIONARY = "dictionary";
     public static final String PROP_NAME_DOCSTORE = "docstore";
     public static final String PROP_NAME_ELASTIC = "elastic";
+    public static final String PROP_NAME_EXECUTOR = "executor";
     public static final String PROP_NAME_EXPLORER = "explorer";
     public static final String PROP_NAME_EXPORT = "export";
     public static final String PROP_NAME_FEED = "feed";
@@ -119,8 +123,10 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
     private final ContentPackImportConfig contentPackImportConfig;
     private final LegacyConfig legacyConfig;
     private final DataConfig dataConfig;
+    private final DictionaryConfig dictionaryConfig;
     private final DocStoreConfig docStoreConfig;
     private final ElasticConfig elasticConfig;
+    private final ExecutorConfig executorConfig;
     private final ExplorerConfig explorerConfig;
     private final ExportConfig exportConfig;
     private final FeedConfig feedConfig;
@@ -168,8 +174,10 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
                 new ContentPackImportConfig(),
                 new LegacyConfig(),
                 new DataConfig(),
+                new DictionaryConfig(),
                 new DocStoreConfig(),
                 new ElasticConfig(),
+                new ExecutorConfig(),
                 new ExplorerConfig(),
                 new ExportConfig(),
                 new FeedConfig(),
@@ -216,8 +224,10 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
                      @JsonProperty(PROP_NAME_CONTENT_PACK_IMPORT) final ContentPackImportConfig contentPackImportConfig,
                      @JsonProperty(PROP_NAME_CORE) final LegacyConfig legacyConfig,
                      @JsonProperty(PROP_NAME_DATA) final DataConfig dataConfig,
+                     @JsonProperty(PROP_NAME_DICTIONARY) final DictionaryConfig dictionaryConfig,
                      @JsonProperty(PROP_NAME_DOCSTORE) final DocStoreConfig docStoreConfig,
                      @JsonProperty(PROP_NAME_ELASTIC) final ElasticConfig elasticConfig,
+                     @JsonProperty(PROP_NAME_EXECUTOR) final ExecutorConfig executorConfig,
                      @JsonProperty(PROP_NAME_EXPLORER) final ExplorerConfig explorerConfig,
                      @JsonProperty(PROP_NAME_EXPORT) final ExportConfig exportConfig,
                      @JsonProperty(PROP_NAME_FEED) final FeedConfig feedConfig,
@@ -260,8 +270,10 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
         this.contentPackImportConfig = contentPackImportConfig;
         this.legacyConfig = legacyConfig;
         this.dataConfig = dataConfig;
+        this.dictionaryConfig = dictionaryConfig;
         this.docStoreConfig = docStoreConfig;
         this.elasticConfig = elasticConfig;
+        this.executorConfig = executorConfig;
         this.explorerConfig = explorerConfig;
         this.exportConfig = exportConfig;
         this.feedConfig = feedConfig;
@@ -369,6 +381,11 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
         return dataConfig;
     }
 
+    @JsonProperty(PROP_NAME_DICTIONARY)
+    public DictionaryConfig getDictionaryConfig() {
+        return dictionaryConfig;
+    }
+
     @JsonProperty(PROP_NAME_DOCSTORE)
     public DocStoreConfig getDocStoreConfig() {
         return docStoreConfig;
@@ -379,6 +396,11 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
         return elasticConfig;
     }
 
+    @JsonProperty(PROP_NAME_EXECUTOR)
+    public ExecutorConfig getExecutorConfig() {
+        return executorConfig;
+    }
+
     @JsonProperty(PROP_NAME_EXPLORER)
     public ExplorerConfig getExplorerConfig() {
         return explorerConfig;
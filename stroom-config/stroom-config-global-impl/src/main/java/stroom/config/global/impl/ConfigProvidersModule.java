@@ -195,6 +195,15 @@ public class ConfigProvidersModule extends AbstractModule {
                 stroom.data.store.impl.fs.FsVolumeConfig.class);
     }
 
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.dictionary.impl.DictionaryConfig getDictionaryConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.dictionary.impl.DictionaryConfig.class);
+    }
+
     @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -582,6 +591,15 @@ public class ConfigProvidersModule extends AbstractModule {
                 stroom.search.extraction.ExtractionConfig.class);
     }
 
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.search.extraction.ExtractionResultCacheConfig getExtractionResultCacheConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.search.extraction.ExtractionResultCacheConfig.class);
+    }
+
     @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -772,6 +790,15 @@ public class ConfigProvidersModule extends AbstractModule {
                 stroom.storedquery.impl.StoredQueryConfig.class);
     }
 
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.task.impl.ExecutorConfig getExecutorConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.task.impl.ExecutorConfig.class);
+    }
+
     @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -25,6 +25,7 @@ import stroom.security.shared.DocumentPermissionNames;
 import stroom.state.client.presenter.StateStoreSettingsPresenter.StateStoreSettingsView;
 import stroom.state.shared.ScyllaDbDoc;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 import stroom.state.shared.StateType;
 import stroom.util.shared.time.TimeUnit;
 
@@ -69,6 +70,7 @@ public class StateStoreSettingsPresenter
     protected void onRead(final DocRef docRef, final StateDoc doc, final boolean readOnly) {
         getView().onReadOnly(readOnly);
 
+        getView().setStorageType(doc.getStorageType());
         clusterPresenter.setSelectedEntityReference(doc.getScyllaDbRef());
         getView().setStateType(doc.getStateType());
         getView().setCondense(doc.isCondense());
@@ -81,6 +83,7 @@ public class StateStoreSettingsPresenter
 
     @Override
     protected StateDoc onWrite(final StateDoc doc) {
+        doc.setStorageType(getView().getStorageType());
         doc.setScyllaDbRef(clusterPresenter.getSelectedEntityReference());
         doc.setStateType(getView().getStateType());
         doc.setCondense(getView().isCondense());
@@ -95,6 +98,10 @@ public class StateStoreSettingsPresenter
     public interface StateStoreSettingsView
             extends View, ReadOnlyChangeHandler, HasUiHandlers<StateStoreSettingsUiHandlers> {
 
+        StateStorageType getStorageType();
+
+        void setStorageType(StateStorageType storageType);
+
         void setClusterView(final View view);
 
         StateType getStateType();
@@ -19,6 +19,7 @@ package stroom.state.client.view;
 import stroom.item.client.SelectionBox;
 import stroom.state.client.presenter.StateStoreSettingsPresenter.StateStoreSettingsView;
 import stroom.state.client.presenter.StateStoreSettingsUiHandlers;
+import stroom.state.shared.StateStorageType;
 import stroom.state.shared.StateType;
 import stroom.util.shared.time.TimeUnit;
 import stroom.widget.form.client.FormGroup;
@@ -41,6 +42,10 @@ public class StateStoreSettingsViewImpl
 
     private final Widget widget;
 
+    @UiField
+    SelectionBox<StateStorageType> storageType;
+    @UiField
+    FormGroup scyllaDBConnectionPanel;
     @UiField
     SimplePanel scyllaDBConnection;
     @UiField
@@ -70,6 +75,11 @@ public class StateStoreSettingsViewImpl
     public StateStoreSettingsViewImpl(final Binder binder) {
         widget = binder.createAndBindUi(this);
 
+        storageType.addItem(StateStorageType.SCYLLA_DB);
+        storageType.addItem(StateStorageType.LMDB);
+        storageType.setValue(StateStorageType.SCYLLA_DB);
+        updateStorageType();
+
         stateType.addItem(StateType.STATE);
         stateType.addItem(StateType.RANGED_STATE);
         stateType.addItem(StateType.TEMPORAL_STATE);
@@ -109,6 +119,25 @@ public class StateStoreSettingsViewImpl
         scyllaDBConnection.setWidget(view.asWidget());
     }
 
+    @Override
+    public StateStorageType getStorageType() {
+        return storageType.getValue();
+    }
+
+    @Override
+    public void setStorageType(final StateStorageType storageType) {
+        if (storageType == null) {
+            this.storageType.setValue(StateStorageType.SCYLLA_DB);
+        } else {
+            this.storageType.setValue(storageType);
+        }
+        updateStorageType();
+    }
+
+    private void updateStorageType() {
+        scyllaDBConnectionPanel.setVisible(!StateStorageType.LMDB.equals(storageType.getValue()));
+    }
+
     @Override
     public StateType getStateType() {
         return stateType.getValue();
@@ -216,6 +245,7 @@ public class StateStoreSettingsViewImpl
     @Override
     public void onReadOnly(final boolean readOnly) {
         this.readOnly = readOnly;
+        storageType.setEnabled(!readOnly);
         stateType.setEnabled(!readOnly);
         condense.setEnabled(!readOnly);
         condenseAge.setEnabled(!readOnly);
@@ -225,6 +255,12 @@ public class StateStoreSettingsViewImpl
         retainTimeUnit.setEnabled(!readOnly);
     }
 
+    @UiHandler("storageType")
+    public void onStorageType(final ValueChangeEvent<StateStorageType> event) {
+        updateStorageType();
+        getUiHandlers().onChange();
+    }
+
     @UiHandler("stateType")
     public void onStateType(final ValueChangeEvent<StateType> event) {
         updateStateType();
@@ -43,6 +43,7 @@ import java.util.Objects;
         "updateUser",
         "description",
         "scyllaDbRef",
+        "storageType",
         "stateType",
         "condense",
         "condenseAge",
@@ -63,6 +64,11 @@ public class StateDoc extends Doc {
      */
     @JsonProperty
     private DocRef scyllaDbRef;
+    /**
+     * Where the state is stored. Null is treated as {@link StateStorageType#SCYLLA_DB}.
+     */
+    @JsonProperty
+    private StateStorageType storageType;
     @JsonProperty
     private String description;
     @JsonProperty
@@ -95,6 +101,7 @@ public class StateDoc extends Doc {
             @JsonProperty("updateUser") final String updateUser,
             @JsonProperty("description") final String description,
             @JsonProperty("scyllaDbRef") final DocRef scyllaDbRef,
+            @JsonProperty("storageType") final StateStorageType storageType,
             @JsonProperty("stateType") final StateType stateType,
             @JsonProperty("condense") final boolean condense,
             @JsonProperty("condenseAge") final int condenseAge,
@@ -105,6 +112,7 @@ public class StateDoc extends Doc {
         super(type, uuid, name, version, createTimeMs, updateTimeMs, createUser, updateUser);
         this.description = description;
         this.scyllaDbRef = scyllaDbRef;
+        this.storageType = storageType;
         this.stateType = stateType;
         this.condense = condense;
         this.condenseAge = condenseAge;
@@ -146,6 +154,14 @@ public class StateDoc extends Doc {
         this.scyllaDbRef = scyllaDbRef;
     }
 
+    public StateStorageType getStorageType() {
+        return storageType;
+    }
+
+    public void setStorageType(final StateStorageType storageType) {
+        this.storageType = storageType;
+    }
+
     public StateType getStateType() {
         return stateType;
     }
@@ -225,6 +241,7 @@ public class StateDoc extends Doc {
                 retainForever == doc.retainForever &&
                 retainAge == doc.retainAge &&
                 Objects.equals(scyllaDbRef, doc.scyllaDbRef) &&
+                storageType == doc.storageType &&
                 Objects.equals(description, doc.description) &&
                 stateType == doc.stateType &&
                 condenseTimeUnit == doc.condenseTimeUnit &&
@@ -235,6 +252,7 @@ public class StateDoc extends Doc {
     public int hashCode() {
         return Objects.hash(super.hashCode(),
                 scyllaDbRef,
+                storageType,
                 description,
                 stateType,
                 condense,
@@ -249,6 +267,7 @@ public class StateDoc extends Doc {
     public String toString() {
         return "StateDoc{" +
                 "scyllaDbRef=" + scyllaDbRef +
+                ", storageType=" + storageType +
                 ", description='" + description + '\'' +
                 ", stateType=" + stateType +
                 ", condense=" + condense +
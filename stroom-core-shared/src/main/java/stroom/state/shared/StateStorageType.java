@@ -0,0 +1,19 @@
+package stroom.state.shared;
+
+import stroom.docref.HasDisplayValue;
+
+public enum StateStorageType implements HasDisplayValue {
+    SCYLLA_DB("ScyllaDB"),
+    LMDB("LMDB");
+
+    private final String displayValue;
+
+    StateStorageType(final String displayValue) {
+        this.displayValue = displayValue;
+    }
+
+    @Override
+    public String getDisplayValue() {
+        return displayValue;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.dictionary.impl;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.LoadingStroomCache;
+import stroom.dictionary.api.WordListProvider;
+import stroom.dictionary.shared.DictionaryDoc;
+import stroom.docref.DocRef;
+import stroom.security.api.SecurityContext;
+import stroom.security.shared.DocumentPermissionNames;
+import stroom.util.NullSafe;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventHandler;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.Clearable;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the split words of each dictionary so that searches, expression matchers and analytic rules that use
+ * the same dictionary don't each have to read and split it, including all of its imports, every time.
+ * <p>
+ * Words are loaded as the processing user. The user must still be able to read the dictionary and every
+ * dictionary it imports to get the cached words, otherwise the store is read as the user. An entry is
+ * invalidated when the dictionary or any dictionary it imports changes.
+ */
+@Singleton
+@EntityEventHandler(
+        type = DictionaryDoc.DOCUMENT_TYPE,
+        action = {EntityAction.CREATE, EntityAction.DELETE, EntityAction.UPDATE, EntityAction.CLEAR_CACHE})
+class CachedWordListProvider implements WordListProvider, Clearable, EntityEvent.Handler {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(CachedWordListProvider.class);
+
+    private static final String CACHE_NAME = "Dictionary Word List Cache";
+
+    private final DictionaryStoreImpl dictionaryStore;
+    private final SecurityContext securityContext;
+    private final LoadingStroomCache<DocRef, Words> cache;
+
+    @Inject
+    CachedWordListProvider(final DictionaryStoreImpl dictionaryStore,
+                           final SecurityContext securityContext,
+                           final CacheManager cacheManager,
+                           final Provider<DictionaryConfig> dictionaryConfigProvider) {
+        this.dictionaryStore = dictionaryStore;
+        this.securityContext = securityContext;
+        cache = cacheManager.createLoadingCache(
+                CACHE_NAME,
+                () -> dictionaryConfigProvider.get().getWordListCache(),
+                this::create);
+    }
+
+    @Override
+    public String getCombinedData(final DocRef dictionaryRef) {
+        return dictionaryStore.getCombinedData(dictionaryRef);
+    }
+
+    @Override
+    public String[] getWords(final DocRef dictionaryRef) {
+        final Words cached = cache.get(dictionaryRef);
+        if (cached != null && cached.canRead(securityContext)) {
+            LOGGER.trace(() -> "Using cached words for " + dictionaryRef);
+            return Arrays.copyOf(cached.words, cached.words.length);
+        }
+
+        // Read the words as the current user so the normal permission checks are made.
+        return dictionaryStore.getWords(dictionaryRef);
+    }
+
+    private Words create(final DocRef dictionaryRef) {
+        return securityContext.asProcessingUserResult(() -> {
+            final Set<DocRef> dictionaryRefs = new HashSet<>();
+            final String[] words = dictionaryStore.getWords(dictionaryRef, dictionaryRefs);
+            if (words == null) {
+                // Nothing to cache, a null value is not held by the cache.
+                return null;
+            }
+            LOGGER.debug(() -> "Caching " + words.length + " words for " + dictionaryRef);
+            return new Words(words, dictionaryRefs.stream()
+                    .map(DocRef::getUuid)
+                    .collect(Collectors.toUnmodifiableSet()));
+        });
+    }
+
+    @Override
+    public List<DocRef> findByNames(final List<String> names, final boolean allowWildCards) {
+        return dictionaryStore.findByNames(names, allowWildCards);
+    }
+
+    @Override
+    public Set<DocRef> listDocuments() {
+        return dictionaryStore.listDocuments();
+    }
+
+    @Override
+    public void clear() {
+        LOGGER.debug(() -> "Clearing " + CACHE_NAME);
+        cache.clear();
+    }
+
+    @Override
+    public void onChange(final EntityEvent event) {
+        LOGGER.debug(() -> "Received entity event " + event);
+        final EntityAction eventAction = event.getAction();
+
+        switch (eventAction) {
+            // A new dictionary may be an import that was missing when other dictionaries were cached.
+            case CLEAR_CACHE, CREATE -> clear();
+            case UPDATE, DELETE -> {
+                NullSafe.consume(event.getDocRef(), DocRef::getUuid, this::invalidate);
+                NullSafe.consume(event.getOldDocRef(), DocRef::getUuid, this::invalidate);
+            }
+            default -> LOGGER.debug(() -> "Unexpected event action " + eventAction);
+        }
+    }
+
+    private void invalidate(final String uuid) {
+        // Invalidate the dictionary itself along with any dictionary that imports it.
+        LOGGER.debug(() -> "Invalidating entries that use dictionary " + uuid + " in " + CACHE_NAME);
+        cache.invalidateEntries((docRef, words) -> words.dictionaryUuids.contains(uuid));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Words(String[] words, Set<String> dictionaryUuids) {
+
+        boolean canRead(final SecurityContext securityContext) {
+            for (final String uuid : dictionaryUuids) {
+                if (!securityContext.hasDocumentPermission(uuid, DocumentPermissionNames.READ)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package stroom.dictionary.impl;
+
+import stroom.util.cache.CacheConfig;
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+import stroom.util.time.StroomDuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder(alphabetic = true)
+public class DictionaryConfig extends AbstractConfig implements IsStroomConfig {
+
+    public static final String PROP_NAME_WORD_LIST_CACHE = "wordListCache";
+
+    private final CacheConfig wordListCache;
+
+    public DictionaryConfig() {
+        wordListCache = CacheConfig.builder()
+                .maximumSize(100L)
+                .expireAfterAccess(StroomDuration.ofMinutes(10))
+                .build();
+    }
+
+    @SuppressWarnings("unused")
+    @JsonCreator
+    public DictionaryConfig(@JsonProperty(PROP_NAME_WORD_LIST_CACHE) final CacheConfig wordListCache) {
+        this.wordListCache = wordListCache;
+    }
+
+    @JsonProperty(PROP_NAME_WORD_LIST_CACHE)
+    @JsonPropertyDescription("The cache of the words of each dictionary, including the words of any dictionaries " +
+            "that it imports, used by searches, expression matching and analytic rules.")
+    public CacheConfig getWordListCache() {
+        return wordListCache;
+    }
+
+    @Override
+    public String toString() {
+        return "DictionaryConfig{" +
+                "wordListCache=" + wordListCache +
+                '}';
+    }
+}
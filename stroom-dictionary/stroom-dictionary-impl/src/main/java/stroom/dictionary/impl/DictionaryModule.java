@@ -17,6 +17,9 @@
 package stroom.dictionary.impl;
 
 import stroom.dictionary.api.WordListProvider;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.guice.GuiceUtil;
+import stroom.util.shared.Clearable;
 
 import com.google.inject.AbstractModule;
 
@@ -25,6 +28,11 @@ public class DictionaryModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(DictionaryStore.class).to(DictionaryStoreImpl.class);
-        bind(WordListProvider.class).to(DictionaryStoreImpl.class);
+        bind(WordListProvider.class).to(CachedWordListProvider.class);
+
+        GuiceUtil.buildMultiBinder(binder(), Clearable.class)
+                .addBinding(CachedWordListProvider.class);
+        GuiceUtil.buildMultiBinder(binder(), EntityEvent.Handler.class)
+                .addBinding(CachedWordListProvider.class);
     }
 }
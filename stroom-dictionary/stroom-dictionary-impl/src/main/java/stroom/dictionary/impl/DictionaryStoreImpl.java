@@ -230,8 +230,15 @@ class DictionaryStoreImpl implements DictionaryStore, WordListProvider {
 
     @Override
     public String[] getWords(final DocRef dictionaryRef) {
+        return getWords(dictionaryRef, new HashSet<>());
+    }
+
+    /**
+     * @param visited Populated with the dictionary and all the dictionaries it imports.
+     */
+    String[] getWords(final DocRef dictionaryRef, final Set<DocRef> visited) {
         // returns null is doc not found
-        final String words = getCombinedData(dictionaryRef);
+        final String words = doGetCombinedData(dictionaryRef, visited);
         if (words == null) {
             return null;
         } else if (words.isBlank()) {
@@ -0,0 +1,174 @@
+package stroom.dictionary.impl;
+
+import stroom.cache.impl.CacheManagerImpl;
+import stroom.dictionary.shared.DictionaryDoc;
+import stroom.docref.DocRef;
+import stroom.docstore.api.Store;
+import stroom.docstore.api.StoreFactory;
+import stroom.security.api.SecurityContext;
+import stroom.security.shared.DocumentPermissionNames;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class TestCachedWordListProvider {
+
+    @Mock
+    private DictionarySerialiser mockDictionarySerialiser;
+    @Mock
+    private Store<DictionaryDoc> mockStore;
+    @Mock
+    private StoreFactory mockStoreFactory;
+    @Mock
+    private SecurityContext mockSecurityContext;
+
+    private CacheManagerImpl cacheManager;
+    private CachedWordListProvider cachedWordListProvider;
+
+    @BeforeEach
+    void beforeEach() {
+        Mockito.when(mockStoreFactory.createStore(
+                        Mockito.any(),
+                        Mockito.any(),
+                        Mockito.eq(DictionaryDoc.class)))
+                .thenReturn(mockStore);
+        Mockito.lenient().when(mockSecurityContext.asProcessingUserResult(Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+        cacheManager = new CacheManagerImpl();
+        cachedWordListProvider = new CachedWordListProvider(
+                new DictionaryStoreImpl(mockStoreFactory, mockDictionarySerialiser),
+                mockSecurityContext,
+                cacheManager,
+                DictionaryConfig::new);
+    }
+
+    @AfterEach
+    void afterEach() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testCached() {
+        final DocRef importRef = createDoc("one\ntwo", "import");
+        final DocRef docRef = createDoc("three", "doc", importRef);
+        Mockito.when(mockSecurityContext.hasDocumentPermission(
+                        Mockito.anyString(), Mockito.eq(DocumentPermissionNames.READ)))
+                .thenReturn(true);
+
+        assertThat(cachedWordListProvider.getWords(docRef))
+                .containsExactly("one", "two", "three");
+        assertThat(cachedWordListProvider.getWords(docRef))
+                .containsExactly("one", "two", "three");
+
+        Mockito.verify(mockStore, Mockito.times(1)).readDocument(docRef);
+        Mockito.verify(mockStore, Mockito.times(1)).readDocument(importRef);
+    }
+
+    @Test
+    void testClearedOnChange() {
+        final DocRef docRef = createDoc("one", "doc");
+        Mockito.when(mockSecurityContext.hasDocumentPermission(
+                        Mockito.anyString(), Mockito.eq(DocumentPermissionNames.READ)))
+                .thenReturn(true);
+
+        cachedWordListProvider.getWords(docRef);
+        cachedWordListProvider.onChange(new EntityEvent(docRef, EntityAction.UPDATE));
+        cachedWordListProvider.getWords(docRef);
+
+        Mockito.verify(mockStore, Mockito.times(2)).readDocument(docRef);
+    }
+
+    @Test
+    void testNoPermission() {
+        final DocRef docRef = createDoc("one", "doc");
+        Mockito.when(mockSecurityContext.hasDocumentPermission(
+                        Mockito.anyString(), Mockito.eq(DocumentPermissionNames.READ)))
+                .thenReturn(false);
+
+        cachedWordListProvider.getWords(docRef);
+        cachedWordListProvider.getWords(docRef);
+
+        // The words are cached by the processing user but the user can't see them so each call goes to the
+        // store so it can apply its own permission checks.
+        Mockito.verify(mockStore, Mockito.times(3)).readDocument(docRef);
+    }
+
+    @Test
+    void testInvalidatedOnImportChange() {
+        final DocRef importRef = createDoc("one", "import");
+        final DocRef docRef = createDoc("two", "doc", importRef);
+        final DocRef otherRef = createDoc("three", "other");
+        Mockito.when(mockSecurityContext.hasDocumentPermission(
+                        Mockito.anyString(), Mockito.eq(DocumentPermissionNames.READ)))
+                .thenReturn(true);
+
+        cachedWordListProvider.getWords(docRef);
+        cachedWordListProvider.getWords(otherRef);
+
+        // Changing the import must invalidate the dictionary that imports it but nothing else.
+        createDoc(importRef, "four");
+        cachedWordListProvider.onChange(new EntityEvent(importRef, EntityAction.UPDATE));
+
+        assertThat(cachedWordListProvider.getWords(docRef))
+                .containsExactly("four", "two");
+        assertThat(cachedWordListProvider.getWords(otherRef))
+                .containsExactly("three");
+
+        Mockito.verify(mockStore, Mockito.times(2)).readDocument(docRef);
+        Mockito.verify(mockStore, Mockito.times(1)).readDocument(otherRef);
+    }
+
+    @Test
+    void testClearedOnCreate() {
+        final DocRef docRef = createDoc("one", "doc");
+        Mockito.when(mockSecurityContext.hasDocumentPermission(
+                        Mockito.anyString(), Mockito.eq(DocumentPermissionNames.READ)))
+                .thenReturn(true);
+
+        cachedWordListProvider.getWords(docRef);
+        // A new dictionary could be a previously missing import of any cached dictionary.
+        final DocRef newRef = DictionaryDoc.buildDocRef()
+                .randomUuid()
+                .name("new")
+                .build();
+        cachedWordListProvider.onChange(new EntityEvent(newRef, EntityAction.CREATE));
+        cachedWordListProvider.getWords(docRef);
+
+        Mockito.verify(mockStore, Mockito.times(2)).readDocument(docRef);
+    }
+
+    private DocRef createDoc(final String data, final String name, final DocRef... imports) {
+        final DocRef docRef = DictionaryDoc.buildDocRef()
+                .randomUuid()
+                .name(name)
+                .build();
+        createDoc(docRef, data, imports);
+        return docRef;
+    }
+
+    private void createDoc(final DocRef docRef, final String data, final DocRef... imports) {
+        final DictionaryDoc dictionaryDoc = new DictionaryDoc();
+        dictionaryDoc.setUuid(docRef.getUuid());
+        dictionaryDoc.setName(docRef.getName());
+        dictionaryDoc.setData(data);
+        if (imports != null && imports.length > 0) {
+            dictionaryDoc.setImports(List.of(imports));
+        }
+
+        Mockito.when(mockStore.readDocument(Mockito.eq(docRef)))
+                .thenReturn(dictionaryDoc);
+    }
+}
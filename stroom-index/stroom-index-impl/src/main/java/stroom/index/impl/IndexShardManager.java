@@ -22,6 +22,7 @@ import stroom.index.shared.FindIndexShardCriteria;
 import stroom.index.shared.IndexShard;
 import stroom.index.shared.IndexShard.IndexShardStatus;
 import stroom.index.shared.LuceneIndexDoc;
+import stroom.index.shared.LuceneVersionUtil;
 import stroom.node.api.NodeInfo;
 import stroom.security.api.SecurityContext;
 import stroom.security.shared.DocumentPermissionNames;
@@ -69,6 +70,7 @@ public class IndexShardManager {
     private final IndexStore indexStore;
     private final IndexShardDao indexShardDao;
     private final IndexShardWriterCache indexShardWriterCache;
+    private final LuceneProviderFactory luceneProviderFactory;
     private final NodeInfo nodeInfo;
     private final Executor executor;
     private final TaskContextFactory taskContextFactory;
@@ -80,6 +82,7 @@ public class IndexShardManager {
     IndexShardManager(final IndexStore indexStore,
                       final IndexShardDao indexShardDao,
                       final IndexShardWriterCache indexShardWriterCache,
+                      final LuceneProviderFactory luceneProviderFactory,
                       final NodeInfo nodeInfo,
                       final Executor executor,
                       final TaskContextFactory taskContextFactory,
@@ -88,6 +91,7 @@ public class IndexShardManager {
         this.indexStore = indexStore;
         this.indexShardDao = indexShardDao;
         this.indexShardWriterCache = indexShardWriterCache;
+        this.luceneProviderFactory = luceneProviderFactory;
         this.nodeInfo = nodeInfo;
         this.executor = executor;
         this.taskContextFactory = taskContextFactory;
@@ -171,6 +175,11 @@ public class IndexShardManager {
             LOGGER.debug(() -> LogUtil.message("deleteFromDisk() - shard ID: {}, dir: '{}'",
                     shard.getId(), LogUtil.path(dir)));
 
+            // Make sure no searcher is holding the shard files open.
+            luceneProviderFactory
+                    .get(LuceneVersionUtil.getLuceneVersion(shard.getIndexVersion()))
+                    .closeShardSearcher(shard.getId());
+
             // See if there are any files in the directory.
             if (!Files.isDirectory(dir) || FileUtil.deleteDir(dir)) {
                 // The directory either doesn't exist or we have
@@ -19,6 +19,7 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
     private final int maxThreadsPerTask;
     private final CacheConfig remoteSearchResultCache;
     private final CacheConfig indexShardSearcherCache;
+    private final StroomDuration searcherRefreshInterval;
 
     public IndexShardSearchConfig() {
         maxDocIdQueueSize = 1_000_000;
@@ -28,20 +29,23 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
                 .build();
         indexShardSearcherCache = CacheConfig.builder()
-                .maximumSize(2L)
+                .maximumSize(100L)
                 .expireAfterAccess(StroomDuration.ofMinutes(1))
                 .build();
+        searcherRefreshInterval = StroomDuration.ofSeconds(5);
     }
 
     @JsonCreator
     public IndexShardSearchConfig(@JsonProperty("maxDocIdQueueSize") final int maxDocIdQueueSize,
                                   @JsonProperty("maxThreadsPerTask") final int maxThreadsPerTask,
                                   @JsonProperty("remoteSearchResultCache") final CacheConfig remoteSearchResultCache,
-                                  @JsonProperty("indexShardSearcherCache") final CacheConfig indexShardSearcherCache) {
+                                  @JsonProperty("indexShardSearcherCache") final CacheConfig indexShardSearcherCache,
+                                  @JsonProperty("searcherRefreshInterval") final StroomDuration searcherRefreshInterval) {
         this.maxDocIdQueueSize = maxDocIdQueueSize;
         this.maxThreadsPerTask = maxThreadsPerTask;
         this.remoteSearchResultCache = remoteSearchResultCache;
         this.indexShardSearcherCache = indexShardSearcherCache;
+        this.searcherRefreshInterval = searcherRefreshInterval;
     }
 
     @JsonPropertyDescription("The maximum number of doc ids that will be queued ready for stored data to be " +
@@ -59,10 +63,18 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
         return remoteSearchResultCache;
     }
 
+    @JsonPropertyDescription("The cache of open index shard searchers that are shared between searches")
     public CacheConfig getIndexShardSearcherCache() {
         return indexShardSearcherCache;
     }
 
+    @JsonPropertyDescription("How long a cached searcher for an index shard that is being written to can be used " +
+            "before it is refreshed to include documents added since it was opened. Searchers are also refreshed " +
+            "whenever the shard is flushed.")
+    public StroomDuration getSearcherRefreshInterval() {
+        return searcherRefreshInterval;
+    }
+
     @Override
     public String toString() {
         return "IndexShardSearchConfig{" +
@@ -70,6 +82,7 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
                 ", maxThreadsPerTask=" + maxThreadsPerTask +
                 ", remoteSearchResultCache=" + remoteSearchResultCache +
                 ", indexShardSearcherCache=" + indexShardSearcherCache +
+                ", searcherRefreshInterval=" + searcherRefreshInterval +
                 '}';
     }
 }
@@ -20,6 +20,7 @@ public class IndexWriterConfig extends AbstractConfig implements IsStroomConfig
     @Deprecated
     private final IndexShardWriterCacheConfig indexShardWriterCacheConfig;
     private final StroomDuration slowIndexWriteWarningThreshold;
+    private final boolean writeTextDocValues;
 
     public IndexWriterConfig() {
         activeShardCache = CacheConfig.builder()
@@ -35,6 +36,7 @@ public class IndexWriterConfig extends AbstractConfig implements IsStroomConfig
                 .withMaxItems(100)
                 .build();
         slowIndexWriteWarningThreshold = StroomDuration.ofSeconds(1);
+        writeTextDocValues = false;
     }
 
     @SuppressWarnings("unused")
@@ -43,11 +45,13 @@ public class IndexWriterConfig extends AbstractConfig implements IsStroomConfig
             @JsonProperty("activeShardCache") final CacheConfig activeShardCache,
             @JsonProperty("indexShardWriterCache") final CacheConfig indexShardWriterCache,
             @JsonProperty("cache") final IndexShardWriterCacheConfig indexShardWriterCacheConfig,
-            @JsonProperty("slowIndexWriteWarningThreshold") final StroomDuration slowIndexWriteWarningThreshold) {
+            @JsonProperty("slowIndexWriteWarningThreshold") final StroomDuration slowIndexWriteWarningThreshold,
+            @JsonProperty("writeTextDocValues") final boolean writeTextDocValues) {
         this.activeShardCache = activeShardCache;
         this.indexShardWriterCache = indexShardWriterCache;
         this.indexShardWriterCacheConfig = indexShardWriterCacheConfig;
         this.slowIndexWriteWarningThreshold = slowIndexWriteWarningThreshold;
+        this.writeTextDocValues = writeTextDocValues;
     }
 
     public CacheConfig getActiveShardCache() {
@@ -72,6 +76,14 @@ public class IndexWriterConfig extends AbstractConfig implements IsStroomConfig
         return slowIndexWriteWarningThreshold;
     }
 
+    @JsonProperty
+    @JsonPropertyDescription("If true, stored text fields will also be written to index shards as doc values. " +
+            "This allows search to read the values of these fields without reading the stored fields for each " +
+            "hit, at the cost of larger shards. Numeric fields always have doc values.")
+    public boolean isWriteTextDocValues() {
+        return writeTextDocValues;
+    }
+
     @Override
     public String toString() {
         return "IndexWriterConfig{" +
@@ -79,6 +91,7 @@ public class IndexWriterConfig extends AbstractConfig implements IsStroomConfig
                 ", indexShardWriterCache=" + indexShardWriterCache +
                 ", indexShardWriterCacheConfig=" + indexShardWriterCacheConfig +
                 ", slowIndexWriteWarningThreshold=" + slowIndexWriteWarningThreshold +
+                ", writeTextDocValues=" + writeTextDocValues +
                 '}';
     }
 }
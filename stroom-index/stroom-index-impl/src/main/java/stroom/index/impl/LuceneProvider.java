@@ -21,6 +21,13 @@ public interface LuceneProvider {
     IndexShardWriter createIndexShardWriter(IndexShard indexShard,
                                             int maxDocumentCount);
 
+    /**
+     * Close any searcher that is being kept open for the supplied shard, e.g. because the shard is about to be
+     * deleted.
+     */
+    default void closeShardSearcher(long indexShardId) {
+    }
+
     IndexSystemInfoProvider getIndexSystemInfoProvider();
 
     LuceneVersion getLuceneVersion();
@@ -11,6 +11,14 @@ import java.util.concurrent.atomic.LongAdder;
 
 public interface LuceneShardSearcher {
 
+    /**
+     * @return False if this searcher can tell that no document in the shard can match the query, so the shard
+     * does not need to be searched.
+     */
+    default boolean canMatch(final IndexShard indexShard) {
+        return true;
+    }
+
     void searchShard(final TaskContext taskContext,
                      final IndexShard indexShard,
                      final IndexField[] storedFields,
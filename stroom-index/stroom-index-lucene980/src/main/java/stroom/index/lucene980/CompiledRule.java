@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene980;
+
+import stroom.index.lucene980.RulePredicateIndex.FieldKey;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * A rule expression that has been compiled into a boolean tree over the leaf predicates of a
+ * {@link RulePredicateIndex}.
+ */
+class CompiledRule {
+
+    private final RulePredicateIndex index;
+    private final Node root;
+
+    CompiledRule(final RulePredicateIndex index, final Node root) {
+        this.index = index;
+        this.root = root;
+    }
+
+    RulePredicateIndex getIndex() {
+        return index;
+    }
+
+    boolean matches(final Map<FieldKey, BitSet> leafMatches) {
+        return root.matches(leafMatches);
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+
+    // --------------------------------------------------------------------------------
+
+
+    interface Node {
+
+        boolean matches(Map<FieldKey, BitSet> leafMatches);
+    }
+
+    enum ConstantNode implements Node {
+        MATCH_ALL(true),
+        MATCH_NONE(false);
+
+        private final boolean match;
+
+        ConstantNode(final boolean match) {
+            this.match = match;
+        }
+
+        @Override
+        public boolean matches(final Map<FieldKey, BitSet> leafMatches) {
+            return match;
+        }
+    }
+
+    record LeafNode(FieldKey fieldKey, int id) implements Node {
+
+        @Override
+        public boolean matches(final Map<FieldKey, BitSet> leafMatches) {
+            final BitSet bitSet = leafMatches.get(fieldKey);
+            return bitSet != null && bitSet.get(id);
+        }
+    }
+
+    /**
+     * Mirrors the matching semantics of a Lucene boolean query: every required clause must match, no prohibited
+     * clause may match and at least {@code minShouldMatch} optional clauses must match.
+     */
+    record BooleanNode(Node[] required,
+                       Node[] prohibited,
+                       Node[] optional,
+                       int minShouldMatch) implements Node {
+
+        @Override
+        public boolean matches(final Map<FieldKey, BitSet> leafMatches) {
+            for (final Node node : required) {
+                if (!node.matches(leafMatches)) {
+                    return false;
+                }
+            }
+            for (final Node node : prohibited) {
+                if (node.matches(leafMatches)) {
+                    return false;
+                }
+            }
+            if (minShouldMatch > 0) {
+                int count = 0;
+                for (final Node node : optional) {
+                    if (node.matches(leafMatches)) {
+                        count++;
+                        if (count >= minShouldMatch) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.IndexField;
+import stroom.index.lucene980.CompiledRule.BooleanNode;
+import stroom.index.lucene980.CompiledRule.ConstantNode;
+import stroom.index.lucene980.CompiledRule.LeafNode;
+import stroom.index.lucene980.CompiledRule.Node;
+import stroom.index.lucene980.RulePredicateIndex.AnalysedValue;
+import stroom.index.lucene980.RulePredicateIndex.AutomatonLeaf;
+import stroom.index.lucene980.RulePredicateIndex.FieldKey;
+import stroom.index.lucene980.RulePredicateIndex.Leaf;
+import stroom.index.lucene980.RulePredicateIndex.PhraseLeaf;
+import stroom.index.lucene980.RulePredicateIndex.PointRangeLeaf;
+import stroom.index.lucene980.RulePredicateIndex.PointSetLeaf;
+import stroom.index.lucene980.RulePredicateIndex.TermLeaf;
+import stroom.index.lucene980.analyser.AnalyzerFactory;
+import stroom.index.shared.LuceneIndexField;
+import stroom.search.extraction.FieldValue;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Singleton;
+import org.apache.lucene980.analysis.Analyzer;
+import org.apache.lucene980.analysis.TokenStream;
+import org.apache.lucene980.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene980.analysis.tokenattributes.TermToBytesRefAttribute;
+import org.apache.lucene980.document.DoublePoint;
+import org.apache.lucene980.document.Field;
+import org.apache.lucene980.document.FloatPoint;
+import org.apache.lucene980.document.IntPoint;
+import org.apache.lucene980.document.LongPoint;
+import org.apache.lucene980.search.AutomatonQuery;
+import org.apache.lucene980.search.BooleanClause;
+import org.apache.lucene980.search.BooleanQuery;
+import org.apache.lucene980.search.BoostQuery;
+import org.apache.lucene980.search.ConstantScoreQuery;
+import org.apache.lucene980.search.IndexOrDocValuesQuery;
+import org.apache.lucene980.search.MatchAllDocsQuery;
+import org.apache.lucene980.search.MatchNoDocsQuery;
+import org.apache.lucene980.search.PhraseQuery;
+import org.apache.lucene980.search.PointInSetQuery;
+import org.apache.lucene980.search.PointRangeQuery;
+import org.apache.lucene980.search.Query;
+import org.apache.lucene980.search.TermQuery;
+import org.apache.lucene980.util.BytesRef;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches events against streaming analytic rules without building a Lucene memory index for every event and rule.
+ * <p>
+ * The Lucene query for each rule is compiled once into a tree of leaf predicates. The leaves of every rule are held
+ * in a single shared {@link RulePredicateIndex} so each field value of an event is analysed once and tested against
+ * all rules in a single pass. The result for each field value is remembered for the current thread so that the other
+ * rules evaluating the same event reuse it rather than analysing the value again.
+ * <p>
+ * Queries containing anything that cannot be compiled (e.g. sloppy phrases) are not compiled and the caller is
+ * expected to fall back to the memory index.
+ */
+@Singleton
+class CompiledRuleMatcher {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(CompiledRuleMatcher.class);
+
+    /**
+     * Leaves are never removed as rules change so once we have this many we start again with an empty index.
+     */
+    private static final int MAX_LEAF_COUNT = 100_000;
+    private static final int MAX_CACHED_FIELD_VALUES = 256;
+
+    private final Map<AnalyzerKey, Analyzer> analyzerMap = new ConcurrentHashMap<>();
+    private final ThreadLocal<FieldValueCache> fieldValueCache = ThreadLocal.withInitial(FieldValueCache::new);
+
+    private final List<Leaf> leaves = new ArrayList<>();
+    private final Map<Leaf, Integer> leafIds = new HashMap<>();
+    private int generation;
+    private volatile RulePredicateIndex index = RulePredicateIndex.EMPTY;
+
+    /**
+     * Compile a rule query into the shared predicate index.
+     *
+     * @param query         The Lucene query created for the rule expression.
+     * @param indexFieldMap The fields the query was created against.
+     * @return The compiled rule or empty if the query contains clauses that cannot be compiled.
+     */
+    synchronized Optional<CompiledRule> compile(final Query query, final Map<String, IndexField> indexFieldMap) {
+        if (leaves.size() > MAX_LEAF_COUNT) {
+            LOGGER.debug("Clearing {} compiled rule predicates", leaves.size());
+            leaves.clear();
+            leafIds.clear();
+            generation++;
+            index = new RulePredicateIndex(generation, List.of());
+        }
+
+        final Map<Leaf, Integer> pending = new LinkedHashMap<>();
+        final Node root = compile(query, indexFieldMap, pending);
+        if (root == null) {
+            LOGGER.debug("Unable to compile rule query '{}'", query);
+            return Optional.empty();
+        }
+
+        if (!pending.isEmpty()) {
+            pending.forEach((leaf, id) -> {
+                leaves.add(leaf);
+                leafIds.put(leaf, id);
+            });
+            index = new RulePredicateIndex(generation, List.copyOf(leaves));
+        }
+
+        LOGGER.debug(() -> "Compiled rule query '" + query + "' with " + pending.size() + " new predicates");
+        return Optional.of(new CompiledRule(index, root));
+    }
+
+    /**
+     * Test whether the supplied event matches a compiled rule.
+     */
+    boolean match(final CompiledRule rule, final List<FieldValue> fieldValues) {
+        // Later indexes of the same generation contain all the leaves of earlier ones so prefer the latest to
+        // avoid thrashing the field value cache.
+        RulePredicateIndex currentIndex = index;
+        if (currentIndex.getGeneration() != rule.getIndex().getGeneration()) {
+            currentIndex = rule.getIndex();
+        }
+
+        final FieldValueCache cache = fieldValueCache.get();
+        cache.setIndex(currentIndex);
+
+        final Map<FieldKey, BitSet> leafMatches = new HashMap<>();
+        for (final FieldValue fieldValue : fieldValues) {
+            if (fieldValue.value() != null) {
+                final FieldKey fieldKey = FieldKey.create(fieldValue.field());
+                if (currentIndex.hasField(fieldKey)) {
+                    final BitSet bitSet = cache.get(currentIndex, fieldKey, fieldValue);
+                    leafMatches.merge(fieldKey, bitSet, (existing, additional) -> {
+                        final BitSet merged = (BitSet) existing.clone();
+                        merged.or(additional);
+                        return merged;
+                    });
+                }
+            }
+        }
+        return rule.matches(leafMatches);
+    }
+
+    private Node compile(final Query query,
+                         final Map<String, IndexField> indexFieldMap,
+                         final Map<Leaf, Integer> pending) {
+        if (query instanceof final BoostQuery boostQuery) {
+            return compile(boostQuery.getQuery(), indexFieldMap, pending);
+        } else if (query instanceof final ConstantScoreQuery constantScoreQuery) {
+            return compile(constantScoreQuery.getQuery(), indexFieldMap, pending);
+        } else if (query instanceof final IndexOrDocValuesQuery indexOrDocValuesQuery) {
+            return compile(indexOrDocValuesQuery.getIndexQuery(), indexFieldMap, pending);
+        } else if (query instanceof MatchAllDocsQuery) {
+            return ConstantNode.MATCH_ALL;
+        } else if (query instanceof MatchNoDocsQuery) {
+            return ConstantNode.MATCH_NONE;
+        } else if (query instanceof final BooleanQuery booleanQuery) {
+            return compileBoolean(booleanQuery, indexFieldMap, pending);
+        } else if (query instanceof final TermQuery termQuery) {
+            final FieldKey fieldKey = getFieldKey(termQuery.getTerm().field(), indexFieldMap);
+            return leaf(fieldKey == null
+                    ? null
+                    : new TermLeaf(fieldKey, termQuery.getTerm()), pending);
+        } else if (query instanceof final AutomatonQuery automatonQuery) {
+            final FieldKey fieldKey = getFieldKey(automatonQuery.getField(), indexFieldMap);
+            return leaf(fieldKey == null
+                    ? null
+                    : new AutomatonLeaf(fieldKey, automatonQuery), pending);
+        } else if (query instanceof final PointRangeQuery pointRangeQuery) {
+            final FieldKey fieldKey = getFieldKey(pointRangeQuery.getField(), indexFieldMap);
+            return leaf(fieldKey == null || pointRangeQuery.getNumDims() != 1
+                    ? null
+                    : new PointRangeLeaf(fieldKey, pointRangeQuery), pending);
+        } else if (query instanceof final PointInSetQuery pointInSetQuery) {
+            final FieldKey fieldKey = getFieldKey(pointInSetQuery.getField(), indexFieldMap);
+            return leaf(fieldKey == null || pointInSetQuery.getNumDims() != 1
+                    ? null
+                    : new PointSetLeaf(fieldKey, pointInSetQuery), pending);
+        } else if (query instanceof final PhraseQuery phraseQuery) {
+            final FieldKey fieldKey = getFieldKey(phraseQuery.getField(), indexFieldMap);
+            return leaf(fieldKey == null || phraseQuery.getSlop() != 0
+                    ? null
+                    : new PhraseLeaf(fieldKey, phraseQuery), pending);
+        }
+
+        // We can't compile this type of query.
+        return null;
+    }
+
+    private Node compileBoolean(final BooleanQuery booleanQuery,
+                                final Map<String, IndexField> indexFieldMap,
+                                final Map<Leaf, Integer> pending) {
+        final List<Node> required = new ArrayList<>();
+        final List<Node> prohibited = new ArrayList<>();
+        final List<Node> optional = new ArrayList<>();
+        for (final BooleanClause clause : booleanQuery.clauses()) {
+            final Node node = compile(clause.getQuery(), indexFieldMap, pending);
+            if (node == null) {
+                return null;
+            }
+            switch (clause.getOccur()) {
+                case MUST, FILTER -> required.add(node);
+                case MUST_NOT -> prohibited.add(node);
+                case SHOULD -> optional.add(node);
+            }
+        }
+
+        // A Lucene boolean query with only prohibited clauses matches nothing.
+        if (required.isEmpty() && optional.isEmpty()) {
+            return ConstantNode.MATCH_NONE;
+        }
+
+        // Optional clauses become mandatory if there are no required clauses.
+        int minShouldMatch = booleanQuery.getMinimumNumberShouldMatch();
+        if (required.isEmpty() && minShouldMatch == 0) {
+            minShouldMatch = 1;
+        }
+
+        return new BooleanNode(
+                required.toArray(new Node[0]),
+                prohibited.toArray(new Node[0]),
+                optional.toArray(new Node[0]),
+                minShouldMatch);
+    }
+
+    private Node leaf(final Leaf leaf, final Map<Leaf, Integer> pending) {
+        if (leaf == null) {
+            return null;
+        }
+        Integer id = leafIds.get(leaf);
+        if (id == null) {
+            id = pending.computeIfAbsent(leaf, k -> leaves.size() + pending.size());
+        }
+        return new LeafNode(leaf.fieldKey(), id);
+    }
+
+    private FieldKey getFieldKey(final String fieldName, final Map<String, IndexField> indexFieldMap) {
+        final IndexField indexField = indexFieldMap.get(fieldName);
+        if (indexField == null) {
+            return null;
+        }
+        return FieldKey.create(indexField);
+    }
+
+    private AnalysedValue analyse(final FieldValue fieldValue) {
+        final IndexField indexField = fieldValue.field();
+        final LuceneIndexField luceneIndexField = LuceneIndexField.fromIndexField(indexField);
+        if (!luceneIndexField.isIndexed()) {
+            return null;
+        }
+
+        // Create the same field that would be added to a memory index so values are converted identically.
+        final Field field = FieldFactory.create(fieldValue);
+        if (field == null) {
+            return null;
+        }
+
+        switch (indexField.getFldType()) {
+            case INTEGER -> {
+                final byte[] bytes = new byte[Integer.BYTES];
+                IntPoint.encodeDimension(field.numericValue().intValue(), bytes, 0);
+                return AnalysedValue.point(bytes);
+            }
+            case FLOAT -> {
+                final byte[] bytes = new byte[Float.BYTES];
+                FloatPoint.encodeDimension(field.numericValue().floatValue(), bytes, 0);
+                return AnalysedValue.point(bytes);
+            }
+            case DOUBLE -> {
+                final byte[] bytes = new byte[Double.BYTES];
+                DoublePoint.encodeDimension(field.numericValue().doubleValue(), bytes, 0);
+                return AnalysedValue.point(bytes);
+            }
+            case LONG, ID, DATE -> {
+                final byte[] bytes = new byte[Long.BYTES];
+                LongPoint.encodeDimension(field.numericValue().longValue(), bytes, 0);
+                return AnalysedValue.point(bytes);
+            }
+            default -> {
+                return tokenise(luceneIndexField, field.stringValue());
+            }
+        }
+    }
+
+    private AnalysedValue tokenise(final LuceneIndexField indexField, final String value) {
+        final Analyzer analyzer = analyzerMap.computeIfAbsent(
+                new AnalyzerKey(indexField.getAnalyzerType(), indexField.isCaseSensitive()),
+                k -> AnalyzerFactory.create(k.analyzerType(), k.caseSensitive()));
+
+        final List<BytesRef> tokens = new ArrayList<>();
+        final List<Integer> positions = new ArrayList<>();
+        try (final TokenStream tokenStream = analyzer.tokenStream(indexField.getFldName(), value)) {
+            final TermToBytesRefAttribute termAttribute = tokenStream.addAttribute(TermToBytesRefAttribute.class);
+            final PositionIncrementAttribute positionAttribute =
+                    tokenStream.addAttribute(PositionIncrementAttribute.class);
+            tokenStream.reset();
+            int position = -1;
+            while (tokenStream.incrementToken()) {
+                position += positionAttribute.getPositionIncrement();
+                tokens.add(BytesRef.deepCopyOf(termAttribute.getBytesRef()));
+                positions.add(position);
+            }
+            tokenStream.end();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final int[] positionArr = new int[positions.size()];
+        for (int i = 0; i < positionArr.length; i++) {
+            positionArr[i] = positions.get(i);
+        }
+        return AnalysedValue.tokens(tokens.toArray(new BytesRef[0]), positionArr);
+    }
+
+    // --------------------------------------------------------------------------------
+
+
+    private record AnalyzerKey(AnalyzerType analyzerType, boolean caseSensitive) {
+
+    }
+
+    private record FieldValueKey(FieldKey fieldKey, String value) {
+
+    }
+
+    /**
+     * Remembers the leaves matched by recently seen field values so that when several rules are evaluated against
+     * the same event each value is only analysed and matched once.
+     */
+    private class FieldValueCache {
+
+        private final Map<FieldValueKey, BitSet> map = new HashMap<>();
+        private RulePredicateIndex index;
+
+        void setIndex(final RulePredicateIndex index) {
+            if (this.index != index) {
+                this.index = index;
+                map.clear();
+            }
+        }
+
+        BitSet get(final RulePredicateIndex index, final FieldKey fieldKey, final FieldValue fieldValue) {
+            final FieldValueKey key = new FieldValueKey(fieldKey, fieldValue.value().toString());
+            BitSet bitSet = map.get(key);
+            if (bitSet == null) {
+                if (map.size() >= MAX_CACHED_FIELD_VALUES) {
+                    map.clear();
+                }
+                final AnalysedValue analysedValue = analyse(fieldValue);
+                bitSet = analysedValue == null
+                        ? new BitSet()
+                        : index.match(fieldKey, analysedValue);
+                map.put(key, bitSet);
+            }
+            return bitSet;
+        }
+    }
+}
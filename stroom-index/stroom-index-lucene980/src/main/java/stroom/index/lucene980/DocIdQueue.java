@@ -1,10 +1,150 @@
 package stroom.index.lucene980;
 
-import stroom.util.concurrent.CompletableObjectQueue;
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
 
-class DocIdQueue extends CompletableObjectQueue<Integer> {
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of primitive doc ids passed from the hit collector to the thread that retrieves stored values.
+ * Doc ids are taken in batches so that the consumer can read values for many docs at once.
+ */
+class DocIdQueue {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(DocIdQueue.class);
+
+    private final int[] items;
+    private int takeIndex;
+    private int putIndex;
+    private int count;
+    private boolean complete;
+    private volatile boolean terminated;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
 
     DocIdQueue(final int capacity) {
-        super(capacity);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.items = new int[capacity];
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+    }
+
+    void put(final int docId) {
+        try {
+            final ReentrantLock lock = this.lock;
+            lock.lockInterruptibly();
+            try {
+                while (!terminated && !complete && count == items.length) {
+                    notFull.await();
+                }
+                if (!terminated && !complete) {
+                    items[putIndex] = docId;
+                    if (++putIndex == items.length) {
+                        putIndex = 0;
+                    }
+                    count++;
+                    notEmpty.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.debug(e::getMessage, e);
+            Thread.currentThread().interrupt();
+            throw new UncheckedInterruptedException(e);
+        }
+    }
+
+    /**
+     * Wait for doc ids to become available and then copy as many as will fit into the supplied buffer.
+     *
+     * @return The number of doc ids copied into the buffer or -1 if the queue is complete or terminated and no
+     * more doc ids will be added.
+     */
+    int take(final int[] buffer) {
+        try {
+            final ReentrantLock lock = this.lock;
+            lock.lockInterruptibly();
+            try {
+                while (!terminated && !complete && count == 0) {
+                    notEmpty.await();
+                }
+                if (terminated || count == 0) {
+                    return -1;
+                }
+
+                final int length = Math.min(buffer.length, count);
+                for (int i = 0; i < length; i++) {
+                    buffer[i] = items[takeIndex];
+                    if (++takeIndex == items.length) {
+                        takeIndex = 0;
+                    }
+                }
+                count -= length;
+                notFull.signalAll();
+                return length;
+            } finally {
+                lock.unlock();
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.debug(e::getMessage, e);
+            Thread.currentThread().interrupt();
+            throw new UncheckedInterruptedException(e);
+        }
+    }
+
+    /**
+     * Mark the queue as complete. Doc ids that have already been added can still be taken.
+     */
+    void complete() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            complete = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discard all queued doc ids and stop any more being added.
+     */
+    void terminate() {
+        terminated = true;
+
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            takeIndex = 0;
+            putIndex = 0;
+            count = 0;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
     }
 }
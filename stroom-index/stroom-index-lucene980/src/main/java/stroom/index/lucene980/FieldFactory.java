@@ -28,13 +28,16 @@ import stroom.query.language.functions.ValLong;
 import stroom.query.language.functions.ValString;
 import stroom.search.extraction.FieldValue;
 
+import org.apache.lucene980.document.BinaryDocValuesField;
 import org.apache.lucene980.document.DoubleField;
 import org.apache.lucene980.document.Field;
 import org.apache.lucene980.document.Field.Store;
 import org.apache.lucene980.document.FloatField;
 import org.apache.lucene980.document.IntField;
 import org.apache.lucene980.document.LongField;
+import org.apache.lucene980.index.IndexWriter;
 import org.apache.lucene980.index.IndexableField;
+import org.apache.lucene980.util.BytesRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +45,12 @@ class FieldFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FieldFactory.class);
 
+    /**
+     * Text doc values are written to a separate Lucene field so that docs with and without doc values can exist
+     * in the same shard.
+     */
+    private static final String DOC_VALUES_FIELD_SUFFIX = "__docValues";
+
     public static LongField createLong(final LuceneIndexField indexField, final long initialValue) {
         return new LongField(indexField.getFldName(),
                 initialValue,
@@ -134,6 +143,33 @@ class FieldFactory {
         return field;
     }
 
+    /**
+     * Create a doc values field so that the value of a stored text field can be read without loading stored
+     * fields. Numeric fields do not need this as they always have doc values.
+     *
+     * @return The doc values field or null if the field is not a stored text field or the value is too long.
+     */
+    public static BinaryDocValuesField createDocValues(final FieldValue fieldValue) {
+        final IndexField indexField = fieldValue.field();
+        if (!indexField.isStored()) {
+            return null;
+        }
+
+        switch (indexField.getFldType()) {
+            case TEXT, BOOLEAN -> {
+                final BytesRef bytesRef = new BytesRef(fieldValue.value().toString());
+                if (bytesRef.length <= IndexWriter.MAX_TERM_LENGTH) {
+                    return new BinaryDocValuesField(getDocValuesFieldName(indexField), bytesRef);
+                }
+            }
+        }
+        return null;
+    }
+
+    public static String getDocValuesFieldName(final IndexField indexField) {
+        return indexField.getFldName() + DOC_VALUES_FIELD_SUFFIX;
+    }
+
     public static Val convertValue(final IndexField indexField, final IndexableField indexableField) {
         switch (indexField.getFldType()) {
             case LONG, ID -> {
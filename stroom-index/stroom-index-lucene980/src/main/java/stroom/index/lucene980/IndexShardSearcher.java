@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class IndexShardSearcher {
 
@@ -50,6 +51,17 @@ class IndexShardSearcher {
     private final IndexWriter indexWriter;
     private final SearcherManager searcherManager;
 
+    /**
+     * The number of holders of this searcher. The creator (usually {@link IndexShardSearcherCache}) holds the
+     * initial reference and the searcher is destroyed when the last reference is released.
+     */
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    /**
+     * When this searcher was opened or last refreshed.
+     */
+    private volatile long lastRefreshMs = System.currentTimeMillis();
+
     IndexShardSearcher(final IndexShard indexShard, final PathCreator pathCreator) {
         this(indexShard, null, pathCreator);
     }
@@ -153,6 +165,57 @@ class IndexShardSearcher {
         return searcherManager;
     }
 
+    /**
+     * Try to take an additional reference to this searcher.
+     *
+     * @return False if the searcher has already been destroyed and cannot be used.
+     */
+    boolean acquire() {
+        int count = refCount.get();
+        while (count > 0) {
+            if (refCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+            count = refCount.get();
+        }
+        return false;
+    }
+
+    /**
+     * Release a reference to this searcher, destroying it if this was the last one.
+     */
+    void release() {
+        if (refCount.decrementAndGet() == 0) {
+            destroy();
+        }
+    }
+
+    /**
+     * If this searcher was opened with a writer and hasn't been refreshed for longer than the supplied interval then
+     * refresh it so that subsequent searches see documents that have been added since.
+     */
+    void refreshIfOlderThan(final long intervalMs) {
+        if (indexWriter != null && System.currentTimeMillis() - lastRefreshMs > intervalMs) {
+            refresh();
+        }
+    }
+
+    /**
+     * Make any changes committed by the writer visible to subsequent searches.
+     */
+    void refresh() {
+        if (acquire()) {
+            try {
+                lastRefreshMs = System.currentTimeMillis();
+                searcherManager.maybeRefresh();
+            } catch (final IOException | RuntimeException e) {
+                LOGGER.debug(e.getMessage(), e);
+            } finally {
+                release();
+            }
+        }
+    }
+
     synchronized void destroy() {
         try {
             try {
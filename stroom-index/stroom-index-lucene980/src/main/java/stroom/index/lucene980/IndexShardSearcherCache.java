@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene980;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.shared.IndexShard;
+import stroom.util.io.PathCreator;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.apache.lucene980.index.IndexWriter;
+
+/**
+ * Keeps index shard searchers open between searches so that concurrent and successive queries against the same
+ * shard can share a single reader rather than each opening their own.
+ * <p>
+ * Searchers are reference counted so that a searcher that is evicted from the cache while a search is using it is
+ * only destroyed once that search releases it.
+ */
+@Singleton
+class IndexShardSearcherCache {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(IndexShardSearcherCache.class);
+
+    private static final String CACHE_NAME = "Index Shard Searcher Cache";
+
+    private final StroomCache<Long, IndexShardSearcher> cache;
+    private final Provider<IndexShardSearchConfig> shardSearchConfigProvider;
+    private final PathCreator pathCreator;
+
+    @Inject
+    IndexShardSearcherCache(final CacheManager cacheManager,
+                            final Provider<IndexShardSearchConfig> shardSearchConfigProvider,
+                            final PathCreator pathCreator) {
+        this.shardSearchConfigProvider = shardSearchConfigProvider;
+        this.pathCreator = pathCreator;
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> shardSearchConfigProvider.get().getIndexShardSearcherCache(),
+                (k, v) -> {
+                    LOGGER.debug(() -> "Releasing cached searcher for index shard " + k);
+                    v.release();
+                });
+    }
+
+    /**
+     * Get a searcher for the supplied shard, opening one if there isn't one cached. If the shard is currently
+     * being written to then the searcher will be opened with the supplied writer and will be refreshed if it
+     * hasn't been for longer than the configured refresh interval. The caller must call
+     * {@link #release(IndexShardSearcher)} when they have finished with the searcher.
+     */
+    IndexShardSearcher acquire(final IndexShard indexShard, final IndexWriter indexWriter) {
+        final long indexShardId = indexShard.getId();
+        while (true) {
+            final IndexShardSearcher indexShardSearcher = cache.get(indexShardId, k ->
+                    new IndexShardSearcher(indexShard, indexWriter, pathCreator));
+
+            // If the writer has been opened or closed since we cached this searcher then we need a new one.
+            if (indexShardSearcher.getWriter() != indexWriter) {
+                LOGGER.debug(() -> "Writer changed for index shard " + indexShardId + ", reopening searcher");
+                cache.invalidateEntries((k, v) -> v == indexShardSearcher);
+            } else if (indexShardSearcher.acquire()) {
+                indexShardSearcher.refreshIfOlderThan(shardSearchConfigProvider.get()
+                        .getSearcherRefreshInterval()
+                        .toMillis());
+                return indexShardSearcher;
+            }
+        }
+    }
+
+    void release(final IndexShardSearcher indexShardSearcher) {
+        indexShardSearcher.release();
+    }
+
+    /**
+     * Called when a writer commits so that any cached searcher can see the newly committed documents.
+     */
+    void refresh(final long indexShardId) {
+        cache.getIfPresent(indexShardId).ifPresent(IndexShardSearcher::refresh);
+    }
+
+    /**
+     * Called when a writer is closed, or a shard is about to be deleted, so that we stop handing out searchers for
+     * it.
+     */
+    void invalidate(final long indexShardId) {
+        cache.invalidate(indexShardId);
+    }
+}
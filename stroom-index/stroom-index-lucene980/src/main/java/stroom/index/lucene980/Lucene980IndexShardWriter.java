@@ -41,6 +41,7 @@ import stroom.util.time.StroomDuration;
 
 import org.apache.lucene980.analysis.Analyzer;
 import org.apache.lucene980.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene980.document.BinaryDocValuesField;
 import org.apache.lucene980.document.Document;
 import org.apache.lucene980.index.IndexWriter;
 import org.apache.lucene980.index.IndexWriterConfig;
@@ -56,6 +57,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -74,7 +76,9 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
     private final Map<String, Analyzer> fieldAnalyzers = new ConcurrentHashMap<>();
 
     private final IndexShardDao indexShardDao;
+    private final IndexShardSearcherCache indexShardSearcherCache;
     private final StroomDuration slowIndexWriteWarningThreshold;
+    private final boolean writeTextDocValues;
     /**
      * When we are in debug mode we track some important info from the LUCENE
      * log so that we can report some debug info
@@ -108,6 +112,12 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
     private final AtomicBoolean open = new AtomicBoolean();
     private final AtomicInteger adding = new AtomicInteger();
 
+    /**
+     * Summary of the values in this shard that is stored with each commit so that searches can skip the shard.
+     * Null if the shard was created before summaries were written.
+     */
+    private final ShardSummary shardSummary;
+
     /**
      * Convenience constructor used in tests.
      */
@@ -116,12 +126,27 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
                               final IndexShard indexShard,
                               final PathCreator pathCreator,
                               final int maxDocumentCount) {
+        this(indexShardDao,
+                indexConfig,
+                indexShard,
+                pathCreator,
+                maxDocumentCount,
+                null);
+    }
+
+    Lucene980IndexShardWriter(final IndexShardDao indexShardDao,
+                              final IndexConfig indexConfig,
+                              final IndexShard indexShard,
+                              final PathCreator pathCreator,
+                              final int maxDocumentCount,
+                              final IndexShardSearcherCache indexShardSearcherCache) {
         this(indexShardDao,
                 indexConfig,
                 indexShard,
                 DEFAULT_RAM_BUFFER_MB_SIZE,
                 pathCreator,
-                maxDocumentCount);
+                maxDocumentCount,
+                indexShardSearcherCache);
     }
 
     Lucene980IndexShardWriter(final IndexShardDao indexShardDao,
@@ -129,14 +154,20 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
                               final IndexShard indexShard,
                               final int ramBufferSizeMB,
                               final PathCreator pathCreator,
-                              final int maxDocumentCount) {
+                              final int maxDocumentCount,
+                              final IndexShardSearcherCache indexShardSearcherCache) {
         try {
             this.indexShardDao = indexShardDao;
+            this.indexShardSearcherCache = indexShardSearcherCache;
             this.slowIndexWriteWarningThreshold = NullSafe.getOrElse(
                     indexConfig,
                     IndexConfig::getIndexWriterConfig,
                     stroom.index.impl.IndexWriterConfig::getSlowIndexWriteWarningThreshold,
                     StroomDuration.ZERO);
+            this.writeTextDocValues = NullSafe.test(
+                    indexConfig,
+                    IndexConfig::getIndexWriterConfig,
+                    stroom.index.impl.IndexWriterConfig::isWriteTextDocValues);
             this.indexShardId = indexShard.getId();
             this.creationTime = System.currentTimeMillis();
             this.maxDocumentCount = maxDocumentCount;
@@ -226,6 +257,7 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
             this.directory = directory;
             this.indexWriter = indexWriter;
             this.documentCount = documentCount;
+            this.shardSummary = createShardSummary(indexWriter, numDocs);
         } catch (final LockObtainFailedException e) {
             throw new UncheckedLockObtainException(e);
         } catch (final IOException e) {
@@ -233,6 +265,28 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
         }
     }
 
+    private ShardSummary createShardSummary(final IndexWriter indexWriter, final int numDocs) {
+        final ShardSummary shardSummary;
+        if (numDocs == 0) {
+            shardSummary = new ShardSummary();
+        } else {
+            // Carry on from the summary in the last commit if there is one.
+            final Map<String, String> commitData = new HashMap<>();
+            NullSafe.forEach(indexWriter.getLiveCommitData(), entry ->
+                    commitData.put(entry.getKey(), entry.getValue()));
+            shardSummary = ShardSummary.fromCommitData(commitData);
+        }
+
+        if (shardSummary == null) {
+            LOGGER.debug(() -> "No summary found for existing shard " + this);
+        } else {
+            // The commit data is pulled after the documents to commit have been flushed so the summary will
+            // include them all.
+            indexWriter.setLiveCommitData(() -> shardSummary.toCommitData().entrySet().iterator());
+        }
+        return shardSummary;
+    }
+
     @Override
     public void addDocument(final IndexDocument indexDocument) throws IndexException {
         final Document document = new Document();
@@ -255,6 +309,18 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
             // Add the current field to the document if it is not null.
             if (field != null) {
                 document.add(field);
+
+                // Record the value before the document is added so that the summary covers every searchable doc.
+                if (shardSummary != null) {
+                    shardSummary.record(indexField, field);
+                }
+
+                if (writeTextDocValues) {
+                    final BinaryDocValuesField docValuesField = FieldFactory.createDocValues(fieldValue);
+                    if (docValuesField != null) {
+                        document.add(docValuesField);
+                    }
+                }
             }
         }
         if (!document.getFields().isEmpty()) {
@@ -320,6 +386,11 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
                 // Perform commit
                 indexWriter.commit();
 
+                // Make the committed documents visible to any cached searcher for this shard.
+                if (indexShardSearcherCache != null) {
+                    indexShardSearcherCache.refresh(indexShardId);
+                }
+
             } catch (final IOException | RuntimeException e) {
                 LOGGER.error(buildErrorMessage("Error while committing writer.", e), e);
 
@@ -342,6 +413,11 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
             final long startTime = System.currentTimeMillis();
             LOGGER.debug(() -> "Starting close " + this);
 
+            // Stop any cached searcher from being used by new searches once this writer is closed.
+            if (indexShardSearcherCache != null) {
+                indexShardSearcherCache.invalidate(indexShardId);
+            }
+
             try {
                 // Perform close.
                 // Wait for us to stop adding docs.
@@ -431,6 +507,10 @@ class Lucene980IndexShardWriter implements IndexShardWriter {
         return fileSize;
     }
 
+    ShardSummary getShardSummary() {
+        return shardSummary;
+    }
+
     //    @Override
     public IndexWriter getWriter() {
         return indexWriter;
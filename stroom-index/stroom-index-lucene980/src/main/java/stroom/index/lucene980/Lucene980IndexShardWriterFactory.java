@@ -14,14 +14,17 @@ class Lucene980IndexShardWriterFactory {
     private final IndexShardDao indexShardDao;
     private final Provider<IndexConfig> indexConfigProvider;
     private final PathCreator pathCreator;
+    private final IndexShardSearcherCache indexShardSearcherCache;
 
     @Inject
     Lucene980IndexShardWriterFactory(final IndexShardDao indexShardDao,
                                      final Provider<IndexConfig> indexConfigProvider,
-                                     final PathCreator pathCreator) {
+                                     final PathCreator pathCreator,
+                                     final IndexShardSearcherCache indexShardSearcherCache) {
         this.indexShardDao = indexShardDao;
         this.indexConfigProvider = indexConfigProvider;
         this.pathCreator = pathCreator;
+        this.indexShardSearcherCache = indexShardSearcherCache;
     }
 
     IndexShardWriter create(final IndexShard indexShard,
@@ -31,6 +34,7 @@ class Lucene980IndexShardWriterFactory {
                 indexConfigProvider.get(),
                 indexShard,
                 pathCreator,
-                maxDocumentCount);
+                maxDocumentCount,
+                indexShardSearcherCache);
     }
 }
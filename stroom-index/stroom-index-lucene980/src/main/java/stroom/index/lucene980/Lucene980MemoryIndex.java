@@ -6,11 +6,13 @@ import stroom.index.shared.LuceneIndexField;
 import stroom.query.api.v2.SearchRequest;
 import stroom.query.common.v2.IndexFieldCache;
 import stroom.search.extraction.FieldValue;
+import stroom.search.impl.SearchConfig;
 import stroom.search.impl.SearchException;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import org.apache.lucene980.analysis.Analyzer;
 import org.apache.lucene980.index.IndexableField;
 import org.apache.lucene980.index.memory.MemoryIndex;
@@ -21,20 +23,38 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 class Lucene980MemoryIndex implements stroom.search.extraction.MemoryIndex {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(Lucene980MemoryIndex.class);
 
     private final SearchExpressionQueryCache searchExpressionQueryCache;
+    private final CompiledRuleMatcher compiledRuleMatcher;
+    private final Provider<SearchConfig> searchConfigProvider;
+
+    // Held together with the request it was compiled for so a rule is never used for a different request,
+    // and in a single volatile reference so that it is safely published to other threads.
+    private volatile CachedRule cachedRule;
 
     @Inject
-    public Lucene980MemoryIndex(final SearchExpressionQueryCache searchExpressionQueryCache) {
+    public Lucene980MemoryIndex(final SearchExpressionQueryCache searchExpressionQueryCache,
+                                final CompiledRuleMatcher compiledRuleMatcher,
+                                final Provider<SearchConfig> searchConfigProvider) {
         this.searchExpressionQueryCache = searchExpressionQueryCache;
+        this.compiledRuleMatcher = compiledRuleMatcher;
+        this.searchConfigProvider = searchConfigProvider;
     }
 
     @Override
     public boolean match(final SearchRequest searchRequest, final List<FieldValue> fieldValues) {
+        if (searchConfigProvider.get().isCompiledRuleMatchingEnabled()) {
+            final Optional<CompiledRule> compiledRule = getCompiledRule(searchRequest, fieldValues);
+            if (compiledRule.isPresent()) {
+                return compiledRuleMatcher.match(compiledRule.get(), fieldValues);
+            }
+        }
+
         final MemoryIndex memoryIndex = new MemoryIndex();
         final Map<String, IndexField> indexFieldMap = new HashMap<>();
         for (final FieldValue fieldValue : fieldValues) {
@@ -58,6 +78,34 @@ class Lucene980MemoryIndex implements stroom.search.extraction.MemoryIndex {
         return matchQuery(searchRequest, memoryIndex, indexFieldCache);
     }
 
+    private Optional<CompiledRule> getCompiledRule(final SearchRequest searchRequest,
+                                                   final List<FieldValue> fieldValues) {
+        CachedRule cached = cachedRule;
+        if (cached == null || cached.searchRequest() != searchRequest) {
+            cached = new CachedRule(searchRequest, compileRule(searchRequest, fieldValues));
+            cachedRule = cached;
+        }
+        return cached.compiledRule();
+    }
+
+    private Optional<CompiledRule> compileRule(final SearchRequest searchRequest,
+                                               final List<FieldValue> fieldValues) {
+        final Map<String, IndexField> indexFieldMap = new HashMap<>();
+        for (final FieldValue fieldValue : fieldValues) {
+            indexFieldMap.put(fieldValue.field().getFldName(), fieldValue.field());
+        }
+
+        try {
+            final IndexFieldCache indexFieldCache = (key, fieldName) -> indexFieldMap.get(fieldName);
+            final SearchExpressionQuery query = searchExpressionQueryCache.getQuery(searchRequest, indexFieldCache);
+            return compiledRuleMatcher.compile(query.getQuery(), indexFieldMap);
+        } catch (final SearchException se) {
+            // Fall back to the memory index which will report the problem.
+            LOGGER.debug(se::getMessage, se);
+            return Optional.empty();
+        }
+    }
+
     private boolean matchQuery(final SearchRequest searchRequest,
                                final MemoryIndex memoryIndex,
                                final IndexFieldCache indexFieldCache) {
@@ -79,4 +127,12 @@ class Lucene980MemoryIndex implements stroom.search.extraction.MemoryIndex {
 
         return false;
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record CachedRule(SearchRequest searchRequest, Optional<CompiledRule> compiledRule) {
+
+    }
 }
@@ -23,16 +23,19 @@ class Lucene980Provider implements LuceneProvider {
     private final Lucene980ShardSearcherFactory shardSearcherFactory;
     private final Lucene980SystemInfoProvider systemInfoProvider;
     private final Lucene980IndexShardWriterFactory indexShardWriterFactory;
+    private final IndexShardSearcherCache indexShardSearcherCache;
 
     @Inject
     Lucene980Provider(final Lucene980HighlightProvider highlightProvider,
                       final Lucene980ShardSearcherFactory shardSearcherFactory,
                       final Lucene980SystemInfoProvider systemInfoProvider,
-                      final Lucene980IndexShardWriterFactory indexShardWriterFactory) {
+                      final Lucene980IndexShardWriterFactory indexShardWriterFactory,
+                      final IndexShardSearcherCache indexShardSearcherCache) {
         this.highlightProvider = highlightProvider;
         this.shardSearcherFactory = shardSearcherFactory;
         this.systemInfoProvider = systemInfoProvider;
         this.indexShardWriterFactory = indexShardWriterFactory;
+        this.indexShardSearcherCache = indexShardSearcherCache;
     }
 
     @Override
@@ -62,6 +65,11 @@ class Lucene980Provider implements LuceneProvider {
                 maxDocumentCount);
     }
 
+    @Override
+    public void closeShardSearcher(final long indexShardId) {
+        indexShardSearcherCache.invalidate(indexShardId);
+    }
+
     @Override
     public IndexSystemInfoProvider getIndexSystemInfoProvider() {
         return systemInfoProvider;
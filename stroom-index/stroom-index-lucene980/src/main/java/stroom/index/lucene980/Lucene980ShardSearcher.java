@@ -21,6 +21,7 @@ import stroom.dictionary.api.WordListProvider;
 import stroom.docref.DocRef;
 import stroom.expression.api.DateTimeSettings;
 import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.impl.IndexShardUtil;
 import stroom.index.impl.IndexShardWriter;
 import stroom.index.impl.IndexShardWriterCache;
 import stroom.index.impl.LuceneShardSearcher;
@@ -32,6 +33,7 @@ import stroom.query.common.v2.IndexFieldCache;
 import stroom.query.common.v2.SearchProgressLog;
 import stroom.query.common.v2.SearchProgressLog.SearchPhase;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValuesConsumer;
 import stroom.query.language.functions.ref.ErrorConsumer;
 import stroom.search.impl.SearchException;
@@ -47,14 +49,15 @@ import stroom.util.io.PathCreator;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 
-import org.apache.lucene980.document.Document;
 import org.apache.lucene980.index.IndexWriter;
-import org.apache.lucene980.index.IndexableField;
 import org.apache.lucene980.search.IndexSearcher;
 import org.apache.lucene980.search.Query;
 import org.apache.lucene980.search.SearcherManager;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -67,7 +70,10 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
 
     public static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Search Index Shard");
 
+    private static final int DOC_ID_BATCH_SIZE = 1000;
+
     private final IndexShardWriterCache indexShardWriterCache;
+    private final IndexShardSearcherCache indexShardSearcherCache;
     private final IndexShardSearchConfig shardConfig;
     private final Executor executor;
     private final TaskContextFactory taskContextFactory;
@@ -77,6 +83,7 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
     private final Query query;
 
     Lucene980ShardSearcher(final IndexShardWriterCache indexShardWriterCache,
+                           final IndexShardSearcherCache indexShardSearcherCache,
                            final IndexShardSearchConfig shardConfig,
                            final ExecutorProvider executorProvider,
                            final TaskContextFactory taskContextFactory,
@@ -89,6 +96,7 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
                            final QueryKey queryKey) {
         this.queryKey = queryKey;
         this.indexShardWriterCache = indexShardWriterCache;
+        this.indexShardSearcherCache = indexShardSearcherCache;
         this.shardConfig = shardConfig;
         this.executor = executorProvider.get(THREAD_POOL);
         this.taskContextFactory = taskContextFactory;
@@ -110,6 +118,35 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
         }
     }
 
+    @Override
+    public boolean canMatch(final IndexShard indexShard) {
+        try {
+            final ShardSummary shardSummary = getShardSummary(indexShard);
+            if (shardSummary != null && !shardSummary.canMatch(query)) {
+                LOGGER.debug(() -> "Skipping index shard " + indexShard.getId() + " as it cannot match " + query);
+                return false;
+            }
+        } catch (final IOException | RuntimeException e) {
+            // If we can't read the summary then just search the shard.
+            LOGGER.debug(e::getMessage, e);
+        }
+        return true;
+    }
+
+    private ShardSummary getShardSummary(final IndexShard indexShard) throws IOException {
+        // If the shard is being written to then use the live summary as it also covers uncommitted docs.
+        final Optional<IndexShardWriter> optional = indexShardWriterCache.getIfPresent(indexShard.getId());
+        if (optional.isPresent() && optional.get() instanceof final Lucene980IndexShardWriter writer) {
+            return writer.getShardSummary();
+        }
+
+        final Path dir = IndexShardUtil.getIndexPath(indexShard, pathCreator);
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        return ShardSummary.read(dir);
+    }
+
     @Override
     public void searchShard(final TaskContext taskContext,
                             final IndexShard indexShard,
@@ -130,7 +167,7 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
 
                 final IndexWriter indexWriter = getWriter(indexShard.getId());
 
-                indexShardSearcher = new IndexShardSearcher(indexShard, indexWriter, pathCreator);
+                indexShardSearcher = indexShardSearcherCache.acquire(indexShard, indexWriter);
 
                 // Start searching.
                 searchShard(
@@ -148,8 +185,8 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
 
         } finally {
             if (indexShardSearcher != null) {
-                taskContext.info(() -> "Closing searcher for index shard " + indexShard.getId(), LOGGER);
-                indexShardSearcher.destroy();
+                taskContext.info(() -> "Releasing searcher for index shard " + indexShard.getId(), LOGGER);
+                indexShardSearcherCache.release(indexShardSearcher);
             }
         }
     }
@@ -226,6 +263,12 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
                     CompletableFuture.runAsync(runnable, executor);
 
                     // Start converting found docIds into stored data values
+                    final StoredValuesReader storedValuesReader = new StoredValuesReader(
+                            searcher,
+                            storedFields,
+                            fieldsToLoad);
+                    final int[] docIds = new int[DOC_ID_BATCH_SIZE];
+                    final ValBatch batch = new ValBatch(DOC_ID_BATCH_SIZE);
                     boolean done = false;
                     while (!done) {
                         // Uncomment this to slow searches down in dev
@@ -237,24 +280,39 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
                             done = true;
 
                         } else {
-                            // Take the next item.
-                            // When we get null we are done.
-                            final Integer docId = docIdQueue.take();
-                            if (docId == null) {
+                            // Take the next batch of doc ids.
+                            // When we get -1 we are done.
+                            final int count = docIdQueue.take(docIds);
+                            if (count == -1) {
                                 done = true;
                             } else {
+                                // Read values in doc id order so that doc values can be read sequentially.
+                                Arrays.sort(docIds, 0, count);
+                                for (int i = 0; i < count && !parentContext.isTerminated(); i++) {
+                                    try {
+                                        // If we have a doc id then retrieve the stored data for it.
+                                        SearchProgressLog.increment(queryKey,
+                                                SearchPhase.INDEX_SHARD_SEARCH_TASK_HANDLER_DOC_ID_STORE_TAKE);
+                                        getStoredData(batch,
+                                                storedValuesReader,
+                                                docIds[i],
+                                                errorConsumer);
+                                    } catch (final RuntimeException e) {
+                                        error(errorConsumer, e);
+                                    }
+                                }
+
+                                // Pass the values for the whole batch of doc ids on in one go.
                                 try {
-                                    // If we have a doc id then retrieve the stored data for it.
-                                    SearchProgressLog.increment(queryKey,
-                                            SearchPhase.INDEX_SHARD_SEARCH_TASK_HANDLER_DOC_ID_STORE_TAKE);
-                                    getStoredData(storedFields,
-                                            fieldsToLoad,
-                                            valuesConsumer,
-                                            searcher,
-                                            docId,
-                                            errorConsumer);
+                                    if (!batch.isEmpty()) {
+                                        valuesConsumer.accept(batch);
+                                    }
+                                } catch (final UncheckedInterruptedException e) {
+                                    throw e;
                                 } catch (final RuntimeException e) {
                                     error(errorConsumer, e);
+                                } finally {
+                                    batch.clear();
                                 }
                             }
                         }
@@ -270,41 +328,19 @@ class Lucene980ShardSearcher implements LuceneShardSearcher {
     }
 
     /**
-     * This method takes a list of document id's and extracts the stored fields
-     * that are required for data display. In some cases such as batch search we
+     * This method takes a document id and extracts the stored fields
+     * that are required for data display, adding them to the supplied batch. In some cases such as batch search we
      * only want to get stream and event ids, in these cases no values are
      * retrieved, only stream and event ids.
      */
-    private void getStoredData(final IndexField[] storedFields,
-                               final Set<String> fieldsToLoad,
-                               final ValuesConsumer valuesConsumer,
-                               final IndexSearcher searcher,
+    private void getStoredData(final ValBatch batch,
+                               final StoredValuesReader storedValuesReader,
                                final int docId,
                                final ErrorConsumer errorConsumer) {
         try {
             SearchProgressLog.increment(queryKey, SearchPhase.INDEX_SHARD_SEARCH_TASK_HANDLER_GET_STORED_DATA);
-            final Val[] values = new Val[storedFields.length];
-            final Document document = searcher.storedFields().document(docId, fieldsToLoad);
-
-            for (int i = 0; i < storedFields.length; i++) {
-                final IndexField storedField = storedFields[i];
-
-                // If the field is null then it isn't stored.
-                if (storedField != null) {
-                    final IndexableField indexableField = document.getField(storedField.getFldName());
-
-                    // If the field is not in fact stored then it will be null here.
-                    if (indexableField != null) {
-                        try {
-                            values[i] = FieldFactory.convertValue(storedField, indexableField);
-                        } catch (final RuntimeException e) {
-                            error(errorConsumer, e);
-                        }
-                    }
-                }
-            }
-
-            valuesConsumer.accept(Val.of(values));
+            final Val[] values = storedValuesReader.read(docId, e -> error(errorConsumer, e));
+            batch.add(Val.of(values));
         } catch (final UncheckedInterruptedException e) {
             throw e;
         } catch (final IOException | RuntimeException e) {
@@ -21,6 +21,7 @@ import org.apache.lucene980.search.IndexSearcher;
 class Lucene980ShardSearcherFactory {
 
     private final IndexShardWriterCache indexShardWriterCache;
+    private final IndexShardSearcherCache indexShardSearcherCache;
     private final Provider<IndexShardSearchConfig> shardSearchConfigProvider;
     private final ExecutorProvider executorProvider;
     private final TaskContextFactory taskContextFactory;
@@ -30,6 +31,7 @@ class Lucene980ShardSearcherFactory {
 
     @Inject
     Lucene980ShardSearcherFactory(final IndexShardWriterCache indexShardWriterCache,
+                                  final IndexShardSearcherCache indexShardSearcherCache,
                                   final Provider<IndexShardSearchConfig> shardSearchConfigProvider,
                                   final ExecutorProvider executorProvider,
                                   final TaskContextFactory taskContextFactory,
@@ -37,6 +39,7 @@ class Lucene980ShardSearcherFactory {
                                   final WordListProvider dictionaryStore,
                                   final Provider<SearchConfig> searchConfigProvider) {
         this.indexShardWriterCache = indexShardWriterCache;
+        this.indexShardSearcherCache = indexShardSearcherCache;
         this.shardSearchConfigProvider = shardSearchConfigProvider;
         this.executorProvider = executorProvider;
         this.taskContextFactory = taskContextFactory;
@@ -53,6 +56,7 @@ class Lucene980ShardSearcherFactory {
         IndexSearcher.setMaxClauseCount(searchConfigProvider.get().getMaxBooleanClauseCount());
         return new Lucene980ShardSearcher(
                 indexShardWriterCache,
+                indexShardSearcherCache,
                 shardSearchConfigProvider.get(),
                 executorProvider,
                 taskContextFactory,
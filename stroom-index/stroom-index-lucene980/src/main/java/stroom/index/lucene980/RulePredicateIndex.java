@@ -0,0 +1,420 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.FieldType;
+import stroom.datasource.api.v2.IndexField;
+
+import org.apache.lucene980.index.Term;
+import org.apache.lucene980.search.AutomatonQuery;
+import org.apache.lucene980.search.PhraseQuery;
+import org.apache.lucene980.search.PointInSetQuery;
+import org.apache.lucene980.search.PointRangeQuery;
+import org.apache.lucene980.util.BytesRef;
+import org.apache.lucene980.util.automaton.CompiledAutomaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable index of all the leaf predicates (terms, wildcard automata, numeric ranges and sets, phrases) that
+ * make up the compiled analytic rules known to {@link CompiledRuleMatcher}.
+ * <p>
+ * Leaves are grouped by field so that a single analysed field value can be tested against the leaves of every rule
+ * in one pass. Term leaves are held in a dictionary so the cost of matching them depends on the number of tokens in
+ * the value rather than on the number of rules.
+ */
+class RulePredicateIndex {
+
+    static final RulePredicateIndex EMPTY = new RulePredicateIndex(0, Collections.emptyList());
+
+    private final int generation;
+    private final Map<FieldKey, FieldPredicates> fieldPredicatesMap;
+
+    RulePredicateIndex(final int generation, final List<Leaf> leaves) {
+        this.generation = generation;
+
+        final Map<FieldKey, FieldPredicates.Builder> builders = new HashMap<>();
+        for (int id = 0; id < leaves.size(); id++) {
+            final Leaf leaf = leaves.get(id);
+            builders.computeIfAbsent(leaf.fieldKey(), k -> new FieldPredicates.Builder()).add(id, leaf);
+        }
+        final Map<FieldKey, FieldPredicates> map = new HashMap<>();
+        builders.forEach((k, v) -> map.put(k, v.build()));
+        this.fieldPredicatesMap = map;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Test an analysed field value against every leaf predicate for the field.
+     *
+     * @return The ids of all leaves that the value satisfies.
+     */
+    BitSet match(final FieldKey fieldKey, final AnalysedValue value) {
+        final BitSet bitSet = new BitSet();
+        final FieldPredicates fieldPredicates = fieldPredicatesMap.get(fieldKey);
+        if (fieldPredicates != null) {
+            fieldPredicates.match(value, bitSet);
+        }
+        return bitSet;
+    }
+
+    boolean hasField(final FieldKey fieldKey) {
+        return fieldPredicatesMap.containsKey(fieldKey);
+    }
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Identifies an indexed field together with the properties that determine how its values are analysed.
+     */
+    record FieldKey(String fieldName,
+                    FieldType fieldType,
+                    AnalyzerType analyzerType,
+                    boolean caseSensitive) {
+
+        static FieldKey create(final IndexField indexField) {
+            return new FieldKey(
+                    indexField.getFldName(),
+                    indexField.getFldType(),
+                    indexField.getAnalyzerType(),
+                    indexField.isCaseSensitive());
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A field value that has been analysed ready for matching. Text values are held as a list of tokens with
+     * their positions, numeric values as the sortable point encoding Lucene uses for range queries.
+     */
+    static final class AnalysedValue {
+
+        private final BytesRef[] tokens;
+        private final int[] positions;
+        private final byte[] point;
+
+        private AnalysedValue(final BytesRef[] tokens, final int[] positions, final byte[] point) {
+            this.tokens = tokens;
+            this.positions = positions;
+            this.point = point;
+        }
+
+        static AnalysedValue tokens(final BytesRef[] tokens, final int[] positions) {
+            return new AnalysedValue(tokens, positions, null);
+        }
+
+        static AnalysedValue point(final byte[] point) {
+            return new AnalysedValue(new BytesRef[0], new int[0], point);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A single predicate that forms part of one or more compiled rules. Leaves are deduplicated by field and Lucene
+     * query so rules that share conditions also share the work of evaluating them.
+     */
+    abstract static class Leaf {
+
+        private final FieldKey fieldKey;
+        private final Object query;
+
+        Leaf(final FieldKey fieldKey, final Object query) {
+            this.fieldKey = fieldKey;
+            this.query = query;
+        }
+
+        FieldKey fieldKey() {
+            return fieldKey;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Leaf leaf = (Leaf) o;
+            return fieldKey.equals(leaf.fieldKey) && query.equals(leaf.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fieldKey.hashCode() + query.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return query.toString();
+        }
+    }
+
+    static final class TermLeaf extends Leaf {
+
+        private final BytesRef term;
+
+        TermLeaf(final FieldKey fieldKey, final Term term) {
+            super(fieldKey, term);
+            this.term = term.bytes();
+        }
+    }
+
+    static final class AutomatonLeaf extends Leaf {
+
+        private final CompiledAutomaton compiled;
+
+        AutomatonLeaf(final FieldKey fieldKey, final AutomatonQuery query) {
+            super(fieldKey, query);
+            this.compiled = query.getCompiled();
+        }
+
+        boolean matches(final AnalysedValue value) {
+            for (final BytesRef token : value.tokens) {
+                if (matches(token)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(final BytesRef token) {
+            return switch (compiled.type) {
+                case NONE -> false;
+                case ALL -> true;
+                case SINGLE -> compiled.term.bytesEquals(token);
+                case NORMAL -> compiled.runAutomaton.run(token.bytes, token.offset, token.length);
+            };
+        }
+    }
+
+    static final class PointRangeLeaf extends Leaf {
+
+        private final byte[] lower;
+        private final byte[] upper;
+
+        PointRangeLeaf(final FieldKey fieldKey, final PointRangeQuery query) {
+            super(fieldKey, query);
+            this.lower = query.getLowerPoint();
+            this.upper = query.getUpperPoint();
+        }
+
+        boolean matches(final AnalysedValue value) {
+            return value.point != null &&
+                    value.point.length == lower.length &&
+                    Arrays.compareUnsigned(value.point, lower) >= 0 &&
+                    Arrays.compareUnsigned(value.point, upper) <= 0;
+        }
+    }
+
+    static final class PointSetLeaf extends Leaf {
+
+        private final Set<BytesRef> points;
+
+        PointSetLeaf(final FieldKey fieldKey, final PointInSetQuery query) {
+            super(fieldKey, query);
+            final Set<BytesRef> set = new HashSet<>();
+            for (final byte[] packedPoint : query.getPackedPoints()) {
+                set.add(new BytesRef(packedPoint));
+            }
+            this.points = set;
+        }
+
+        boolean matches(final AnalysedValue value) {
+            return value.point != null && points.contains(new BytesRef(value.point));
+        }
+    }
+
+    static final class PhraseLeaf extends Leaf {
+
+        private final BytesRef[] terms;
+        private final int[] positions;
+
+        PhraseLeaf(final FieldKey fieldKey, final PhraseQuery query) {
+            super(fieldKey, query);
+            final Term[] queryTerms = query.getTerms();
+            this.terms = new BytesRef[queryTerms.length];
+            for (int i = 0; i < queryTerms.length; i++) {
+                terms[i] = queryTerms[i].bytes();
+            }
+            this.positions = query.getPositions();
+        }
+
+        boolean matches(final AnalysedValue value) {
+            if (terms.length == 0) {
+                return false;
+            }
+            for (int i = 0; i < value.tokens.length; i++) {
+                if (terms[0].bytesEquals(value.tokens[i])) {
+                    final int start = value.positions[i] - positions[0];
+                    if (matchesFrom(value, start)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesFrom(final AnalysedValue value, final int start) {
+            for (int j = 1; j < terms.length; j++) {
+                final int position = start + positions[j];
+                // Positions are always ascending so we can binary search for the first token at the position.
+                int index = Arrays.binarySearch(value.positions, position);
+                if (index < 0) {
+                    return false;
+                }
+                while (index > 0 && value.positions[index - 1] == position) {
+                    index--;
+                }
+                boolean found = false;
+                while (!found && index < value.positions.length && value.positions[index] == position) {
+                    found = terms[j].bytesEquals(value.tokens[index]);
+                    index++;
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+
+    private static final class FieldPredicates {
+
+        private final Map<BytesRef, int[]> terms;
+        private final int[] automatonIds;
+        private final AutomatonLeaf[] automata;
+        private final int[] pointRangeIds;
+        private final PointRangeLeaf[] pointRanges;
+        private final int[] pointSetIds;
+        private final PointSetLeaf[] pointSets;
+        private final int[] phraseIds;
+        private final PhraseLeaf[] phrases;
+
+        private FieldPredicates(final Builder builder) {
+            final Map<BytesRef, int[]> termMap = new HashMap<>();
+            builder.terms.forEach((k, v) -> termMap.put(k, toArray(v)));
+            this.terms = termMap;
+            this.automatonIds = toArray(builder.automatonIds);
+            this.automata = builder.automata.toArray(new AutomatonLeaf[0]);
+            this.pointRangeIds = toArray(builder.pointRangeIds);
+            this.pointRanges = builder.pointRanges.toArray(new PointRangeLeaf[0]);
+            this.pointSetIds = toArray(builder.pointSetIds);
+            this.pointSets = builder.pointSets.toArray(new PointSetLeaf[0]);
+            this.phraseIds = toArray(builder.phraseIds);
+            this.phrases = builder.phrases.toArray(new PhraseLeaf[0]);
+        }
+
+        void match(final AnalysedValue value, final BitSet bitSet) {
+            // Dictionary lookup for each token.
+            if (!terms.isEmpty()) {
+                for (final BytesRef token : value.tokens) {
+                    final int[] ids = terms.get(token);
+                    if (ids != null) {
+                        for (final int id : ids) {
+                            bitSet.set(id);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < automata.length; i++) {
+                if (automata[i].matches(value)) {
+                    bitSet.set(automatonIds[i]);
+                }
+            }
+            for (int i = 0; i < pointRanges.length; i++) {
+                if (pointRanges[i].matches(value)) {
+                    bitSet.set(pointRangeIds[i]);
+                }
+            }
+            for (int i = 0; i < pointSets.length; i++) {
+                if (pointSets[i].matches(value)) {
+                    bitSet.set(pointSetIds[i]);
+                }
+            }
+            for (int i = 0; i < phrases.length; i++) {
+                if (phrases[i].matches(value)) {
+                    bitSet.set(phraseIds[i]);
+                }
+            }
+        }
+
+        private static int[] toArray(final List<Integer> list) {
+            final int[] arr = new int[list.size()];
+            for (int i = 0; i < arr.length; i++) {
+                arr[i] = list.get(i);
+            }
+            return arr;
+        }
+
+        private static final class Builder {
+
+            private final Map<BytesRef, List<Integer>> terms = new HashMap<>();
+            private final List<Integer> automatonIds = new ArrayList<>();
+            private final List<AutomatonLeaf> automata = new ArrayList<>();
+            private final List<Integer> pointRangeIds = new ArrayList<>();
+            private final List<PointRangeLeaf> pointRanges = new ArrayList<>();
+            private final List<Integer> pointSetIds = new ArrayList<>();
+            private final List<PointSetLeaf> pointSets = new ArrayList<>();
+            private final List<Integer> phraseIds = new ArrayList<>();
+            private final List<PhraseLeaf> phrases = new ArrayList<>();
+
+            void add(final int id, final Leaf leaf) {
+                if (leaf instanceof final TermLeaf termLeaf) {
+                    terms.computeIfAbsent(termLeaf.term, k -> new ArrayList<>()).add(id);
+                } else if (leaf instanceof final AutomatonLeaf automatonLeaf) {
+                    automatonIds.add(id);
+                    automata.add(automatonLeaf);
+                } else if (leaf instanceof final PointRangeLeaf pointRangeLeaf) {
+                    pointRangeIds.add(id);
+                    pointRanges.add(pointRangeLeaf);
+                } else if (leaf instanceof final PointSetLeaf pointSetLeaf) {
+                    pointSetIds.add(id);
+                    pointSets.add(pointSetLeaf);
+                } else if (leaf instanceof final PhraseLeaf phraseLeaf) {
+                    phraseIds.add(id);
+                    phrases.add(phraseLeaf);
+                } else {
+                    throw new IllegalArgumentException("Unexpected leaf type " + leaf.getClass());
+                }
+            }
+
+            FieldPredicates build() {
+                return new FieldPredicates(this);
+            }
+        }
+    }
+}
@@ -47,8 +47,10 @@ import org.apache.lucene980.search.BooleanQuery.Builder;
 import org.apache.lucene980.search.MatchAllDocsQuery;
 import org.apache.lucene980.search.MatchNoDocsQuery;
 import org.apache.lucene980.search.Query;
+import org.apache.lucene980.search.TermInSetQuery;
 import org.apache.lucene980.search.TermQuery;
 import org.apache.lucene980.search.WildcardQuery;
+import org.apache.lucene980.util.BytesRef;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -665,41 +667,74 @@ class SearchExpressionQueryBuilder {
         return query;
     }
 
+    /**
+     * Build a query that matches any line of a dictionary. Numeric lines are combined into a single point set
+     * query and lines that produce a single term are combined into a single {@link TermInSetQuery} so that large
+     * dictionaries don't create a boolean clause per line. Only lines that need more than one term, e.g.
+     * wildcards or several words, are added as separate clauses.
+     */
     private Query getDictionary(final String fieldName,
                                 final DocRef docRef,
                                 final IndexField indexField,
                                 final Set<String> terms) {
         final String[] wordArr = loadWords(docRef);
-        final Builder builder = new Builder();
-        for (final String val : wordArr) {
-            Query query;
-
-            if (FieldType.INTEGER.equals(indexField.getFldType())) {
-                query = getIntIn(fieldName, val);
-            } else if (FieldType.LONG.equals(indexField.getFldType())) {
-                query = getLongIn(fieldName, val);
-            } else if (FieldType.FLOAT.equals(indexField.getFldType())) {
-                query = getFloatIn(fieldName, val);
-            } else if (FieldType.DOUBLE.equals(indexField.getFldType())) {
-                query = getDoubleIn(fieldName, val);
-            } else if (FieldType.DATE.equals(indexField.getFldType())) {
-                query = getDateIn(fieldName, val);
-            } else if (indexField.getFldType().isNumeric()) {
-                query = getLongIn(fieldName, val);
+        final FieldType fieldType = indexField.getFldType();
+        if (fieldType.isNumeric() || FieldType.DATE.equals(fieldType)) {
+            // Each line may itself be a delimited list of values, so just combine all the values into one set.
+            final List<String> lines = nonBlank(wordArr);
+            if (lines.isEmpty()) {
+                // An empty boolean query matches nothing, the same as a dictionary with no lines.
+                return new Builder().build();
+            }
+            final String values = String.join(DELIMITER, lines);
+            if (FieldType.INTEGER.equals(fieldType)) {
+                return getIntIn(fieldName, values);
+            } else if (FieldType.FLOAT.equals(fieldType)) {
+                return getFloatIn(fieldName, values);
+            } else if (FieldType.DOUBLE.equals(fieldType)) {
+                return getDoubleIn(fieldName, values);
+            } else if (FieldType.DATE.equals(fieldType)) {
+                return getDateIn(fieldName, values);
             } else {
-                query = getSubQuery(indexField, val, terms, false);
+                return getLongIn(fieldName, values);
             }
+        }
 
+        final Builder builder = new Builder();
+        final List<BytesRef> singleTerms = new ArrayList<>();
+        for (final String val : wordArr) {
+            Query query = getSubQuery(indexField, val, terms, false);
             if (query != null) {
                 // DictionaryDocument terms on one line must all exist in the
                 // matching documents so change to must.
                 query = modifyOccurrence(query, Occur.MUST);
-                builder.add(query, Occur.SHOULD);
+                if (query instanceof final TermQuery termQuery
+                        && fieldName.equals(termQuery.getTerm().field())) {
+                    singleTerms.add(termQuery.getTerm().bytes());
+                } else {
+                    builder.add(query, Occur.SHOULD);
+                }
             }
         }
+
+        if (singleTerms.size() == 1) {
+            builder.add(new TermQuery(new Term(fieldName, singleTerms.getFirst())), Occur.SHOULD);
+        } else if (!singleTerms.isEmpty()) {
+            builder.add(new TermInSetQuery(fieldName, singleTerms), Occur.SHOULD);
+        }
         return builder.build();
     }
 
+    private List<String> nonBlank(final String[] words) {
+        final List<String> list = new ArrayList<>(words.length);
+        for (final String word : words) {
+            if (word != null && !word.isBlank()) {
+                list.add(word);
+            }
+        }
+        return list;
+    }
+
     private String[] loadWords(final DocRef docRef) {
         final String[] words = wordListProvider.getWords(docRef);
         if (words == null) {
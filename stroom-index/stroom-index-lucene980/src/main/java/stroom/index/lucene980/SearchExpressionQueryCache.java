@@ -11,16 +11,17 @@ import stroom.util.logging.LambdaLoggerFactory;
 import jakarta.inject.Inject;
 import org.apache.lucene980.analysis.Analyzer;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class SearchExpressionQueryCache {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(SearchExpressionQueryCache.class);
 
     private final SearchExpressionQueryBuilderFactory searchExpressionQueryBuilderFactory;
-    private final Map<String, Analyzer> analyzerMap = new HashMap<>();
-    private SearchExpressionQuery luceneQuery;
+    private final Map<String, Analyzer> analyzerMap = new ConcurrentHashMap<>();
+    // Held together with the request it was built for so a query is never used for a different request.
+    private volatile CachedQuery cachedQuery;
 
     @Inject
     SearchExpressionQueryCache(final SearchExpressionQueryBuilderFactory searchExpressionQueryBuilderFactory) {
@@ -30,16 +31,18 @@ class SearchExpressionQueryCache {
     SearchExpressionQuery getQuery(final SearchRequest searchRequest,
                                    final IndexFieldCache indexFieldCache) {
         try {
-            if (luceneQuery == null) {
+            CachedQuery cached = cachedQuery;
+            if (cached == null || cached.searchRequest() != searchRequest) {
                 final SearchExpressionQueryBuilder searchExpressionQueryBuilder =
                         searchExpressionQueryBuilderFactory.create(
                                 searchRequest.getQuery().getDataSource(),
                                 indexFieldCache,
                                 searchRequest.getDateTimeSettings());
-                luceneQuery = searchExpressionQueryBuilder
-                        .buildQuery(searchRequest.getQuery().getExpression());
+                cached = new CachedQuery(searchRequest, searchExpressionQueryBuilder
+                        .buildQuery(searchRequest.getQuery().getExpression()));
+                cachedQuery = cached;
             }
-            return luceneQuery;
+            return cached.query();
         } catch (final RuntimeException e) {
             LOGGER.error(e::getMessage, e);
             throw e;
@@ -48,17 +51,20 @@ class SearchExpressionQueryCache {
 
     Analyzer getAnalyser(final LuceneIndexField indexField) {
         try {
-            Analyzer fieldAnalyzer = analyzerMap.get(indexField.getFldName());
-            if (fieldAnalyzer == null) {
-                // Add the field analyser.
-                fieldAnalyzer = AnalyzerFactory.create(indexField.getAnalyzerType(),
-                        indexField.isCaseSensitive());
-                analyzerMap.put(indexField.getFldName(), fieldAnalyzer);
-            }
-            return fieldAnalyzer;
+            // Add the field analyser.
+            return analyzerMap.computeIfAbsent(indexField.getFldName(), k ->
+                    AnalyzerFactory.create(indexField.getAnalyzerType(), indexField.isCaseSensitive()));
         } catch (final RuntimeException e) {
             LOGGER.error(e::getMessage, e);
             throw e;
         }
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record CachedQuery(SearchRequest searchRequest, SearchExpressionQuery query) {
+
+    }
 }
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.IndexField;
+import stroom.index.lucene980.analyser.AnalyzerFactory;
+
+import org.apache.lucene980.analysis.Analyzer;
+import org.apache.lucene980.analysis.TokenStream;
+import org.apache.lucene980.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene980.document.Field;
+import org.apache.lucene980.index.SegmentInfos;
+import org.apache.lucene980.search.BooleanClause;
+import org.apache.lucene980.search.BooleanQuery;
+import org.apache.lucene980.search.BoostQuery;
+import org.apache.lucene980.search.ConstantScoreQuery;
+import org.apache.lucene980.search.IndexOrDocValuesQuery;
+import org.apache.lucene980.search.MatchNoDocsQuery;
+import org.apache.lucene980.search.PointInSetQuery;
+import org.apache.lucene980.search.PointRangeQuery;
+import org.apache.lucene980.search.Query;
+import org.apache.lucene980.search.TermQuery;
+import org.apache.lucene980.store.Directory;
+import org.apache.lucene980.store.NIOFSDirectory;
+import org.apache.lucene980.util.NumericUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A summary of the values held in an index shard that lets a search skip shards that cannot match its query.
+ * <p>
+ * For each numeric and date field the summary holds the min and max point value, and for each keyword field it
+ * holds a bloom filter of the terms the keyword analyser produces for each value. Fields that are indexed in any
+ * other way are recorded as not summarised so that a query on them is never pruned. Values are recorded before
+ * the document is added to the writer so the summary always covers at least the documents visible to a searcher.
+ * <p>
+ * The summary is stored in the user data of each Lucene commit so that it is always consistent with the
+ * committed documents. Shards written before summaries existed have no summary and are never pruned.
+ */
+class ShardSummary {
+
+    private static final String SUMMARY_KEY = "stroom:summary";
+    private static final String SUMMARY_VERSION = "1";
+    private static final String RANGE_KEY_PREFIX = "stroom:range:";
+    private static final String TERMS_KEY_PREFIX = "stroom:terms:";
+    private static final String NOT_SUMMARISED = "-";
+
+    /**
+     * The bloom filter is a fixed size so a shard with many distinct values for a field will saturate the filter,
+     * after which the field just never prunes the shard.
+     */
+    private static final int TERM_FILTER_BITS = 1 << 16;
+    private static final int TERM_FILTER_HASHES = 3;
+
+    /**
+     * The keyword analyser splits long values into several terms so we must record the terms it produces rather
+     * than the whole value.
+     */
+    private static final Analyzer CASE_SENSITIVE_KEYWORD_ANALYZER =
+            AnalyzerFactory.create(AnalyzerType.KEYWORD, true);
+    private static final Analyzer KEYWORD_ANALYZER =
+            AnalyzerFactory.create(AnalyzerType.KEYWORD, false);
+
+    private final Map<String, FieldRange> ranges = new ConcurrentHashMap<>();
+    private final Map<String, TermFilter> termFilters = new ConcurrentHashMap<>();
+
+    ShardSummary() {
+    }
+
+    /**
+     * Read the summary from the latest commit of the shard in the supplied directory.
+     *
+     * @return The summary or null if the shard was not written with a summary.
+     */
+    static ShardSummary read(final Path dir) throws IOException {
+        try (final Directory directory = new NIOFSDirectory(dir, Lucene980LockFactory.get())) {
+            return fromCommitData(SegmentInfos.readLatestCommit(directory).getUserData());
+        }
+    }
+
+    /**
+     * @return The summary held in the supplied commit user data or null if there isn't one.
+     */
+    static ShardSummary fromCommitData(final Map<String, String> commitData) {
+        if (commitData == null || !SUMMARY_VERSION.equals(commitData.get(SUMMARY_KEY))) {
+            return null;
+        }
+
+        final ShardSummary shardSummary = new ShardSummary();
+        commitData.forEach((key, value) -> {
+            if (key.startsWith(RANGE_KEY_PREFIX)) {
+                shardSummary.ranges.put(key.substring(RANGE_KEY_PREFIX.length()), FieldRange.decode(value));
+            } else if (key.startsWith(TERMS_KEY_PREFIX)) {
+                shardSummary.termFilters.put(key.substring(TERMS_KEY_PREFIX.length()), TermFilter.decode(value));
+            }
+        });
+        return shardSummary;
+    }
+
+    Map<String, String> toCommitData() {
+        final Map<String, String> commitData = new HashMap<>();
+        commitData.put(SUMMARY_KEY, SUMMARY_VERSION);
+        ranges.forEach((fieldName, range) -> commitData.put(RANGE_KEY_PREFIX + fieldName, range.encode()));
+        termFilters.forEach((fieldName, filter) -> commitData.put(TERMS_KEY_PREFIX + fieldName, filter.encode()));
+        return commitData;
+    }
+
+    /**
+     * Record a field that is about to be added to the shard.
+     */
+    void record(final IndexField indexField, final Field field) {
+        final String fieldName = indexField.getFldName();
+        switch (indexField.getFldType()) {
+            case LONG, ID, DATE -> recordPoint(fieldName, Long.BYTES, field.numericValue().longValue());
+            case INTEGER -> recordPoint(fieldName, Integer.BYTES, field.numericValue().intValue());
+            case FLOAT -> recordPoint(fieldName,
+                    Integer.BYTES,
+                    NumericUtils.floatToSortableInt(field.numericValue().floatValue()));
+            case DOUBLE -> recordPoint(fieldName,
+                    Long.BYTES,
+                    NumericUtils.doubleToSortableLong(field.numericValue().doubleValue()));
+            case TEXT -> {
+                if (AnalyzerType.KEYWORD.equals(indexField.getAnalyzerType())) {
+                    recordTerms(fieldName, indexField.isCaseSensitive(), field.stringValue());
+                } else {
+                    termFilters.computeIfAbsent(fieldName, k -> TermFilter.NOT_SUMMARISED).invalidate();
+                }
+            }
+            default -> {
+                // We don't know what this field will look like in the index so make sure we never prune on it.
+                ranges.put(fieldName, FieldRange.NOT_SUMMARISED);
+                termFilters.put(fieldName, TermFilter.NOT_SUMMARISED);
+            }
+        }
+    }
+
+    private void recordPoint(final String fieldName, final int bytesPerDim, final long value) {
+        ranges.computeIfAbsent(fieldName, k -> new FieldRange(bytesPerDim)).add(bytesPerDim, value);
+    }
+
+    private void recordTerms(final String fieldName, final boolean caseSensitive, final String value) {
+        final TermFilter termFilter = termFilters.computeIfAbsent(fieldName, k -> new TermFilter());
+        final Analyzer analyzer = caseSensitive
+                ? CASE_SENSITIVE_KEYWORD_ANALYZER
+                : KEYWORD_ANALYZER;
+        try (final TokenStream tokenStream = analyzer.tokenStream(fieldName, value)) {
+            final CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                termFilter.add(termAttribute.toString());
+            }
+            tokenStream.end();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return False if no document in the shard can match the supplied query. True if a document may match.
+     */
+    boolean canMatch(final Query query) {
+        if (query instanceof MatchNoDocsQuery) {
+            return false;
+        } else if (query instanceof final IndexOrDocValuesQuery indexOrDocValuesQuery) {
+            return canMatch(indexOrDocValuesQuery.getIndexQuery());
+        } else if (query instanceof final ConstantScoreQuery constantScoreQuery) {
+            return canMatch(constantScoreQuery.getQuery());
+        } else if (query instanceof final BoostQuery boostQuery) {
+            return canMatch(boostQuery.getQuery());
+        } else if (query instanceof final BooleanQuery booleanQuery) {
+            return canMatch(booleanQuery);
+        } else if (query instanceof final TermQuery termQuery) {
+            // No term filter means no document in this shard has any terms for the field.
+            final TermFilter termFilter = termFilters.get(termQuery.getTerm().field());
+            return termFilter != null && termFilter.mightContain(termQuery.getTerm().text());
+        } else if (query instanceof final PointRangeQuery pointRangeQuery) {
+            // No range means no document in this shard has any points for the field.
+            final FieldRange range = ranges.get(pointRangeQuery.getField());
+            return range != null && (pointRangeQuery.getNumDims() != 1 || range.overlaps(
+                    pointRangeQuery.getBytesPerDim(),
+                    pointRangeQuery.getLowerPoint(),
+                    pointRangeQuery.getUpperPoint()));
+        } else if (query instanceof final PointInSetQuery pointInSetQuery) {
+            final FieldRange range = ranges.get(pointInSetQuery.getField());
+            if (range == null) {
+                return false;
+            }
+            if (pointInSetQuery.getNumDims() != 1) {
+                return true;
+            }
+            for (final byte[] point : pointInSetQuery.getPackedPoints()) {
+                if (range.overlaps(pointInSetQuery.getBytesPerDim(), point, point)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // We can't tell anything about other query types.
+        return true;
+    }
+
+    private boolean canMatch(final BooleanQuery booleanQuery) {
+        boolean hasRequired = false;
+        boolean hasOptional = false;
+        boolean optionalCanMatch = false;
+        for (final BooleanClause clause : booleanQuery.clauses()) {
+            switch (clause.getOccur()) {
+                case MUST, FILTER -> {
+                    hasRequired = true;
+                    if (!canMatch(clause.getQuery())) {
+                        return false;
+                    }
+                }
+                case SHOULD -> {
+                    hasOptional = true;
+                    if (!optionalCanMatch && canMatch(clause.getQuery())) {
+                        optionalCanMatch = true;
+                    }
+                }
+                case MUST_NOT -> {
+                    // Excluding documents never tells us that a shard has none that match.
+                }
+            }
+        }
+
+        // Optional clauses only have to match if there are no required ones.
+        final boolean optionalRequired = !hasRequired || booleanQuery.getMinimumNumberShouldMatch() > 0;
+        return !hasOptional || !optionalRequired || optionalCanMatch;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class FieldRange {
+
+        private static final FieldRange NOT_SUMMARISED = new FieldRange(0);
+
+        private final int bytesPerDim;
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+        private volatile boolean valid;
+
+        private FieldRange(final int bytesPerDim) {
+            this.bytesPerDim = bytesPerDim;
+            this.valid = bytesPerDim > 0;
+        }
+
+        void add(final int bytesPerDim, final long value) {
+            if (this.bytesPerDim != bytesPerDim) {
+                // The field type has changed within the shard so we can't compare values any more.
+                valid = false;
+            } else {
+                min.accumulateAndGet(value, Math::min);
+                max.accumulateAndGet(value, Math::max);
+            }
+        }
+
+        boolean overlaps(final int bytesPerDim, final byte[] lowerPoint, final byte[] upperPoint) {
+            if (!valid || this.bytesPerDim != bytesPerDim) {
+                return true;
+            }
+            final long lower = decode(lowerPoint);
+            final long upper = decode(upperPoint);
+            return lower <= max.get() && upper >= min.get();
+        }
+
+        private long decode(final byte[] point) {
+            return bytesPerDim == Integer.BYTES
+                    ? NumericUtils.sortableBytesToInt(point, 0)
+                    : NumericUtils.sortableBytesToLong(point, 0);
+        }
+
+        String encode() {
+            if (!valid) {
+                return ShardSummary.NOT_SUMMARISED;
+            }
+            return bytesPerDim + "," + min.get() + "," + max.get();
+        }
+
+        static FieldRange decode(final String value) {
+            final String[] parts = value.split(",");
+            if (parts.length != 3) {
+                return NOT_SUMMARISED;
+            }
+            final FieldRange range = new FieldRange(Integer.parseInt(parts[0]));
+            range.min.set(Long.parseLong(parts[1]));
+            range.max.set(Long.parseLong(parts[2]));
+            return range;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class TermFilter {
+
+        private static final TermFilter NOT_SUMMARISED = new TermFilter(null);
+
+        private final AtomicLongArray bits;
+        private volatile boolean valid;
+
+        private TermFilter() {
+            this(new AtomicLongArray(TERM_FILTER_BITS / Long.SIZE));
+        }
+
+        private TermFilter(final AtomicLongArray bits) {
+            this.bits = bits;
+            this.valid = bits != null;
+        }
+
+        void invalidate() {
+            valid = false;
+        }
+
+        void add(final String term) {
+            if (valid) {
+                final long hash = hash(term);
+                for (int i = 0; i < TERM_FILTER_HASHES; i++) {
+                    final int bit = bit(hash, i);
+                    final int index = bit / Long.SIZE;
+                    final long mask = 1L << (bit % Long.SIZE);
+                    if ((bits.get(index) & mask) == 0) {
+                        bits.getAndAccumulate(index, mask, (current, m) -> current | m);
+                    }
+                }
+            }
+        }
+
+        boolean mightContain(final String term) {
+            if (!valid) {
+                return true;
+            }
+            final long hash = hash(term);
+            for (int i = 0; i < TERM_FILTER_HASHES; i++) {
+                final int bit = bit(hash, i);
+                if ((bits.get(bit / Long.SIZE) & (1L << (bit % Long.SIZE))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int bit(final long hash, final int i) {
+            final int hash1 = (int) hash;
+            final int hash2 = (int) (hash >>> 32);
+            return Math.floorMod(hash1 + i * hash2, TERM_FILTER_BITS);
+        }
+
+        /**
+         * 64 bit FNV-1a hash of the term.
+         */
+        private static long hash(final String term) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < term.length(); i++) {
+                hash ^= term.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        String encode() {
+            if (!valid) {
+                return ShardSummary.NOT_SUMMARISED;
+            }
+            final byte[] bytes = new byte[bits.length() * Long.BYTES];
+            for (int i = 0; i < bits.length(); i++) {
+                final long word = bits.get(i);
+                for (int j = 0; j < Long.BYTES; j++) {
+                    bytes[i * Long.BYTES + j] = (byte) (word >>> (j * Byte.SIZE));
+                }
+            }
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+
+        static TermFilter decode(final String value) {
+            if (ShardSummary.NOT_SUMMARISED.equals(value)) {
+                return NOT_SUMMARISED;
+            }
+            final byte[] bytes = Base64.getDecoder().decode(value);
+            if (bytes.length != TERM_FILTER_BITS / Byte.SIZE) {
+                return NOT_SUMMARISED;
+            }
+            final AtomicLongArray bits = new AtomicLongArray(TERM_FILTER_BITS / Long.SIZE);
+            for (int i = 0; i < bits.length(); i++) {
+                long word = 0;
+                for (int j = 0; j < Long.BYTES; j++) {
+                    word |= (bytes[i * Long.BYTES + j] & 0xFFL) << (j * Byte.SIZE);
+                }
+                bits.set(i, word);
+            }
+            return new TermFilter(bits);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.IndexField;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBoolean;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValDouble;
+import stroom.query.language.functions.ValFloat;
+import stroom.query.language.functions.ValInteger;
+import stroom.query.language.functions.ValLong;
+import stroom.query.language.functions.ValString;
+
+import org.apache.lucene980.document.Document;
+import org.apache.lucene980.index.BinaryDocValues;
+import org.apache.lucene980.index.IndexableField;
+import org.apache.lucene980.index.LeafReader;
+import org.apache.lucene980.index.LeafReaderContext;
+import org.apache.lucene980.index.ReaderUtil;
+import org.apache.lucene980.index.SortedNumericDocValues;
+import org.apache.lucene980.index.StoredFields;
+import org.apache.lucene980.search.IndexSearcher;
+import org.apache.lucene980.util.NumericUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads the values of the requested fields for matching docs.
+ * <p>
+ * Where a field has doc values in the segment being read the value is taken from the doc values column, which
+ * avoids decompressing the whole stored field block for the doc. Stored fields are only read for docs that have
+ * fields without doc values. Doc ids should be supplied in ascending order so that each column can be read
+ * sequentially through each segment.
+ */
+class StoredValuesReader {
+
+    private final IndexField[] storedFields;
+    private final Set<String> fieldsToLoad;
+    private final List<LeafReaderContext> leaves;
+    private final StoredFields storedFieldsReader;
+    private final Column[] columns;
+
+    private LeafReaderContext leaf;
+    private int lastDoc = -1;
+
+    StoredValuesReader(final IndexSearcher searcher,
+                       final IndexField[] storedFields,
+                       final Set<String> fieldsToLoad) throws IOException {
+        this.storedFields = storedFields;
+        this.fieldsToLoad = fieldsToLoad;
+        this.leaves = searcher.getIndexReader().leaves();
+        this.storedFieldsReader = searcher.storedFields();
+        this.columns = new Column[storedFields.length];
+    }
+
+    Val[] read(final int docId, final Consumer<Throwable> errorHandler) throws IOException {
+        final int doc = position(docId);
+        final Val[] values = new Val[storedFields.length];
+
+        boolean missing = false;
+        for (int i = 0; i < storedFields.length; i++) {
+            final Column column = columns[i];
+            if (column != null) {
+                try {
+                    values[i] = column.read(doc);
+                    if (values[i] == null && column.fallbackIfMissing) {
+                        missing = true;
+                    }
+                } catch (final RuntimeException e) {
+                    errorHandler.accept(e);
+                }
+            } else if (storedFields[i] != null) {
+                missing = true;
+            }
+        }
+
+        // Read stored fields for anything we couldn't get from doc values.
+        if (missing) {
+            final Document document = storedFieldsReader.document(docId, fieldsToLoad);
+            for (int i = 0; i < storedFields.length; i++) {
+                final IndexField storedField = storedFields[i];
+
+                // If the field is null then it isn't stored.
+                if (storedField != null && values[i] == null) {
+                    final IndexableField indexableField = document.getField(storedField.getFldName());
+
+                    // If the field is not in fact stored then it will be null here.
+                    if (indexableField != null) {
+                        try {
+                            values[i] = FieldFactory.convertValue(storedField, indexableField);
+                        } catch (final RuntimeException e) {
+                            errorHandler.accept(e);
+                        }
+                    }
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Move to the segment containing the doc and return the doc id relative to that segment.
+     */
+    private int position(final int docId) throws IOException {
+        if (leaf == null ||
+                docId < leaf.docBase ||
+                docId >= leaf.docBase + leaf.reader().maxDoc() ||
+                docId - leaf.docBase <= lastDoc) {
+            // Doc values can only be iterated forwards so if we have gone backwards or changed segment we need to
+            // get new iterators.
+            leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+            for (int i = 0; i < storedFields.length; i++) {
+                columns[i] = Column.create(leaf.reader(), storedFields[i]);
+            }
+        }
+        lastDoc = docId - leaf.docBase;
+        return lastDoc;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private abstract static class Column {
+
+        /**
+         * Whether we need to check stored fields when a doc has no value in this column.
+         */
+        private final boolean fallbackIfMissing;
+
+        Column(final boolean fallbackIfMissing) {
+            this.fallbackIfMissing = fallbackIfMissing;
+        }
+
+        abstract Val read(int doc) throws IOException;
+
+        static Column create(final LeafReader reader, final IndexField indexField) throws IOException {
+            if (indexField == null) {
+                return null;
+            }
+
+            switch (indexField.getFldType()) {
+                case LONG, ID, INTEGER, FLOAT, DOUBLE, DATE -> {
+                    // Numeric fields always write doc values along with points so a doc with no doc value for
+                    // the field has no stored value either.
+                    final SortedNumericDocValues docValues = reader.getSortedNumericDocValues(
+                            indexField.getFldName());
+                    if (docValues != null) {
+                        return new NumericColumn(indexField, docValues);
+                    }
+                }
+                case TEXT, BOOLEAN -> {
+                    // Text doc values are optional and are not written for very long values so fall back to
+                    // stored fields if a doc has no value.
+                    final BinaryDocValues docValues = reader.getBinaryDocValues(
+                            FieldFactory.getDocValuesFieldName(indexField));
+                    if (docValues != null) {
+                        return new TextColumn(indexField, docValues);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class NumericColumn extends Column {
+
+        private final IndexField indexField;
+        private final SortedNumericDocValues docValues;
+
+        NumericColumn(final IndexField indexField, final SortedNumericDocValues docValues) {
+            super(false);
+            this.indexField = indexField;
+            this.docValues = docValues;
+        }
+
+        @Override
+        Val read(final int doc) throws IOException {
+            if (!docValues.advanceExact(doc)) {
+                return null;
+            }
+
+            final long value = docValues.nextValue();
+            return switch (indexField.getFldType()) {
+                case INTEGER -> ValInteger.create((int) value);
+                case FLOAT -> ValFloat.create(NumericUtils.sortableIntToFloat((int) value));
+                case DOUBLE -> ValDouble.create(NumericUtils.sortableLongToDouble(value));
+                case DATE -> ValDate.create(value);
+                default -> ValLong.create(value);
+            };
+        }
+    }
+
+    private static class TextColumn extends Column {
+
+        private final IndexField indexField;
+        private final BinaryDocValues docValues;
+
+        TextColumn(final IndexField indexField, final BinaryDocValues docValues) {
+            super(true);
+            this.indexField = indexField;
+            this.docValues = docValues;
+        }
+
+        @Override
+        Val read(final int doc) throws IOException {
+            if (!docValues.advanceExact(doc)) {
+                return null;
+            }
+
+            final String value = docValues.binaryValue().utf8ToString();
+            return switch (indexField.getFldType()) {
+                case BOOLEAN -> ValBoolean.create(Boolean.parseBoolean(value));
+                default -> ValString.create(value);
+            };
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.FieldType;
+import stroom.datasource.api.v2.IndexField;
+import stroom.dictionary.api.WordListProvider;
+import stroom.docref.DocRef;
+import stroom.expression.api.DateTimeSettings;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.shared.LuceneIndexField;
+import stroom.query.api.v2.ExpressionOperator;
+import stroom.query.api.v2.ExpressionOperator.Op;
+import stroom.query.api.v2.ExpressionTerm.Condition;
+import stroom.query.api.v2.Query;
+import stroom.query.api.v2.SearchRequest;
+import stroom.query.common.v2.SearchResultStoreConfig;
+import stroom.query.language.functions.ValInteger;
+import stroom.query.language.functions.ValString;
+import stroom.search.extraction.ExtractionConfig;
+import stroom.search.extraction.FieldValue;
+import stroom.search.impl.SearchConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares matching events against many streaming analytic rules using a Lucene memory index per event and rule
+ * with matching using the shared {@link CompiledRuleMatcher}.
+ * <p>
+ * Each invocation matches one event against every rule, in the same way that
+ * {@code MultiAnalyticFieldListConsumer} passes each event to every rule consumer.
+ */
+public class BenchmarkCompiledRuleMatcher {
+
+    private static final int EVENT_COUNT = 1000;
+    private static final DocRef INDEX = new DocRef("Index", "test", "test");
+
+    @Fork(value = 1, warmups = 1)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void benchMatchEvent(final ExecutionPlan plan, final Blackhole blackhole) {
+        final List<FieldValue> event = plan.nextEvent();
+        for (int i = 0; i < plan.rules.size(); i++) {
+            blackhole.consume(plan.matchers.get(i).match(plan.rules.get(i), event));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        @Param({"memoryIndex", "compiled"})
+        public String engine;
+
+        @Param({"10", "100", "500"})
+        public int ruleCount;
+
+        @Param({"5", "20", "50"})
+        public int eventFieldCount;
+
+        private final List<SearchRequest> rules = new ArrayList<>();
+        private final List<Lucene980MemoryIndex> matchers = new ArrayList<>();
+        private final List<List<FieldValue>> events = new ArrayList<>();
+        private int eventIndex;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final SearchConfig searchConfig = new SearchConfig(
+                    1000,
+                    1024,
+                    "compiled".equals(engine),
+                    new ExtractionConfig(),
+                    new IndexShardSearchConfig(),
+                    new SearchResultStoreConfig());
+            final SearchExpressionQueryBuilderFactory searchExpressionQueryBuilderFactory =
+                    new SearchExpressionQueryBuilderFactory(new EmptyWordListProvider(), () -> searchConfig);
+            final CompiledRuleMatcher compiledRuleMatcher = new CompiledRuleMatcher();
+
+            final List<IndexField> fields = new ArrayList<>();
+            fields.add(LuceneIndexField.createField("UserId", AnalyzerType.KEYWORD));
+            fields.add(LuceneIndexField.builder()
+                    .fldName("Port")
+                    .fldType(FieldType.INTEGER)
+                    .analyzerType(AnalyzerType.NUMERIC)
+                    .build());
+            for (int i = fields.size(); i < eventFieldCount; i++) {
+                fields.add(LuceneIndexField.createField("Text" + i, AnalyzerType.ALPHA_NUMERIC));
+            }
+
+            for (int i = 0; i < ruleCount; i++) {
+                final ExpressionOperator expression = ExpressionOperator.builder()
+                        .addTerm("UserId", Condition.EQUALS, "user" + i + "*")
+                        .addOperator(ExpressionOperator.builder().op(Op.OR)
+                                .addTerm("Port", Condition.GREATER_THAN, String.valueOf(i * 10))
+                                .addTerm("Text" + (2 + (i % Math.max(1, eventFieldCount - 2))),
+                                        Condition.CONTAINS,
+                                        "word" + i)
+                                .build())
+                        .build();
+                rules.add(SearchRequest.builder()
+                        .query(Query.builder()
+                                .dataSource(INDEX)
+                                .expression(expression)
+                                .build())
+                        .dateTimeSettings(DateTimeSettings.builder().build())
+                        .build());
+                matchers.add(new Lucene980MemoryIndex(
+                        new SearchExpressionQueryCache(searchExpressionQueryBuilderFactory),
+                        compiledRuleMatcher,
+                        () -> searchConfig));
+            }
+
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                final List<FieldValue> event = new ArrayList<>(fields.size());
+                event.add(new FieldValue(fields.get(0), ValString.create("user" + (i % 100))));
+                event.add(new FieldValue(fields.get(1), ValInteger.create(i)));
+                for (int j = 2; j < fields.size(); j++) {
+                    event.add(new FieldValue(fields.get(j),
+                            ValString.create("some words word" + ((i + j) % 500) + " and more words")));
+                }
+                events.add(event);
+            }
+        }
+
+        List<FieldValue> nextEvent() {
+            final List<FieldValue> event = events.get(eventIndex);
+            eventIndex = (eventIndex + 1) % events.size();
+            return event;
+        }
+    }
+
+    private static class EmptyWordListProvider implements WordListProvider {
+
+        @Override
+        public String getCombinedData(final DocRef dictionaryRef) {
+            return null;
+        }
+
+        @Override
+        public String[] getWords(final DocRef dictionaryRef) {
+            return new String[0];
+        }
+
+        @Override
+        public Set<DocRef> listDocuments() {
+            return Set.of();
+        }
+
+        @Override
+        public List<DocRef> findByNames(final List<String> names, final boolean allowWildCards) {
+            return List.of();
+        }
+    }
+}
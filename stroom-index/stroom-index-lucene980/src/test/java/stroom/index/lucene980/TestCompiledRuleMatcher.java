@@ -0,0 +1,222 @@
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.FieldType;
+import stroom.datasource.api.v2.IndexField;
+import stroom.dictionary.api.WordListProvider;
+import stroom.dictionary.shared.DictionaryDoc;
+import stroom.docref.DocRef;
+import stroom.expression.api.DateTimeSettings;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.shared.LuceneIndexField;
+import stroom.query.api.v2.ExpressionOperator;
+import stroom.query.api.v2.ExpressionOperator.Op;
+import stroom.query.api.v2.ExpressionTerm.Condition;
+import stroom.query.api.v2.Query;
+import stroom.query.api.v2.SearchRequest;
+import stroom.query.common.v2.SearchResultStoreConfig;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValInteger;
+import stroom.query.language.functions.ValString;
+import stroom.search.extraction.ExtractionConfig;
+import stroom.search.extraction.FieldValue;
+import stroom.search.impl.SearchConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestCompiledRuleMatcher {
+
+    private static final DocRef INDEX = new DocRef("Index", "test", "test");
+    private static final DocRef DICTIONARY = new DocRef(DictionaryDoc.DOCUMENT_TYPE, "dict", "dict");
+
+    private static final IndexField USER_ID = LuceneIndexField.createField("UserId", AnalyzerType.KEYWORD);
+    private static final IndexField MESSAGE = LuceneIndexField.builder()
+            .fldName("Message")
+            .analyzerType(AnalyzerType.ALPHA_NUMERIC)
+            .termPositions(true)
+            .build();
+    private static final IndexField PORT = LuceneIndexField.builder()
+            .fldName("Port")
+            .fldType(FieldType.INTEGER)
+            .analyzerType(AnalyzerType.NUMERIC)
+            .build();
+    private static final IndexField EVENT_TIME = LuceneIndexField.createDateField("EventTime");
+
+    private final CompiledRuleMatcher compiledRuleMatcher = new CompiledRuleMatcher();
+
+    @Test
+    void testCompiledMatchesMemoryIndex() {
+        final List<ExpressionOperator> rules = List.of(
+                and(builder -> builder.addTerm("UserId", Condition.EQUALS, "user1")),
+                and(builder -> builder.addTerm("UserId", Condition.EQUALS, "user*")),
+                and(builder -> builder.addTerm("UserId", Condition.NOT_EQUALS, "user1")),
+                and(builder -> builder.addTerm("UserId", Condition.IN, "user2 user3")),
+                and(builder -> builder.addDocRefTerm("UserId", Condition.IN_DICTIONARY, DICTIONARY)),
+                and(builder -> builder.addTerm("Message", Condition.CONTAINS, "quick fox")),
+                and(builder -> builder.addTerm("Message", Condition.CONTAINS, "\"quick brown\"")),
+                and(builder -> builder.addTerm("Message", Condition.CONTAINS, "bro*")),
+                and(builder -> builder.addTerm("Port", Condition.GREATER_THAN, "1024")),
+                and(builder -> builder.addTerm("Port", Condition.LESS_THAN_OR_EQUAL_TO, "80")),
+                and(builder -> builder.addTerm("Port", Condition.IN, "22,80,443")),
+                and(builder -> builder.addTerm("Port", Condition.BETWEEN, "1000,2000")),
+                and(builder -> builder.addTerm("EventTime", Condition.GREATER_THAN, "2024-01-01T00:00:00.000Z")),
+                ExpressionOperator.builder().op(Op.OR)
+                        .addTerm("UserId", Condition.EQUALS, "user2")
+                        .addTerm("Port", Condition.EQUALS, "1500")
+                        .build(),
+                ExpressionOperator.builder().op(Op.NOT)
+                        .addTerm("UserId", Condition.EQUALS, "user1")
+                        .build(),
+                ExpressionOperator.builder()
+                        .addTerm("UserId", Condition.EQUALS, "user*")
+                        .addOperator(ExpressionOperator.builder().op(Op.NOT)
+                                .addTerm("Port", Condition.EQUALS, "22")
+                                .build())
+                        .build());
+
+        final List<List<FieldValue>> events = List.of(
+                event("user1", "The quick brown fox", 22, "2023-06-01T00:00:00.000Z"),
+                event("user2", "A quick fox", 1500, "2024-06-01T00:00:00.000Z"),
+                event("user3", "brown bread", 80, "2024-02-01T00:00:00.000Z"),
+                event("admin", "nothing to see", 8080, "2022-01-01T00:00:00.000Z"));
+
+        for (final ExpressionOperator rule : rules) {
+            final SearchRequest searchRequest = createSearchRequest(rule);
+            final Lucene980MemoryIndex memoryIndex = createMemoryIndex(false);
+            final Lucene980MemoryIndex compiled = createMemoryIndex(true);
+            for (final List<FieldValue> event : events) {
+                assertThat(compiled.match(searchRequest, event))
+                        .describedAs("Rule '%s' against %s", rule, event)
+                        .isEqualTo(memoryIndex.match(searchRequest, event));
+            }
+        }
+    }
+
+    @Test
+    void testRulePerSearchRequest() {
+        final SearchRequest user1 = createSearchRequest(
+                and(builder -> builder.addTerm("UserId", Condition.EQUALS, "user1")));
+        final SearchRequest user2 = createSearchRequest(
+                and(builder -> builder.addTerm("UserId", Condition.EQUALS, "user2")));
+        final List<FieldValue> event = event("user2", "A quick fox", 1500, "2024-06-01T00:00:00.000Z");
+
+        // The same instance used for different requests must match each against its own rule.
+        for (final boolean compiled : new boolean[]{true, false}) {
+            final Lucene980MemoryIndex memoryIndex = createMemoryIndex(compiled);
+            assertThat(memoryIndex.match(user1, event)).isFalse();
+            assertThat(memoryIndex.match(user2, event)).isTrue();
+            assertThat(memoryIndex.match(user1, event)).isFalse();
+        }
+    }
+
+    @Test
+    void testConcurrentSearchRequests() throws Exception {
+        final SearchRequest user1 = createSearchRequest(
+                and(builder -> builder.addTerm("UserId", Condition.EQUALS, "user1")));
+        final SearchRequest user2 = createSearchRequest(
+                and(builder -> builder.addTerm("UserId", Condition.EQUALS, "user2")));
+        final List<FieldValue> event = event("user2", "A quick fox", 1500, "2024-06-01T00:00:00.000Z");
+        final Lucene980MemoryIndex memoryIndex = createMemoryIndex(true);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final boolean even = i % 2 == 0;
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        final boolean matchUser2 = even == (j % 2 == 0);
+                        if (memoryIndex.match(matchUser2
+                                ? user2
+                                : user1, event) != matchUser2) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (final Future<Boolean> future : futures) {
+                assertThat(future.get()).isTrue();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private ExpressionOperator and(final Consumer<ExpressionOperator.Builder> consumer) {
+        final ExpressionOperator.Builder builder = ExpressionOperator.builder();
+        consumer.accept(builder);
+        return builder.build();
+    }
+
+    private List<FieldValue> event(final String userId,
+                                   final String message,
+                                   final int port,
+                                   final String eventTime) {
+        return List.of(
+                new FieldValue(USER_ID, ValString.create(userId)),
+                new FieldValue(MESSAGE, ValString.create(message)),
+                new FieldValue(PORT, ValInteger.create(port)),
+                new FieldValue(EVENT_TIME, ValDate.create(Instant.parse(eventTime))));
+    }
+
+    private SearchRequest createSearchRequest(final ExpressionOperator expression) {
+        return SearchRequest.builder()
+                .query(Query.builder()
+                        .dataSource(INDEX)
+                        .expression(expression)
+                        .build())
+                .dateTimeSettings(DateTimeSettings.builder().build())
+                .build();
+    }
+
+    private Lucene980MemoryIndex createMemoryIndex(final boolean compiledRuleMatchingEnabled) {
+        final SearchConfig searchConfig = new SearchConfig(
+                1000,
+                1024,
+                compiledRuleMatchingEnabled,
+                new ExtractionConfig(),
+                new IndexShardSearchConfig(),
+                new SearchResultStoreConfig());
+        final SearchExpressionQueryBuilderFactory searchExpressionQueryBuilderFactory =
+                new SearchExpressionQueryBuilderFactory(new MockWordListProvider(), () -> searchConfig);
+        return new Lucene980MemoryIndex(
+                new SearchExpressionQueryCache(searchExpressionQueryBuilderFactory),
+                compiledRuleMatcher,
+                () -> searchConfig);
+    }
+
+    private static class MockWordListProvider implements WordListProvider {
+
+        @Override
+        public String getCombinedData(final DocRef dictionaryRef) {
+            return null;
+        }
+
+        @Override
+        public String[] getWords(final DocRef dictionaryRef) {
+            return new String[]{"user2", "user3"};
+        }
+
+        @Override
+        public Set<DocRef> listDocuments() {
+            return Set.of(DICTIONARY);
+        }
+
+        @Override
+        public List<DocRef> findByNames(final List<String> names, final boolean allowWildCards) {
+            return List.of(DICTIONARY);
+        }
+    }
+}
@@ -57,12 +57,14 @@ class TestDocIdQueue extends StroomUnitTest {
         final CompletableFuture<Void>[] consumers = new CompletableFuture[threads];
         for (int i = 0; i < threads; i++) {
             final CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                final int[] buffer = new int[100];
                 boolean done = false;
                 while (!done) {
-                    if (queue.take() == null) {
+                    final int count = queue.take(buffer);
+                    if (count == -1) {
                         done = true;
                     } else {
-                        consumed.incrementAndGet();
+                        consumed.addAndGet(count);
                     }
                 }
             }, executorService);
@@ -70,11 +72,37 @@ class TestDocIdQueue extends StroomUnitTest {
         }
 
         CompletableFuture.allOf(producers).join();
-        for (int i = 0; i < threads; i++) {
-            queue.complete();
-        }
+        queue.complete();
         CompletableFuture.allOf(consumers).join();
 
         assertThat(consumed.get()).isEqualTo(MAX);
     }
+
+    @Test
+    void testTerminate() {
+        final DocIdQueue queue = new DocIdQueue(10);
+        queue.put(1);
+        queue.put(2);
+        queue.terminate();
+        queue.put(3);
+
+        assertThat(queue.take(new int[10])).isEqualTo(-1);
+    }
+
+    @Test
+    void testCompleteDrainsRemaining() {
+        final DocIdQueue queue = new DocIdQueue(10);
+        for (int i = 0; i < 5; i++) {
+            queue.put(i);
+        }
+        queue.complete();
+
+        final int[] buffer = new int[3];
+        assertThat(queue.take(buffer)).isEqualTo(3);
+        assertThat(buffer).containsExactly(0, 1, 2);
+        assertThat(queue.take(buffer)).isEqualTo(2);
+        assertThat(buffer[0]).isEqualTo(3);
+        assertThat(buffer[1]).isEqualTo(4);
+        assertThat(queue.take(buffer)).isEqualTo(-1);
+    }
 }
@@ -16,22 +16,30 @@
 
 package stroom.index.lucene980;
 
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.FieldType;
+import stroom.datasource.api.v2.IndexField;
 import stroom.index.impl.IndexConfig;
 import stroom.index.impl.IndexDocument;
 import stroom.index.impl.IndexShardUtil;
 import stroom.index.impl.IndexShardWriter;
+import stroom.index.impl.IndexWriterConfig;
 import stroom.index.shared.IndexShard;
 import stroom.index.shared.IndexVolume;
 import stroom.index.shared.LuceneIndexDoc;
 import stroom.index.shared.LuceneIndexField;
 import stroom.index.shared.LuceneVersionUtil;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValDouble;
 import stroom.query.language.functions.ValInteger;
+import stroom.query.language.functions.ValLong;
 import stroom.query.language.functions.ValString;
 import stroom.search.extraction.FieldValue;
 import stroom.test.common.util.test.StroomUnitTest;
 import stroom.util.io.FileUtil;
 import stroom.util.io.PathCreator;
 import stroom.util.io.SimplePathCreator;
+import stroom.util.time.StroomDuration;
 
 import org.apache.lucene980.search.IndexSearcher;
 import org.apache.lucene980.search.SearcherManager;
@@ -43,6 +51,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -143,6 +152,82 @@ class TestIndexShardIO extends StroomUnitTest {
         }
     }
 
+    @Test
+    void testStoredValuesReader() throws IOException {
+        final LuceneIndexDoc index = new LuceneIndexDoc();
+        index.setUuid(UUID.randomUUID().toString());
+        index.setName("Test");
+
+        final IndexVolume volume = new IndexVolume();
+        volume.setPath(FileUtil.getCanonicalPath(Files.createTempDirectory("stroom")));
+        final IndexShard idx1 = new IndexShard();
+        idx1.setIndexUuid(index.getUuid());
+        idx1.setPartition("all");
+        idx1.setId(1L);
+        idx1.setVolume(volume);
+        idx1.setIndexVersion(LuceneVersionUtil.getCurrentVersion());
+
+        final LuceneIndexField idField = LuceneIndexField.createIdField("Id");
+        final LuceneIndexField textField = LuceneIndexField.builder()
+                .fldName("Text")
+                .analyzerType(AnalyzerType.ALPHA_NUMERIC)
+                .stored(true)
+                .build();
+        final LuceneIndexField doubleField = LuceneIndexField.builder()
+                .fldName("Double")
+                .fldType(FieldType.DOUBLE)
+                .analyzerType(AnalyzerType.NUMERIC)
+                .stored(true)
+                .build();
+        final IndexField[] storedFields = new IndexField[]{idField, textField, null, doubleField};
+
+        // Write one segment without text doc values and one with so that we read from both doc values and
+        // stored fields.
+        for (final boolean writeTextDocValues : new boolean[]{false, true}) {
+            final IndexConfig indexConfig = new IndexConfig(
+                    null,
+                    1024,
+                    new IndexWriterConfig(null, null, null, StroomDuration.ZERO, writeTextDocValues),
+                    null,
+                    null);
+            final IndexShardWriter writer = new Lucene980IndexShardWriter(
+                    null, indexConfig, idx1, pathCreator, MAX_DOCS);
+            for (int i = 0; i < 10; i++) {
+                final int id = writer.getDocumentCount();
+                final IndexDocument document = new IndexDocument();
+                document.add(new FieldValue(idField, ValLong.create(id)));
+                document.add(new FieldValue(textField, ValString.create("Some text " + id)));
+                document.add(new FieldValue(doubleField, ValDouble.create(id / 2D)));
+                writer.addDocument(document);
+            }
+            writer.close();
+        }
+
+        final IndexShardSearcher indexShardSearcher = new IndexShardSearcher(idx1, pathCreator);
+        final SearcherManager searcherManager = indexShardSearcher.getSearcherManager();
+        final IndexSearcher searcher = searcherManager.acquire();
+        try {
+            final StoredValuesReader storedValuesReader = new StoredValuesReader(
+                    searcher,
+                    storedFields,
+                    Set.of("Id", "Text", "Double"));
+            final int maxDoc = searcher.getIndexReader().maxDoc();
+            assertThat(maxDoc).isEqualTo(20);
+            for (int docId = 0; docId < maxDoc; docId++) {
+                final Val[] values = storedValuesReader.read(docId, e -> {
+                    throw new RuntimeException(e);
+                });
+                final long id = values[0].toLong();
+                assertThat(values[1].toString()).isEqualTo("Some text " + id);
+                assertThat(values[2]).isNull();
+                assertThat(values[3].toDouble()).isEqualTo(id / 2D);
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        indexShardSearcher.destroy();
+    }
+
     @Test
     void testShardCorruption() {
 //        final Executor executor = Executors.newCachedThreadPool();
@@ -10,6 +10,11 @@ import stroom.query.api.v2.ExpressionOperator;
 import stroom.query.api.v2.ExpressionTerm;
 import stroom.query.common.v2.MockIndexFieldCache;
 
+import org.apache.lucene980.search.BooleanClause;
+import org.apache.lucene980.search.BooleanQuery;
+import org.apache.lucene980.search.Query;
+import org.apache.lucene980.search.TermInSetQuery;
+import org.apache.lucene980.search.WildcardQuery;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
@@ -87,4 +92,56 @@ public class TestSearchExpressionQueryBuilder {
 
         assertThat(query2.getQuery()).isEqualTo(query1.getQuery());
     }
+
+    @Test
+    public void testDictionaryTermSet() {
+        final DocRef dictionaryRef = new DocRef(DictionaryDoc.DOCUMENT_TYPE, "test", "test");
+        final WordListProvider wordListProvider = new WordListProvider() {
+            @Override
+            public String getCombinedData(final DocRef dictionaryRef) {
+                return null;
+            }
+
+            @Override
+            public String[] getWords(final DocRef dictionaryRef) {
+                return new String[]{"one", "Two", "thr*", "four"};
+            }
+
+            @Override
+            public Set<DocRef> listDocuments() {
+                return Set.of(dictionaryRef);
+            }
+
+            @Override
+            public List<DocRef> findByNames(final List<String> names, final boolean allowWildCards) {
+                return List.of(dictionaryRef);
+            }
+        };
+
+        final MockIndexFieldCache indexFieldCache = new MockIndexFieldCache();
+        indexFieldCache.put("test", LuceneIndexField.createField("test", AnalyzerType.KEYWORD));
+
+        final SearchExpressionQueryBuilder searchExpressionQueryBuilder = new SearchExpressionQueryBuilder(
+                new DocRef("test", "test"),
+                indexFieldCache,
+                wordListProvider,
+                DateTimeSettings.builder().build());
+
+        final Query query = searchExpressionQueryBuilder.buildQuery(ExpressionOperator.builder()
+                        .addDocRefTerm(
+                                "test",
+                                ExpressionTerm.Condition.IN_DICTIONARY,
+                                dictionaryRef)
+                        .build())
+                .getQuery();
+
+        // Plain terms are combined into one set query, leaving only the wildcard as a separate clause.
+        assertThat(query)
+                .isInstanceOf(BooleanQuery.class);
+        assertThat(((BooleanQuery) query).clauses())
+                .extracting(BooleanClause::getQuery)
+                .hasExactlyElementsOfTypes(WildcardQuery.class, TermInSetQuery.class);
+        assertThat(((BooleanQuery) query).clauses().get(1).getQuery().toString())
+                .contains("four", "one", "two");
+    }
 }
@@ -0,0 +1,269 @@
+package stroom.index.lucene980;
+
+import stroom.datasource.api.v2.AnalyzerType;
+import stroom.datasource.api.v2.IndexField;
+import stroom.docref.DocRef;
+import stroom.expression.api.DateTimeSettings;
+import stroom.index.impl.IndexConfig;
+import stroom.index.impl.IndexDocument;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.impl.IndexShardUtil;
+import stroom.index.impl.IndexShardWriter;
+import stroom.index.impl.IndexShardWriterCache;
+import stroom.index.shared.IndexShard;
+import stroom.index.shared.IndexVolume;
+import stroom.index.shared.LuceneIndexDoc;
+import stroom.index.shared.LuceneIndexField;
+import stroom.index.shared.LuceneVersionUtil;
+import stroom.query.api.v2.ExpressionOperator;
+import stroom.query.api.v2.ExpressionTerm.Condition;
+import stroom.query.common.v2.MockIndexFieldCache;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValLong;
+import stroom.query.language.functions.ValString;
+import stroom.search.extraction.FieldValue;
+import stroom.task.api.ExecutorProvider;
+import stroom.util.io.FileUtil;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.apache.lucene980.document.LongField;
+import org.apache.lucene980.index.Term;
+import org.apache.lucene980.search.BooleanClause.Occur;
+import org.apache.lucene980.search.BooleanQuery;
+import org.apache.lucene980.search.MatchAllDocsQuery;
+import org.apache.lucene980.search.Query;
+import org.apache.lucene980.search.TermQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestShardSummary {
+
+    private static final LuceneIndexField NUMBER = LuceneIndexField.createNumericField("Number");
+    private static final LuceneIndexField KEYWORD = LuceneIndexField.createField(
+            "Keyword", AnalyzerType.KEYWORD, false);
+    private static final LuceneIndexField TEXT = LuceneIndexField.createField("Text", AnalyzerType.ALPHA_NUMERIC);
+
+    // Longer than the 255 chars the keyword tokeniser allows in a single term.
+    private static final String LONG_KEYWORD = "Long".repeat(75) + "Tail";
+
+    @Test
+    void testRange() {
+        final ShardSummary shardSummary = createSummary();
+
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Number", 10, 20)))
+                .isTrue();
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Number", 150, 200)))
+                .isTrue();
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Number", 201, 300)))
+                .isFalse();
+        assertThat(shardSummary.canMatch(LongField.newExactQuery("Number", 99)))
+                .isFalse();
+        assertThat(shardSummary.canMatch(LongField.newSetQuery("Number", 1, 500)))
+                .isFalse();
+        assertThat(shardSummary.canMatch(LongField.newSetQuery("Number", 1, 100)))
+                .isTrue();
+
+        // No doc has this field.
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Other", 0, Long.MAX_VALUE)))
+                .isFalse();
+    }
+
+    @Test
+    void testTerms() {
+        final ShardSummary shardSummary = createSummary();
+
+        // Keyword field is not case-sensitive so terms are lower cased.
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", "alpha"))))
+                .isTrue();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", "gamma"))))
+                .isFalse();
+
+        // We don't summarise analysed fields.
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Text", "gamma"))))
+                .isTrue();
+    }
+
+    @Test
+    void testLongKeyword() {
+        final ShardSummary shardSummary = new ShardSummary();
+        record(shardSummary, KEYWORD, ValString.create(LONG_KEYWORD));
+
+        // The keyword analyser indexes the value as several terms so each of them must be recorded.
+        final String value = LONG_KEYWORD.toLowerCase();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", value.substring(0, 255)))))
+                .isTrue();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", value.substring(255)))))
+                .isTrue();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", "gamma"))))
+                .isFalse();
+    }
+
+    @Test
+    void testBoolean() {
+        final ShardSummary shardSummary = createSummary();
+        final Query match = new TermQuery(new Term("Keyword", "alpha"));
+        final Query noMatch = new TermQuery(new Term("Keyword", "gamma"));
+
+        assertThat(shardSummary.canMatch(booleanQuery(Occur.MUST, match, noMatch)))
+                .isFalse();
+        assertThat(shardSummary.canMatch(booleanQuery(Occur.SHOULD, match, noMatch)))
+                .isTrue();
+        assertThat(shardSummary.canMatch(booleanQuery(Occur.SHOULD, noMatch, noMatch)))
+                .isFalse();
+
+        // Negation never prunes.
+        assertThat(shardSummary.canMatch(new BooleanQuery.Builder()
+                .add(new MatchAllDocsQuery(), Occur.MUST)
+                .add(match, Occur.MUST_NOT)
+                .build()))
+                .isTrue();
+    }
+
+    @Test
+    void testCommitData() {
+        final ShardSummary shardSummary = ShardSummary.fromCommitData(createSummary().toCommitData());
+
+        assertThat(shardSummary)
+                .isNotNull();
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Number", 201, 300)))
+                .isFalse();
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Number", 200, 300)))
+                .isTrue();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", "beta"))))
+                .isTrue();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", "gamma"))))
+                .isFalse();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Text", "gamma"))))
+                .isTrue();
+    }
+
+    @Test
+    void testCommittedShard(@TempDir final Path tempDir) throws IOException {
+        final PathCreator pathCreator = new SimplePathCreator(() -> tempDir.resolve("home"), () -> tempDir);
+        final LuceneIndexDoc index = new LuceneIndexDoc();
+        index.setUuid(UUID.randomUUID().toString());
+        index.setName("Test");
+        final IndexVolume volume = new IndexVolume();
+        volume.setPath(FileUtil.getCanonicalPath(tempDir.resolve("volume")));
+        final IndexShard indexShard = new IndexShard();
+        indexShard.setId(1L);
+        indexShard.setIndexUuid(index.getUuid());
+        indexShard.setPartition("all");
+        indexShard.setVolume(volume);
+        indexShard.setIndexVersion(LuceneVersionUtil.getCurrentVersion());
+
+        // Write and commit a shard in the same way as indexing does.
+        final IndexShardWriter writer = new Lucene980IndexShardWriter(
+                null, new IndexConfig(), indexShard, pathCreator, Integer.MAX_VALUE);
+        for (int i = 100; i <= 200; i++) {
+            final IndexDocument document = new IndexDocument();
+            document.add(new FieldValue(NUMBER, ValLong.create(i)));
+            document.add(new FieldValue(KEYWORD, ValString.create(i % 2 == 0
+                    ? "Alpha"
+                    : "Beta")));
+            writer.addDocument(document);
+        }
+        final IndexDocument longKeywordDocument = new IndexDocument();
+        longKeywordDocument.add(new FieldValue(KEYWORD, ValString.create(LONG_KEYWORD)));
+        writer.addDocument(longKeywordDocument);
+        writer.close();
+
+        // The summary is read back from the latest commit.
+        final ShardSummary shardSummary = ShardSummary.read(IndexShardUtil.getIndexPath(indexShard, pathCreator));
+        assertThat(shardSummary)
+                .isNotNull();
+        assertThat(shardSummary.canMatch(LongField.newRangeQuery("Number", 201, 300)))
+                .isFalse();
+        assertThat(shardSummary.canMatch(new TermQuery(new Term("Keyword", "alpha"))))
+                .isTrue();
+
+        // A search only skips the shard if its query cannot match the committed docs.
+        assertThat(createShardSearcher(pathCreator, ExpressionOperator.builder()
+                .addTerm("Number", Condition.GREATER_THAN, "200")
+                .build())
+                .canMatch(indexShard))
+                .isFalse();
+        assertThat(createShardSearcher(pathCreator, ExpressionOperator.builder()
+                .addTerm("Keyword", Condition.EQUALS, "gamma")
+                .build())
+                .canMatch(indexShard))
+                .isFalse();
+        assertThat(createShardSearcher(pathCreator, ExpressionOperator.builder()
+                .addTerm("Number", Condition.BETWEEN, "150,250")
+                .addTerm("Keyword", Condition.EQUALS, "beta")
+                .build())
+                .canMatch(indexShard))
+                .isTrue();
+        assertThat(createShardSearcher(pathCreator, ExpressionOperator.builder()
+                .addTerm("Keyword", Condition.IN, LONG_KEYWORD)
+                .build())
+                .canMatch(indexShard))
+                .isTrue();
+    }
+
+    @Test
+    void testNoSummary() {
+        assertThat(ShardSummary.fromCommitData(null))
+                .isNull();
+        assertThat(ShardSummary.fromCommitData(Map.of()))
+                .isNull();
+    }
+
+    private Lucene980ShardSearcher createShardSearcher(final PathCreator pathCreator,
+                                                       final ExpressionOperator expression) {
+        final MockIndexFieldCache indexFieldCache = new MockIndexFieldCache();
+        indexFieldCache.put(NUMBER.getFldName(), NUMBER);
+        indexFieldCache.put(KEYWORD.getFldName(), KEYWORD);
+
+        // No writer is open for the shard so the summary must come from the commit.
+        final IndexShardWriterCache indexShardWriterCache = Mockito.mock(IndexShardWriterCache.class);
+        Mockito.when(indexShardWriterCache.getIfPresent(Mockito.anyLong()))
+                .thenReturn(Optional.empty());
+
+        return new Lucene980ShardSearcher(
+                indexShardWriterCache,
+                null,
+                new IndexShardSearchConfig(),
+                Mockito.mock(ExecutorProvider.class),
+                null,
+                pathCreator,
+                new DocRef(LuceneIndexDoc.DOCUMENT_TYPE, "test"),
+                indexFieldCache,
+                expression,
+                null,
+                DateTimeSettings.builder().build(),
+                null);
+    }
+
+    private ShardSummary createSummary() {
+        final ShardSummary shardSummary = new ShardSummary();
+        record(shardSummary, NUMBER, ValLong.create(100));
+        record(shardSummary, NUMBER, ValLong.create(200));
+        record(shardSummary, KEYWORD, ValString.create("Alpha"));
+        record(shardSummary, KEYWORD, ValString.create("Beta"));
+        record(shardSummary, TEXT, ValString.create("some text"));
+        return shardSummary;
+    }
+
+    private void record(final ShardSummary shardSummary, final IndexField indexField, final Val value) {
+        shardSummary.record(indexField, FieldFactory.create(new FieldValue(indexField, value)));
+    }
+
+    private Query booleanQuery(final Occur occur, final Query... queries) {
+        final BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (final Query query : queries) {
+            builder.add(query, occur);
+        }
+        return builder.build();
+    }
+}
@@ -24,6 +24,7 @@ import stroom.security.api.SecurityContext;
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.TaskContext;
 import stroom.task.api.TaskContextFactory;
+import stroom.util.logging.DurationTimer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
@@ -31,6 +32,8 @@ import stroom.util.logging.LogUtil;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -55,6 +58,8 @@ public class DistributedTaskFetcher {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(DistributedTaskFetcher.class);
 
+    private static final Duration FETCH_WAIT = Duration.ofSeconds(10);
+
     private final TaskStatusTraceLog taskStatusTraceLog = new TaskStatusTraceLog();
     private final AtomicBoolean stopping = new AtomicBoolean();
     private final Set<DistributedTask> runningTasks = Collections.newSetFromMap(new ConcurrentHashMap<>());
@@ -126,6 +131,7 @@ public class DistributedTaskFetcher {
                 try {
                     while (!stopping.get()) {
                         needsTasks.set(false);
+                        final DurationTimer fetchTimer = DurationTimer.start();
                         taskContextFactory.context("Fetch Tasks", taskContext -> {
                             try {
                                 doFetch(taskContext);
@@ -134,14 +140,16 @@ public class DistributedTaskFetcher {
                             }
                         }).run();
 
-                        // If we don't need more tasks right now then lock and await.
-                        if (!needsTasks.get()) {
+                        // If we don't need more tasks right now then lock and await. If the fetch took
+                        // longer than we would wait then the master held the request open waiting for
+                        // tasks to be queued, so there is no point waiting again before asking.
+                        if (!needsTasks.get() && fetchTimer.get().compareTo(FETCH_WAIT) < 0) {
                             lock.lockInterruptibly();
                             try {
                                 // Check that we still don't need tasks since locking.
                                 if (!needsTasks.get()) {
                                     // Wait up to 10 seconds for a task to complete.
-                                    if (condition.await(10, TimeUnit.SECONDS)) {
+                                    if (condition.await(FETCH_WAIT.toMillis(), TimeUnit.MILLISECONDS)) {
                                         LOGGER.trace("fetch woken up");
                                     } else {
                                         LOGGER.trace("fetch await timeout");
@@ -197,7 +205,7 @@ public class DistributedTaskFetcher {
                                 nodeName,
                                 totalTaskLimit);
                         info(taskContext, () -> "Executing " + tasks.size() + " new tasks");
-                        handleResult(nodeName, jobName, tasks);
+                        handleResult(nodeName, jobName, distributedTaskFactory, tasks);
                         executingTaskCount += tasks.size();
                         totalTaskLimit -= tasks.size();
                     }
@@ -210,7 +218,9 @@ public class DistributedTaskFetcher {
     private void handleResult(
             final String nodeName,
             final String jobName,
+            final DistributedTaskFactory distributedTaskFactory,
             final List<DistributedTask> tasks) {
+        final List<DistributedTask> notStarted = new ArrayList<>();
         try {
             LOGGER.debug(() -> LogUtil.message("Task response: node=\"{}\"", nodeName));
             LOGGER.trace(() -> LogUtil.message("\nTask response: node=\"{}\"\n{}", nodeName, tasks));
@@ -243,12 +253,25 @@ public class DistributedTaskFetcher {
                     } else {
                         runningTasks.remove(task);
                         tracker.decrementTaskCount();
+                        notStarted.add(task);
                     }
                 });
+            } else {
+                notStarted.addAll(tasks);
             }
         } catch (final RuntimeException e) {
             LOGGER.error(e::getMessage, e);
         }
+
+        // Hand back any tasks we are not going to run so they can be processed elsewhere.
+        if (!notStarted.isEmpty()) {
+            LOGGER.debug(() -> LogUtil.message("Abandoning {} tasks as we are stopping", notStarted.size()));
+            try {
+                distributedTaskFactory.abandon(nodeName, notStarted);
+            } catch (final RuntimeException e) {
+                LOGGER.error(e::getMessage, e);
+            }
+        }
     }
 
     private void signal() {
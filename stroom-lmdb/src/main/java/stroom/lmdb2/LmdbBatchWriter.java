@@ -0,0 +1,247 @@
+package stroom.lmdb2;
+
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Provider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * A writer that allows many threads to queue write operations against a single LMDB write transaction.
+ * <p>
+ * Unlike {@link LmdbWriter}, callers do not wait for the write thread to consume each operation. Operations are
+ * placed on a bounded queue and the write thread drains as many as are available on each loop. Writes are
+ * committed once {@code maxPutsBeforeCommit} operations have been applied or once {@code maxCommitInterval} has
+ * passed since the first uncommitted operation, whichever is sooner.
+ * <p>
+ * The future returned from {@link #write(Function)} is completed as soon as the operation has been applied to the
+ * write transaction, i.e. before it is committed. Use {@link #flush()} to wait for a commit.
+ */
+public class LmdbBatchWriter {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(LmdbBatchWriter.class);
+
+    public static final int DEFAULT_QUEUE_SIZE = 1_000;
+    public static final int DEFAULT_MAX_PUTS_BEFORE_COMMIT = 100;
+    public static final Duration DEFAULT_MAX_COMMIT_INTERVAL = Duration.ofSeconds(1);
+
+    private static final WriteOp<Void> CLOSE = new WriteOp<>(null, false);
+
+    private final LmdbEnv env;
+    private final BlockingQueue<WriteOp<?>> queue;
+    private final int maxBatchSize;
+    private final int maxPutsBeforeCommit;
+    private final long maxCommitIntervalNanos;
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final CompletableFuture<Void> closedFuture = new CompletableFuture<>();
+    private boolean closed;
+
+    public LmdbBatchWriter(final Provider<Executor> executorProvider,
+                           final LmdbEnv env) {
+        this(executorProvider,
+                env,
+                DEFAULT_QUEUE_SIZE,
+                DEFAULT_MAX_PUTS_BEFORE_COMMIT,
+                DEFAULT_MAX_COMMIT_INTERVAL);
+    }
+
+    public LmdbBatchWriter(final Provider<Executor> executorProvider,
+                           final LmdbEnv env,
+                           final int queueSize,
+                           final int maxPutsBeforeCommit,
+                           final Duration maxCommitInterval) {
+        this.env = env;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxBatchSize = queueSize;
+        this.maxPutsBeforeCommit = maxPutsBeforeCommit;
+        this.maxCommitIntervalNanos = maxCommitInterval.toNanos();
+
+        // Start transfer loop.
+        executorProvider.get().execute(this::transfer);
+    }
+
+    /**
+     * Queue a write operation.
+     *
+     * @param function The operation to apply to the write transaction.
+     * @return A future that is completed with the result of the operation once it has been applied.
+     */
+    public <R> CompletableFuture<R> write(final Function<WriteTxn, R> function) {
+        final WriteOp<R> writeOp = new WriteOp<>(function, false);
+        put(writeOp);
+        return writeOp.future;
+    }
+
+    /**
+     * Commit all previously queued operations and wait for the commit to complete.
+     */
+    public void flush() {
+        final WriteOp<Void> writeOp = new WriteOp<>(null, true);
+        put(writeOp);
+        writeOp.future.join();
+    }
+
+    /**
+     * Apply and commit all previously queued operations and then stop the write thread.
+     */
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                putOnQueue(CLOSE);
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        closedFuture.join();
+    }
+
+    private void put(final WriteOp<?> writeOp) {
+        // Hold the read lock so that nothing can be queued after the close marker.
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new RuntimeException("Closed");
+            }
+            putOnQueue(writeOp);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private void putOnQueue(final WriteOp<?> writeOp) {
+        try {
+            queue.put(writeOp);
+        } catch (final InterruptedException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new UncheckedInterruptedException(e);
+        }
+    }
+
+    private void transfer() {
+        try (final WriteTxn writeTxn = env.writeTxn()) {
+            final List<WriteOp<?>> batch = new ArrayList<>();
+            int uncommittedCount = 0;
+            long commitDeadline = 0;
+            boolean done = false;
+
+            try {
+                while (!done) {
+                    final WriteOp<?> first;
+                    if (uncommittedCount > 0) {
+                        first = queue.poll(commitDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } else {
+                        first = queue.take();
+                    }
+
+                    if (first == null) {
+                        LOGGER.trace(() -> "Committing for max commit interval");
+                        commit(writeTxn);
+                        uncommittedCount = 0;
+
+                    } else {
+                        // Take everything else that is waiting so that we only wake up once for the whole batch.
+                        batch.add(first);
+                        queue.drainTo(batch, maxBatchSize - 1);
+
+                        for (final WriteOp<?> writeOp : batch) {
+                            if (writeOp == CLOSE) {
+                                // Nothing can be queued after close so this will always be the last item.
+                                done = true;
+                            } else if (writeOp.commit) {
+                                writeOp.commit(writeTxn);
+                                uncommittedCount = 0;
+                            } else {
+                                writeOp.apply(writeTxn);
+                                if (uncommittedCount == 0) {
+                                    commitDeadline = System.nanoTime() + maxCommitIntervalNanos;
+                                }
+                                uncommittedCount++;
+                                if (uncommittedCount >= maxPutsBeforeCommit) {
+                                    LOGGER.trace(() -> "Committing for max puts " + maxPutsBeforeCommit);
+                                    commit(writeTxn);
+                                    uncommittedCount = 0;
+                                }
+                            }
+                        }
+                        batch.clear();
+                    }
+                }
+            } finally {
+                LOGGER.debug(() -> "close called");
+                LOGGER.trace(() -> "close()", new RuntimeException("close"));
+                try {
+                    // Final commit.
+                    writeTxn.commit();
+                } catch (final RuntimeException e) {
+                    LOGGER.error(e::getMessage, e);
+                }
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new UncheckedInterruptedException(e);
+        } finally {
+            // Make sure nobody is left waiting on operations that will never be applied.
+            final List<WriteOp<?>> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.forEach(writeOp -> writeOp.future.completeExceptionally(new RuntimeException("Closed")));
+            closedFuture.complete(null);
+        }
+    }
+
+    private void commit(final WriteTxn writeTxn) {
+        try {
+            writeTxn.commit();
+        } catch (final RuntimeException e) {
+            LOGGER.error(e::getMessage, e);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class WriteOp<R> {
+
+        private final Function<WriteTxn, R> function;
+        private final boolean commit;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private WriteOp(final Function<WriteTxn, R> function,
+                        final boolean commit) {
+            this.function = function;
+            this.commit = commit;
+        }
+
+        private void apply(final WriteTxn writeTxn) {
+            try {
+                future.complete(function.apply(writeTxn));
+            } catch (final RuntimeException e) {
+                LOGGER.debug(e::getMessage, e);
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void commit(final WriteTxn writeTxn) {
+            try {
+                writeTxn.commit();
+                future.complete(null);
+            } catch (final RuntimeException e) {
+                LOGGER.error(e::getMessage, e);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package stroom.lmdb2;
+
+import stroom.lmdb.LmdbLibrary;
+import stroom.lmdb.LmdbLibraryConfig;
+import stroom.util.io.FileUtil;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.lmdbjava.DbiFlags;
+import org.lmdbjava.EnvFlags;
+import org.lmdbjava.PutFlags;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares {@link LmdbWriter} with {@link LmdbBatchWriter} for a duplicate check style workload, i.e. many small
+ * no-dup puts into a dup sort DB where the caller needs to know if the put succeeded.
+ * <p>
+ * The {@code current} writer is used in the same way that {@code DuplicateCheckStore} used it, with callers
+ * synchronising on the store and committing every 100 new rows.
+ */
+public class BenchmarkLmdbWriter {
+
+    private static final int KEY_SPACE = 1_000_000;
+
+    @Fork(value = 1, warmups = 1)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(1)
+    public boolean benchTryInsertSingleProducer(final ExecutionPlan plan) {
+        return plan.tryInsert();
+    }
+
+    @Fork(value = 1, warmups = 1)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(8)
+    public boolean benchTryInsertEightProducers(final ExecutionPlan plan) {
+        return plan.tryInsert();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"current", "batch"})
+        public String writerType;
+
+        private Path dir;
+        private ExecutorService executorService;
+        private LmdbEnv lmdbEnv;
+        private LmdbDb db;
+        private LmdbWriter lmdbWriter;
+        private LmdbBatchWriter lmdbBatchWriter;
+        private int uncommittedCount;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("stroom");
+            final PathCreator pathCreator = new SimplePathCreator(() -> dir, () -> dir);
+            new LmdbEnvDirFactory(new LmdbLibrary(pathCreator, () -> dir, LmdbLibraryConfig::new), pathCreator);
+
+            lmdbEnv = LmdbEnv
+                    .builder()
+                    .lmdbEnvDir(new LmdbEnvDir(dir, true))
+                    .maxDbs(1)
+                    .maxReaders(1)
+                    .addEnvFlag(EnvFlags.MDB_NOTLS)
+                    .build();
+            db = lmdbEnv.openDb("duplicate-check", DbiFlags.MDB_CREATE, DbiFlags.MDB_DUPSORT);
+
+            executorService = Executors.newCachedThreadPool();
+            if ("current".equals(writerType)) {
+                lmdbWriter = new LmdbWriter(() -> executorService, lmdbEnv);
+            } else {
+                lmdbBatchWriter = new LmdbBatchWriter(() -> executorService, lmdbEnv);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (lmdbWriter != null) {
+                lmdbWriter.close();
+            }
+            if (lmdbBatchWriter != null) {
+                lmdbBatchWriter.close();
+            }
+            executorService.shutdown();
+            lmdbEnv.close();
+            FileUtil.deleteDir(dir);
+        }
+
+        boolean tryInsert() {
+            final ByteBuffer key = ByteBuffer.allocateDirect(Long.BYTES);
+            key.putLong(ThreadLocalRandom.current().nextInt(KEY_SPACE));
+            key.flip();
+            final ByteBuffer value = ByteBuffer.allocateDirect(Long.BYTES);
+            value.putLong(0);
+            value.flip();
+
+            if (lmdbWriter != null) {
+                return tryInsertCurrent(key, value);
+            }
+            return lmdbBatchWriter
+                    .write(writeTxn -> db.put(writeTxn, key, value, PutFlags.MDB_NODUPDATA))
+                    .join();
+        }
+
+        private synchronized boolean tryInsertCurrent(final ByteBuffer key, final ByteBuffer value) {
+            final AtomicBoolean result = new AtomicBoolean();
+            lmdbWriter.write(writeTxn -> {
+                result.set(db.put(writeTxn, key, value, PutFlags.MDB_NODUPDATA));
+                if (result.get()) {
+                    uncommittedCount++;
+                }
+                if (uncommittedCount >= LmdbBatchWriter.DEFAULT_MAX_PUTS_BEFORE_COMMIT) {
+                    writeTxn.commit();
+                    uncommittedCount = 0;
+                }
+            });
+            return result.get();
+        }
+    }
+}
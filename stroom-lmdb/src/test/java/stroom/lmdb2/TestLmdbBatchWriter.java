@@ -0,0 +1,117 @@
+package stroom.lmdb2;
+
+import stroom.lmdb.LmdbLibrary;
+import stroom.lmdb.LmdbLibraryConfig;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lmdbjava.DbiFlags;
+import org.lmdbjava.EnvFlags;
+import org.lmdbjava.PutFlags;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestLmdbBatchWriter {
+
+    private ExecutorService executorService;
+    private LmdbEnv lmdbEnv;
+    private LmdbDb db;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        final PathCreator pathCreator = new SimplePathCreator(() -> tempDir, () -> tempDir);
+        new LmdbEnvDirFactory(new LmdbLibrary(pathCreator, () -> tempDir, LmdbLibraryConfig::new), pathCreator);
+        lmdbEnv = LmdbEnv
+                .builder()
+                .lmdbEnvDir(new LmdbEnvDir(tempDir, true))
+                .maxDbs(1)
+                .addEnvFlag(EnvFlags.MDB_NOTLS)
+                .build();
+        db = lmdbEnv.openDb("test", DbiFlags.MDB_CREATE, DbiFlags.MDB_DUPSORT);
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdown();
+        lmdbEnv.close();
+    }
+
+    @Test
+    void testConcurrentInserts() {
+        final LmdbBatchWriter writer = new LmdbBatchWriter(() -> executorService, lmdbEnv);
+        final AtomicInteger successCount = new AtomicInteger();
+        final List<CompletableFuture<Void>> producers = new ArrayList<>();
+        for (int producer = 0; producer < 4; producer++) {
+            producers.add(CompletableFuture.runAsync(() -> {
+                // Every producer tries to insert the same keys so only one insert of each key should succeed.
+                for (int i = 0; i < 1000; i++) {
+                    final int key = i;
+                    if (writer.write(writeTxn -> put(writeTxn, key)).join()) {
+                        successCount.incrementAndGet();
+                    }
+                }
+            }, executorService));
+        }
+        producers.forEach(CompletableFuture::join);
+        writer.flush();
+
+        assertThat(successCount.get()).isEqualTo(1000);
+        assertThat(db.count()).isEqualTo(1000);
+        writer.close();
+    }
+
+    @Test
+    void testCommitOnInterval() throws InterruptedException {
+        final LmdbBatchWriter writer = new LmdbBatchWriter(
+                () -> executorService,
+                lmdbEnv,
+                100,
+                1000,
+                Duration.ofMillis(10));
+        writer.write(writeTxn -> put(writeTxn, 1)).join();
+
+        // Wait for the interval to pass so that the put is committed without an explicit flush.
+        for (int i = 0; i < 100 && db.count() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(db.count()).isEqualTo(1);
+        writer.close();
+    }
+
+    @Test
+    void testWriteAfterClose() {
+        final LmdbBatchWriter writer = new LmdbBatchWriter(() -> executorService, lmdbEnv);
+        writer.write(writeTxn -> put(writeTxn, 1));
+        writer.close();
+
+        assertThat(db.count()).isEqualTo(1);
+        assertThatThrownBy(() -> writer.write(writeTxn -> put(writeTxn, 2)))
+                .hasMessage("Closed");
+    }
+
+    private boolean put(final WriteTxn writeTxn, final int i) {
+        final ByteBuffer key = ByteBuffer.allocateDirect(Integer.BYTES);
+        key.putInt(i);
+        key.flip();
+        final ByteBuffer value = ByteBuffer.allocateDirect(Integer.BYTES);
+        value.putInt(0);
+        value.flip();
+        return db.put(writeTxn, key, value, PutFlags.MDB_NODUPDATA);
+    }
+}
@@ -150,7 +150,7 @@ public class IdEnrichmentFilter extends AbstractXMLFilter {
                 // This is a first level element.
                 count++;
 
-                String eventId;
+                final long eventId;
                 // If we are using this is search result output then we need to
                 // get event ids from a list.
                 if (eventIds != null) {
@@ -184,10 +184,11 @@ public class IdEnrichmentFilter extends AbstractXMLFilter {
                     }
 
                     final int index = (int) (count - 1);
-                    eventId = String.valueOf(eventIds[index]);
+                    eventId = eventIds[index];
                 } else {
-                    eventId = String.valueOf(count);
+                    eventId = count;
                 }
+                idEnrichmentExpectedIds.setCurrentEventId(eventId);
 
                 final AttributesImpl idAtts = new AttributesImpl(newAtts);
 
@@ -203,7 +204,7 @@ public class IdEnrichmentFilter extends AbstractXMLFilter {
 
                 // Add the ids to the element.
                 idAtts.addAttribute(URI, STREAM_ID, STREAM_ID, STRING, String.valueOf(streamId));
-                idAtts.addAttribute(URI, EVENT_ID, EVENT_ID, STRING, eventId);
+                idAtts.addAttribute(URI, EVENT_ID, EVENT_ID, STRING, String.valueOf(eventId));
 
                 newAtts = idAtts;
             }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package stroom.pipeline.filter;
+
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import org.xml.sax.SAXException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on an executor but passes their results to a consumer in the order the tasks were submitted.
+ * Results are always passed to the consumer on the submitting thread. Once the maximum number of tasks are
+ * pending the submitting thread waits for the oldest task to complete before it can submit another.
+ * <p>
+ * This class is not thread safe and must only be used by a single submitting thread.
+ */
+class ResequencingExecutor<T> {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ResequencingExecutor.class);
+
+    private final Executor executor;
+    private final int maxPending;
+    private final ResultConsumer<T> consumer;
+    private final Deque<CompletableFuture<T>> pending = new ArrayDeque<>();
+
+    ResequencingExecutor(final Executor executor,
+                         final int maxPending,
+                         final ResultConsumer<T> consumer) {
+        this.executor = executor;
+        this.maxPending = Math.max(1, maxPending);
+        this.consumer = consumer;
+    }
+
+    /**
+     * Submit a task and then consume the results of any tasks at the head of the queue that have completed.
+     */
+    void submit(final Supplier<T> task) throws SAXException {
+        pending.add(CompletableFuture.supplyAsync(task, executor));
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.peekFirst().isDone())) {
+            consumer.accept(pending.pollFirst().join());
+        }
+    }
+
+    /**
+     * Wait for all pending tasks to complete and consume their results in order.
+     */
+    void flush() throws SAXException {
+        while (!pending.isEmpty()) {
+            consumer.accept(pending.pollFirst().join());
+        }
+    }
+
+    /**
+     * Wait for all pending tasks to complete and discard their results.
+     */
+    void discard() {
+        while (!pending.isEmpty()) {
+            try {
+                pending.pollFirst().join();
+            } catch (final RuntimeException e) {
+                LOGGER.debug(e::getMessage, e);
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    interface ResultConsumer<T> {
+
+        void accept(T result) throws SAXException;
+    }
+}
@@ -41,8 +41,16 @@ import stroom.pipeline.shared.data.PipelineReference;
 import stroom.pipeline.state.FeedHolder;
 import stroom.pipeline.state.PipelineContext;
 import stroom.pipeline.state.PipelineHolder;
+import stroom.pipeline.xml.event.Event;
+import stroom.pipeline.xml.event.EventList;
+import stroom.pipeline.xml.event.simple.SimpleEventList;
+import stroom.pipeline.xml.event.simple.SimpleEventListBuilder;
 import stroom.pipeline.xslt.XsltStore;
+import stroom.pipeline.xsltfunctions.StroomXsltFunctionLibrary;
 import stroom.svg.shared.SvgImage;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
 import stroom.util.CharBuffer;
 import stroom.util.NullSafe;
 import stroom.util.io.PathCreator;
@@ -51,6 +59,7 @@ import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.ErrorType;
 import stroom.util.shared.Location;
 import stroom.util.shared.Severity;
+import stroom.util.shared.StoredError;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
@@ -62,11 +71,17 @@ import net.sf.saxon.s9api.XdmNode;
 import net.sf.saxon.s9api.XdmNodeKind;
 import net.sf.saxon.s9api.XsltExecutable;
 import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.LocatorImpl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 import javax.xml.transform.ErrorListener;
 import javax.xml.transform.SourceLocator;
@@ -97,6 +112,8 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(XsltFilter.class);
 
+    static final ThreadPool THREAD_POOL = new ThreadPoolImpl("XSLT Transform");
+
     private final XsltPool xsltPool;
     private final ErrorReceiverProxy errorReceiverProxy;
     private final XsltStore xsltStore;
@@ -106,6 +123,7 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
     private final Provider<FeedHolder> feedHolder;
     private final Provider<PipelineHolder> pipelineHolder;
     private final DocFinder<XsltDoc> docFinder;
+    private final ExecutorProvider executorProvider;
 
     private ErrorListener errorListener;
 
@@ -119,13 +137,21 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
      */
     private PoolItem<StoredXsltExecutable> poolItem;
     private XsltExecutable xsltExecutable;
-    private TransformerHandler handler;
+    private ContentHandler handler;
     private Locator locator;
     private boolean xsltRequired = false;
     private boolean passThrough = true;
     private String injectedCode;
     private boolean usePool = true;
     private List<PipelineReference> pipelineReferences;
+    private int transformThreads = 1;
+
+    /**
+     * Used instead of the single transformer handler when records are transformed in parallel.
+     */
+    private BlockingQueue<TransformWorker> transformWorkers;
+    private ResequencingExecutor<TransformedRecord> resequencingExecutor;
+    private SimpleEventListBuilder recordBuilder;
 
     private int elementCount;
     private int maxElementCount;
@@ -140,7 +166,8 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
                       final PathCreator pathCreator,
                       final Provider<FeedHolder> feedHolder,
                       final Provider<PipelineHolder> pipelineHolder,
-                      final DocRefInfoService docRefInfoService) {
+                      final DocRefInfoService docRefInfoService,
+                      final ExecutorProvider executorProvider) {
         this.xsltPool = xsltPool;
         this.errorReceiverProxy = errorReceiverProxy;
         this.xsltStore = xsltStore;
@@ -149,6 +176,7 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
         this.pipelineContext = pipelineContext;
         this.feedHolder = feedHolder;
         this.pipelineHolder = pipelineHolder;
+        this.executorProvider = executorProvider;
 
         this.docFinder = new DocFinder<>(XsltDoc.DOCUMENT_TYPE, pathCreator, xsltStore, docRefInfoService);
     }
@@ -202,6 +230,23 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
                         final String msg = sb.toString();
                         throw ProcessException.create(msg);
                     }
+
+                    if (transformThreads > 1 && !pipelineContext.isStepping()) {
+                        final Set<String> pipelineDependentFunctions = NullSafe.getOrElseGet(
+                                storedXsltExecutable.getFunctionLibrary(),
+                                StroomXsltFunctionLibrary::getPipelineDependentFunctions,
+                                Collections::emptySet);
+                        if (pipelineDependentFunctions.isEmpty()) {
+                            startTransformWorkers(xslt);
+                        } else {
+                            // These functions use pipeline scoped state, e.g. reference data loaders, record
+                            // numbers and the current user, that only the pipeline thread can safely use.
+                            errorReceiverProxy.log(Severity.WARNING, null, getElementId(),
+                                    "Records will be transformed in sequence as the XSLT uses functions that " +
+                                            "can't be called on other threads: " +
+                                            String.join(", ", pipelineDependentFunctions), null);
+                        }
+                    }
                 }
             }
 
@@ -224,6 +269,17 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
     @Override
     public void endProcessing() {
         try {
+            if (resequencingExecutor != null) {
+                // Any records that are still pending must be from a stream that failed.
+                resequencingExecutor.discard();
+                resequencingExecutor = null;
+            }
+            if (transformWorkers != null) {
+                for (final TransformWorker worker : transformWorkers) {
+                    xsltPool.returnObject(worker.poolItem, usePool);
+                }
+                transformWorkers = null;
+            }
             if (poolItem != null) {
                 xsltPool.returnObject(poolItem, usePool);
                 poolItem = null;
@@ -233,6 +289,46 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
         }
     }
 
+    /**
+     * Borrow a compiled XSLT for each thread so that the records output by a split filter can be transformed in
+     * parallel. Each compiled XSLT has its own Saxon configuration and function library so the threads don't
+     * share any state.
+     */
+    private void startTransformWorkers(final XsltDoc xslt) {
+        transformWorkers = new LinkedBlockingQueue<>();
+        for (int i = 0; i < transformThreads; i++) {
+            final TransformWorker worker = new TransformWorker();
+            worker.poolItem = xsltPool.borrowConfiguredTemplate(
+                    xslt,
+                    new ErrorReceiverIdDecorator(getElementId(), worker),
+                    locationFactory,
+                    pipelineReferences,
+                    usePool);
+            transformWorkers.add(worker);
+            if (worker.poolItem.getValue().getXsltExecutable() == null) {
+                throw ProcessException.create("Unable to compile XSLT \"" + xslt.getName() + "\" for transform thread");
+            }
+        }
+        // Allow a few records to queue up for each thread so the threads aren't left waiting for the slowest one.
+        resequencingExecutor = new ResequencingExecutor<>(
+                executorProvider.get(THREAD_POOL),
+                transformThreads * 2,
+                this::outputRecord);
+    }
+
+    @Override
+    public void endStream() {
+        try {
+            if (resequencingExecutor != null) {
+                resequencingExecutor.flush();
+            }
+        } catch (final SAXException e) {
+            throw ProcessException.wrap(e);
+        } finally {
+            super.endStream();
+        }
+    }
+
     /**
      * @param locator an object that can return the location of any SAX document
      *                event
@@ -255,23 +351,27 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
     @Override
     public void startDocument() throws SAXException {
         try {
-            if (xsltExecutable != null) {
-                // Make sure the executable points at the local error handler.
-                final Configuration configuration = xsltExecutable.getUnderlyingCompiledStylesheet().getConfiguration();
-                configuration.setErrorListener(errorListener);
-//                configuration.setLineNumbering(!pipelineContext.isStepping());
+            if (resequencingExecutor != null) {
+                // Record the events for this record so they can be transformed on another thread. The locator
+                // will have moved on by then so take a copy of the current location.
+                recordBuilder = new SimpleEventListBuilder();
+                if (locator != null) {
+                    recordBuilder.setDocumentLocator(new LocatorImpl(locator));
+                }
+                handler = recordBuilder;
+                handler.startDocument();
 
+            } else if (xsltExecutable != null) {
                 // Create a handler to receive all SAX events.
-                final TemplatesImpl templates = new TemplatesImpl(xsltExecutable);
-                final TransformerImpl transformer = (TransformerImpl) templates.newTransformer();
-                transformer.setErrorListener(errorListener);
-                configureMessageListener(transformer);
-
-                handler = transformer.newTransformerHandler();
-                handler.setResult(new SAXResult(getFilter()));
+                final TransformerHandler transformerHandler = createTransformerHandler(
+                        xsltExecutable,
+                        errorListener,
+                        errorReceiverProxy);
+                transformerHandler.setResult(new SAXResult(getFilter()));
                 if (locator != null) {
-                    handler.setDocumentLocator(locator);
+                    transformerHandler.setDocumentLocator(locator);
                 }
+                handler = transformerHandler;
                 handler.startDocument();
 
             } else if (passThrough) {
@@ -300,7 +400,21 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
      */
     @Override
     public void endDocument() throws SAXException {
-        if (handler != null) {
+        if (handler != null && recordBuilder != null) {
+            try {
+                handler.endDocument();
+                final EventList record = recordBuilder.getEventList();
+                resequencingExecutor.submit(() -> transform(record));
+            } catch (final RuntimeException | SAXException e) {
+                // Don't output any records that follow a failed one.
+                resequencingExecutor.discard();
+                throw e;
+            } finally {
+                handler = null;
+                recordBuilder = null;
+                elementCount = 0;
+            }
+        } else if (handler != null) {
             try {
                 handler.endDocument();
             } catch (final Throwable e) {
@@ -331,13 +445,101 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
         }
     }
 
-    private void configureMessageListener(final TransformerImpl transformer) {
+    private TransformerHandler createTransformerHandler(final XsltExecutable xsltExecutable,
+                                                        final ErrorListener errorListener,
+                                                        final ErrorReceiver errorReceiver) {
+        // Make sure the executable points at the local error handler.
+        final Configuration configuration = xsltExecutable.getUnderlyingCompiledStylesheet().getConfiguration();
+        configuration.setErrorListener(errorListener);
+//        configuration.setLineNumbering(!pipelineContext.isStepping());
+
+        final TemplatesImpl templates = new TemplatesImpl(xsltExecutable);
+        final TransformerImpl transformer = (TransformerImpl) templates.newTransformer();
+        transformer.setErrorListener(errorListener);
+        configureMessageListener(transformer, errorReceiver);
+        return transformer.newTransformerHandler();
+    }
+
+    /**
+     * Transform a single recorded record. This is called on one of the transform threads so any errors are stored
+     * in the returned record to be logged in order when the record is output.
+     */
+    private TransformedRecord transform(final EventList record) {
+        final StoredErrorReceiver storedErrors = new StoredErrorReceiver();
+        final SimpleEventListBuilder output = new SimpleEventListBuilder();
+        Throwable failure = null;
+        TransformWorker worker = null;
+        try {
+            worker = transformWorkers.take();
+            worker.errorReceiver = storedErrors;
+
+            final TransformerHandler transformerHandler = createTransformerHandler(
+                    worker.poolItem.getValue().getXsltExecutable(),
+                    new ErrorListenerAdaptor(getElementId(), locationFactory, storedErrors),
+                    storedErrors);
+            transformerHandler.setResult(new SAXResult(output));
+            record.fire(transformerHandler);
+
+        } catch (final Throwable e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failure = unwrapException(e);
+            storedErrors.log(Severity.FATAL_ERROR,
+                    getLocation(failure),
+                    getElementId(),
+                    failure.toString(),
+                    failure);
+        } finally {
+            if (worker != null) {
+                worker.errorReceiver = null;
+                transformWorkers.add(worker);
+            }
+        }
+        return new TransformedRecord((SimpleEventList) output.getEventList(), storedErrors, failure);
+    }
+
+    /**
+     * Log the errors for a transformed record and pass on its output. This is always called on the thread that
+     * is running the pipeline and records are passed in the order they were read.
+     */
+    private void outputRecord(final TransformedRecord record) throws SAXException {
+        for (final StoredError storedError : record.storedErrors().getList()) {
+            errorReceiverProxy.log(
+                    storedError.getSeverity(),
+                    storedError.getLocation(),
+                    storedError.getElementId(),
+                    storedError.getMessage(),
+                    storedError.getErrorType(),
+                    null);
+        }
+
+        boolean ended = false;
+        for (final Event event : record.output().getEvents()) {
+            // The locator of the transform thread is of no use downstream.
+            if (!event.isSetDocumentLocator()) {
+                event.fire(getFilter());
+                ended = event.isEndDocument();
+            }
+        }
+
+        if (record.failure() != null) {
+            // Make sure the document is ended as it would be if we were transforming records in sequence.
+            if (!ended) {
+                super.endDocument();
+            }
+            throw LoggedException.wrap(record.failure());
+        }
+    }
+
+    private void configureMessageListener(final TransformerImpl transformer, final ErrorReceiver errorReceiver) {
         try {
             NullSafe.consume(
                     transformer,
                     TransformerImpl::getUnderlyingXsltTransformer,
                     xsltTransformer ->
-                            xsltTransformer.setMessageListener(this::onXsltMessage));
+                            xsltTransformer.setMessageListener((content, terminate, locator) ->
+                                    onXsltMessage(errorReceiver, content, terminate, locator)));
         } catch (Exception e) {
             // Just log and swallow as the message listener is not critical
             LOGGER.error("Error configuring XSLT message listener: " + e.getMessage(), e);
@@ -356,7 +558,10 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
      * <pre>{@code <xsl:message><info>my message</info></xsl:message>}</pre>
      * Setting {@code terminate} trumps any severity set.
      */
-    private void onXsltMessage(XdmNode content, boolean terminate, SourceLocator locator) {
+    private void onXsltMessage(final ErrorReceiver errorReceiver,
+                               final XdmNode content,
+                               final boolean terminate,
+                               final SourceLocator locator) {
 
         boolean foundMsg = false;
         String msg = "";
@@ -403,7 +608,7 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
             msg = "NO MESSAGE";
         }
 
-        errorReceiverProxy.log(
+        errorReceiver.log(
                 severity,
                 locationFactory.create(locator),
                 getElementId(),
@@ -510,6 +715,10 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
                         "correctly for this pipeline.";
 
                 final ProcessException exception = ProcessException.create(message);
+                if (resequencingExecutor != null) {
+                    // Output the records before this one so errors are logged in order.
+                    resequencingExecutor.flush();
+                }
                 if (pipelineContext.isStepping()) {
                     errorReceiverProxy.log(Severity.FATAL_ERROR, null, getElementId(), exception.getMessage(),
                             exception);
@@ -670,6 +879,19 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
         this.usePool = usePool;
     }
 
+    @PipelineProperty(
+            description = "Advanced: The number of threads to use to transform records in parallel. Records must " +
+                    "be split into separate documents by a split filter before this filter. The output of each " +
+                    "record is passed on in the order the records were read. Records are transformed in sequence " +
+                    "when stepping, if this is less than 2 or if the XSLT uses functions that depend on the " +
+                    "pipeline such as lookups. Do not use with XSLT that relies on state that carries over from " +
+                    "one record to the next.",
+            defaultValue = "1",
+            displayPriority = 6)
+    public void setTransformThreads(final int transformThreads) {
+        this.transformThreads = transformThreads;
+    }
+
     @Override
     public void setInjectedCode(final String injectedCode) {
         this.injectedCode = injectedCode;
@@ -728,4 +950,41 @@ public class XsltFilter extends AbstractXMLFilter implements SupportsCodeInjecti
                 errorConsumer,
                 suppressXSLTNotFoundWarnings);
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A compiled XSLT that is used by one transform thread at a time. Errors from XSLT functions are passed on to
+     * the error receiver of the record currently being transformed.
+     */
+    private static class TransformWorker implements ErrorReceiver {
+
+        private PoolItem<StoredXsltExecutable> poolItem;
+        private volatile ErrorReceiver errorReceiver;
+
+        @Override
+        public void log(final Severity severity,
+                        final Location location,
+                        final String elementId,
+                        final String message,
+                        final ErrorType errorType,
+                        final Throwable e) {
+            final ErrorReceiver errorReceiver = this.errorReceiver;
+            if (errorReceiver != null) {
+                errorReceiver.log(severity, location, elementId, message, errorType, e);
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record TransformedRecord(SimpleEventList output,
+                                     StoredErrorReceiver storedErrors,
+                                     Throwable failure) {
+
+    }
 }
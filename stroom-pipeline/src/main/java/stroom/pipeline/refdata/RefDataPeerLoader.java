@@ -0,0 +1,115 @@
+package stroom.pipeline.refdata;
+
+import stroom.node.api.FindNodeCriteria;
+import stroom.node.api.NodeCallUtil;
+import stroom.node.api.NodeInfo;
+import stroom.node.api.NodeService;
+import stroom.pipeline.refdata.store.RefDataStore;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.pipeline.refdata.store.offheapstore.RefDataSnapshot;
+import stroom.security.api.SecurityContext;
+import stroom.util.jersey.WebTargetFactory;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.ResourcePaths;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.MediaType;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads a reference stream from a snapshot of it held by another node, so the reference loader
+ * pipeline doesn't need to be run on this node.
+ */
+class RefDataPeerLoader {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(RefDataPeerLoader.class);
+
+    // The most nodes to ask before giving up and loading locally, so a ref stream that no node has
+    // doesn't cost a request to every node in the cluster.
+    static final int MAX_PEER_ATTEMPTS = 3;
+
+    private final NodeInfo nodeInfo;
+    private final NodeService nodeService;
+    private final WebTargetFactory webTargetFactory;
+    private final SecurityContext securityContext;
+
+    @Inject
+    RefDataPeerLoader(final NodeInfo nodeInfo,
+                      final NodeService nodeService,
+                      final WebTargetFactory webTargetFactory,
+                      final SecurityContext securityContext) {
+        this.nodeInfo = nodeInfo;
+        this.nodeService = nodeService;
+        this.webTargetFactory = webTargetFactory;
+        this.securityContext = securityContext;
+    }
+
+    /**
+     * Ask up to {@link #MAX_PEER_ATTEMPTS} of the other enabled nodes, in a random order so requests are
+     * spread over the cluster, for a snapshot of refStreamDefinition and load it into refDataStore from
+     * the first node that has it. Any failure to load from a node is logged and the next node is tried.
+     *
+     * @param effectiveTimeMs The effective time of the ref stream from its meta.
+     * @return True if the ref stream was loaded from another node. False if none of the nodes asked had
+     * it, in which case it should be loaded locally.
+     */
+    boolean load(final RefStreamDefinition refStreamDefinition,
+                 final long effectiveTimeMs,
+                 final RefDataStore refDataStore) {
+        final String thisNodeName = nodeInfo.getThisNodeName();
+        final List<String> nodeNames = new ArrayList<>(securityContext.asProcessingUserResult(() ->
+                nodeService.findNodeNames(FindNodeCriteria.allEnabled())));
+        nodeNames.remove(thisNodeName);
+        Collections.shuffle(nodeNames);
+
+        for (final String nodeName : nodeNames.subList(0, Math.min(MAX_PEER_ATTEMPTS, nodeNames.size()))) {
+            try {
+                final DurationTimer timer = DurationTimer.start();
+                final boolean isLoaded = securityContext.asProcessingUserResult(() ->
+                        loadFromNode(nodeName, refStreamDefinition, effectiveTimeMs, refDataStore));
+                if (isLoaded) {
+                    LOGGER.info("Loaded reference stream {}:{} from node {} in {}",
+                            refStreamDefinition.getStreamId(),
+                            refStreamDefinition.getPartNumber(),
+                            nodeName,
+                            timer);
+                    return true;
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Unable to load reference stream {}:{} from node {}: {}",
+                        refStreamDefinition.getStreamId(),
+                        refStreamDefinition.getPartNumber(),
+                        nodeName,
+                        e.getMessage());
+                LOGGER.debug(e::getMessage, e);
+            }
+        }
+        return false;
+    }
+
+    private boolean loadFromNode(final String nodeName,
+                                 final RefStreamDefinition refStreamDefinition,
+                                 final long effectiveTimeMs,
+                                 final RefDataStore refDataStore) {
+        final String url = NodeCallUtil.getBaseEndpointUrl(nodeInfo, nodeService, nodeName)
+                + ResourcePaths.buildAuthenticatedApiPath(
+                RefDataSnapshotResource.BASE_PATH,
+                RefDataSnapshotResource.FETCH_SUB_PATH);
+
+        try (final InputStream inputStream = webTargetFactory
+                .create(url)
+                .request(MediaType.APPLICATION_OCTET_STREAM)
+                .post(Entity.json(refStreamDefinition), InputStream.class)) {
+            return RefDataSnapshot.load(inputStream, refDataStore, refStreamDefinition, effectiveTimeMs);
+        } catch (final Throwable e) {
+            throw NodeCallUtil.handleExceptionsOnNodeCall(nodeName, url, e);
+        }
+    }
+}
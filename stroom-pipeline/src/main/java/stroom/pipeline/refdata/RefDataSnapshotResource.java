@@ -0,0 +1,37 @@
+package stroom.pipeline.refdata;
+
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.util.shared.ResourcePaths;
+import stroom.util.shared.RestResource;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * For node to node use only, so that a node can load a reference stream from another node that already
+ * has it loaded.
+ */
+@Tag(name = "Reference Data Snapshot")
+@Path(RefDataSnapshotResource.BASE_PATH)
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public interface RefDataSnapshotResource extends RestResource {
+
+    String BASE_PATH = "/refDataSnapshot" + ResourcePaths.V1;
+    String FETCH_SUB_PATH = "/fetch";
+
+    @POST
+    @Path(FETCH_SUB_PATH)
+    @Produces("application/octet-stream")
+    @Operation(
+            summary = "Fetch a snapshot of all the entries for a reference stream loaded on this node",
+            operationId = "fetchRefDataSnapshot")
+    StreamingOutput fetch(@NotNull RefStreamDefinition refStreamDefinition);
+}
@@ -0,0 +1,38 @@
+package stroom.pipeline.refdata;
+
+import stroom.event.logging.rs.api.AutoLogged;
+import stroom.event.logging.rs.api.AutoLogged.OperationType;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.pipeline.refdata.store.offheapstore.DelegatingRefDataOffHeapStore;
+import stroom.security.api.SecurityContext;
+import stroom.util.shared.PermissionException;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.ws.rs.core.StreamingOutput;
+
+@AutoLogged(OperationType.UNLOGGED)
+public class RefDataSnapshotResourceImpl implements RefDataSnapshotResource {
+
+    private final Provider<DelegatingRefDataOffHeapStore> refDataOffHeapStoreProvider;
+    private final Provider<SecurityContext> securityContextProvider;
+
+    @Inject
+    public RefDataSnapshotResourceImpl(final Provider<DelegatingRefDataOffHeapStore> refDataOffHeapStoreProvider,
+                                       final Provider<SecurityContext> securityContextProvider) {
+        this.refDataOffHeapStoreProvider = refDataOffHeapStoreProvider;
+        this.securityContextProvider = securityContextProvider;
+    }
+
+    @Override
+    public StreamingOutput fetch(final RefStreamDefinition refStreamDefinition) {
+        final SecurityContext securityContext = securityContextProvider.get();
+        if (!securityContext.isProcessingUser()) {
+            throw new PermissionException(securityContext.getUserIdentityForAudit(),
+                    "Only the processing user can fetch reference data snapshots");
+        }
+        return outputStream -> refDataOffHeapStoreProvider.get()
+                .getEffectiveStore(refStreamDefinition)
+                .writeSnapshot(refStreamDefinition, outputStream);
+    }
+}
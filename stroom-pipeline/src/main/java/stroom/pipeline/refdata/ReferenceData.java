@@ -48,15 +48,20 @@ import stroom.util.logging.LogUtil;
 import stroom.util.shared.Severity;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class ReferenceData {
@@ -82,6 +87,9 @@ public class ReferenceData {
     private final SecurityContext securityContext;
     private final TaskContextFactory taskContextFactory;
     private final StateLookup stateLookup;
+    private final Provider<ReferenceDataConfig> referenceDataConfigProvider;
+    // Loads started by startConcurrentLoads that have not yet been waited on
+    private final Map<RefStreamDefinition, CompletableFuture<StoredErrorReceiver>> pendingLoads = new HashMap<>();
 
     @Inject
     ReferenceData(final EffectiveStreamService effectiveStreamService,
@@ -95,7 +103,8 @@ public class ReferenceData {
                   final PipelineStore pipelineStore,
                   final SecurityContext securityContext,
                   final TaskContextFactory taskContextFactory,
-                  final StateLookup stateLookup) {
+                  final StateLookup stateLookup,
+                  final Provider<ReferenceDataConfig> referenceDataConfigProvider) {
         this.effectiveStreamService = effectiveStreamService;
         this.feedHolder = feedHolder;
         this.metaHolder = metaHolder;
@@ -108,6 +117,7 @@ public class ReferenceData {
         this.securityContext = securityContext;
         this.taskContextFactory = taskContextFactory;
         this.stateLookup = stateLookup;
+        this.referenceDataConfigProvider = referenceDataConfigProvider;
     }
 
     /**
@@ -229,6 +239,8 @@ public class ReferenceData {
         // Once a stream has been loaded we can find out the distinct set of maps it contains and then
         // use this information to ignore it based on the lookupIdentifier. This state is held in
         // RefDataLoaderHolder.
+        startConcurrentLoads(pipelineReferences, lookupIdentifier);
+
         for (final PipelineReference pipelineReference : pipelineReferences) {
 
             LOGGER.trace("doGetValue - processing pipelineReference {} for {}",
@@ -268,6 +280,76 @@ public class ReferenceData {
     }
 
 
+    /**
+     * If more than one of the effective external ref streams for this lookup need to be loaded then
+     * start loading them all on other threads. Each load parses the stream into its own staging store
+     * so they can run concurrently, only taking turns to copy the staged data into the ref store.
+     * The loads are then waited on in pipelineReference order by
+     * {@link #ensureRefStreamAvailability(ReferenceDataResult, PipelineReference, RefStreamDefinition, RefDataStore)}.
+     */
+    private void startConcurrentLoads(final List<PipelineReference> pipelineReferences,
+                                      final LookupIdentifier lookupIdentifier) {
+        final int maxConcurrentLoads = referenceDataConfigProvider.get().getMaxConcurrentLoads();
+        if (maxConcurrentLoads <= 1 || pipelineReferences.size() <= 1) {
+            return;
+        }
+
+        // The effective streams are determined again when we do each lookup so use a throw away
+        // result to avoid logging everything twice.
+        final ReferenceDataResult discardedResult = new ReferenceDataResult(lookupIdentifier);
+        final Set<RefStreamDefinition> refStreamDefinitions = new LinkedHashSet<>();
+        for (final PipelineReference pipelineReference : pipelineReferences) {
+            if (refStreamDefinitions.size() >= maxConcurrentLoads) {
+                break;
+            }
+            if (!StateDoc.DOCUMENT_TYPE.equals(pipelineReference.getPipeline().getType())
+                    && !NullSafe.test(pipelineReference.getStreamType(), StreamTypeNames.CONTEXT::equals)
+                    && pipelineReference.getFeed() != null
+                    && NullSafe.isNonBlankString(pipelineReference.getFeed().getUuid())
+                    && hasPermission(pipelineReference)) {
+
+                effectiveStreamService.determineEffectiveStream(
+                                pipelineReference, lookupIdentifier.getEventTime(), discardedResult)
+                        .map(effectiveStream -> new RefStreamDefinition(
+                                pipelineReference.getPipeline(),
+                                getPipelineVersion(pipelineReference),
+                                effectiveStream.getId()))
+                        .filter(refStreamDefinition -> isLoadRequired(
+                                pipelineReference, refStreamDefinition, lookupIdentifier.getPrimaryMapName()))
+                        .ifPresent(refStreamDefinitions::add);
+            }
+        }
+
+        // A single load can just happen on this thread as normal
+        if (refStreamDefinitions.size() > 1) {
+            LOGGER.debug("Starting concurrent loads of reference data {}", refStreamDefinitions);
+            for (final RefStreamDefinition refStreamDefinition : refStreamDefinitions) {
+                pendingLoads.put(refStreamDefinition, securityContext.asProcessingUserResult(() ->
+                        referenceDataLoader.loadAsync(refStreamDefinition)));
+            }
+        }
+    }
+
+    private boolean isLoadRequired(final PipelineReference pipelineReference,
+                                   final RefStreamDefinition refStreamDefinition,
+                                   final String mapName) {
+        if (refDataLoaderHolder.isRefStreamAvailable(refStreamDefinition)
+                || pendingLoads.containsKey(refStreamDefinition)) {
+            return false;
+        }
+        final MapAvailability mapAvailability = refDataStoreHolder.getMapAvailabilityInStream(
+                pipelineReference, refStreamDefinition, mapName);
+        if (!mapAvailability.isLookupRequired()) {
+            return false;
+        }
+        // Leave failed loads to ensureRefStreamAvailability so it can report them
+        return refDataStoreHolder.getOffHeapRefDataStore(refStreamDefinition)
+                .getLoadState(refStreamDefinition)
+                .filter(loadState ->
+                        loadState.equals(ProcessingState.COMPLETE) || loadState.equals(ProcessingState.FAILED))
+                .isEmpty();
+    }
+
     /**
      * Get an event list from a stream that is a nested child of the current
      * stream context and is therefore not effective time sensitive.
@@ -465,14 +547,7 @@ public class ReferenceData {
                     pipelineReference);
         }
 
-        // Check that the current user has permission to read the ref stream.
-        final boolean hasPermission = localDocumentPermissionCache.computeIfAbsent(pipelineReference, k ->
-                documentPermissionCache == null ||
-                        documentPermissionCache.canUseDocument(
-                                pipelineReference.getFeed().getUuid()
-                        ));
-
-        if (hasPermission) {
+        if (hasPermission(pipelineReference)) {
             // Find the latest ref stream that is before our lookup time
             final Optional<EffectiveMeta> optEffectiveStream = effectiveStreamService.determineEffectiveStream(
                     pipelineReference, time, result);
@@ -557,6 +632,17 @@ public class ReferenceData {
         }
     }
 
+    /**
+     * Check that the current user has permission to read the ref stream.
+     */
+    private boolean hasPermission(final PipelineReference pipelineReference) {
+        return localDocumentPermissionCache.computeIfAbsent(pipelineReference, k ->
+                documentPermissionCache == null ||
+                        documentPermissionCache.canUseDocument(
+                                pipelineReference.getFeed().getUuid()
+                        ));
+    }
+
     private boolean ensureRefStreamAvailability(final ReferenceDataResult result,
                                                 final PipelineReference pipelineReference,
                                                 final RefStreamDefinition refStreamDefinition,
@@ -570,6 +656,14 @@ public class ReferenceData {
             // pipeline process so no need to try again
             LOGGER.trace("refStreamDefinition {} is available for use", refStreamDefinition);
             isAvailableForLookups = true;
+        } else if (pendingLoads.containsKey(refStreamDefinition)) {
+            // A load of this stream was started alongside the loads of the other effective streams
+            // for this lookup so just wait for it to finish
+            LOGGER.debug("Waiting for concurrent load of reference data {}", refStreamDefinition);
+            final StoredErrorReceiver storedErrorReceiver = awaitLoad(pendingLoads.remove(refStreamDefinition));
+
+            isAvailableForLookups = onLoadFinished(
+                    result, refStreamDefinition, offHeapRefDataStore, storedErrorReceiver);
         } else {
             // we don't know what the load state is for this refStreamDefinition so need to find out
             // by querying the store. This will also update the last accessed time so will prevent
@@ -609,43 +703,66 @@ public class ReferenceData {
                             securityContext.asProcessingUserResult(() ->
                                     referenceDataLoader.load(refStreamDefinition));
 
-                    // Replay any errors/warning from the load onto our result
-                    if (storedErrorReceiver != null) {
-                        storedErrorReceiver.replay(result);
-                    }
-
-                    LOGGER.debug(() -> LogUtil.message(
-                            "Loaded {} refStreamDefinition", refStreamDefinition));
-
-                    // No point in continuing if the load was interrupted
-                    if (!isTerminated()
-                            && (storedErrorReceiver == null
-                            || storedErrorReceiver.getCount(Severity.FATAL_ERROR) == 0)) {
-                        // mark this ref stream defs as available for future lookups within this
-                        // pipeline process
-                        refDataLoaderHolder.markRefStreamAsAvailable(refStreamDefinition);
-
-                        isAvailableForLookups = true;
-                    } else {
-                        isAvailableForLookups = false;
-                    }
+                    isAvailableForLookups = onLoadFinished(
+                            result, refStreamDefinition, offHeapRefDataStore, storedErrorReceiver);
                 } else {
-                    isAvailableForLookups = true;
-                }
-
-                if (isAvailableForLookups) {
-                    // Now the data is loaded, query the DB to record the list of maps available
+                    // Now the data is known to be loaded, query the DB to record the list of maps available
                     // in this stream so future lookups in this pipe scope can decide whether to
                     // perform a lookup on a stream or not.
                     refDataStoreHolder.addKnownMapNames(
                             offHeapRefDataStore,
                             refStreamDefinition);
+                    isAvailableForLookups = true;
                 }
             }
         }
         return isAvailableForLookups;
     }
 
+    private StoredErrorReceiver awaitLoad(final CompletableFuture<StoredErrorReceiver> pendingLoad) {
+        try {
+            return pendingLoad.join();
+        } catch (final CompletionException e) {
+            // Throw the same exception a load on this thread would have thrown
+            if (e.getCause() instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private boolean onLoadFinished(final ReferenceDataResult result,
+                                   final RefStreamDefinition refStreamDefinition,
+                                   final RefDataStore offHeapRefDataStore,
+                                   final StoredErrorReceiver storedErrorReceiver) {
+        // Replay any errors/warning from the load onto our result
+        if (storedErrorReceiver != null) {
+            storedErrorReceiver.replay(result);
+        }
+
+        LOGGER.debug(() -> LogUtil.message(
+                "Loaded {} refStreamDefinition", refStreamDefinition));
+
+        // No point in continuing if the load was interrupted
+        if (!isTerminated()
+                && (storedErrorReceiver == null
+                || storedErrorReceiver.getCount(Severity.FATAL_ERROR) == 0)) {
+            // mark this ref stream defs as available for future lookups within this
+            // pipeline process
+            refDataLoaderHolder.markRefStreamAsAvailable(refStreamDefinition);
+
+            // Now the data is loaded, query the DB to record the list of maps available
+            // in this stream so future lookups in this pipe scope can decide whether to
+            // perform a lookup on a stream or not.
+            refDataStoreHolder.addKnownMapNames(
+                    offHeapRefDataStore,
+                    refStreamDefinition);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
     private boolean isTerminated() {
         if (Thread.currentThread().isInterrupted()) {
             LOGGER.debug("Thread is interrupted");
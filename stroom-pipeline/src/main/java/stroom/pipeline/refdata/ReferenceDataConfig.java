@@ -25,6 +25,10 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
     private final ReferenceDataStagingLmdbConfig stagingLmdbConfig;
     private final CacheConfig effectiveStreamCache;
     private final CacheConfig metaIdToRefStoreCache;
+    private final CacheConfig valueCache;
+    private final boolean rangeIndexEnabled;
+    private final int maxConcurrentLoads;
+    private final boolean peerLoadingEnabled;
 
     public ReferenceDataConfig() {
         maxPutsBeforeCommit = 200_000;
@@ -44,6 +48,16 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 .maximumSize(1_000L)
                 .expireAfterAccess(StroomDuration.ofHours(1))
                 .build();
+
+        // Ref streams are immutable once loaded and entries are removed when a stream is purged so the
+        // expiry is just to let go of keys that are no longer being looked up.
+        valueCache = CacheConfig.builder()
+                .maximumSize(10_000L)
+                .expireAfterAccess(StroomDuration.ofMinutes(10))
+                .build();
+        rangeIndexEnabled = false;
+        maxConcurrentLoads = 1;
+        peerLoadingEnabled = false;
     }
 
     @JsonCreator
@@ -54,7 +68,11 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                                @JsonProperty("lmdb") final ReferenceDataLmdbConfig lmdbConfig,
                                @JsonProperty("stagingLmdb") final ReferenceDataStagingLmdbConfig stagingLmdbConfig,
                                @JsonProperty("effectiveStreamCache") final CacheConfig effectiveStreamCache,
-                               @JsonProperty("metaIdToRefStoreCache") final CacheConfig metaIdToRefStoreCache) {
+                               @JsonProperty("metaIdToRefStoreCache") final CacheConfig metaIdToRefStoreCache,
+                               @JsonProperty("valueCache") final CacheConfig valueCache,
+                               @JsonProperty("rangeIndexEnabled") final boolean rangeIndexEnabled,
+                               @JsonProperty("maxConcurrentLoads") final int maxConcurrentLoads,
+                               @JsonProperty("peerLoadingEnabled") final boolean peerLoadingEnabled) {
         this.maxPutsBeforeCommit = maxPutsBeforeCommit;
         this.maxPurgeDeletesBeforeCommit = maxPurgeDeletesBeforeCommit;
         this.purgeAge = purgeAge;
@@ -63,6 +81,10 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
         this.stagingLmdbConfig = stagingLmdbConfig;
         this.effectiveStreamCache = effectiveStreamCache;
         this.metaIdToRefStoreCache = metaIdToRefStoreCache;
+        this.valueCache = valueCache;
+        this.rangeIndexEnabled = rangeIndexEnabled;
+        this.maxConcurrentLoads = maxConcurrentLoads;
+        this.peerLoadingEnabled = peerLoadingEnabled;
     }
 
     @Min(0)
@@ -118,6 +140,38 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
         return metaIdToRefStoreCache;
     }
 
+    @JsonPropertyDescription("The cache of values found by reference data lookups. Pipelines often look up the " +
+            "same few keys many times so holding recently used values on heap saves reading them from the " +
+            "off heap store each time. Set maximumSize to 0 to disable the cache.")
+    public CacheConfig getValueCache() {
+        return valueCache;
+    }
+
+    @JsonPropertyDescription("If true, the ranges in each map of a fully loaded reference stream are held in " +
+            "an on-heap index the first time a range lookup is made against the map, so range lookups " +
+            "don't need to scan the off heap store. Each range uses about 26 bytes of heap. " +
+            "The index is discarded when the reference stream is purged.")
+    public boolean isRangeIndexEnabled() {
+        return rangeIndexEnabled;
+    }
+
+    @Min(1)
+    @JsonPropertyDescription("The maximum number of reference streams that a single lookup will load " +
+            "concurrently when it needs to load more than one, e.g. when the pipeline has multiple reference " +
+            "loaders. Each load parses and stages its stream in parallel, with only the final copy into the " +
+            "store being done one load at a time. Set to 1 to load the streams one after another.")
+    public int getMaxConcurrentLoads() {
+        return maxConcurrentLoads;
+    }
+
+    @JsonPropertyDescription("If true, before running the reference loader pipeline for a reference stream, " +
+            "the other enabled nodes are asked for a copy of the stream's entries. If a node has the stream " +
+            "fully loaded, its entries are loaded directly into this node's store, saving the cost of parsing " +
+            "and transforming the stream. If no node has it, the stream is loaded locally as normal.")
+    public boolean isPeerLoadingEnabled() {
+        return peerLoadingEnabled;
+    }
+
     public ReferenceDataConfig withLmdbConfig(final ReferenceDataLmdbConfig lmdbConfig) {
         return new ReferenceDataConfig(
                 maxPutsBeforeCommit,
@@ -126,7 +180,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
     }
 
     public ReferenceDataConfig withPurgeAge(final StroomDuration purgeAge) {
@@ -137,7 +192,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
     }
 
     public ReferenceDataConfig withMaxPutsBeforeCommit(final int maxPutsBeforeCommit) {
@@ -148,7 +204,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
     }
 
     public ReferenceDataConfig withMaxPurgeDeletesBeforeCommit(final int maxPurgeDeletesBeforeCommit) {
@@ -159,7 +216,44 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
+    }
+
+    public ReferenceDataConfig withRangeIndexEnabled(final boolean rangeIndexEnabled) {
+        return new ReferenceDataConfig(
+                maxPutsBeforeCommit,
+                maxPurgeDeletesBeforeCommit,
+                purgeAge,
+                loadingLockStripes,
+                lmdbConfig,
+                stagingLmdbConfig,
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
+    }
+
+    public ReferenceDataConfig withMaxConcurrentLoads(final int maxConcurrentLoads) {
+        return new ReferenceDataConfig(
+                maxPutsBeforeCommit,
+                maxPurgeDeletesBeforeCommit,
+                purgeAge,
+                loadingLockStripes,
+                lmdbConfig,
+                stagingLmdbConfig,
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
+    }
+
+    public ReferenceDataConfig withPeerLoadingEnabled(final boolean peerLoadingEnabled) {
+        return new ReferenceDataConfig(
+                maxPutsBeforeCommit,
+                maxPurgeDeletesBeforeCommit,
+                purgeAge,
+                loadingLockStripes,
+                lmdbConfig,
+                stagingLmdbConfig,
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
     }
 
     public ReferenceDataConfig withEffectiveStreamCache(final CacheConfig effectiveStreamCache) {
@@ -170,7 +264,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, valueCache, rangeIndexEnabled,
+                maxConcurrentLoads, peerLoadingEnabled);
     }
 
     @Override
@@ -183,6 +278,11 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 ", lmdbConfig=" + lmdbConfig +
                 ", stagingLmdbConfig=" + stagingLmdbConfig +
                 ", effectiveStreamCache=" + effectiveStreamCache +
+                ", metaIdToRefStoreCache=" + metaIdToRefStoreCache +
+                ", valueCache=" + valueCache +
+                ", rangeIndexEnabled=" + rangeIndexEnabled +
+                ", maxConcurrentLoads=" + maxConcurrentLoads +
+                ", peerLoadingEnabled=" + peerLoadingEnabled +
                 '}';
     }
 }
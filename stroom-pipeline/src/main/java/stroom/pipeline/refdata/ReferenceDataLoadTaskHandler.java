@@ -54,6 +54,7 @@ import stroom.util.logging.LogUtil;
 import stroom.util.shared.Severity;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +89,8 @@ class ReferenceDataLoadTaskHandler {
     private final ErrorReceiverProxy errorReceiverProxy;
     private final PipelineDataCache pipelineDataCache;
     private final SecurityContext securityContext;
+    private final RefDataPeerLoader refDataPeerLoader;
+    private final Provider<ReferenceDataConfig> referenceDataConfigProvider;
 
     private TaskContext taskContext;
     private ErrorReceiverIdDecorator errorReceiver;
@@ -106,7 +109,9 @@ class ReferenceDataLoadTaskHandler {
                                  final LocationFactoryProxy locationFactory,
                                  final ErrorReceiverProxy errorReceiverProxy,
                                  final PipelineDataCache pipelineDataCache,
-                                 final SecurityContext securityContext) {
+                                 final SecurityContext securityContext,
+                                 final RefDataPeerLoader refDataPeerLoader,
+                                 final Provider<ReferenceDataConfig> referenceDataConfigProvider) {
         this.streamStore = streamStore;
         this.pipelineFactory = pipelineFactory;
         this.pipelineStore = pipelineStore;
@@ -121,6 +126,8 @@ class ReferenceDataLoadTaskHandler {
         this.errorReceiverProxy = errorReceiverProxy;
         this.pipelineDataCache = pipelineDataCache;
         this.securityContext = securityContext;
+        this.refDataPeerLoader = refDataPeerLoader;
+        this.referenceDataConfigProvider = referenceDataConfigProvider;
     }
 
     /**
@@ -178,6 +185,16 @@ class ReferenceDataLoadTaskHandler {
                     throw new RuntimeException("Unable to find pipeline with UUID: " +
                             refStreamDefinition.getPipelineDocRef().getUuid());
                 }
+
+                // Another node may already have this stream loaded, in which case copying its entries
+                // is much cheaper than running the pipeline over the stream. Only ask if we don't already
+                // have it ourselves, e.g. from a load that completed while this task was queued.
+                if (referenceDataConfigProvider.get().isPeerLoadingEnabled()
+                        && !refDataStoreFactory.getOffHeapStore(refStreamDefinition).isDataLoaded(refStreamDefinition)
+                        && loadFromPeer(taskContext, refStreamDefinition, meta.getEffectiveMs())) {
+                    return;
+                }
+
                 pipelineHolder.setPipeline(refStreamDefinition.getPipelineDocRef());
 
                 // Create the parser.
@@ -201,6 +218,25 @@ class ReferenceDataLoadTaskHandler {
         }
     }
 
+    private boolean loadFromPeer(final TaskContext taskContext,
+                                 final RefStreamDefinition refStreamDefinition,
+                                 final long effectiveTimeMs) {
+        taskContext.info(() -> LogUtil.message(
+                "Loading reference data stream {}:{} - Fetching from another node",
+                refStreamDefinition.getStreamId(),
+                refStreamDefinition.getPartNumber()));
+
+        final boolean isLoaded = refDataPeerLoader.load(
+                refStreamDefinition,
+                effectiveTimeMs,
+                refDataStoreFactory.getOffHeapStore(refStreamDefinition));
+        if (isLoaded) {
+            LOGGER.debug("Loaded reference data from another node: {}", refStreamDefinition);
+            taskContext.info(() -> "Finished " + refStreamDefinition);
+        }
+        return isLoaded;
+    }
+
     private void populateMaps(final Pipeline pipeline,
                               final Meta meta,
                               final Source source,
@@ -19,6 +19,15 @@ package stroom.pipeline.refdata;
 import stroom.pipeline.errorhandler.StoredErrorReceiver;
 import stroom.pipeline.refdata.store.RefStreamDefinition;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface ReferenceDataLoader {
     StoredErrorReceiver load(RefStreamDefinition refStreamDefinition);
+
+    /**
+     * Load the ref stream on another thread as a child task of the current task.
+     * Each load stages its data into its own staging store so multiple ref streams can be
+     * parsed and staged concurrently.
+     */
+    CompletableFuture<StoredErrorReceiver> loadAsync(RefStreamDefinition refStreamDefinition);
 }
@@ -18,38 +18,59 @@ package stroom.pipeline.refdata;
 
 import stroom.pipeline.errorhandler.StoredErrorReceiver;
 import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.task.api.ExecutorProvider;
 import stroom.task.api.TaskContext;
 import stroom.task.api.TaskContextFactory;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class ReferenceDataLoaderImpl implements ReferenceDataLoader {
 
+    static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Reference Data Load");
+
     private final TaskContextFactory taskContextFactory;
     private final Provider<ReferenceDataLoadTaskHandler> taskHandlerProvider;
+    private final ExecutorProvider executorProvider;
 
     @Inject
     ReferenceDataLoaderImpl(final TaskContextFactory taskContextFactory,
-                            final Provider<ReferenceDataLoadTaskHandler> taskHandlerProvider) {
+                            final Provider<ReferenceDataLoadTaskHandler> taskHandlerProvider,
+                            final ExecutorProvider executorProvider) {
         this.taskContextFactory = taskContextFactory;
         this.taskHandlerProvider = taskHandlerProvider;
+        this.executorProvider = executorProvider;
     }
 
     @Override
     public StoredErrorReceiver load(final RefStreamDefinition refStreamDefinition) {
+        return createLoadSupplier(refStreamDefinition).get();
+    }
+
+    @Override
+    public CompletableFuture<StoredErrorReceiver> loadAsync(final RefStreamDefinition refStreamDefinition) {
+        // Create the supplier on this thread so the child task gets the current task and user
+        final Supplier<StoredErrorReceiver> supplier = createLoadSupplier(refStreamDefinition);
+        final Executor executor = executorProvider.get(THREAD_POOL);
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    private Supplier<StoredErrorReceiver> createLoadSupplier(final RefStreamDefinition refStreamDefinition) {
         final Function<TaskContext, StoredErrorReceiver> consumer = taskContext ->
                 taskHandlerProvider
                         .get()
                         .exec(taskContext, refStreamDefinition);
 
-        final Supplier<StoredErrorReceiver> supplier = taskContextFactory.childContextResult(
+        return taskContextFactory.childContextResult(
                 taskContextFactory.current(),
                 "Load Reference Data",
                 consumer);
-        return supplier.get();
     }
 }
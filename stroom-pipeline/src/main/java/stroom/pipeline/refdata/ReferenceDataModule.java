@@ -40,7 +40,8 @@ public class ReferenceDataModule extends PipelineElementModule {
                 .bind(EffectiveStreamCache.class);
 
         RestResourcesBinder.create(binder())
-                .bind(ReferenceDataResourceImpl.class);
+                .bind(ReferenceDataResourceImpl.class)
+                .bind(RefDataSnapshotResourceImpl.class);
 
         GuiceUtil.buildMultiBinder(binder(), Searchable.class)
                 .addBinding(ReferenceDataServiceImpl.class);
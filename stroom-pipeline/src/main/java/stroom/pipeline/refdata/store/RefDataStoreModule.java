@@ -27,6 +27,7 @@ import stroom.pipeline.refdata.store.offheapstore.OffHeapRefDataLoader;
 import stroom.pipeline.refdata.store.offheapstore.OffHeapRefDataValueProxyConsumer;
 import stroom.pipeline.refdata.store.offheapstore.RefDataLmdbEnv;
 import stroom.pipeline.refdata.store.offheapstore.RefDataOffHeapStore;
+import stroom.pipeline.refdata.store.offheapstore.RefDataValueCache;
 import stroom.pipeline.refdata.store.offheapstore.StringByteBufferConsumer;
 import stroom.pipeline.refdata.store.offheapstore.ValueStore;
 import stroom.pipeline.refdata.store.offheapstore.databases.KeyValueStagingDb;
@@ -43,7 +44,9 @@ import stroom.pipeline.refdata.store.onheapstore.OnHeapRefDataValueProxyConsumer
 import stroom.pipeline.refdata.store.onheapstore.StringValueConsumer;
 import stroom.task.api.TaskTerminatedException;
 import stroom.util.RunnableWrapper;
+import stroom.util.guice.GuiceUtil;
 import stroom.util.guice.HasSystemInfoBinder;
+import stroom.util.shared.Clearable;
 import stroom.util.shared.scheduler.CronExpressions;
 
 import com.google.inject.AbstractModule;
@@ -93,6 +96,9 @@ public class RefDataStoreModule extends AbstractModule {
         HasSystemInfoBinder.create(binder())
                 .bind(DelegatingRefDataOffHeapStore.class);
 
+        GuiceUtil.buildMultiBinder(binder(), Clearable.class)
+                .addBinding(RefDataValueCache.class);
+
         ScheduledJobsBinder.create(binder())
                 .bindJobTo(RefDataPurge.class, builder -> builder
                         .name(RefDataPurge.JOB_NAME)
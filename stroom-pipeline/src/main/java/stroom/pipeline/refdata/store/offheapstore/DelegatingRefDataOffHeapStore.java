@@ -83,6 +83,7 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
     private final SecurityContext securityContext;
     private final PathCreator pathCreator;
     private final FeedStore feedStore;
+    private final RefDataValueCache refDataValueCache;
 
     // feed => refDataOffHeapStore, shouldn't be that many ref feeds
     // Feeds are immutable things too so no TTL needed
@@ -108,7 +109,8 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
                                          final MetaService metaService,
                                          final SecurityContext securityContext,
                                          final PathCreator pathCreator,
-                                         final FeedStore feedStore) {
+                                         final FeedStore feedStore,
+                                         final RefDataValueCache refDataValueCache) {
         this.referenceDataConfigProvider = referenceDataConfigProvider;
         this.refDataLmdbEnvFactory = refDataLmdbEnvFactory;
         this.refDataOffHeapStoreFactory = refDataOffHeapStoreFactory;
@@ -116,6 +118,7 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
         this.securityContext = securityContext;
         this.pathCreator = pathCreator;
         this.feedStore = feedStore;
+        this.refDataValueCache = refDataValueCache;
 
         // Try and ensure up front that the dirs we use for ref data are there and can be written to
         final Path localDir = ensureLmdbDirectories();
@@ -491,7 +494,8 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
                             TimeUtils.durationToThreshold(referenceDataConfig.getPurgeAge()).toString())
                     .addDetail("Max readers", referenceDataConfig.getLmdbConfig().getMaxReaders())
                     .addDetail("Read-ahead enabled", referenceDataConfig.getLmdbConfig().isReadAheadEnabled())
-                    .addDetail("Total reference entries", getCombinedEntryCount());
+                    .addDetail("Total reference entries", getCombinedEntryCount())
+                    .addDetail("Value cache", refDataValueCache.getSystemInfo());
 
             if (legacyRefDataStore != null) {
                 builder.addDetail("Legacy store", legacyRefDataStore.getSystemInfo());
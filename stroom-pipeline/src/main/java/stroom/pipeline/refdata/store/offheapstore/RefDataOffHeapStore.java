@@ -38,6 +38,7 @@ import stroom.pipeline.refdata.store.RefStoreEntry;
 import stroom.pipeline.refdata.store.RefStreamDefinition;
 import stroom.pipeline.refdata.store.offheapstore.databases.KeyValueStoreDb;
 import stroom.pipeline.refdata.store.offheapstore.databases.ProcessingInfoDb;
+import stroom.pipeline.refdata.store.offheapstore.databases.RangeIndex;
 import stroom.pipeline.refdata.store.offheapstore.databases.RangeStoreDb;
 import stroom.pipeline.refdata.store.offheapstore.serdes.RefDataProcessingInfoSerde;
 import stroom.task.api.TaskContext;
@@ -49,6 +50,7 @@ import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
 import stroom.util.shared.ModelStringUtil;
+import stroom.util.shared.Range;
 import stroom.util.sysinfo.HasSystemInfo;
 import stroom.util.sysinfo.SystemInfoResult;
 import stroom.util.time.StroomDuration;
@@ -65,6 +67,9 @@ import org.lmdbjava.CursorIterable;
 import org.lmdbjava.KeyRange;
 import org.lmdbjava.Txn;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
@@ -76,6 +81,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
@@ -114,6 +120,10 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
     private final Provider<ReferenceDataConfig> referenceDataConfigProvider;
 
     private final RefDataValueConverter refDataValueConverter;
+    private final RefDataValueCache refDataValueCache;
+
+    // Indexes of the ranges in fully loaded maps, built on first use if enabled
+    private final Map<MapDefinition, RangeIndex> rangeIndexes = new ConcurrentHashMap<>();
 
     // For synchronising access to the data belonging to a MapDefinition
     private final Striped<Lock> refStreamDefStripedReentrantLock;
@@ -132,12 +142,14 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                         final ProcessingInfoDb.Factory processingInfoDbFactory,
                         final TaskContextFactory taskContextFactory,
                         final ValueStore.Factory valueStoreFactory,
-                        final MapDefinitionUIDStore.Factory mapDefinitionUIDStoreFactory) {
+                        final MapDefinitionUIDStore.Factory mapDefinitionUIDStoreFactory,
+                        final RefDataValueCache refDataValueCache) {
 
         this.lmdbEnvironment = lmdbEnvironment;
         this.offHeapRefDataLoaderFactory = offHeapRefDataLoaderFactory;
         this.referenceDataConfigProvider = referenceDataConfigProvider;
         this.refDataValueConverter = refDataValueConverter;
+        this.refDataValueCache = refDataValueCache;
         this.taskContextFactory = taskContextFactory;
 
         // create all the databases
@@ -357,6 +369,95 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                 mapDefinitionUIDStore.getMapNames(readTxn, refStreamDefinition));
     }
 
+    /**
+     * Write a {@link RefDataSnapshot} of all the entries for refStreamDefinition to outputStream, so another
+     * node can load them without running the reference loader. If the ref stream is not fully loaded, the
+     * snapshot will just say it is not available.
+     */
+    public void writeSnapshot(final RefStreamDefinition refStreamDefinition,
+                              final OutputStream outputStream) throws IOException {
+        Objects.requireNonNull(refStreamDefinition);
+        final RefDataSnapshot.Writer writer = new RefDataSnapshot.Writer(outputStream);
+        try {
+            lmdbEnvironment.doWithReadTxn(readTxn -> {
+                final Optional<RefDataProcessingInfo> optProcessingInfo = processingInfoDb.get(
+                                readTxn, refStreamDefinition)
+                        .filter(processingInfo ->
+                                ProcessingState.COMPLETE.equals(processingInfo.getProcessingState()));
+                try {
+                    if (optProcessingInfo.isEmpty()) {
+                        LOGGER.debug("{} is not fully loaded so no snapshot available", refStreamDefinition);
+                        writer.writeNotAvailable();
+                    } else {
+                        writer.writeStart(optProcessingInfo.get().getEffectiveTimeEpochMs());
+                        for (final MapDefinition mapDefinition :
+                                mapDefinitionUIDStore.getMapDefinitions(readTxn, refStreamDefinition)) {
+                            final Optional<UID> optMapUid = mapDefinitionUIDStore.get(readTxn, mapDefinition);
+                            if (optMapUid.isPresent()) {
+                                writer.writeMap(mapDefinition.getMapName());
+                                writeSnapshotEntries(readTxn, optMapUid.get(), writer);
+                            }
+                        }
+                        writer.writeEnd();
+                    }
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final RuntimeException e) {
+            // The read txn wraps any exception so dig out the IOException if there is one
+            Throwable cause = e;
+            while (cause != null) {
+                if (cause instanceof final UncheckedIOException uncheckedIOException) {
+                    throw uncheckedIOException.getCause();
+                }
+                cause = cause.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void writeSnapshotEntries(final Txn<ByteBuffer> readTxn,
+                                      final UID mapUid,
+                                      final RefDataSnapshot.Writer writer) {
+        try (PooledByteBuffer valueStoreKeyPooledBuffer = valueStore.getPooledKeyBuffer()) {
+            final ByteBuffer valueStoreKeyBuffer = valueStoreKeyPooledBuffer.getByteBuffer();
+            keyValueStoreDb.forEachEntryAsBytes(readTxn, mapUid, keyVal -> {
+                final String key = keyValueStoreDb.deserializeKey(keyVal.key().duplicate()).getKey();
+                final long valueHash = keyValueStoreDb.deserializeValue(keyVal.val().duplicate())
+                        .getValueHashCode();
+                writeSnapshotValue(readTxn, keyVal.val(), valueStoreKeyBuffer, typedByteBuffer ->
+                        writer.writeKeyValue(
+                                key, typedByteBuffer.getTypeId(), valueHash, typedByteBuffer.getByteBuffer()));
+            });
+            rangeStoreDb.forEachEntryAsBytes(readTxn, mapUid, keyVal -> {
+                final Range<Long> range = rangeStoreDb.deserializeKey(keyVal.key().duplicate()).getKeyRange();
+                final long valueHash = rangeStoreDb.deserializeValue(keyVal.val().duplicate())
+                        .getValueHashCode();
+                writeSnapshotValue(readTxn, keyVal.val(), valueStoreKeyBuffer, typedByteBuffer ->
+                        writer.writeRangeValue(
+                                range, typedByteBuffer.getTypeId(), valueHash, typedByteBuffer.getByteBuffer()));
+            });
+        }
+    }
+
+    private void writeSnapshotValue(final Txn<ByteBuffer> readTxn,
+                                    final ByteBuffer valueStoreKeyBuffer,
+                                    final ByteBuffer valueStoreKeyBufferCopy,
+                                    final SnapshotValueWriter snapshotValueWriter) {
+        // The value store key is used for more than one get so needs to be copied out of LMDB's buffer
+        ByteBufferUtils.copy(valueStoreKeyBuffer, valueStoreKeyBufferCopy);
+        final TypedByteBuffer typedByteBuffer = valueStore.getTypedValueBuffer(readTxn, valueStoreKeyBufferCopy)
+                .orElseThrow(() -> new RuntimeException(LogUtil.message(
+                        "No value found for value store key {}, data may be corrupted",
+                        ByteBufferUtils.byteBufferInfo(valueStoreKeyBufferCopy))));
+        try {
+            snapshotValueWriter.write(typedByteBuffer);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Intended only for testing use.
      */
@@ -405,7 +506,7 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                     final long keyLong = Long.parseLong(key);
 
                     // look up our long key in the range store to see if it is part of a range
-                    optValueStoreKeyBuffer = rangeStoreDb.getAsBytes(readTxn, mapUid, keyLong);
+                    optValueStoreKeyBuffer = getRangeValueStoreKey(readTxn, mapDefinition, mapUid, keyLong);
 
                 } catch (NumberFormatException e) {
                     // key could not be converted to a long, either this mapdef has no ranges or
@@ -433,10 +534,61 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
         return optValueStoreKeyBuffer;
     }
 
+    private Optional<ByteBuffer> getRangeValueStoreKey(final Txn<ByteBuffer> readTxn,
+                                                       final MapDefinition mapDefinition,
+                                                       final UID mapUid,
+                                                       final long key) {
+        if (referenceDataConfigProvider.get().isRangeIndexEnabled()) {
+            final RangeIndex rangeIndex = getRangeIndex(readTxn, mapDefinition, mapUid);
+            if (rangeIndex != null) {
+                return rangeIndex.getAsBytes(key);
+            }
+        }
+        return rangeStoreDb.getAsBytes(readTxn, mapUid, key);
+    }
+
+    private RangeIndex getRangeIndex(final Txn<ByteBuffer> readTxn,
+                                     final MapDefinition mapDefinition,
+                                     final UID mapUid) {
+        RangeIndex rangeIndex = rangeIndexes.get(mapDefinition);
+        if (rangeIndex == null) {
+            // Only index maps that are fully loaded as nothing will change them until they are purged.
+            final boolean isComplete = processingInfoDb.get(readTxn, mapDefinition.getRefStreamDefinition())
+                    .map(RefDataProcessingInfo::getProcessingState)
+                    .filter(ProcessingState.COMPLETE::equals)
+                    .isPresent();
+            if (isComplete) {
+                rangeIndex = rangeIndexes.computeIfAbsent(mapDefinition, k ->
+                        rangeStoreDb.buildIndex(readTxn, mapUid));
+            }
+        }
+        return rangeIndex;
+    }
+
     @Override
     public boolean consumeValueBytes(final MapDefinition mapDefinition,
                                      final String key,
                                      final Consumer<TypedByteBuffer> valueBytesConsumer) {
+        // The same keys tend to be looked up over and over so try the cache first
+        return refDataValueCache.consumeValueBytes(
+                mapDefinition,
+                key,
+                valueBytesConsumer,
+                () -> isLoadComplete(mapDefinition.getRefStreamDefinition()),
+                consumer -> consumeStoreValueBytes(mapDefinition, key, consumer));
+    }
+
+    private boolean isLoadComplete(final RefStreamDefinition refStreamDefinition) {
+        // Don't touch the last accessed time as this is called on every cache miss
+        return processingInfoDb.get(refStreamDefinition)
+                .map(RefDataProcessingInfo::getProcessingState)
+                .filter(ProcessingState.COMPLETE::equals)
+                .isPresent();
+    }
+
+    private boolean consumeStoreValueBytes(final MapDefinition mapDefinition,
+                                           final String key,
+                                           final Consumer<TypedByteBuffer> valueBytesConsumer) {
 
         // lookup the passed mapDefinition and key and if a valueStoreKey is found use that to
         // lookup the value in the value store, passing the actual value part to the consumer.
@@ -634,10 +786,19 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                 this,
                 lmdbEnvironment);
 
+        // Lookups against a partial load may have cached values that are about to change
+        invalidateCachedData(refStreamDefinition);
+
         refDataLoader.setCommitInterval(referenceDataConfigProvider.get().getMaxPutsBeforeCommit());
         return refDataLoader;
     }
 
+    private void invalidateCachedData(final RefStreamDefinition refStreamDefinition) {
+        refDataValueCache.invalidate(refStreamDefinition);
+        rangeIndexes.keySet().removeIf(mapDefinition ->
+                refStreamDefinition.equals(mapDefinition.getRefStreamDefinition()));
+    }
+
     @Override
     public long getKeyValueEntryCount() {
         return keyValueStoreDb.getEntryCount();
@@ -882,6 +1043,9 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                     // Force final commit
                     batchingWriteTxn.commit();
                 }
+                if (refStreamPurgeCountsRef.get() != null) {
+                    invalidateCachedData(refStreamDefinition);
+                }
             } catch (Exception e) {
                 try {
                     LOGGER.error(LogUtil.message("Error purging ref stream {}", refStreamDefinition, e));
@@ -1503,7 +1667,13 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                     .addDetail("Latest lastAccessedTime", lastAccessedTimeRange._2()
                             .map(Instant::toString)
                             .orElse(null))
-                    .addDetail("Total reference entries", getKeyValueEntryCount() + getRangeValueEntryCount());
+                    .addDetail("Total reference entries", getKeyValueEntryCount() + getRangeValueEntryCount())
+                    .addDetail("Range index enabled", referenceDataConfig.isRangeIndexEnabled())
+                    .addDetail("Range index count", rangeIndexes.size())
+                    .addDetail("Range index size", ModelStringUtil.formatIECByteSizeString(
+                            rangeIndexes.values().stream()
+                                    .mapToLong(RangeIndex::getByteSize)
+                                    .sum()));
 
             lmdbEnvironment.doWithReadTxn(txn -> {
                 builder.addDetail("Entry counts", Map.of(
@@ -1712,4 +1882,14 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                     '}';
         }
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    private interface SnapshotValueWriter {
+
+        void write(TypedByteBuffer typedByteBuffer) throws IOException;
+    }
 }
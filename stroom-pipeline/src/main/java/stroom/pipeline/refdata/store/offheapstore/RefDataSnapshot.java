@@ -0,0 +1,273 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.ProcessingState;
+import stroom.pipeline.refdata.store.RefDataLoader;
+import stroom.pipeline.refdata.store.RefDataStore;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.pipeline.refdata.store.StagingValue;
+import stroom.pipeline.refdata.store.StagingValueImpl;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.Range;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The binary format used to send a copy of a fully loaded ref stream from one node to another, so the
+ * receiving node can load it without running the reference loader pipeline. Values are sent with the
+ * type and hash they have in the value store so the receiving node doesn't need to hash them again.
+ * <pre>
+ * isAvailable (boolean)
+ * effectiveTimeMs (long)
+ * Zero-many of:
+ *   MAP mapName
+ *   KEY_VALUE key typeId valueHash valueLength valueBytes
+ *   RANGE_VALUE fromInclusive toExclusive typeId valueHash valueLength valueBytes
+ * END
+ * </pre>
+ * Only isAvailable is present if the sending node does not have the ref stream fully loaded.
+ */
+public final class RefDataSnapshot {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(RefDataSnapshot.class);
+
+    private static final byte END = 0;
+    private static final byte MAP = 1;
+    private static final byte KEY_VALUE = 2;
+    private static final byte RANGE_VALUE = 3;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_VALUE_CAPACITY = 1024;
+
+    private RefDataSnapshot() {
+    }
+
+    /**
+     * Read a snapshot from inputStream and load its entries into refDataStore.
+     *
+     * @param effectiveTimeMs The effective time of the ref stream from its meta on this node. This is
+     *                        used rather than the effective time in the snapshot so the load is recorded
+     *                        the same as if this node had loaded the stream itself.
+     * @return True if the snapshot contained the ref stream and it is now loaded. False if the
+     * sending node did not have the ref stream or another thread has loaded it in the meantime.
+     * @throws IOException If the snapshot could not be read. Any part loaded data is discarded and the
+     *                     ref stream is marked as {@link ProcessingState#TERMINATED} so it can be loaded again.
+     */
+    public static boolean load(final InputStream inputStream,
+                               final RefDataStore refDataStore,
+                               final RefStreamDefinition refStreamDefinition,
+                               final long effectiveTimeMs) throws IOException {
+        final DataInputStream dataInputStream = new DataInputStream(
+                new BufferedInputStream(inputStream, BUFFER_SIZE));
+
+        if (!dataInputStream.readBoolean()) {
+            LOGGER.debug("Snapshot not available for {}", refStreamDefinition);
+            return false;
+        }
+        final long snapshotEffectiveTimeMs = dataInputStream.readLong();
+        if (snapshotEffectiveTimeMs != effectiveTimeMs) {
+            LOGGER.debug("Snapshot effective time {} differs from meta effective time {} for {}",
+                    snapshotEffectiveTimeMs, effectiveTimeMs, refStreamDefinition);
+        }
+
+        final AtomicBoolean isLoaded = new AtomicBoolean(false);
+        final AtomicReference<IOException> exceptionRef = new AtomicReference<>();
+        refDataStore.doWithLoaderUnlessComplete(refStreamDefinition, effectiveTimeMs, refDataLoader -> {
+            refDataLoader.initialise(false);
+            try {
+                final int count = readEntries(dataInputStream, refStreamDefinition, refDataLoader);
+                refDataLoader.completeProcessing(ProcessingState.COMPLETE);
+                isLoaded.set(true);
+                LOGGER.debug("Loaded {} entries from snapshot for {}", count, refStreamDefinition);
+            } catch (final IOException e) {
+                // Nothing has been copied from the staging store so the partial data just gets dropped
+                refDataLoader.completeProcessing(ProcessingState.TERMINATED);
+                exceptionRef.set(e);
+            }
+        });
+        if (exceptionRef.get() != null) {
+            throw exceptionRef.get();
+        }
+        return isLoaded.get();
+    }
+
+    private static int readEntries(final DataInputStream dataInputStream,
+                                   final RefStreamDefinition refStreamDefinition,
+                                   final RefDataLoader refDataLoader) throws IOException {
+        // The staging store copies each value as it is put so we can re-use one buffer
+        ByteBuffer valueBuffer = ByteBuffer.allocateDirect(INITIAL_VALUE_CAPACITY);
+        MapDefinition mapDefinition = null;
+        int count = 0;
+
+        byte entryType = dataInputStream.readByte();
+        while (entryType != END) {
+            switch (entryType) {
+                case MAP -> mapDefinition = new MapDefinition(refStreamDefinition, readString(dataInputStream));
+                case KEY_VALUE -> {
+                    final String key = readString(dataInputStream);
+                    valueBuffer = readValue(dataInputStream, valueBuffer);
+                    refDataLoader.put(requireMap(mapDefinition), key, new StagingValueImpl(valueBuffer));
+                    count++;
+                }
+                case RANGE_VALUE -> {
+                    final Range<Long> range = new Range<>(dataInputStream.readLong(), dataInputStream.readLong());
+                    valueBuffer = readValue(dataInputStream, valueBuffer);
+                    refDataLoader.put(requireMap(mapDefinition), range, new StagingValueImpl(valueBuffer));
+                    count++;
+                }
+                default -> throw new IOException(LogUtil.message("Unexpected entry type {}", entryType));
+            }
+            entryType = dataInputStream.readByte();
+        }
+        return count;
+    }
+
+    private static MapDefinition requireMap(final MapDefinition mapDefinition) throws IOException {
+        if (mapDefinition == null) {
+            throw new IOException("Entry found before any map");
+        }
+        return mapDefinition;
+    }
+
+    /**
+     * Read a value into buffer in the {@link StagingValue} layout, replacing buffer if it is too small.
+     */
+    private static ByteBuffer readValue(final DataInputStream dataInputStream,
+                                        final ByteBuffer buffer) throws IOException {
+        final byte typeId = dataInputStream.readByte();
+        final long valueHash = dataInputStream.readLong();
+        final int length = dataInputStream.readInt();
+
+        final int requiredCapacity = StagingValue.META_LENGTH + length;
+        final ByteBuffer valueBuffer = buffer.capacity() >= requiredCapacity
+                ? buffer
+                : ByteBuffer.allocateDirect(Math.max(requiredCapacity, buffer.capacity() * 2));
+        valueBuffer.clear();
+        valueBuffer.put(typeId);
+        valueBuffer.putLong(valueHash);
+
+        final byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+        int remaining = length;
+        while (remaining > 0) {
+            final int len = Math.min(remaining, bytes.length);
+            dataInputStream.readFully(bytes, 0, len);
+            valueBuffer.put(bytes, 0, len);
+            remaining -= len;
+        }
+        valueBuffer.flip();
+        return valueBuffer;
+    }
+
+    private static String readString(final DataInputStream dataInputStream) throws IOException {
+        final byte[] bytes = new byte[dataInputStream.readInt()];
+        dataInputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Writes a snapshot. Call {@link Writer#writeNotAvailable()} or {@link Writer#writeStart(long)}, then the
+     * maps and entries, then {@link Writer#writeEnd()}.
+     */
+    static class Writer {
+
+        private final DataOutputStream dataOutputStream;
+        private byte[] bytes = new byte[INITIAL_VALUE_CAPACITY];
+
+        Writer(final OutputStream outputStream) {
+            this.dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        }
+
+        void writeNotAvailable() throws IOException {
+            dataOutputStream.writeBoolean(false);
+            dataOutputStream.flush();
+        }
+
+        void writeStart(final long effectiveTimeMs) throws IOException {
+            dataOutputStream.writeBoolean(true);
+            dataOutputStream.writeLong(effectiveTimeMs);
+        }
+
+        void writeMap(final String mapName) throws IOException {
+            dataOutputStream.writeByte(MAP);
+            writeString(mapName);
+        }
+
+        void writeKeyValue(final String key,
+                           final byte typeId,
+                           final long valueHash,
+                           final ByteBuffer value) throws IOException {
+            dataOutputStream.writeByte(KEY_VALUE);
+            writeString(key);
+            writeValue(typeId, valueHash, value);
+        }
+
+        void writeRangeValue(final Range<Long> range,
+                             final byte typeId,
+                             final long valueHash,
+                             final ByteBuffer value) throws IOException {
+            dataOutputStream.writeByte(RANGE_VALUE);
+            dataOutputStream.writeLong(range.getFrom());
+            dataOutputStream.writeLong(range.getTo());
+            writeValue(typeId, valueHash, value);
+        }
+
+        void writeEnd() throws IOException {
+            dataOutputStream.writeByte(END);
+            dataOutputStream.flush();
+        }
+
+        private void writeValue(final byte typeId,
+                                final long valueHash,
+                                final ByteBuffer value) throws IOException {
+            dataOutputStream.writeByte(typeId);
+            dataOutputStream.writeLong(valueHash);
+            final int length = value.remaining();
+            dataOutputStream.writeInt(length);
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            // The value buffer belongs to LMDB so leave its position alone
+            value.duplicate().get(bytes, 0, length);
+            dataOutputStream.write(bytes, 0, length);
+        }
+
+        private void writeString(final String str) throws IOException {
+            final byte[] strBytes = str.getBytes(StandardCharsets.UTF_8);
+            dataOutputStream.writeInt(strBytes.length);
+            dataOutputStream.write(strBytes);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.pipeline.refdata.ReferenceDataConfig;
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.util.NullSafe;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.Clearable;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * An on-heap cache of the value bytes found by reference data lookups, including lookups that found nothing.
+ * Pipelines tend to look up the same few keys many times so this saves opening a read txn, finding the
+ * value store key and copying the value out of LMDB for every lookup.
+ * <p>
+ * A ref stream is immutable once loaded so entries only need to be removed when a ref stream is purged.
+ * Nothing is cached for a ref stream that is still loading as its values may be added or changed by the load.
+ * The cache is shared by all the off heap stores as a {@link MapDefinition} is unique across all stores.
+ */
+@Singleton
+public class RefDataValueCache implements Clearable {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(RefDataValueCache.class);
+
+    private static final String CACHE_NAME = "Reference Data - Value Cache";
+    private static final CachedValue NOT_FOUND = new CachedValue((byte) 0, null);
+
+    private final StroomCache<Key, CachedValue> cache;
+    private final Provider<ReferenceDataConfig> referenceDataConfigProvider;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Inject
+    public RefDataValueCache(final CacheManager cacheManager,
+                             final Provider<ReferenceDataConfig> referenceDataConfigProvider) {
+        this.referenceDataConfigProvider = referenceDataConfigProvider;
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> referenceDataConfigProvider.get().getValueCache());
+    }
+
+    /**
+     * Pass the cached value for the mapDefinition and key to the consumer if there is one, else
+     * use the loader to find the value, passing it to the consumer and adding it to the cache.
+     *
+     * @param isLoadComplete Returns true if the ref stream of the mapDefinition is fully loaded. Called
+     *                       before the loader so a load that completes in between can't leave us
+     *                       caching what we found part way through it.
+     * @param loader         Finds the value in the store, passing a copy of it to the supplied consumer
+     *                       if found. Returns true if the value was found.
+     * @return True if the value was found.
+     */
+    boolean consumeValueBytes(final MapDefinition mapDefinition,
+                              final String key,
+                              final Consumer<TypedByteBuffer> valueBytesConsumer,
+                              final BooleanSupplier isLoadComplete,
+                              final Loader loader) {
+        if (!isEnabled()) {
+            return loader.load(valueBytesConsumer);
+        }
+
+        final Key cacheKey = new Key(mapDefinition, key);
+        final Optional<CachedValue> optCachedValue = cache.getIfPresent(cacheKey);
+        if (optCachedValue.isPresent()) {
+            hits.increment();
+            final CachedValue cachedValue = optCachedValue.get();
+            if (cachedValue.bytes() == null) {
+                return false;
+            }
+            // Each consumer gets its own buffer so it can move the position without affecting anyone else.
+            valueBytesConsumer.accept(new TypedByteBuffer(
+                    cachedValue.typeId(),
+                    ByteBuffer.wrap(cachedValue.bytes()).asReadOnlyBuffer()));
+            return true;
+        }
+
+        misses.increment();
+        if (!isLoadComplete.getAsBoolean()) {
+            return loader.load(valueBytesConsumer);
+        }
+        final boolean wasFound = loader.load(typedByteBuffer -> {
+            // Copy the value while we are still inside the txn, leaving the buffer as we found it.
+            final ByteBuffer byteBuffer = typedByteBuffer.getByteBuffer();
+            final byte[] bytes = new byte[byteBuffer.remaining()];
+            byteBuffer.duplicate().get(bytes);
+            cache.put(cacheKey, new CachedValue(typedByteBuffer.getTypeId(), bytes));
+            valueBytesConsumer.accept(typedByteBuffer);
+        });
+        if (!wasFound) {
+            cache.put(cacheKey, NOT_FOUND);
+        }
+        return wasFound;
+    }
+
+    /**
+     * Remove all cached values belonging to the ref stream, e.g. when it is purged.
+     */
+    void invalidate(final RefStreamDefinition refStreamDefinition) {
+        LOGGER.debug("Invalidating cached values for {}", refStreamDefinition);
+        cache.invalidateEntries((key, value) ->
+                Objects.equals(refStreamDefinition, key.mapDefinition().getRefStreamDefinition()));
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    Map<String, Object> getSystemInfo() {
+        final long hits = this.hits.sum();
+        final long misses = this.misses.sum();
+        final long requests = hits + misses;
+        final Map<String, Object> details = new LinkedHashMap<>();
+        details.put("enabled", isEnabled());
+        details.put("size", cache.size());
+        details.put("hits", hits);
+        details.put("misses", misses);
+        details.put("hitRatio", requests == 0
+                ? 0
+                : (double) hits / requests);
+        return details;
+    }
+
+    private boolean isEnabled() {
+        return NullSafe.test(
+                referenceDataConfigProvider.get().getValueCache(),
+                cacheConfig -> cacheConfig.getMaximumSize() == null || cacheConfig.getMaximumSize() > 0);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    interface Loader {
+
+        boolean load(Consumer<TypedByteBuffer> valueBytesConsumer);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Key(MapDefinition mapDefinition, String key) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record CachedValue(byte typeId, byte[] bytes) {
+
+    }
+}
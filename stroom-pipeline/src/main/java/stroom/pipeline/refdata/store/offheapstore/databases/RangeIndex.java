@@ -0,0 +1,148 @@
+package stroom.pipeline.refdata.store.offheapstore.databases;
+
+import stroom.pipeline.refdata.store.offheapstore.serdes.RangeStoreKeySerde;
+import stroom.pipeline.refdata.store.offheapstore.serdes.ValueStoreKeySerde;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * An immutable on-heap index of all the ranges in one map of the {@link RangeStoreDb}. The ranges are held in
+ * primitive arrays sorted by the range start so a lookup is a binary search rather than a cursor seek
+ * and scan. The index holds the value store key of each range so the value itself is still read from LMDB.
+ * <p>
+ * As with {@link RangeStoreDb#getAsBytes}, ranges are expected not to overlap so only the range with the
+ * greatest start that is less than or equal to the key is tested.
+ */
+public class RangeIndex {
+
+    private static final int VALUE_STORE_KEY_LENGTH = ValueStoreKeySerde.VALUE_HASH_CODE_BYTES
+            + ValueStoreKeySerde.ID_BYTES;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long[] fromInc;
+    private final long[] toExc;
+    private final byte[] valueStoreKeys;
+    private final int size;
+
+    private RangeIndex(final long[] fromInc,
+                       final long[] toExc,
+                       final byte[] valueStoreKeys,
+                       final int size) {
+        this.fromInc = fromInc;
+        this.toExc = toExc;
+        this.valueStoreKeys = valueStoreKeys;
+        this.size = size;
+    }
+
+    /**
+     * @return A buffer containing the value store key of the range containing key, if there is one.
+     */
+    public Optional<ByteBuffer> getAsBytes(final long key) {
+        // Find the last range that starts at or before the key
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (fromInc[mid] <= key) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (found == -1 || key >= toExc[found]) {
+            return Optional.empty();
+        }
+        return Optional.of(ByteBuffer.wrap(
+                valueStoreKeys,
+                found * VALUE_STORE_KEY_LENGTH,
+                VALUE_STORE_KEY_LENGTH).slice());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The approximate number of bytes held by this index.
+     */
+    public long getByteSize() {
+        return ((long) fromInc.length * Long.BYTES * 2) + valueStoreKeys.length;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeIndex{" +
+                "size=" + size +
+                '}';
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Builds an index from the raw range store entries of a single map.
+     */
+    static class Builder {
+
+        private long[] fromInc = new long[INITIAL_CAPACITY];
+        private long[] toExc = new long[INITIAL_CAPACITY];
+        private byte[] valueStoreKeys = new byte[INITIAL_CAPACITY * VALUE_STORE_KEY_LENGTH];
+        private int size;
+        private boolean sorted = true;
+
+        void add(final ByteBuffer keyBuffer, final ByteBuffer valueBuffer) {
+            if (size == fromInc.length) {
+                final int capacity = size * 2;
+                fromInc = Arrays.copyOf(fromInc, capacity);
+                toExc = Arrays.copyOf(toExc, capacity);
+                valueStoreKeys = Arrays.copyOf(valueStoreKeys, capacity * VALUE_STORE_KEY_LENGTH);
+            }
+            final long from = keyBuffer.getLong(RangeStoreKeySerde.RANGE_FROM_OFFSET);
+            if (size > 0 && from < fromInc[size - 1]) {
+                sorted = false;
+            }
+            fromInc[size] = from;
+            toExc[size] = keyBuffer.getLong(RangeStoreKeySerde.RANGE_TO_OFFSET);
+            valueBuffer.duplicate().get(valueStoreKeys, size * VALUE_STORE_KEY_LENGTH, VALUE_STORE_KEY_LENGTH);
+            size++;
+        }
+
+        RangeIndex build() {
+            if (!sorted) {
+                // LMDB sorts the keys as unsigned bytes so negative range starts come last. Re-order the ranges
+                // by start, keeping the LMDB order for ranges with the same start.
+                final Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (i1, i2) -> Long.compare(fromInc[i1], fromInc[i2]));
+
+                final long[] sortedFromInc = new long[size];
+                final long[] sortedToExc = new long[size];
+                final byte[] sortedValueStoreKeys = new byte[size * VALUE_STORE_KEY_LENGTH];
+                for (int i = 0; i < size; i++) {
+                    final int index = order[i];
+                    sortedFromInc[i] = fromInc[index];
+                    sortedToExc[i] = toExc[index];
+                    System.arraycopy(
+                            valueStoreKeys, index * VALUE_STORE_KEY_LENGTH,
+                            sortedValueStoreKeys, i * VALUE_STORE_KEY_LENGTH,
+                            VALUE_STORE_KEY_LENGTH);
+                }
+                return new RangeIndex(sortedFromInc, sortedToExc, sortedValueStoreKeys, size);
+            }
+
+            return new RangeIndex(
+                    Arrays.copyOf(fromInc, size),
+                    Arrays.copyOf(toExc, size),
+                    Arrays.copyOf(valueStoreKeys, size * VALUE_STORE_KEY_LENGTH),
+                    size);
+        }
+    }
+}
@@ -216,6 +216,18 @@ public class RangeStoreDb
         }
     }
 
+    /**
+     * Build an on-heap index of all the ranges for the passed mapUid. The caller should make sure that
+     * no more entries will be added for the mapUid.
+     */
+    public RangeIndex buildIndex(final Txn<ByteBuffer> txn, final UID mapUid) {
+        final RangeIndex.Builder builder = new RangeIndex.Builder();
+        forEachEntryAsBytes(txn, mapUid, keyVal -> builder.add(keyVal.key(), keyVal.val()));
+        final RangeIndex rangeIndex = builder.build();
+        LOGGER.debug(() -> LogUtil.message("Built range index for {} with {} ranges", mapUid, rangeIndex.size()));
+        return rangeIndex;
+    }
+
     public Optional<UID> getMaxUid(final Txn<ByteBuffer> txn, PooledByteBuffer pooledByteBuffer) {
 
         try (CursorIterable<ByteBuffer> iterable = getLmdbDbi().iterate(txn, KeyRange.allBackward())) {
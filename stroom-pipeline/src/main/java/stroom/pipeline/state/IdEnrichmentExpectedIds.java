@@ -7,6 +7,7 @@ public class IdEnrichmentExpectedIds {
 
     private Long streamId;
     private long[] eventIds;
+    private long currentEventId = -1;
 
     public Long getStreamId() {
         return streamId;
@@ -23,4 +24,16 @@ public class IdEnrichmentExpectedIds {
     public void setEventIds(final long[] eventIds) {
         this.eventIds = eventIds;
     }
+
+    /**
+     * @return The id of the event that the id enrichment filter most recently added ids to or -1 if it hasn't
+     * seen an event yet.
+     */
+    public long getCurrentEventId() {
+        return currentEventId;
+    }
+
+    public void setCurrentEventId(final long currentEventId) {
+        this.currentEventId = currentEventId;
+    }
 }
@@ -148,7 +148,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
         @Inject
         DecodeUrlFunction(final Provider<DecodeUrl> functionCallProvider) {
             super(
-                    "decode-url",
+                    DecodeUrl.FUNCTION_NAME,
                     1,
                     1,
                     new SequenceType[]{SequenceType.SINGLE_STRING},
@@ -176,7 +176,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
         @Inject
         EncodeUrlFunction(final Provider<EncodeUrl> functionCallProvider) {
             super(
-                    "encode-url",
+                    EncodeUrl.FUNCTION_NAME,
                     1,
                     1,
                     new SequenceType[]{SequenceType.SINGLE_STRING},
@@ -297,7 +297,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
         @Inject
         HexToOctFunction(final Provider<HexToOct> functionCallProvider) {
             super(
-                    "hex-to-oct",
+                    HexToOct.FUNCTION_NAME,
                     1,
                     1,
                     new SequenceType[]{SequenceType.SINGLE_STRING},
@@ -492,7 +492,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
         @Inject
         NumericIPFunction(final Provider<NumericIP> functionCallProvider) {
             super(
-                    "numeric-ip",
+                    NumericIP.FUNCTION_NAME,
                     1,
                     1,
                     new SequenceType[]{SequenceType.SINGLE_STRING},
@@ -523,7 +523,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
         @Inject
         ParseUriFunction(final Provider<ParseUri> functionCallProvider) {
             super(
-                    "parse-uri",
+                    ParseUri.FUNCTION_NAME,
                     1,
                     1,
                     new SequenceType[]{SequenceType.SINGLE_STRING},
@@ -554,7 +554,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
             // TODO This really ought to be in lower-kebab-case like all the others but that would
             //  break content packs that use this func.
             super(
-                    "pointIsInsideXYPolygon",
+                    PointIsInsideXYPolygon.FUNCTION_NAME,
                     4,
                     4,
                     new SequenceType[]{
@@ -588,7 +588,7 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
         @Inject
         RandomFunction(final Provider<Random> functionCallProvider) {
             super(
-                    "random",
+                    Random.FUNCTION_NAME,
                     0,
                     0,
                     new SequenceType[]{},
@@ -25,6 +25,8 @@ import net.sf.saxon.value.StringValue;
 
 class DecodeUrl extends StroomExtensionFunctionCall {
 
+    public static final String FUNCTION_NAME = "decode-url";
+
     @Override
     protected Sequence call(final String functionName, final XPathContext context, final Sequence[] arguments) {
         String result = null;
@@ -25,6 +25,8 @@ import net.sf.saxon.value.StringValue;
 
 class EncodeUrl extends StroomExtensionFunctionCall {
 
+    public static final String FUNCTION_NAME = "encode-url";
+
     @Override
     protected Sequence call(final String functionName, final XPathContext context, final Sequence[] arguments) {
         String result = null;
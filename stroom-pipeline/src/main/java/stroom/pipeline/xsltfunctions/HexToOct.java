@@ -23,6 +23,8 @@ import net.sf.saxon.trans.XPathException;
 import net.sf.saxon.value.StringValue;
 
 class HexToOct extends StroomExtensionFunctionCall {
+
+    public static final String FUNCTION_NAME = "hex-to-oct";
     @Override
     protected Sequence call(String functionName, XPathContext context, Sequence[] arguments) {
         String result = null;
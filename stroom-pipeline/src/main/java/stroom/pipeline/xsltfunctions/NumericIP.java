@@ -29,6 +29,8 @@ import java.net.UnknownHostException;
 
 class NumericIP extends StroomExtensionFunctionCall {
 
+    public static final String FUNCTION_NAME = "numeric-ip";
+
     @Override
     protected Sequence call(final String functionName, final XPathContext context, final Sequence[] arguments) {
 
@@ -19,6 +19,8 @@ import java.net.URI;
 class ParseUri extends StroomExtensionFunctionCall {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParseUri.class);
 
+    public static final String FUNCTION_NAME = "parse-uri";
+
     private static final String EMPTY_STRING = "";
     private static final String NAMESPACE = "uri";
 
@@ -29,6 +29,8 @@ import java.util.List;
 
 class PointIsInsideXYPolygon extends StroomExtensionFunctionCall {
 
+    public static final String FUNCTION_NAME = "pointIsInsideXYPolygon";
+
     static final String DELIMITER = ",";
 
     @Override
@@ -22,6 +22,8 @@ import net.sf.saxon.om.Sequence;
 import net.sf.saxon.value.DoubleValue;
 
 class Random extends StroomExtensionFunctionCall {
+
+    public static final String FUNCTION_NAME = "random";
     @Override
     protected Sequence call(final String functionName, final XPathContext context, final Sequence[] arguments) {
         try {
@@ -90,6 +90,17 @@ class StroomExtensionFunctionDefinition<T extends StroomExtensionFunctionCall> e
         return proxy;
     }
 
+    String getFunctionName() {
+        return functionName;
+    }
+
+    /**
+     * @return True if the function is called by the XSLT that this definition was compiled with.
+     */
+    boolean isCalled() {
+        return proxy != null;
+    }
+
     void configure(final ErrorReceiver errorReceiver,
                    final LocationFactory locationFactory,
                    final List<PipelineReference> pipelineReferences) {
@@ -25,9 +25,34 @@ import net.sf.saxon.Configuration;
 
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 public class StroomXsltFunctionLibrary {
 
+    /**
+     * Functions that don't use any pipeline scoped state, other than the error receiver they are configured with,
+     * so can be called on threads other than the one running the pipeline. Format date reads the meta of the
+     * current stream, which is set before the stream is processed and doesn't change until it ends.
+     */
+    private static final Set<String> PIPELINE_INDEPENDENT_FUNCTIONS = Set.of(
+            CidrToNumericIPRange.FUNCTION_NAME,
+            CurrentTime.FUNCTION_NAME,
+            DecodeUrl.FUNCTION_NAME,
+            EncodeUrl.FUNCTION_NAME,
+            FormatDate.FUNCTION_NAME,
+            Hash.FUNCTION_NAME,
+            HexToDec.FUNCTION_NAME,
+            HexToOct.FUNCTION_NAME,
+            HexToString.FUNCTION_NAME,
+            IPInCidr.FUNCTION_NAME,
+            JsonToXml.FUNCTION_NAME,
+            Log.FUNCTION_NAME,
+            NumericIP.FUNCTION_NAME,
+            ParseUri.FUNCTION_NAME,
+            PointIsInsideXYPolygon.FUNCTION_NAME,
+            Random.FUNCTION_NAME);
+
     private final Set<StroomExtensionFunctionDefinition> functionDefinitions;
 
     @Inject
@@ -48,4 +73,16 @@ public class StroomXsltFunctionLibrary {
     public void reset() {
         functionDefinitions.forEach(StroomExtensionFunctionDefinition::reset);
     }
+
+    /**
+     * @return The names of any functions called by the compiled XSLT that use pipeline scoped state, e.g. lookups,
+     * record numbers or stream meta, and so must only be called on the thread that is running the pipeline.
+     */
+    public Set<String> getPipelineDependentFunctions() {
+        return functionDefinitions.stream()
+                .filter(StroomExtensionFunctionDefinition::isCalled)
+                .map(StroomExtensionFunctionDefinition::getFunctionName)
+                .filter(name -> !PIPELINE_INDEPENDENT_FUNCTIONS.contains(name))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
 }
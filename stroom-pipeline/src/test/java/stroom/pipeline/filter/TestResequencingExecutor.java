@@ -0,0 +1,79 @@
+package stroom.pipeline.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestResequencingExecutor {
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testOutputInOrder() throws Exception {
+        final List<Integer> results = new ArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final ResequencingExecutor<Integer> resequencingExecutor =
+                new ResequencingExecutor<>(executorService, 8, results::add);
+
+        for (int i = 0; i < 200; i++) {
+            final int value = i;
+            resequencingExecutor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return value;
+            });
+            // Never more than the max pending tasks should be waiting to be output.
+            assertThat(i + 1 - results.size()).isLessThanOrEqualTo(8);
+        }
+        resequencingExecutor.flush();
+
+        assertThat(results).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            assertThat(results.get(i)).isEqualTo(i);
+        }
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void testDiscard() throws Exception {
+        final List<Integer> results = new ArrayList<>();
+        final ResequencingExecutor<Integer> resequencingExecutor =
+                new ResequencingExecutor<>(executorService, 8, results::add);
+
+        resequencingExecutor.submit(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        });
+        resequencingExecutor.submit(() -> {
+            throw new RuntimeException("Failed");
+        });
+        resequencingExecutor.discard();
+        resequencingExecutor.flush();
+
+        assertThat(results).isEmpty();
+    }
+}
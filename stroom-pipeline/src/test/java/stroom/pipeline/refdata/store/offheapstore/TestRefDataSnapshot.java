@@ -0,0 +1,110 @@
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.ProcessingState;
+import stroom.pipeline.refdata.store.RefDataValue;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestRefDataSnapshot extends AbstractRefDataOffHeapStoreTest {
+
+    private static final int ENTRY_COUNT = 20;
+    private static final long EFFECTIVE_TIME_MS = 1_700_000_000_000L;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final RefStreamDefinition sourceRefStreamDef = loadBulkData(1, 2, 2, ENTRY_COUNT).get(0);
+        final RefStreamDefinition targetRefStreamDef = buildRefStreamDefinition(2);
+
+        final byte[] snapshot = writeSnapshot(sourceRefStreamDef);
+        final boolean isLoaded = RefDataSnapshot.load(
+                new ByteArrayInputStream(snapshot), refDataStore, targetRefStreamDef, EFFECTIVE_TIME_MS);
+
+        assertThat(isLoaded)
+                .isTrue();
+        assertThat(refDataStore.getLoadState(targetRefStreamDef))
+                .hasValue(ProcessingState.COMPLETE);
+
+        final Set<String> mapNames = refDataStore.getMapNames(sourceRefStreamDef);
+        assertThat(mapNames)
+                .hasSize(4);
+        assertThat(refDataStore.getMapNames(targetRefStreamDef))
+                .containsExactlyInAnyOrderElementsOf(mapNames);
+
+        for (final String mapName : mapNames) {
+            final MapDefinition sourceMapDef = new MapDefinition(sourceRefStreamDef, mapName);
+            final MapDefinition targetMapDef = new MapDefinition(targetRefStreamDef, mapName);
+            for (int k = 0; k < ENTRY_COUNT; k++) {
+                final String key = mapName.contains(KV_TYPE)
+                        ? buildKey(k)
+                        : Long.toString(buildRangeKey(k).getFrom() + 5);
+                final Optional<RefDataValue> sourceValue = refDataStore.getValue(sourceMapDef, key);
+                assertThat(sourceValue)
+                        .isPresent();
+                assertThat(refDataStore.getValue(targetMapDef, key))
+                        .isEqualTo(sourceValue);
+            }
+        }
+
+        // Values are the same so should all be shared with the source ref stream
+        assertThat(refDataStore.getKeyValueEntryCount())
+                .isEqualTo(2 * 2 * ENTRY_COUNT);
+        assertThat(refDataStore.getRangeValueEntryCount())
+                .isEqualTo(2 * 2 * ENTRY_COUNT);
+    }
+
+    @Test
+    void testNotAvailable() throws IOException {
+        final RefStreamDefinition refStreamDef = buildRefStreamDefinition(1);
+
+        final byte[] snapshot = writeSnapshot(refStreamDef);
+        final boolean isLoaded = RefDataSnapshot.load(
+                new ByteArrayInputStream(snapshot), refDataStore, refStreamDef, EFFECTIVE_TIME_MS);
+
+        assertThat(isLoaded)
+                .isFalse();
+        assertThat(refDataStore.getLoadState(refStreamDef))
+                .isEmpty();
+    }
+
+    @Test
+    void testTruncated() throws IOException {
+        final RefStreamDefinition sourceRefStreamDef = loadBulkData(1, 1, 1, ENTRY_COUNT).get(0);
+        final RefStreamDefinition targetRefStreamDef = buildRefStreamDefinition(2);
+
+        final byte[] snapshot = writeSnapshot(sourceRefStreamDef);
+        final byte[] truncatedSnapshot = Arrays.copyOf(snapshot, snapshot.length / 2);
+
+        assertThatThrownBy(() -> RefDataSnapshot.load(
+                new ByteArrayInputStream(truncatedSnapshot), refDataStore, targetRefStreamDef, EFFECTIVE_TIME_MS))
+                .isInstanceOf(IOException.class);
+
+        // Left so that it can be loaded again
+        assertThat(refDataStore.getLoadState(targetRefStreamDef))
+                .hasValue(ProcessingState.TERMINATED);
+
+        final boolean isLoaded = RefDataSnapshot.load(
+                new ByteArrayInputStream(snapshot), refDataStore, targetRefStreamDef, EFFECTIVE_TIME_MS);
+        assertThat(isLoaded)
+                .isTrue();
+        assertThat(refDataStore.getLoadState(targetRefStreamDef))
+                .hasValue(ProcessingState.COMPLETE);
+    }
+
+    private byte[] writeSnapshot(final RefStreamDefinition refStreamDefinition) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        getEffectiveStore(refStreamDefinition).writeSnapshot(refStreamDefinition, outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,138 @@
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.cache.impl.CacheManagerImpl;
+import stroom.pipeline.refdata.ReferenceDataConfig;
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.util.cache.CacheConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestRefDataValueCache {
+
+    private static final RefStreamDefinition REF_STREAM_1 = new RefStreamDefinition("pipe", "1", 1);
+    private static final RefStreamDefinition REF_STREAM_2 = new RefStreamDefinition("pipe", "1", 2);
+    private static final MapDefinition MAP_1 = new MapDefinition(REF_STREAM_1, "map");
+    private static final MapDefinition MAP_2 = new MapDefinition(REF_STREAM_2, "map");
+
+    private final CacheManagerImpl cacheManager = new CacheManagerImpl();
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        final RefDataValueCache cache = new RefDataValueCache(cacheManager, ReferenceDataConfig::new);
+
+        assertThat(lookup(cache, MAP_1, "key1")).containsExactly("value1");
+        assertThat(lookup(cache, MAP_1, "key1")).containsExactly("value1");
+        assertThat(lookup(cache, MAP_1, "missing")).isEmpty();
+        assertThat(lookup(cache, MAP_1, "missing")).isEmpty();
+        assertThat(loadCount).hasValue(2);
+
+        assertThat(cache.getSystemInfo())
+                .containsEntry("hits", 2L)
+                .containsEntry("misses", 2L)
+                .containsEntry("hitRatio", 0.5);
+    }
+
+    @Test
+    void testInvalidate() {
+        final RefDataValueCache cache = new RefDataValueCache(cacheManager, ReferenceDataConfig::new);
+
+        lookup(cache, MAP_1, "key1");
+        lookup(cache, MAP_2, "key1");
+        assertThat(loadCount).hasValue(2);
+
+        cache.invalidate(REF_STREAM_1);
+        lookup(cache, MAP_1, "key1");
+        lookup(cache, MAP_2, "key1");
+        assertThat(loadCount).hasValue(3);
+    }
+
+    @Test
+    void testIncompleteLoad() {
+        final RefDataValueCache cache = new RefDataValueCache(cacheManager, ReferenceDataConfig::new);
+
+        // While the ref stream is loading a key may not have been loaded yet or may be overwritten
+        // so nothing is cached.
+        assertThat(lookup(cache, MAP_1, "missing", false)).isEmpty();
+        assertThat(lookup(cache, MAP_1, "missing", false)).isEmpty();
+        assertThat(lookup(cache, MAP_1, "key1", false)).containsExactly("value1");
+        assertThat(lookup(cache, MAP_1, "key1", false)).containsExactly("value1");
+        assertThat(loadCount).hasValue(4);
+        assertThat(cache.getSystemInfo())
+                .containsEntry("size", 0L);
+
+        // Once complete we can cache it.
+        assertThat(lookup(cache, MAP_1, "missing", true)).isEmpty();
+        assertThat(lookup(cache, MAP_1, "missing", true)).isEmpty();
+        assertThat(loadCount).hasValue(5);
+    }
+
+    @Test
+    void testDisabled() {
+        final ReferenceDataConfig referenceDataConfig = new ReferenceDataConfig();
+        final ReferenceDataConfig disabledConfig = new ReferenceDataConfig(
+                referenceDataConfig.getMaxPutsBeforeCommit(),
+                referenceDataConfig.getMaxPurgeDeletesBeforeCommit(),
+                referenceDataConfig.getPurgeAge(),
+                referenceDataConfig.getLoadingLockStripes(),
+                referenceDataConfig.getLmdbConfig(),
+                referenceDataConfig.getStagingLmdbConfig(),
+                referenceDataConfig.getEffectiveStreamCache(),
+                referenceDataConfig.getMetaIdToRefStoreCache(),
+                CacheConfig.builder().maximumSize(0L).build(),
+                referenceDataConfig.isRangeIndexEnabled(),
+                referenceDataConfig.getMaxConcurrentLoads(),
+                referenceDataConfig.isPeerLoadingEnabled());
+        final RefDataValueCache cache = new RefDataValueCache(cacheManager, () -> disabledConfig);
+
+        assertThat(lookup(cache, MAP_1, "key1")).containsExactly("value1");
+        assertThat(lookup(cache, MAP_1, "key1")).containsExactly("value1");
+        assertThat(loadCount).hasValue(2);
+    }
+
+    private List<String> lookup(final RefDataValueCache cache,
+                                final MapDefinition mapDefinition,
+                                final String key) {
+        return lookup(cache, mapDefinition, key, true);
+    }
+
+    private List<String> lookup(final RefDataValueCache cache,
+                                final MapDefinition mapDefinition,
+                                final String key,
+                                final boolean isLoadComplete) {
+        final List<String> values = new ArrayList<>();
+        cache.consumeValueBytes(
+                mapDefinition,
+                key,
+                typedByteBuffer -> values.add(
+                        StandardCharsets.UTF_8.decode(typedByteBuffer.getByteBuffer()).toString()),
+                () -> isLoadComplete,
+                consumer -> {
+                    loadCount.incrementAndGet();
+                    if (key.startsWith("key")) {
+                        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(10);
+                        byteBuffer.put(("value" + key.substring(3)).getBytes(StandardCharsets.UTF_8));
+                        byteBuffer.flip();
+                        consumer.accept(new TypedByteBuffer((byte) 1, byteBuffer));
+                        return true;
+                    }
+                    return false;
+                });
+        return values;
+    }
+}
@@ -111,6 +111,47 @@ class TestRangeStoreDb extends AbstractStoreDbTest {
         });
     }
 
+    @Test
+    void testBuildIndex() {
+
+        final List<UID> uids = Arrays.asList(uid1, uid2, uid3);
+
+        for (int i = 0; i < uids.size(); i++) {
+            rangeStoreDb.put(key(uids.get(i), 1, 11), val((i * 10) + 1), false);
+            rangeStoreDb.put(key(uids.get(i), 11, 13), val((i * 10) + 2), false);
+            rangeStoreDb.put(key(uids.get(i), 13, 21), val((i * 10) + 3), false);
+            // gap in ranges
+            rangeStoreDb.put(key(uids.get(i), 101, 201), val((i * 10) + 4), false);
+            rangeStoreDb.put(key(uids.get(i), 201, 301), val((i * 10) + 5), false);
+        }
+
+        lmdbEnv.doWithReadTxn(txn -> {
+            for (int i = 0; i < uids.size(); i++) {
+                final RangeIndex rangeIndex = rangeStoreDb.buildIndex(txn, uids.get(i));
+                assertThat(rangeIndex.size()).isEqualTo(5);
+
+                getFromIndexAndAssert(rangeIndex, 1, (i * 10) + 1); // on range start
+                getFromIndexAndAssert(rangeIndex, 5, (i * 10) + 1); // in range middle
+                getFromIndexAndAssert(rangeIndex, 10, (i * 10) + 1); // on range end
+                getFromIndexAndAssert(rangeIndex, 11, (i * 10) + 2); // on range start
+                getFromIndexAndAssert(rangeIndex, 300, (i * 10) + 5); // on range end
+
+                assertThat(rangeIndex.getAsBytes(0)).isEmpty(); // not in a range
+                assertThat(rangeIndex.getAsBytes(21)).isEmpty(); // not in a range
+                assertThat(rangeIndex.getAsBytes(50)).isEmpty(); // not in a range
+                assertThat(rangeIndex.getAsBytes(100)).isEmpty(); // not in a range
+                assertThat(rangeIndex.getAsBytes(301)).isEmpty(); // not in a range
+            }
+        });
+    }
+
+    private void getFromIndexAndAssert(RangeIndex rangeIndex, long key, int expectedValue) {
+        Optional<ByteBuffer> optValueStoreKeyBuffer = rangeIndex.getAsBytes(key);
+        assertThat(optValueStoreKeyBuffer).isNotEmpty();
+        assertThat(new ValueStoreKeySerde().deserialize(optValueStoreKeyBuffer.get()))
+                .isEqualTo(val(expectedValue));
+    }
+
     @Test
     void testContainsMapDefinition() {
 
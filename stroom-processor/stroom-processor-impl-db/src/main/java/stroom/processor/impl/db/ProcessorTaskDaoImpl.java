@@ -33,6 +33,7 @@ import stroom.processor.impl.ExistingCreatedTask;
 import stroom.processor.impl.ProcessorConfig;
 import stroom.processor.impl.ProcessorFilterCache;
 import stroom.processor.impl.ProcessorTaskDao;
+import stroom.processor.impl.ProcessorTaskStatusChange;
 import stroom.processor.impl.ProgressMonitor.FilterProgressMonitor;
 import stroom.processor.impl.ProgressMonitor.Phase;
 import stroom.processor.impl.db.jooq.tables.records.ProcessorTaskRecord;
@@ -69,6 +70,7 @@ import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.OrderField;
+import org.jooq.Query;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Record2;
@@ -1089,6 +1091,58 @@ class ProcessorTaskDaoImpl implements ProcessorTaskDao {
                 processorTask.getProcessorFilter());
     }
 
+    @Override
+    public int changeTaskStatuses(final List<ProcessorTaskStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        final Supplier<String> msgSupplier = () -> LogUtil.message(
+                "changeTaskStatuses() - Changing status of {} tasks", changes.size());
+        LOGGER.debug(msgSupplier);
+
+        // Resolve the node ids before we start the txn
+        final Map<String, Integer> nodeIdMap = new HashMap<>();
+        for (final ProcessorTaskStatusChange change : changes) {
+            final String nodeName = change.getNodeName();
+            if (nodeName != null) {
+                nodeIdMap.computeIfAbsent(nodeName, processorNodeCache::getOrCreate);
+            }
+        }
+
+        // The whole batch is one txn so on deadlock it can just be run again
+        final int[] counts = JooqUtil.withDeadlockRetries(() ->
+                        JooqUtil.transactionResult(processorDbConnProvider, context -> {
+                            final List<Query> queries = changes.stream()
+                                    .map(change -> (Query) context
+                                            .update(PROCESSOR_TASK)
+                                            .set(PROCESSOR_TASK.STATUS, change.getStatus().getPrimitiveValue())
+                                            .set(PROCESSOR_TASK.STATUS_TIME_MS, change.getStatusTimeMs())
+                                            .set(PROCESSOR_TASK.START_TIME_MS, change.getStartTimeMs())
+                                            .set(PROCESSOR_TASK.END_TIME_MS, change.getEndTimeMs())
+                                            .set(PROCESSOR_TASK.VERSION, PROCESSOR_TASK.VERSION.plus(1))
+                                            .where(PROCESSOR_TASK.ID.eq(change.getTaskId()))
+                                            // Only if nothing has changed the task since this node
+                                            // started it, e.g. it has not been disowned and given to
+                                            // another node.
+                                            .and(PROCESSOR_TASK.VERSION.eq(change.getVersion()))
+                                            .and(PROCESSOR_TASK.FK_PROCESSOR_NODE_ID.eq(
+                                                    nodeIdMap.get(change.getNodeName())))
+                                            .and(PROCESSOR_TASK.STATUS.ne(TaskStatus.DELETED.getPrimitiveValue())))
+                                    .toList();
+                            return context.batch(queries).execute();
+                        }),
+                msgSupplier);
+
+        final int count = Arrays.stream(counts).sum();
+        if (count < changes.size()) {
+            LOGGER.debug(() -> LogUtil.message(
+                    "changeTaskStatuses() - {} of {} tasks have been deleted or changed elsewhere " +
+                            "so were not changed",
+                    changes.size() - count, changes.size()));
+        }
+        return count;
+    }
+
     private ProcessorTask convert(final ProcessorTaskRecord record,
                                   final String nodeName,
                                   final String feedName,
@@ -28,6 +28,7 @@ import stroom.processor.shared.AssignTasksRequest;
 import stroom.processor.shared.ProcessorTask;
 import stroom.processor.shared.ProcessorTaskList;
 import stroom.processor.shared.ProcessorTaskResource;
+import stroom.security.api.SecurityContext;
 import stroom.task.api.TaskContext;
 import stroom.task.api.TaskContextFactory;
 import stroom.task.api.ThreadPoolImpl;
@@ -39,8 +40,11 @@ import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @DistributedTaskFactoryDescription(
@@ -56,6 +60,7 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
     private final ProcessorTaskResource processorTaskResource;
     private final NodeInfo nodeInfo;
     private final TaskContextFactory taskContextFactory;
+    private final Provider<ProcessorConfig> processorConfigProvider;
     private RunnableFactory runnableFactory;
 
     @Inject
@@ -63,12 +68,17 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
                              final ProcessorTaskResource processorTaskResource,
                              final Provider<DataProcessorTaskHandler> dataProcessorTaskHandlerProvider,
                              final NodeInfo nodeInfo,
-                             final TaskContextFactory taskContextFactory) {
+                             final TaskContextFactory taskContextFactory,
+                             final Provider<ProcessorConfig> processorConfigProvider,
+                             final SecurityContext securityContext) {
         this.targetNodeSetFactory = targetNodeSetFactory;
         this.processorTaskResource = processorTaskResource;
         this.nodeInfo = nodeInfo;
-        this.runnableFactory = new RunnableFactoryImpl(dataProcessorTaskHandlerProvider);
+        // Tasks are abandoned from the processing thread so need to be handed back as the processing user.
+        this.runnableFactory = new RunnableFactoryImpl(dataProcessorTaskHandlerProvider, processorTasks ->
+                securityContext.asProcessingUser(() -> abandonTasks(processorTasks)));
         this.taskContextFactory = taskContextFactory;
+        this.processorConfigProvider = processorConfigProvider;
     }
 
     @Override
@@ -79,24 +89,30 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
                 LOGGER.debug("masterNode: {}", masterNode);
                 final TaskContext taskContext = taskContextFactory.current();
                 taskContext.info(() -> "Processor task resource assign tasks");
+                final int taskBatchSize = Math.max(1, processorConfigProvider.get().getTaskBatchSize());
                 final ProcessorTaskList processorTaskList = processorTaskResource
-                        .assignTasks(masterNode, new AssignTasksRequest(taskContext.getTaskId(), nodeName, count));
+                        .assignTasks(masterNode, new AssignTasksRequest(
+                                taskContext.getTaskId(), nodeName, count * taskBatchSize));
 
                 taskContext.info(() ->
                         "Received " +
                                 processorTaskList.getList().size() +
                                 " new tasks");
-                return processorTaskList
-                        .getList()
-                        .stream()
-                        .map(processorTask -> {
-                            final Runnable runnable = runnableFactory.create(processorTask);
-                            return new DistributedDataProcessorTask(JobNames.DATA_PROCESSOR,
-                                    runnable,
-                                    THREAD_POOL,
-                                    processorTask);
-                        })
-                        .collect(Collectors.toList());
+                if (taskBatchSize == 1) {
+                    return processorTaskList
+                            .getList()
+                            .stream()
+                            .map(processorTask -> {
+                                final Runnable runnable = runnableFactory.create(processorTask);
+                                return new DistributedDataProcessorTask(JobNames.DATA_PROCESSOR,
+                                        runnable,
+                                        THREAD_POOL,
+                                        List.of(processorTask));
+                            })
+                            .collect(Collectors.toList());
+                } else {
+                    return createBatches(processorTaskList.getList(), count);
+                }
             }
         } catch (final RuntimeException | NullClusterStateException | NodeNotFoundException e) {
             LOGGER.error(e.getMessage(), e);
@@ -105,18 +121,60 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
         return Collections.emptyList();
     }
 
+    /**
+     * Split the tasks into no more than count batches so each batch can be processed by one distributed
+     * task. Tasks for the same filter are kept together where possible but a batch can contain tasks
+     * for several filters so we never claim more tasks than we can process. The tasks are spread as
+     * evenly as possible so that we use all available threads when we receive fewer tasks than we
+     * asked for.
+     */
+    List<DistributedTask> createBatches(final List<ProcessorTask> processorTasks,
+                                        final int count) {
+        if (processorTasks.isEmpty() || count <= 0) {
+            return Collections.emptyList();
+        }
+
+        final List<ProcessorTask> orderedTasks = processorTasks
+                .stream()
+                .collect(Collectors.groupingBy(
+                        processorTask -> processorTask.getProcessorFilter().getId(),
+                        LinkedHashMap::new,
+                        Collectors.toList()))
+                .values()
+                .stream()
+                .flatMap(List::stream)
+                .toList();
+
+        final int batchSize = (orderedTasks.size() + count - 1) / count;
+        final List<DistributedTask> distributedTasks = new ArrayList<>();
+        for (int i = 0; i < orderedTasks.size(); i += batchSize) {
+            final List<ProcessorTask> batch = orderedTasks.subList(i, Math.min(i + batchSize,
+                    orderedTasks.size()));
+            final Runnable runnable = runnableFactory.create(batch);
+            distributedTasks.add(new DistributedDataProcessorTask(JobNames.DATA_PROCESSOR,
+                    runnable,
+                    THREAD_POOL,
+                    batch));
+        }
+        return distributedTasks;
+    }
+
     @Override
     public Boolean abandon(final String nodeName, final List<DistributedTask> tasks) {
+        return abandonTasks(tasks
+                .stream()
+                .map(distributedTask -> (DistributedDataProcessorTask) distributedTask)
+                .flatMap(distributedTask -> distributedTask.getProcessorTasks().stream())
+                .collect(Collectors.toList()));
+    }
+
+    private Boolean abandonTasks(final List<ProcessorTask> processorTasks) {
+        if (processorTasks.isEmpty()) {
+            return true;
+        }
         try {
             if (targetNodeSetFactory.isClusterStateInitialised()) {
                 final String masterNode = targetNodeSetFactory.getMasterNode();
-
-                final List<ProcessorTask> processorTasks = tasks
-                        .stream()
-                        .map(distributedTask -> (DistributedDataProcessorTask) distributedTask)
-                        .map(DistributedDataProcessorTask::getProcessorTask)
-                        .collect(Collectors.toList());
-
                 final ProcessorTaskList processorTaskList = new ProcessorTaskList(nodeInfo.getThisNodeName(),
                         processorTasks);
 
@@ -132,18 +190,20 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
 
     private static class DistributedDataProcessorTask extends DistributedTask {
 
-        private final ProcessorTask processorTask;
+        private final List<ProcessorTask> processorTasks;
 
         public DistributedDataProcessorTask(final String jobName,
                                             final Runnable runnable,
                                             final ThreadPool threadPool,
-                                            final ProcessorTask processorTask) {
-            super(jobName, runnable, threadPool, String.valueOf(processorTask.getId()));
-            this.processorTask = processorTask;
+                                            final List<ProcessorTask> processorTasks) {
+            super(jobName, runnable, threadPool, processorTasks.stream()
+                    .map(processorTask -> String.valueOf(processorTask.getId()))
+                    .collect(Collectors.joining(",")));
+            this.processorTasks = processorTasks;
         }
 
-        public ProcessorTask getProcessorTask() {
-            return processorTask;
+        public List<ProcessorTask> getProcessorTasks() {
+            return processorTasks;
         }
     }
 
@@ -154,9 +214,12 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
     public static class RunnableFactoryImpl implements RunnableFactory {
 
         private final Provider<DataProcessorTaskHandler> dataProcessorTaskHandlerProvider;
+        private final Consumer<List<ProcessorTask>> abandonConsumer;
 
-        public RunnableFactoryImpl(final Provider<DataProcessorTaskHandler> dataProcessorTaskHandlerProvider) {
+        public RunnableFactoryImpl(final Provider<DataProcessorTaskHandler> dataProcessorTaskHandlerProvider,
+                                   final Consumer<List<ProcessorTask>> abandonConsumer) {
             this.dataProcessorTaskHandlerProvider = dataProcessorTaskHandlerProvider;
+            this.abandonConsumer = abandonConsumer;
         }
 
         @Override
@@ -166,10 +229,31 @@ public class DataProcessorTaskFactory implements DistributedTaskFactory {
                 dataProcessorTaskHandler.exec(processorTask);
             };
         }
+
+        @Override
+        public Runnable create(final List<ProcessorTask> processorTasks) {
+            return () -> {
+                List<ProcessorTask> notStarted = processorTasks;
+                try {
+                    final DataProcessorTaskHandler dataProcessorTaskHandler = dataProcessorTaskHandlerProvider.get();
+                    notStarted = dataProcessorTaskHandler.exec(processorTasks);
+                } finally {
+                    // Hand back any tasks we didn't get round to so they don't sit on this node.
+                    if (!notStarted.isEmpty()) {
+                        LOGGER.debug("Abandoning {} tasks that were not started", notStarted.size());
+                        abandonConsumer.accept(notStarted);
+                    }
+                }
+            };
+        }
     }
 
     public interface RunnableFactory {
 
         Runnable create(ProcessorTask processorTask);
+
+        default Runnable create(final List<ProcessorTask> processorTasks) {
+            return () -> processorTasks.forEach(processorTask -> create(processorTask).run());
+        }
     }
 }
@@ -46,8 +46,11 @@ import jakarta.inject.Provider;
 import jakarta.ws.rs.ProcessingException;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class DataProcessorTaskHandler {
 
@@ -56,6 +59,8 @@ public class DataProcessorTaskHandler {
     private final Map<ProcessorType, Provider<ProcessorTaskExecutor>> executorProviders;
     private final ProcessorFilterCache processorFilterCache;
     private final ProcessorTaskDao processorTaskDao;
+    private final ProcessorTaskStatusWriter processorTaskStatusWriter;
+    private final ProcessorTaskStartLatency processorTaskStartLatency;
     private final Store streamStore;
     private final MetaService metaService;
     private final NodeInfo nodeInfo;
@@ -66,6 +71,8 @@ public class DataProcessorTaskHandler {
     DataProcessorTaskHandler(final Map<ProcessorType, Provider<ProcessorTaskExecutor>> executorProviders,
                              final ProcessorFilterCache processorFilterCache,
                              final ProcessorTaskDao processorTaskDao,
+                             final ProcessorTaskStatusWriter processorTaskStatusWriter,
+                             final ProcessorTaskStartLatency processorTaskStartLatency,
                              final Store streamStore,
                              final MetaService metaService,
                              final NodeInfo nodeInfo,
@@ -74,6 +81,8 @@ public class DataProcessorTaskHandler {
         this.executorProviders = executorProviders;
         this.processorFilterCache = processorFilterCache;
         this.processorTaskDao = processorTaskDao;
+        this.processorTaskStatusWriter = processorTaskStatusWriter;
+        this.processorTaskStartLatency = processorTaskStartLatency;
         this.streamStore = streamStore;
         this.metaService = metaService;
         this.nodeInfo = nodeInfo;
@@ -93,6 +102,53 @@ public class DataProcessorTaskHandler {
         }));
     }
 
+    /**
+     * Process a batch of tasks one after another. The parent task context is set up once for the batch
+     * but each task is processed as its filter owner in its own child task context, and therefore its
+     * own pipeline scope, so is processed exactly as it would be by
+     * {@link DataProcessorTaskHandler#exec(ProcessorTask)}.
+     *
+     * @return The tasks that were not started because the batch was terminated. The caller is
+     * responsible for abandoning these so they can be processed elsewhere.
+     */
+    public List<ProcessorTask> exec(final List<ProcessorTask> tasks) {
+        if (tasks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return securityContext.asProcessingUserResult(() ->
+                taskContextFactory.contextResult(
+                        "Data Processor",
+                        TerminateHandlerFactory.NOOP_FACTORY,
+                        parentTaskContext -> execBatch(parentTaskContext, tasks, task -> {
+                            final UserIdentity userIdentity = getFilterOwnerIdentity(task.getProcessorFilter());
+                            securityContext.asUser(userIdentity, () -> securityContext.useAsRead(() ->
+                                    taskContextFactory.childContextResult(
+                                            parentTaskContext,
+                                            "Data Processor",
+                                            taskContext -> exec(taskContext, task)).get()));
+                        })).get());
+    }
+
+    static List<ProcessorTask> execBatch(final TaskContext parentTaskContext,
+                                         final List<ProcessorTask> tasks,
+                                         final Consumer<ProcessorTask> taskConsumer) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (parentTaskContext.isTerminated()) {
+                LOGGER.debug("Batch terminated with {} tasks not started", tasks.size() - i);
+                return new ArrayList<>(tasks.subList(i, tasks.size()));
+            }
+            final ProcessorTask task = tasks.get(i);
+            try {
+                taskConsumer.accept(task);
+            } catch (final RuntimeException e) {
+                // Don't let one task stop the rest of the batch from being processed
+                LOGGER.error(() -> LogUtil.message(
+                        "Error processing task {}: {}", task.getId(), e.getMessage()), e);
+            }
+        }
+        return Collections.emptyList();
+    }
+
     private UserIdentity getFilterOwnerIdentity(final ProcessorFilter filter) {
         try {
             return securityContext.getIdentityByUserUuid(securityContext.getDocumentOwnerUuid(
@@ -152,6 +208,8 @@ public class DataProcessorTaskHandler {
                 processorTask = processorTaskDao.changeTaskStatus(processorTask, nodeInfo.getThisNodeName(),
                         TaskStatus.PROCESSING, startTime, null);
                 if (processorTask != null) {
+                    processorTaskStartLatency.record(meta.getCreateMs(), startTime);
+
                     // Avoid having to do another fetch
                     processorTask.setProcessorFilter(processorFilter);
 
@@ -191,13 +249,16 @@ public class DataProcessorTaskHandler {
             }
         } finally {
             // Null processorTask implies the task was (logically)? deleted before we completed so no point in
-            // changing status
+            // changing status. The final status may be written behind.
             if (processorTask != null) {
                 if (complete) {
-                    processorTaskDao.changeTaskStatus(processorTask, nodeInfo.getThisNodeName(), TaskStatus.COMPLETE,
-                            startTime, System.currentTimeMillis());
+                    processorTaskStatusWriter.changeTaskStatus(processorTask,
+                            nodeInfo.getThisNodeName(),
+                            TaskStatus.COMPLETE,
+                            startTime,
+                            System.currentTimeMillis());
                 } else {
-                    processorTaskDao.changeTaskStatus(processorTask,
+                    processorTaskStatusWriter.changeTaskStatus(processorTask,
                             nodeInfo.getThisNodeName(),
                             TaskStatus.FAILED,
                             startTime,
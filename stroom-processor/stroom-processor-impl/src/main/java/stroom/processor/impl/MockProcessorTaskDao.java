@@ -22,6 +22,7 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -160,6 +161,24 @@ public class MockProcessorTaskDao implements ProcessorTaskDao, Clearable {
         return processorTask;
     }
 
+    @Override
+    public int changeTaskStatuses(final List<ProcessorTaskStatusChange> changes) {
+        int count = 0;
+        for (final ProcessorTaskStatusChange change : changes) {
+            final ProcessorTask processorTask = dao.getMap().get(Math.toIntExact(change.getTaskId()));
+            if (processorTask != null
+                    && processorTask.getStatus() != TaskStatus.DELETED
+                    && Objects.equals(processorTask.getNodeName(), change.getNodeName())) {
+                processorTask.setStatus(change.getStatus());
+                processorTask.setStatusTimeMs(change.getStatusTimeMs());
+                processorTask.setStartTimeMs(change.getStartTimeMs());
+                processorTask.setEndTimeMs(change.getEndTimeMs());
+                count++;
+            }
+        }
+        return count;
+    }
+
     @Override
     public ResultPage<ProcessorTask> find(final ExpressionCriteria criteria) {
         final List<ProcessorTask> list = dao
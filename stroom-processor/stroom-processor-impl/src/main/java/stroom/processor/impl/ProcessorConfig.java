@@ -41,6 +41,9 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
 
     private final StroomDuration waitToQueueTasksDuration;
     private StroomDuration skipNonProducingFiltersDuration;
+    private final int taskBatchSize;
+    private final StroomDuration assignTasksWaitDuration;
+    private final boolean batchTaskStatusWrites;
 
     public ProcessorConfig() {
         dbConfig = new ProcessorDbConfig();
@@ -73,6 +76,9 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
         disownDeadTasksAfter = StroomDuration.ofMinutes(10);
         waitToQueueTasksDuration = StroomDuration.ofSeconds(10);
         skipNonProducingFiltersDuration = StroomDuration.ofSeconds(10);
+        taskBatchSize = 1;
+        assignTasksWaitDuration = StroomDuration.ZERO;
+        batchTaskStatusWrites = false;
     }
 
     @SuppressWarnings("unused")
@@ -93,7 +99,10 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
                            @JsonProperty("disownDeadTasksAfter") final StroomDuration disownDeadTasksAfter,
                            @JsonProperty("waitToQueueTasksDuration") final StroomDuration waitToQueueTasksDuration,
                            @JsonProperty("skipNonProducingFiltersDuration") final StroomDuration
-                                   skipNonProducingFiltersDuration) {
+                                   skipNonProducingFiltersDuration,
+                           @JsonProperty("taskBatchSize") final int taskBatchSize,
+                           @JsonProperty("batchTaskStatusWrites") final boolean batchTaskStatusWrites,
+                           @JsonProperty("assignTasksWaitDuration") final StroomDuration assignTasksWaitDuration) {
         this.dbConfig = dbConfig;
         this.assignTasks = assignTasks;
         this.deleteAge = deleteAge;
@@ -110,6 +119,9 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
         this.disownDeadTasksAfter = disownDeadTasksAfter;
         this.waitToQueueTasksDuration = waitToQueueTasksDuration;
         this.skipNonProducingFiltersDuration = skipNonProducingFiltersDuration;
+        this.taskBatchSize = taskBatchSize;
+        this.batchTaskStatusWrites = batchTaskStatusWrites;
+        this.assignTasksWaitDuration = assignTasksWaitDuration;
     }
 
     @Override
@@ -200,6 +212,35 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
         return skipNonProducingFiltersDuration;
     }
 
+    @JsonPropertyDescription("The maximum number of tasks that a node will process one after another as a " +
+            "single data processor task. Values above 1 mean a node claims more " +
+            "tasks each time it asks for work and saves the per task overhead of scheduling and setting up the " +
+            "task, which is worthwhile for feeds that receive lots of small streams. Each stream is still " +
+            "processed by its own pipeline with its own output and task status. Set to 1 to process each task " +
+            "on its own.")
+    public int getTaskBatchSize() {
+        return taskBatchSize;
+    }
+
+    @JsonPropertyDescription("Should a node hold the completed and failed status of the processor tasks it " +
+            "has finished in memory and write them to the database in batches, rather than with a database " +
+            "update for each task as it finishes? The batches are written by the 'Processor Task Status Writer' " +
+            "job, so that job must be enabled on each processing node. Tasks that finish on a node that dies " +
+            "before the next write will be processed again. Requires a restart to take effect.")
+    public boolean isBatchTaskStatusWrites() {
+        return batchTaskStatusWrites;
+    }
+
+    @JsonPropertyDescription("How long the master node will hold open a request for tasks from a worker node " +
+            "when it has no tasks to give it, waiting for new tasks to be queued. Tasks are handed to the waiting " +
+            "worker as soon as they are queued, so this reduces the delay between data arriving and being " +
+            "processed and the number of empty requests when the cluster is idle. This must be less than the read " +
+            "timeout of the HTTP client used for inter-node calls. Set to zero to return immediately. " +
+            "In ISO-8601 duration format, e.g. 'PT20S'")
+    public StroomDuration getAssignTasksWaitDuration() {
+        return assignTasksWaitDuration;
+    }
+
     public void setSkipNonProducingFiltersDuration(final StroomDuration skipNonProducingFiltersDuration) {
         this.skipNonProducingFiltersDuration = skipNonProducingFiltersDuration;
     }
@@ -222,6 +263,9 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
                 ", disownDeadTasksAfter=" + disownDeadTasksAfter +
                 ", waitToQueueTasksDuration=" + waitToQueueTasksDuration +
                 ", skipNonProducingFiltersDuration=" + skipNonProducingFiltersDuration +
+                ", taskBatchSize=" + taskBatchSize +
+                ", batchTaskStatusWrites=" + batchTaskStatusWrites +
+                ", assignTasksWaitDuration=" + assignTasksWaitDuration +
                 '}';
     }
 
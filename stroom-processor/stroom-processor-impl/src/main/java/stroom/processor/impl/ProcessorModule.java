@@ -73,7 +73,9 @@ public class ProcessorModule extends AbstractModule {
                 .bind(ProcessorFilterDoc.DOCUMENT_TYPE, ProcessorFilterImportExportHandlerImpl.class);
 
         HasSystemInfoBinder.create(binder())
-                .bind(ProcessorTaskQueueManagerImpl.class);
+                .bind(ProcessorTaskQueueManagerImpl.class)
+                .bind(ProcessorTaskStatusWriter.class)
+                .bind(ProcessorTaskStartLatency.class);
 
         ScheduledJobsBinder.create(binder())
                 .bindJobTo(ProcessorTaskQueueStatistics.class, builder -> builder
@@ -95,6 +97,11 @@ public class ProcessorModule extends AbstractModule {
                         .name("Processor Task Manager Release Old Queued Tasks")
                         .description("Release queued tasks from old master nodes")
                         .frequencySchedule("1m"))
+                .bindJobTo(ProcessorTaskStatusWriterFlush.class, builder -> builder
+                        .name("Processor Task Status Writer")
+                        .description("Write the held status of finished processor tasks to the database " +
+                                "(stroom.processor.batchTaskStatusWrites)")
+                        .frequencySchedule("10s"))
                 .bindJobTo(ProcessorTaskCreatorJob.class, builder -> builder
                         .name("Processor Task Creator")
                         .description("Create Processor Tasks from Processor Filters")
@@ -104,7 +111,9 @@ public class ProcessorModule extends AbstractModule {
 
         LifecycleBinder.create(binder())
                 .bindStartupTaskTo(ProcessorTaskManagerStartup.class)
-                .bindShutdownTaskTo(ProcessorTaskManagerShutdown.class);
+                .bindShutdownTaskTo(ProcessorTaskManagerShutdown.class)
+                .bindStartupTaskTo(ProcessorTaskStatusWriterStartup.class)
+                .bindShutdownTaskTo(ProcessorTaskStatusWriterShutdown.class);
     }
 
 
@@ -159,6 +168,42 @@ public class ProcessorModule extends AbstractModule {
     // --------------------------------------------------------------------------------
 
 
+    private static class ProcessorTaskStatusWriterStartup extends RunnableWrapper {
+
+        @Inject
+        ProcessorTaskStatusWriterStartup(final ProcessorTaskStatusWriter processorTaskStatusWriter) {
+            super(processorTaskStatusWriter::startup);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class ProcessorTaskStatusWriterShutdown extends RunnableWrapper {
+
+        @Inject
+        ProcessorTaskStatusWriterShutdown(final ProcessorTaskStatusWriter processorTaskStatusWriter) {
+            super(processorTaskStatusWriter::shutdown);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class ProcessorTaskStatusWriterFlush extends RunnableWrapper {
+
+        @Inject
+        ProcessorTaskStatusWriterFlush(final ProcessorTaskStatusWriter processorTaskStatusWriter) {
+            super(processorTaskStatusWriter::flush);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
     private static class ProcessorTaskManagerDisownDeadTasks extends RunnableWrapper {
 
         @Inject
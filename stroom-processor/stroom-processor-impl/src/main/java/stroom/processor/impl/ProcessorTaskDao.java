@@ -101,6 +101,16 @@ public interface ProcessorTaskDao {
                                    Long startTime,
                                    Long endTime);
 
+    /**
+     * Apply a batch of status changes, each to a single task, in one transaction. Changes to
+     * tasks that have since been logically deleted, changed by something else or given to another
+     * node are ignored.
+     *
+     * @param changes The status changes to apply.
+     * @return The number of tasks changed.
+     */
+    int changeTaskStatuses(List<ProcessorTaskStatusChange> changes);
+
     ResultPage<ProcessorTask> find(final ExpressionCriteria criteria);
 
     ResultPage<ProcessorTaskSummary> findSummary(final ExpressionCriteria criteria);
@@ -48,11 +48,13 @@ import stroom.util.logging.LogUtil;
 import stroom.util.shared.PermissionException;
 import stroom.util.sysinfo.HasSystemInfo;
 import stroom.util.sysinfo.SystemInfoResult;
+import stroom.util.time.StroomDuration;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
@@ -69,6 +71,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -83,6 +88,7 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
     private static final int BATCH_SIZE = 1000;
     private static final int MAX_ASSIGNMENT_ATTEMPTS = 10;
     private static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Fill Task Store", 3);
+    private static final Duration TERMINATION_CHECK_INTERVAL = Duration.ofSeconds(1);
 
     private final ProcessorTaskDao processorTaskDao;
     private final Executor executor;
@@ -112,6 +118,14 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
     private volatile boolean allowTaskQueueFill = false;
 
     private final Map<String, Instant> lastNodeContactTime = new ConcurrentHashMap<>();
+
+    /**
+     * The number of assignTasks requests waiting for tasks to be queued.
+     */
+    private final AtomicInteger waitingRequestCount = new AtomicInteger();
+    private final ReentrantLock tasksQueuedLock = new ReentrantLock();
+    private final Condition tasksQueuedCondition = tasksQueuedLock.newCondition();
+    private final AtomicLong tasksQueuedCount = new AtomicLong();
     private Instant lastDisownedTasks = Instant.now();
 
     @Inject
@@ -167,6 +181,8 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
         // It shouldn't be possible to queue tasks during shutdown.
         try {
             allowTaskQueueFill = false;
+            // Let any requests waiting for tasks return now rather than at the end of their wait.
+            signalTasksQueued();
             clearTaskStore();
         } catch (final RuntimeException e) {
             LOGGER.error(e.getMessage(), e);
@@ -222,67 +238,7 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                         "(attempt=" +
                         attempt.get() +
                         ")");
-                // Get local reference to list in case it is swapped out.
-                final List<ProcessorFilter> filters = prioritisedFilters.get();
-                // Try and get a bunch of tasks from the queue to assign to the requesting node.
-                info(taskContext, () ->
-                        "Attempting task assignment for " +
-                                filters.size() +
-                                " filters " +
-                                "(attempt=" +
-                                attempt.get() +
-                                ")");
-                final AtomicInteger filterCount = new AtomicInteger();
-                for (final ProcessorFilter filter : filters) {
-                    info(taskContext, () ->
-                            "Attempting task assignment for " +
-                                    filterCount.incrementAndGet() +
-                                    "/" +
-                                    filters.size() +
-                                    " filters " +
-                                    " (filter=" +
-                                    filter +
-                                    ", attempt=" +
-                                    attempt.get() +
-                                    ")");
-
-                    if (assignedStreamTasks.size() >= count) {
-                        break;
-                    }
-
-                    // Get the queue for this filter.
-                    final ProcessorTaskQueue queue = queueMap.get(filter);
-                    if (queue != null) {
-                        int filterTasksAssigned = 0;
-
-                        // Maximum number of tasks to assign for this filter. If the filter task limit is
-                        // unbounded, assign as many tasks up to the specified `count`. Otherwise, only assign
-                        // tasks up to the filter's configured limit.
-                        int maxFilterTasks = count - assignedStreamTasks.size();
-                        if (filter.isProcessingTaskCountBounded()) {
-                            final int maxFilterTasksToCreate = filter.getMaxProcessingTasks() -
-                                    processorTaskDao.countTasksForFilter(filter.getId(), TaskStatus.PROCESSING);
-                            maxFilterTasks = Math.min(
-                                    maxFilterTasks,
-                                    Math.max(0, maxFilterTasksToCreate));
-                        }
-
-                        if (maxFilterTasks > 0) {
-                            // Add as many tasks as we can for this filter.
-                            ProcessorTask streamTask = queue.poll();
-                            while (streamTask != null) {
-                                assignedStreamTasks.add(streamTask);
-                                filterTasksAssigned++;
-
-                                if (assignedStreamTasks.size() < count && filterTasksAssigned < maxFilterTasks) {
-                                    streamTask = queue.poll();
-                                } else {
-                                    streamTask = null;
-                                }
-                            }
-                        }
-                    }
-                }
+                pollQueues(count, assignedStreamTasks, taskContext, attempt.get());
             } catch (final RuntimeException e) {
                 LOGGER.error(e.getMessage(), e);
             }
@@ -322,9 +278,165 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
             }
         }
 
+        // If there were no tasks then hold the request open for a while in case some get queued.
+        if (assignedStreamTasks.isEmpty() && allowTaskQueueFill) {
+            final StroomDuration assignTasksWaitDuration = processorConfigProvider.get().getAssignTasksWaitDuration();
+            if (assignTasksWaitDuration != null && !assignTasksWaitDuration.isZero()) {
+                waitForQueuedTasks(nodeName, count, assignedStreamTasks, taskContext, assignTasksWaitDuration);
+            }
+        }
+
         return new ProcessorTaskList(nodeName, assignedStreamTasks);
     }
 
+    /**
+     * Poll the filter queues in priority order, adding tasks to assignedStreamTasks until we have count
+     * tasks or the queues are exhausted.
+     */
+    private void pollQueues(final int count,
+                            final List<ProcessorTask> assignedStreamTasks,
+                            final TaskContext taskContext,
+                            final int attempt) {
+        // Get local reference to list in case it is swapped out.
+        final List<ProcessorFilter> filters = prioritisedFilters.get();
+        // Try and get a bunch of tasks from the queue to assign to the requesting node.
+        info(taskContext, () ->
+                "Attempting task assignment for " +
+                        filters.size() +
+                        " filters " +
+                        "(attempt=" +
+                        attempt +
+                        ")");
+        final AtomicInteger filterCount = new AtomicInteger();
+        for (final ProcessorFilter filter : filters) {
+            info(taskContext, () ->
+                    "Attempting task assignment for " +
+                            filterCount.incrementAndGet() +
+                            "/" +
+                            filters.size() +
+                            " filters " +
+                            " (filter=" +
+                            filter +
+                            ", attempt=" +
+                            attempt +
+                            ")");
+
+            if (assignedStreamTasks.size() >= count) {
+                break;
+            }
+
+            // Get the queue for this filter.
+            final ProcessorTaskQueue queue = queueMap.get(filter);
+            if (queue != null) {
+                int filterTasksAssigned = 0;
+
+                // Maximum number of tasks to assign for this filter. If the filter task limit is
+                // unbounded, assign as many tasks up to the specified `count`. Otherwise, only assign
+                // tasks up to the filter's configured limit.
+                int maxFilterTasks = count - assignedStreamTasks.size();
+                if (filter.isProcessingTaskCountBounded()) {
+                    final int maxFilterTasksToCreate = filter.getMaxProcessingTasks() -
+                            processorTaskDao.countTasksForFilter(filter.getId(), TaskStatus.PROCESSING);
+                    maxFilterTasks = Math.min(
+                            maxFilterTasks,
+                            Math.max(0, maxFilterTasksToCreate));
+                }
+
+                if (maxFilterTasks > 0) {
+                    // Add as many tasks as we can for this filter.
+                    ProcessorTask streamTask = queue.poll();
+                    while (streamTask != null) {
+                        assignedStreamTasks.add(streamTask);
+                        filterTasksAssigned++;
+
+                        if (assignedStreamTasks.size() < count && filterTasksAssigned < maxFilterTasks) {
+                            streamTask = queue.poll();
+                        } else {
+                            streamTask = null;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for up to waitDuration for tasks to be queued, assigning them to nodeName as soon as they are.
+     * Waiting requests are woken together as soon as tasks are queued and each then polls the queues in the
+     * normal priority order for up to the count it asked for. The wait is checked at least every
+     * TERMINATION_CHECK_INTERVAL so a terminated request returns promptly.
+     */
+    private void waitForQueuedTasks(final String nodeName,
+                                    final int count,
+                                    final List<ProcessorTask> assignedStreamTasks,
+                                    final TaskContext taskContext,
+                                    final StroomDuration waitDuration) {
+        final long deadlineNanos = System.nanoTime() + waitDuration.toNanos();
+        waitingRequestCount.incrementAndGet();
+        try {
+            int attempt = MAX_ASSIGNMENT_ATTEMPTS;
+            long queuedCount = tasksQueuedCount.get();
+            while (assignedStreamTasks.isEmpty() && allowTaskQueueFill && !taskContext.isTerminated()) {
+                // Make sure something is trying to fill the queue while we wait.
+                fillTaskQueueAsync();
+
+                final long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    break;
+                }
+                info(taskContext, () -> "Waiting for tasks to be queued for node " + nodeName);
+                tasksQueuedLock.lockInterruptibly();
+                try {
+                    // Don't wait if tasks have been queued since we last polled.
+                    if (tasksQueuedCount.get() == queuedCount) {
+                        tasksQueuedCondition.awaitNanos(Math.min(remainingNanos,
+                                TERMINATION_CHECK_INTERVAL.toNanos()));
+                    }
+                } finally {
+                    tasksQueuedLock.unlock();
+                }
+
+                if (tasksQueuedCount.get() == queuedCount) {
+                    // Nothing queued, we have just timed out or need to check for termination.
+                    continue;
+                }
+                queuedCount = tasksQueuedCount.get();
+                attempt++;
+                try {
+                    pollQueues(count, assignedStreamTasks, taskContext, attempt);
+                } catch (final RuntimeException e) {
+                    LOGGER.error(e.getMessage(), e);
+                }
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.debug(e::getMessage, e);
+            Thread.currentThread().interrupt();
+        } finally {
+            waitingRequestCount.decrementAndGet();
+        }
+
+        taskStatusTraceLog.assignTasks(ProcessorTaskQueueManagerImpl.class, assignedStreamTasks, nodeName);
+        LOGGER.debug(() -> LogUtil.message("Assigning {} tasks ({} requested) to node {} after waiting",
+                assignedStreamTasks.size(), count, nodeName));
+    }
+
+    int getWaitingRequestCount() {
+        return waitingRequestCount.get();
+    }
+
+    /**
+     * Wake up any requests that are waiting for tasks to be queued.
+     */
+    private void signalTasksQueued() {
+        tasksQueuedLock.lock();
+        try {
+            tasksQueuedCount.incrementAndGet();
+            tasksQueuedCondition.signalAll();
+        } finally {
+            tasksQueuedLock.unlock();
+        }
+    }
+
     private void fillTaskQueueSync(final boolean isEmptyReportRequired) {
         if (allowTaskQueueFill) {
             try {
@@ -411,6 +523,8 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                         .map(ProcessorTask::getId)
                         .collect(Collectors.toSet());
                 processorTaskDao.releaseTasks(idSet, TaskStatus.PROCESSING);
+                // Tasks that were assigned to the node but never started will still be queued.
+                processorTaskDao.releaseTasks(idSet, TaskStatus.QUEUED);
 
             } catch (final RuntimeException e) {
                 LOGGER.error("abandon() - {}", processorTaskList, e);
@@ -633,6 +747,10 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
 
         info(taskContext, () -> "Finished");
 
+        if (totalAdded > 0) {
+            signalTasksQueued();
+        }
+
         // No point spamming the logs when this method is called MAX_ASSIGNMENT_ATTEMPTS in succession
         if (queueProcessTasksState.getTotalQueuedCount() > 0
                 || isEmptyReportRequired
@@ -855,6 +973,7 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                 .description("Processor task queue info")
                 .addDetail("filterQueues", queueInfo)
                 .addDetail("overallQueueSize", getTaskQueueSize())
+                .addDetail("waitingRequestCount", waitingRequestCount.get())
                 .build();
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.processor.impl;
+
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.DurationTimer.IterationTimer;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Records how long streams wait between being created and a processor task starting to process them
+ * on this node. Latencies are grouped by minute so the system info shows the current and the last
+ * complete minute.
+ */
+@Singleton
+public class ProcessorTaskStartLatency implements HasSystemInfo {
+
+    private static final long PERIOD_MS = Duration.ofMinutes(1).toMillis();
+
+    private long currentPeriod;
+    private IterationTimer current = DurationTimer.newIterationTimer();
+    private IterationTimer previous = DurationTimer.newIterationTimer();
+
+    public synchronized void record(final long metaCreateTimeMs, final long taskStartTimeMs) {
+        roll(taskStartTimeMs);
+        current.logIteration(Duration.ofMillis(Math.max(0, taskStartTimeMs - metaCreateTimeMs)));
+    }
+
+    private void roll(final long nowMs) {
+        final long period = nowMs / PERIOD_MS;
+        if (period != currentPeriod) {
+            previous = period == currentPeriod + 1
+                    ? current
+                    : DurationTimer.newIterationTimer();
+            current = DurationTimer.newIterationTimer();
+            currentPeriod = period;
+        }
+    }
+
+    @Override
+    public synchronized SystemInfoResult getSystemInfo() {
+        roll(System.currentTimeMillis());
+        return SystemInfoResult.builder(this)
+                .description("Time from stream creation to the start of processing on this node")
+                .addDetail("currentMinute", toMap(current))
+                .addDetail("lastMinute", toMap(previous))
+                .build();
+    }
+
+    private Map<String, Object> toMap(final IterationTimer timer) {
+        return Map.of(
+                "taskCount", timer.getIterationCount(),
+                "averageLatency", timer.getAverageDuration().toString(),
+                "minLatency", timer.getMinDuration().map(Duration::toString).orElse("-"),
+                "maxLatency", timer.getMaxDuration().map(Duration::toString).orElse("-"));
+    }
+}
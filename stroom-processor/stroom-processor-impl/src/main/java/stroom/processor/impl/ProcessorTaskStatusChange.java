@@ -0,0 +1,78 @@
+package stroom.processor.impl;
+
+import stroom.processor.shared.TaskStatus;
+
+/**
+ * A change to the status of a single processor task, waiting to be written to the database.
+ */
+public class ProcessorTaskStatusChange {
+
+    private final long taskId;
+    private final int version;
+    private final String nodeName;
+    private final TaskStatus status;
+    private final long statusTimeMs;
+    private final Long startTimeMs;
+    private final Long endTimeMs;
+
+    public ProcessorTaskStatusChange(final long taskId,
+                                     final int version,
+                                     final String nodeName,
+                                     final TaskStatus status,
+                                     final long statusTimeMs,
+                                     final Long startTimeMs,
+                                     final Long endTimeMs) {
+        this.taskId = taskId;
+        this.version = version;
+        this.nodeName = nodeName;
+        this.status = status;
+        this.statusTimeMs = statusTimeMs;
+        this.startTimeMs = startTimeMs;
+        this.endTimeMs = endTimeMs;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * @return The version of the task when this node changed its status. The change is only written if the
+     * task has not been changed since.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public long getStatusTimeMs() {
+        return statusTimeMs;
+    }
+
+    public Long getStartTimeMs() {
+        return startTimeMs;
+    }
+
+    public Long getEndTimeMs() {
+        return endTimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessorTaskStatusChange{" +
+                "taskId=" + taskId +
+                ", version=" + version +
+                ", nodeName='" + nodeName + '\'' +
+                ", status=" + status +
+                ", statusTimeMs=" + statusTimeMs +
+                ", startTimeMs=" + startTimeMs +
+                ", endTimeMs=" + endTimeMs +
+                '}';
+    }
+}
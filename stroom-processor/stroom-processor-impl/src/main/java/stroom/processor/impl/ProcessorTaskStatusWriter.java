@@ -0,0 +1,213 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.processor.impl;
+
+import stroom.processor.shared.ProcessorTask;
+import stroom.processor.shared.TaskStatus;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes the final status of processor tasks that have finished on this node.
+ * <p>
+ * If stroom.processor.batchTaskStatusWrites is set then COMPLETE and FAILED status changes are held in
+ * memory and written to the database in batches by the 'Processor Task Status Writer' job, rather than
+ * with one update per task. Changes are keyed on task id so if a task changes status again before the
+ * flush, only the latest change is written. All other status changes are written immediately as the
+ * caller needs the updated task.
+ * <p>
+ * Until a change is flushed the task is still PROCESSING and owned by this node in the database, so if the
+ * node dies the task will be released by releaseOwnedTasks/retainOwnedTasks in the normal way and processed
+ * again. Held changes are flushed on shutdown and any change made after that is written immediately.
+ */
+@Singleton
+public class ProcessorTaskStatusWriter implements HasSystemInfo {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ProcessorTaskStatusWriter.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProcessorTaskDao processorTaskDao;
+    private final Provider<ProcessorConfig> processorConfigProvider;
+
+    private final Map<Long, ProcessorTaskStatusChange> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedChangeCount = new AtomicLong();
+    private final AtomicReference<Duration> lastFlushDuration = new AtomicReference<>(Duration.ZERO);
+    private final AtomicReference<Duration> maxFlushDuration = new AtomicReference<>(Duration.ZERO);
+
+    // Held for read while deferring a change and for write while turning deferral on or off, so that no
+    // change can be added to pendingChanges after the final flush.
+    private final ReadWriteLock deferLock = new ReentrantReadWriteLock();
+    private boolean deferring;
+
+    @Inject
+    ProcessorTaskStatusWriter(final ProcessorTaskDao processorTaskDao,
+                              final Provider<ProcessorConfig> processorConfigProvider) {
+        this.processorTaskDao = processorTaskDao;
+        this.processorConfigProvider = processorConfigProvider;
+    }
+
+    /**
+     * Change the status of a task, deferring the database update if the change can be written behind.
+     *
+     * @return The updated task, or null if the task has been deleted. If the change has been deferred then
+     * processorTask is returned as is.
+     */
+    public ProcessorTask changeTaskStatus(final ProcessorTask processorTask,
+                                          final String nodeName,
+                                          final TaskStatus status,
+                                          final Long startTime,
+                                          final Long endTime) {
+        if (isFinalStatus(status)) {
+            deferLock.readLock().lock();
+            try {
+                if (deferring) {
+                    final ProcessorTaskStatusChange change = new ProcessorTaskStatusChange(
+                            processorTask.getId(),
+                            processorTask.getVersion(),
+                            nodeName,
+                            status,
+                            System.currentTimeMillis(),
+                            startTime,
+                            endTime);
+                    LOGGER.trace("Deferring {}", change);
+                    pendingChanges.put(processorTask.getId(), change);
+                    return processorTask;
+                }
+            } finally {
+                deferLock.readLock().unlock();
+            }
+        }
+        return processorTaskDao.changeTaskStatus(processorTask, nodeName, status, startTime, endTime);
+    }
+
+    void startup() {
+        if (processorConfigProvider.get().isBatchTaskStatusWrites()) {
+            LOGGER.info("Writing processor task status changes in batches");
+            setDeferring(true);
+        }
+    }
+
+    void shutdown() {
+        // Any changes from here on will be written immediately
+        setDeferring(false);
+        // Write everything that was deferred before we stopped
+        flush();
+        if (!pendingChanges.isEmpty()) {
+            LOGGER.error("Processor task status writer stopped with {} unwritten changes", pendingChanges.size());
+        }
+    }
+
+    private void setDeferring(final boolean deferring) {
+        deferLock.writeLock().lock();
+        try {
+            this.deferring = deferring;
+        } finally {
+            deferLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write all deferred changes. Called by the 'Processor Task Status Writer' job and on shutdown.
+     * Synchronised so that the final flush on shutdown waits for any flush the job is running.
+     */
+    synchronized void flush() {
+        try {
+            while (!pendingChanges.isEmpty()) {
+                final List<ProcessorTaskStatusChange> batch = takeBatch();
+                final DurationTimer timer = DurationTimer.start();
+                try {
+                    processorTaskDao.changeTaskStatuses(batch);
+                } catch (final RuntimeException e) {
+                    // Put them back so we try again next time, unless the task has changed again since
+                    batch.forEach(change -> pendingChanges.putIfAbsent(change.getTaskId(), change));
+                    throw e;
+                }
+                final Duration duration = timer.get();
+                flushCount.incrementAndGet();
+                flushedChangeCount.addAndGet(batch.size());
+                lastFlushDuration.set(duration);
+                maxFlushDuration.accumulateAndGet(duration, (d1, d2) -> d1.compareTo(d2) >= 0
+                        ? d1
+                        : d2);
+                LOGGER.debug("Wrote {} processor task status changes in {}", batch.size(), duration);
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.error("Error writing processor task status changes, {} changes waiting: {}",
+                    pendingChanges.size(), e.getMessage(), e);
+        }
+    }
+
+    private List<ProcessorTaskStatusChange> takeBatch() {
+        final List<ProcessorTaskStatusChange> batch = new ArrayList<>(
+                Math.min(BATCH_SIZE, pendingChanges.size()));
+        for (final Long taskId : pendingChanges.keySet()) {
+            if (batch.size() >= BATCH_SIZE) {
+                break;
+            }
+            final ProcessorTaskStatusChange change = pendingChanges.remove(taskId);
+            if (change != null) {
+                batch.add(change);
+            }
+        }
+        return batch;
+    }
+
+    private boolean isDeferring() {
+        deferLock.readLock().lock();
+        try {
+            return deferring;
+        } finally {
+            deferLock.readLock().unlock();
+        }
+    }
+
+    private boolean isFinalStatus(final TaskStatus status) {
+        return TaskStatus.COMPLETE.equals(status) || TaskStatus.FAILED.equals(status);
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        return SystemInfoResult.builder(this)
+                .description("Processor task status changes waiting to be written")
+                .addDetail("enabled", isDeferring())
+                .addDetail("queueDepth", pendingChanges.size())
+                .addDetail("flushCount", flushCount.get())
+                .addDetail("flushedChangeCount", flushedChangeCount.get())
+                .addDetail("lastFlushDuration", lastFlushDuration.get().toString())
+                .addDetail("maxFlushDuration", maxFlushDuration.get().toString())
+                .build();
+    }
+}
@@ -0,0 +1,239 @@
+package stroom.processor.impl;
+
+import stroom.cluster.task.api.TargetNodeSetFactory;
+import stroom.entity.shared.ExpressionCriteria;
+import stroom.job.api.DistributedTask;
+import stroom.processor.shared.AssignTasksRequest;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorTask;
+import stroom.processor.shared.ProcessorTaskList;
+import stroom.processor.shared.ProcessorTaskResource;
+import stroom.processor.shared.ProcessorTaskSummary;
+import stroom.security.mock.MockSecurityContext;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.util.shared.ResultPage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestDataProcessorTaskFactory {
+
+    private static final String MASTER_NODE = "master";
+    private static final String THIS_NODE = "node1";
+
+    private final RecordingProcessorTaskResource processorTaskResource = new RecordingProcessorTaskResource();
+
+    @Test
+    void testCreateBatches() {
+        final DataProcessorTaskFactory factory = createFactory(new DataProcessorTaskHandlerStub(List.of()));
+
+        // Tasks for two filters arrive interleaved.
+        final List<ProcessorTask> tasks = List.of(
+                createTask(1, 1),
+                createTask(2, 2),
+                createTask(3, 1),
+                createTask(4, 2),
+                createTask(5, 1),
+                createTask(6, 2));
+
+        final List<DistributedTask> batches = factory.createBatches(tasks, 2);
+
+        // Tasks for the same filter are kept together.
+        assertThat(batches)
+                .extracting(DistributedTask::getTraceString)
+                .containsExactly("1,3,5", "2,4,6");
+        // Every task we claimed is processed so nothing is handed back.
+        assertThat(processorTaskResource.abandoned)
+                .isEmpty();
+    }
+
+    @Test
+    void testCreateBatchesManyFilters() {
+        final DataProcessorTaskFactory factory = createFactory(new DataProcessorTaskHandlerStub(List.of()));
+
+        // More filters than threads must not leave any tasks unprocessed.
+        final List<ProcessorTask> tasks = IntStream.rangeClosed(1, 6)
+                .mapToObj(i -> createTask(i, i))
+                .toList();
+
+        final List<DistributedTask> batches = factory.createBatches(tasks, 2);
+
+        assertThat(batches)
+                .extracting(DistributedTask::getTraceString)
+                .containsExactly("1,2,3", "4,5,6");
+        assertThat(processorTaskResource.abandoned)
+                .isEmpty();
+    }
+
+    @Test
+    void testCreateBatchesFewerTasksThanThreads() {
+        final DataProcessorTaskFactory factory = createFactory(new DataProcessorTaskHandlerStub(List.of()));
+
+        final List<ProcessorTask> tasks = List.of(
+                createTask(1, 1),
+                createTask(2, 1),
+                createTask(3, 1));
+
+        // Spread the tasks over all the threads we have rather than filling one batch.
+        final List<DistributedTask> batches = factory.createBatches(tasks, 4);
+
+        assertThat(batches)
+                .extracting(DistributedTask::getTraceString)
+                .containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void testCreateBatchesNoTasks() {
+        final DataProcessorTaskFactory factory = createFactory(new DataProcessorTaskHandlerStub(List.of()));
+
+        assertThat(factory.createBatches(List.of(), 4))
+                .isEmpty();
+    }
+
+    @Test
+    void testNotStartedTasksAbandoned() {
+        final ProcessorTask task1 = createTask(1, 1);
+        final ProcessorTask task2 = createTask(2, 1);
+        final ProcessorTask task3 = createTask(3, 1);
+
+        // The handler was terminated after the first task.
+        final DataProcessorTaskFactory factory = createFactory(
+                new DataProcessorTaskHandlerStub(List.of(task2, task3)));
+
+        final List<DistributedTask> batches = factory.createBatches(List.of(task1, task2, task3), 1);
+        assertThat(batches)
+                .hasSize(1);
+        batches.getFirst().getRunnable().run();
+
+        assertThat(processorTaskResource.abandoned)
+                .hasSize(1);
+        final ProcessorTaskList abandoned = processorTaskResource.abandoned.getFirst();
+        assertThat(abandoned.getNodeName())
+                .isEqualTo(THIS_NODE);
+        assertThat(abandoned.getList())
+                .extracting(ProcessorTask::getId)
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testAllTasksStartedNothingAbandoned() {
+        final ProcessorTask task1 = createTask(1, 1);
+        final ProcessorTask task2 = createTask(2, 1);
+
+        final DataProcessorTaskFactory factory = createFactory(new DataProcessorTaskHandlerStub(List.of()));
+
+        factory.createBatches(List.of(task1, task2), 1)
+                .forEach(distributedTask -> distributedTask.getRunnable().run());
+
+        assertThat(processorTaskResource.abandoned)
+                .isEmpty();
+    }
+
+    private DataProcessorTaskFactory createFactory(final DataProcessorTaskHandler dataProcessorTaskHandler) {
+        return new DataProcessorTaskFactory(
+                new TargetNodeSetFactoryStub(),
+                processorTaskResource,
+                () -> dataProcessorTaskHandler,
+                () -> THIS_NODE,
+                new SimpleTaskContextFactory(),
+                ProcessorConfig::new,
+                new MockSecurityContext());
+    }
+
+    private ProcessorTask createTask(final long id, final int filterId) {
+        final ProcessorFilter processorFilter = new ProcessorFilter();
+        processorFilter.setId(filterId);
+        final ProcessorTask processorTask = new ProcessorTask();
+        processorTask.setId(id);
+        processorTask.setProcessorFilter(processorFilter);
+        return processorTask;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class DataProcessorTaskHandlerStub extends DataProcessorTaskHandler {
+
+        private final List<ProcessorTask> notStarted;
+
+        DataProcessorTaskHandlerStub(final List<ProcessorTask> notStarted) {
+            super(null, null, null, null, null, null, null, null, null, null);
+            this.notStarted = notStarted;
+        }
+
+        @Override
+        public List<ProcessorTask> exec(final List<ProcessorTask> tasks) {
+            return notStarted;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class TargetNodeSetFactoryStub implements TargetNodeSetFactory {
+
+        @Override
+        public String getSourceNode() {
+            return THIS_NODE;
+        }
+
+        @Override
+        public String getMasterNode() {
+            return MASTER_NODE;
+        }
+
+        @Override
+        public Set<String> getEnabledTargetNodeSet() {
+            return Set.of(MASTER_NODE, THIS_NODE);
+        }
+
+        @Override
+        public Set<String> getEnabledActiveTargetNodeSet() {
+            return Set.of(MASTER_NODE, THIS_NODE);
+        }
+
+        @Override
+        public boolean isClusterStateInitialised() {
+            return true;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class RecordingProcessorTaskResource implements ProcessorTaskResource {
+
+        private final List<ProcessorTaskList> abandoned = new ArrayList<>();
+
+        @Override
+        public ResultPage<ProcessorTask> find(final ExpressionCriteria expressionCriteria) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResultPage<ProcessorTaskSummary> findSummary(final ExpressionCriteria expressionCriteria) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProcessorTaskList assignTasks(final String nodeName, final AssignTasksRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Boolean abandonTasks(final String nodeName, final ProcessorTaskList request) {
+            assertThat(nodeName).isEqualTo(MASTER_NODE);
+            abandoned.add(request);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package stroom.processor.impl;
+
+import stroom.processor.shared.ProcessorTask;
+import stroom.task.api.SimpleTaskContext;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestDataProcessorTaskHandler {
+
+    @Test
+    void testExecBatch() {
+        final List<ProcessorTask> tasks = createTasks(3);
+        final List<Long> processed = new ArrayList<>();
+
+        final List<ProcessorTask> notStarted = DataProcessorTaskHandler.execBatch(
+                new SimpleTaskContext(),
+                tasks,
+                task -> processed.add(task.getId()));
+
+        assertThat(processed)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(notStarted)
+                .isEmpty();
+    }
+
+    @Test
+    void testExecBatchTerminated() {
+        final List<ProcessorTask> tasks = createTasks(5);
+        final List<Long> processed = new ArrayList<>();
+        final SimpleTaskContext parentTaskContext = new SimpleTaskContext();
+
+        final List<ProcessorTask> notStarted = DataProcessorTaskHandler.execBatch(
+                parentTaskContext,
+                tasks,
+                task -> {
+                    processed.add(task.getId());
+                    if (processed.size() == 2) {
+                        parentTaskContext.terminate();
+                    }
+                });
+
+        // The tasks we didn't get to are returned so they can be abandoned.
+        assertThat(processed)
+                .containsExactly(1L, 2L);
+        assertThat(notStarted)
+                .extracting(ProcessorTask::getId)
+                .containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void testExecBatchError() {
+        final List<ProcessorTask> tasks = createTasks(3);
+        final List<Long> processed = new ArrayList<>();
+
+        final List<ProcessorTask> notStarted = DataProcessorTaskHandler.execBatch(
+                new SimpleTaskContext(),
+                tasks,
+                task -> {
+                    processed.add(task.getId());
+                    if (task.getId() == 1L) {
+                        throw new RuntimeException("Test error");
+                    }
+                });
+
+        // One failure doesn't stop the rest of the batch.
+        assertThat(processed)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(notStarted)
+                .isEmpty();
+    }
+
+    private List<ProcessorTask> createTasks(final int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> {
+                    final ProcessorTask processorTask = new ProcessorTask();
+                    processorTask.setId(id);
+                    return processorTask;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,258 @@
+package stroom.processor.impl;
+
+import stroom.meta.api.MetaService;
+import stroom.processor.shared.Processor;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorTask;
+import stroom.processor.shared.ProcessorTaskList;
+import stroom.security.mock.MockSecurityContext;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.SimpleTaskContext;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.task.api.TaskContext;
+import stroom.task.api.TerminateHandlerFactory;
+import stroom.task.shared.TaskId;
+import stroom.task.shared.ThreadPool;
+import stroom.util.time.StroomDuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+class TestProcessorTaskQueueManagerImpl {
+
+    private static final String NODE_NAME = "node1";
+    private static final int FILTER_ID = 1;
+
+    private final AvailableTasksDao processorTaskDao = new AvailableTasksDao();
+    private final SimpleTaskContext taskContext = new SimpleTaskContext();
+
+    private ExecutorService executorService;
+    private ProcessorTaskQueueManagerImpl processorTaskQueueManager;
+
+    @BeforeEach
+    void setup() {
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (processorTaskQueueManager != null) {
+            processorTaskQueueManager.shutdown();
+        }
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testWakeOnFill() throws Exception {
+        processorTaskQueueManager = createManager(StroomDuration.ofMinutes(1));
+
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<ProcessorTaskList> future = assignTasksAsync(10);
+        waitForWaitingRequest();
+
+        // Queueing tasks hands them to the waiting request straight away.
+        processorTaskDao.addAvailableTasks(5);
+        processorTaskQueueManager.exec();
+
+        final ProcessorTaskList processorTaskList = future.get(10, TimeUnit.SECONDS);
+        assertThat(processorTaskList.getList())
+                .hasSize(5);
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos))
+                .isLessThan(Duration.ofMinutes(1));
+        assertThat(processorTaskQueueManager.getWaitingRequestCount())
+                .isZero();
+    }
+
+    @Test
+    void testTimeout() throws Exception {
+        final StroomDuration waitDuration = StroomDuration.ofMillis(500);
+        processorTaskQueueManager = createManager(waitDuration);
+
+        final long startNanos = System.nanoTime();
+        final ProcessorTaskList processorTaskList = assignTasksAsync(10).get(10, TimeUnit.SECONDS);
+
+        // Nothing was queued so we get nothing back once the wait is over.
+        assertThat(processorTaskList.getList())
+                .isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos))
+                .isGreaterThanOrEqualTo(waitDuration.getDuration());
+        assertThat(processorTaskQueueManager.getWaitingRequestCount())
+                .isZero();
+    }
+
+    @Test
+    void testTermination() throws Exception {
+        processorTaskQueueManager = createManager(StroomDuration.ofMinutes(1));
+
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<ProcessorTaskList> future = assignTasksAsync(10);
+        waitForWaitingRequest();
+
+        // Terminating the request stops it waiting without having to signal it.
+        taskContext.terminate();
+
+        final ProcessorTaskList processorTaskList = future.get(10, TimeUnit.SECONDS);
+        assertThat(processorTaskList.getList())
+                .isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos))
+                .isLessThan(Duration.ofMinutes(1));
+        assertThat(processorTaskQueueManager.getWaitingRequestCount())
+                .isZero();
+    }
+
+    @Test
+    void testShutdown() throws Exception {
+        processorTaskQueueManager = createManager(StroomDuration.ofMinutes(1));
+
+        final CompletableFuture<ProcessorTaskList> future = assignTasksAsync(10);
+        waitForWaitingRequest();
+
+        processorTaskQueueManager.shutdown();
+
+        assertThat(future.get(10, TimeUnit.SECONDS).getList())
+                .isEmpty();
+    }
+
+    private CompletableFuture<ProcessorTaskList> assignTasksAsync(final int count) {
+        return CompletableFuture.supplyAsync(() ->
+                processorTaskQueueManager.assignTasks(new TaskId(), NODE_NAME, count), executorService);
+    }
+
+    private void waitForWaitingRequest() throws InterruptedException {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (processorTaskQueueManager.getWaitingRequestCount() == 0) {
+            assertThat(System.nanoTime())
+                    .isLessThan(deadlineNanos);
+            Thread.sleep(10);
+        }
+    }
+
+    private ProcessorTaskQueueManagerImpl createManager(final StroomDuration assignTasksWaitDuration) {
+        final ProcessorConfig processorConfig = new ProcessorConfig() {
+            @Override
+            public StroomDuration getAssignTasksWaitDuration() {
+                return assignTasksWaitDuration;
+            }
+
+            @Override
+            public StroomDuration getWaitToQueueTasksDuration() {
+                return StroomDuration.ofMillis(10);
+            }
+        };
+        final ExecutorProvider executorProvider = new ExecutorProvider() {
+            @Override
+            public Executor get(final ThreadPool threadPool) {
+                return executorService;
+            }
+
+            @Override
+            public Executor get() {
+                return executorService;
+            }
+        };
+        // Assignment runs in our task context so the test can terminate it.
+        final SimpleTaskContextFactory taskContextFactory = new SimpleTaskContextFactory() {
+            @Override
+            public <R> Supplier<R> contextResult(final String taskName,
+                                                 final TerminateHandlerFactory terminateHandlerFactory,
+                                                 final Function<TaskContext, R> function) {
+                return () -> function.apply(taskContext);
+            }
+        };
+        final MockSecurityContext securityContext = new MockSecurityContext();
+
+        final ProcessorFilter processorFilter = new ProcessorFilter();
+        processorFilter.setId(FILTER_ID);
+        processorFilter.setEnabled(true);
+        final Processor processor = new Processor();
+        processor.setEnabled(true);
+        processorFilter.setProcessor(processor);
+        final PrioritisedFilters prioritisedFilters = new PrioritisedFilters(
+                null, taskContextFactory, securityContext, executorProvider) {
+            @Override
+            public List<ProcessorFilter> get() {
+                return List.of(processorFilter);
+            }
+        };
+
+        final MetaService metaService = Mockito.mock(MetaService.class);
+        Mockito.when(metaService.findLockedMeta(any()))
+                .thenReturn(Set.of());
+
+        final ProcessorTaskQueueManagerImpl manager = new ProcessorTaskQueueManagerImpl(
+                processorTaskDao,
+                executorProvider,
+                taskContextFactory,
+                () -> NODE_NAME,
+                () -> processorConfig,
+                () -> null,
+                metaService,
+                securityContext,
+                null,
+                prioritisedFilters);
+        manager.startup();
+        return manager;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Holds created tasks that are made available for queueing by the test.
+     */
+    private static class AvailableTasksDao extends MockProcessorTaskDao {
+
+        private final List<ExistingCreatedTask> availableTasks = new ArrayList<>();
+        private long lastTaskId;
+
+        synchronized void addAvailableTasks(final int count) {
+            for (int i = 0; i < count; i++) {
+                lastTaskId++;
+                availableTasks.add(new ExistingCreatedTask(lastTaskId, lastTaskId));
+            }
+        }
+
+        @Override
+        public synchronized List<ExistingCreatedTask> findExistingCreatedTasks(final long minTaskId,
+                                                                             final int filterId,
+                                                                             final int limit) {
+            return availableTasks.stream()
+                    .filter(task -> task.getTaskId() > minTaskId)
+                    .limit(limit)
+                    .toList();
+        }
+
+        @Override
+        public synchronized List<ProcessorTask> queueTasks(final Set<Long> idSet,
+                                                           final String thisNodeName) {
+            // Once queued the tasks are no longer available.
+            availableTasks.removeIf(task -> idSet.contains(task.getTaskId()));
+            return idSet.stream()
+                    .map(id -> {
+                        final ProcessorTask processorTask = new ProcessorTask();
+                        processorTask.setId(id);
+                        processorTask.setNodeName(thisNodeName);
+                        return processorTask;
+                    })
+                    .toList();
+        }
+    }
+}
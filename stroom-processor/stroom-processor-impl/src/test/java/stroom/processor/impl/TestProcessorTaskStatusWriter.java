@@ -0,0 +1,240 @@
+package stroom.processor.impl;
+
+import stroom.processor.shared.ProcessorTask;
+import stroom.processor.shared.TaskStatus;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestProcessorTaskStatusWriter {
+
+    private static final String NODE_NAME = "node1";
+
+    private final RecordingProcessorTaskDao processorTaskDao = new RecordingProcessorTaskDao();
+    private ProcessorTaskStatusWriter processorTaskStatusWriter;
+
+    @AfterEach
+    void tearDown() {
+        if (processorTaskStatusWriter != null) {
+            processorTaskStatusWriter.shutdown();
+        }
+    }
+
+    @Test
+    void testWriteImmediately() {
+        processorTaskStatusWriter = createWriter(false);
+
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.COMPLETE, 1L, 2L);
+
+        assertThat(processorTaskDao.singleChanges)
+                .containsExactly(TaskStatus.COMPLETE);
+        assertThat(processorTaskDao.batches)
+                .isEmpty();
+    }
+
+    @Test
+    void testWriteBehind() {
+        processorTaskStatusWriter = createWriter(true);
+
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.COMPLETE, 1L, 2L);
+        processorTaskStatusWriter.changeTaskStatus(createTask(2), NODE_NAME, TaskStatus.FAILED, 1L, 2L);
+
+        assertThat(processorTaskDao.singleChanges)
+                .isEmpty();
+        assertThat(processorTaskDao.batches)
+                .isEmpty();
+
+        processorTaskStatusWriter.flush();
+
+        assertThat(processorTaskDao.batches)
+                .hasSize(1);
+        assertThat(processorTaskDao.batches.getFirst())
+                .extracting(ProcessorTaskStatusChange::getTaskId)
+                .containsExactlyInAnyOrder(1L, 2L);
+
+        // Nothing left to write
+        processorTaskStatusWriter.flush();
+        assertThat(processorTaskDao.batches)
+                .hasSize(1);
+    }
+
+    @Test
+    void testProcessingWrittenImmediately() {
+        processorTaskStatusWriter = createWriter(true);
+
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.PROCESSING, 1L, null);
+
+        assertThat(processorTaskDao.singleChanges)
+                .containsExactly(TaskStatus.PROCESSING);
+    }
+
+    @Test
+    void testLatestChangeWins() {
+        processorTaskStatusWriter = createWriter(true);
+
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.FAILED, 1L, 2L);
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.COMPLETE, 1L, 3L);
+        processorTaskStatusWriter.flush();
+
+        assertThat(processorTaskDao.batches.getFirst())
+                .singleElement()
+                .extracting(ProcessorTaskStatusChange::getStatus)
+                .isEqualTo(TaskStatus.COMPLETE);
+    }
+
+    @Test
+    void testRetryAfterFailure() {
+        processorTaskStatusWriter = createWriter(true);
+
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.COMPLETE, 1L, 2L);
+        processorTaskDao.fail = true;
+        processorTaskStatusWriter.flush();
+
+        assertThat(processorTaskDao.batches)
+                .isEmpty();
+
+        processorTaskDao.fail = false;
+        processorTaskStatusWriter.flush();
+
+        assertThat(processorTaskDao.batches)
+                .hasSize(1);
+    }
+
+    @Test
+    void testShutdownFlushes() {
+        processorTaskStatusWriter = createWriter(true);
+
+        processorTaskStatusWriter.changeTaskStatus(createTask(1), NODE_NAME, TaskStatus.COMPLETE, 1L, 2L);
+        processorTaskStatusWriter.shutdown();
+
+        assertThat(processorTaskDao.batches)
+                .hasSize(1);
+
+        // Now written immediately rather than held where nothing will flush it
+        processorTaskStatusWriter.changeTaskStatus(createTask(2), NODE_NAME, TaskStatus.COMPLETE, 1L, 2L);
+        assertThat(processorTaskDao.singleChanges)
+                .containsExactly(TaskStatus.COMPLETE);
+        processorTaskStatusWriter.flush();
+        assertThat(processorTaskDao.batches)
+                .hasSize(1);
+    }
+
+    @Test
+    void testShutdownWithConcurrentChanges() throws InterruptedException {
+        processorTaskStatusWriter = createWriter(true);
+
+        final int threadCount = 4;
+        final int tasksPerThread = 1000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                final int thread = i;
+                executorService.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < tasksPerThread; j++) {
+                        processorTaskStatusWriter.changeTaskStatus(
+                                createTask(((long) thread * tasksPerThread) + j),
+                                NODE_NAME,
+                                TaskStatus.COMPLETE,
+                                1L,
+                                2L);
+                    }
+                    return null;
+                });
+            }
+            startLatch.countDown();
+            processorTaskStatusWriter.shutdown();
+        } finally {
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(1, TimeUnit.MINUTES))
+                    .isTrue();
+        }
+
+        // Every change is either in the final flush or written immediately after it, none are left behind.
+        final int batchedCount = processorTaskDao.batches.stream()
+                .mapToInt(List::size)
+                .sum();
+        assertThat(batchedCount + processorTaskDao.singleChanges.size())
+                .isEqualTo(threadCount * tasksPerThread);
+    }
+
+    @Test
+    void testFlushCarriesVersion() {
+        processorTaskStatusWriter = createWriter(true);
+
+        final ProcessorTask processorTask = createTask(1);
+        processorTask.setVersion(7);
+        processorTaskStatusWriter.changeTaskStatus(processorTask, NODE_NAME, TaskStatus.COMPLETE, 1L, 2L);
+        processorTaskStatusWriter.flush();
+
+        // The dao only applies the change if the task is still at this version and owned by this node
+        assertThat(processorTaskDao.batches.getFirst())
+                .singleElement()
+                .satisfies(change -> {
+                    assertThat(change.getVersion()).isEqualTo(7);
+                    assertThat(change.getNodeName()).isEqualTo(NODE_NAME);
+                });
+    }
+
+    private ProcessorTaskStatusWriter createWriter(final boolean batchTaskStatusWrites) {
+        final ProcessorConfig processorConfig = new ProcessorConfig() {
+            @Override
+            public boolean isBatchTaskStatusWrites() {
+                return batchTaskStatusWrites;
+            }
+        };
+        final ProcessorTaskStatusWriter writer = new ProcessorTaskStatusWriter(
+                processorTaskDao, () -> processorConfig);
+        writer.startup();
+        return writer;
+    }
+
+    private ProcessorTask createTask(final long id) {
+        final ProcessorTask processorTask = new ProcessorTask();
+        processorTask.setId(id);
+        processorTask.setVersion(1);
+        return processorTask;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class RecordingProcessorTaskDao extends MockProcessorTaskDao {
+
+        private final List<TaskStatus> singleChanges = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<ProcessorTaskStatusChange>> batches = Collections.synchronizedList(
+                new ArrayList<>());
+        private volatile boolean fail;
+
+        @Override
+        public ProcessorTask changeTaskStatus(final ProcessorTask processorTask,
+                                              final String nodeName,
+                                              final TaskStatus status,
+                                              final Long startTime,
+                                              final Long endTime) {
+            singleChanges.add(status);
+            return processorTask;
+        }
+
+        @Override
+        public synchronized int changeTaskStatuses(final List<ProcessorTaskStatusChange> changes) {
+            if (fail) {
+                throw new RuntimeException("Test failure");
+            }
+            batches.add(List.copyOf(changes));
+            return changes.size();
+        }
+    }
+}
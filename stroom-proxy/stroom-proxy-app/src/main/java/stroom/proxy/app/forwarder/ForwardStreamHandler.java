@@ -4,7 +4,7 @@ import stroom.meta.api.AttributeMap;
 import stroom.meta.api.AttributeMapUtil;
 import stroom.meta.api.StandardHeaderArguments;
 import stroom.proxy.repo.LogStream;
-import stroom.receive.common.StreamHandler;
+import stroom.proxy.repo.RawZipEntryStreamHandler;
 import stroom.receive.common.StroomStreamException;
 import stroom.security.api.UserIdentityFactory;
 import stroom.util.NullSafe;
@@ -17,6 +17,10 @@ import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
 import stroom.util.time.StroomDuration;
 
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,14 +37,15 @@ import java.util.Objects;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 import javax.net.ssl.SSLSocketFactory;
 
 /**
  * Handler class that forwards the request to a URL.
+ * <p>
+ * Entries that are already compressed in the proxy repository are copied to the request as is, so only entries
+ * that we create, e.g. the manifest, need to be compressed.
  */
-public class ForwardStreamHandler implements StreamHandler {
+public class ForwardStreamHandler implements RawZipEntryStreamHandler {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ForwardStreamHandler.class);
     private static final Logger SEND_LOG = LoggerFactory.getLogger("send");
@@ -52,7 +57,7 @@ public class ForwardStreamHandler implements StreamHandler {
     private final byte[] buffer = new byte[StreamUtil.BUFFER_SIZE];
     private final String forwarderName;
     private HttpURLConnection connection;
-    private final ZipOutputStream zipOutputStream;
+    private final ZipArchiveOutputStream zipOutputStream;
     private final long startTimeMs;
     private long totalBytesSent = 0;
 
@@ -140,7 +145,10 @@ public class ForwardStreamHandler implements StreamHandler {
             connection.setChunkedStreamingMode((int) forwardChunkSize.getBytes());
         }
         connection.connect();
-        zipOutputStream = new ZipOutputStream(connection.getOutputStream());
+        zipOutputStream = new ZipArchiveOutputStream(connection.getOutputStream());
+        // Raw entries have known sizes so only get zip64 extras if they need them. Entries we compress ourselves
+        // switch to Zip64Mode.Always while they are written, see addEntry().
+        zipOutputStream.setUseZip64(Zip64Mode.AsNeeded);
     }
 
     @Override
@@ -148,19 +156,57 @@ public class ForwardStreamHandler implements StreamHandler {
                          final InputStream inputStream,
                          final Consumer<Long> progressHandler) throws IOException {
         LOGGER.trace("'{}' - adding entry {}, forwardDelay: {}", forwarderName, entry, forwardDelay);
-        // First call we set up if we are going to do chunked streaming
-        zipOutputStream.putNextEntry(new ZipEntry(entry));
+        // We don't know the size of the entry before we stream it and the output isn't seekable, so in AsNeeded
+        // mode commons-compress would not write zip64 sizes and an entry over 4GiB would fail. Always give these
+        // entries a zip64 extra.
+        zipOutputStream.setUseZip64(Zip64Mode.Always);
+        final long bytesSent;
+        try {
+            // First call we set up if we are going to do chunked streaming
+            zipOutputStream.putArchiveEntry(new ZipArchiveEntry(entry));
+
+            bytesSent = StreamUtil.streamToStream(inputStream, zipOutputStream, buffer, progressHandler);
+            totalBytesSent += bytesSent;
+
+            if (!forwardDelay.isZero()) {
+                LOGGER.trace("'{}' - adding delay {}", forwarderName, forwardDelay);
+                ThreadUtil.sleep(forwardDelay);
+            }
+
+            zipOutputStream.closeArchiveEntry();
+        } finally {
+            zipOutputStream.setUseZip64(Zip64Mode.AsNeeded);
+        }
+
+        return bytesSent;
+    }
 
-        final long bytesSent = StreamUtil.streamToStream(inputStream, zipOutputStream, buffer, progressHandler);
+    @Override
+    public long addRawEntry(final String entry,
+                            final ZipFile zipFile,
+                            final ZipArchiveEntry zipArchiveEntry,
+                            final Consumer<Long> progressHandler) throws IOException {
+        LOGGER.trace("'{}' - adding raw entry {}, forwardDelay: {}", forwarderName, entry, forwardDelay);
+        final ZipArchiveEntry targetEntry = new ZipArchiveEntry(entry);
+        targetEntry.setMethod(zipArchiveEntry.getMethod());
+        targetEntry.setCrc(zipArchiveEntry.getCrc());
+        targetEntry.setSize(zipArchiveEntry.getSize());
+        targetEntry.setCompressedSize(zipArchiveEntry.getCompressedSize());
+        targetEntry.setTime(zipArchiveEntry.getTime());
+
+        try (final InputStream rawInputStream = zipFile.getRawInputStream(zipArchiveEntry)) {
+            zipOutputStream.addRawArchiveEntry(targetEntry, rawInputStream);
+        }
+
+        final long bytesSent = zipArchiveEntry.getSize();
         totalBytesSent += bytesSent;
+        progressHandler.accept(bytesSent);
 
         if (!forwardDelay.isZero()) {
             LOGGER.trace("'{}' - adding delay {}", forwarderName, forwardDelay);
             ThreadUtil.sleep(forwardDelay);
         }
 
-        zipOutputStream.closeEntry();
-
         return bytesSent;
     }
 
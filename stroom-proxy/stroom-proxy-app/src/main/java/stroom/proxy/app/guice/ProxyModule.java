@@ -1,5 +1,7 @@
 package stroom.proxy.app.guice;
 
+import stroom.cache.api.CacheManager;
+import stroom.cache.impl.CacheManagerImpl;
 import stroom.collection.mock.MockCollectionModule;
 import stroom.db.util.DbModule;
 import stroom.dictionary.impl.DictionaryModule;
@@ -122,6 +124,8 @@ public class ProxyModule extends AbstractModule {
         install(new DropwizardModule());
         install(new MockCollectionModule());
 
+        // The dictionary module caches dictionary words.
+        bind(CacheManager.class).to(CacheManagerImpl.class);
         install(new DictionaryModule());
         // Allow discovery of feed status from other proxies.
         install(new RemoteFeedModule());
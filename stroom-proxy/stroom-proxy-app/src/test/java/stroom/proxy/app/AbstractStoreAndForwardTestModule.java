@@ -1,5 +1,7 @@
 package stroom.proxy.app;
 
+import stroom.cache.api.CacheManager;
+import stroom.cache.impl.CacheManagerImpl;
 import stroom.collection.mock.MockCollectionModule;
 import stroom.db.util.DbModule;
 import stroom.dictionary.impl.DictionaryModule;
@@ -82,6 +84,8 @@ public abstract class AbstractStoreAndForwardTestModule extends AbstractModule {
         bind(Client.class).toInstance(Mockito.mock(Client.class));
         bind(WebTargetFactory.class).toInstance(Mockito.mock(WebTargetFactory.class));
 
+        // The dictionary module caches dictionary words.
+        bind(CacheManager.class).to(CacheManagerImpl.class);
         install(new DictionaryModule());
         // Allow discovery of feed status from other proxies.
         install(new RemoteFeedModule());
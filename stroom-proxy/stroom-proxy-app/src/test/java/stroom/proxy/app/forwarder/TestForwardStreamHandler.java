@@ -0,0 +1,165 @@
+package stroom.proxy.app.forwarder;
+
+import stroom.data.zip.CharsetConstants;
+import stroom.meta.api.AttributeMap;
+import stroom.meta.api.AttributeMapUtil;
+import stroom.proxy.repo.LogStream;
+import stroom.proxy.repo.LogStreamConfig;
+import stroom.proxy.repo.ProgressLogImpl;
+import stroom.proxy.repo.SenderImpl;
+import stroom.proxy.repo.SourceItems;
+import stroom.proxy.repo.store.Entries;
+import stroom.proxy.repo.store.SequentialFileStore;
+import stroom.util.io.StreamUtil;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.apache.commons.compress.archivers.zip.Zip64ExtendedInformationExtraField;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestForwardStreamHandler {
+
+    private static final String DATAFEED_PATH = "/datafeed";
+    private static final String DATA = "SOME_DATA ".repeat(1000);
+
+    @RegisterExtension
+    static final WireMockExtension WIRE_MOCK = WireMockExtension.newInstance()
+            .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+            .build();
+
+    @Test
+    void testRawEntries(@TempDir final Path tempDir) throws IOException {
+        WIRE_MOCK.stubFor(WireMock.post(DATAFEED_PATH)
+                .willReturn(WireMock.ok()));
+
+        final SequentialFileStore fileStore = new SequentialFileStore(() -> tempDir);
+        final AttributeMap attributeMap = new AttributeMap();
+        AttributeMapUtil.addFeedAndType(attributeMap, "test", null);
+        try (final Entries entries = fileStore.getEntries(attributeMap)) {
+            addEntry(entries, "001.meta", "Feed:test\n");
+            addEntry(entries, "001.dat", DATA);
+        }
+
+        final ForwardStreamHandler forwardStreamHandler = createHandler(attributeMap);
+
+        final SenderImpl sender = new SenderImpl(new ProgressLogImpl(), fileStore);
+        final SourceItems sourceItems = new SourceItems(
+                new SourceItems.Source(1, 1),
+                List.of(new SourceItems.Item(1, "001", 1, 1L, 0, "meta,dat")));
+        sender.sendDataToHandler(attributeMap, List.of(sourceItems), forwardStreamHandler);
+        forwardStreamHandler.close();
+
+        final Path sourceZip = fileStore.getStoreFileSet(1).getZip();
+        final byte[] body = getRequestBody();
+        try (final ZipFile source = new ZipFile(Files.newByteChannel(sourceZip));
+                final ZipFile forwarded = new ZipFile(new SeekableInMemoryByteChannel(body))) {
+            final List<ZipArchiveEntry> entries = Collections.list(forwarded.getEntries());
+            final List<String> names = new ArrayList<>();
+            entries.forEach(entry -> names.add(entry.getName()));
+            assertThat(names).hasSize(3);
+            assertThat(names.get(0)).endsWith(".mf");
+            assertThat(names.get(1)).endsWith(".meta");
+            assertThat(names.get(2)).endsWith(".dat");
+
+            // The meta and data entries are sent exactly as they were compressed in the repository.
+            assertRawCopy(source, source.getEntry("001.meta"), forwarded, entries.get(1));
+            assertRawCopy(source, source.getEntry("001.dat"), forwarded, entries.get(2));
+
+            assertThat(read(forwarded, entries.get(1))).isEqualTo("Feed:test\n");
+            assertThat(read(forwarded, entries.get(2))).isEqualTo(DATA);
+
+            // Small raw entries don't need zip64.
+            assertThat(entries.get(1).getExtraField(Zip64ExtendedInformationExtraField.HEADER_ID)).isNull();
+            assertThat(entries.get(2).getExtraField(Zip64ExtendedInformationExtraField.HEADER_ID)).isNull();
+        }
+    }
+
+    @Test
+    void testStreamedEntry() throws IOException {
+        WIRE_MOCK.stubFor(WireMock.post(DATAFEED_PATH)
+                .willReturn(WireMock.ok()));
+
+        final AttributeMap attributeMap = new AttributeMap();
+        AttributeMapUtil.addFeedAndType(attributeMap, "test", null);
+        final ForwardStreamHandler forwardStreamHandler = createHandler(attributeMap);
+        forwardStreamHandler.addEntry(
+                "001.dat",
+                new ByteArrayInputStream(DATA.getBytes(CharsetConstants.DEFAULT_CHARSET)),
+                bytes -> {
+                });
+        forwardStreamHandler.close();
+
+        try (final ZipFile forwarded = new ZipFile(new SeekableInMemoryByteChannel(getRequestBody()))) {
+            final ZipArchiveEntry entry = forwarded.getEntry("001.dat");
+            assertThat(read(forwarded, entry)).isEqualTo(DATA);
+
+            // The size isn't known until the entry has been streamed so it must be able to grow beyond 4GiB.
+            assertThat(entry.getExtraField(Zip64ExtendedInformationExtraField.HEADER_ID)).isNotNull();
+        }
+    }
+
+    private ForwardStreamHandler createHandler(final AttributeMap attributeMap) throws IOException {
+        final ForwardHttpPostConfig config = ForwardHttpPostConfig.builder()
+                .name("test")
+                .forwardUrl(WIRE_MOCK.getRuntimeInfo().getHttpBaseUrl() + DATAFEED_PATH)
+                .build();
+        return new ForwardStreamHandler(
+                new LogStream(LogStreamConfig::new),
+                config,
+                null,
+                "test",
+                attributeMap,
+                null);
+    }
+
+    private byte[] getRequestBody() {
+        final List<LoggedRequest> requests = WIRE_MOCK.findAll(WireMock.postRequestedFor(
+                WireMock.urlEqualTo(DATAFEED_PATH)));
+        assertThat(requests).hasSize(1);
+        return requests.getFirst().getBody();
+    }
+
+    private void assertRawCopy(final ZipFile source,
+                               final ZipArchiveEntry sourceEntry,
+                               final ZipFile forwarded,
+                               final ZipArchiveEntry forwardedEntry) throws IOException {
+        assertThat(forwardedEntry.getMethod()).isEqualTo(sourceEntry.getMethod());
+        assertThat(forwardedEntry.getCrc()).isEqualTo(sourceEntry.getCrc());
+        assertThat(forwardedEntry.getCompressedSize()).isEqualTo(sourceEntry.getCompressedSize());
+        try (final InputStream sourceStream = source.getRawInputStream(sourceEntry);
+                final InputStream forwardedStream = forwarded.getRawInputStream(forwardedEntry)) {
+            assertThat(forwardedStream.readAllBytes()).isEqualTo(sourceStream.readAllBytes());
+        }
+    }
+
+    private String read(final ZipFile zipFile, final ZipArchiveEntry entry) throws IOException {
+        try (final InputStream inputStream = zipFile.getInputStream(entry)) {
+            return StreamUtil.streamToString(inputStream, CharsetConstants.DEFAULT_CHARSET, false);
+        }
+    }
+
+    private void addEntry(final Entries entries, final String name, final String data) throws IOException {
+        try (final OutputStream outputStream = entries.addEntry(name)) {
+            outputStream.write(data.getBytes(CharsetConstants.DEFAULT_CHARSET));
+        }
+    }
+}
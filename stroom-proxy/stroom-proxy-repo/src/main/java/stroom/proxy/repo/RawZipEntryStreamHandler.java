@@ -0,0 +1,31 @@
+package stroom.proxy.repo;
+
+import stroom.receive.common.StreamHandler;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A {@link StreamHandler} that writes entries to a zip and can therefore accept entries from another zip file
+ * in their compressed form. This avoids inflating entries read from the repository only to deflate them again
+ * when they are written.
+ */
+public interface RawZipEntryStreamHandler extends StreamHandler {
+
+    /**
+     * Copy a zip entry to the output without decompressing it.
+     *
+     * @param entry           The name to give the entry in the output.
+     * @param zipFile         The zip file to copy the entry from.
+     * @param zipArchiveEntry The entry to copy.
+     * @param progressHandler Handler that is told about the number of uncompressed bytes copied.
+     * @return The number of uncompressed bytes that the copied entry holds.
+     */
+    long addRawEntry(String entry,
+                     ZipFile zipFile,
+                     ZipArchiveEntry zipArchiveEntry,
+                     Consumer<Long> progressHandler) throws IOException;
+}
@@ -146,28 +146,53 @@ public class SenderImpl implements Sender {
                 fullTargetName);
 
         final ZipArchiveEntry zipArchiveEntry = zipFile.getEntry(fullSourceName);
-        try (final ByteCountInputStream inputStream =
-                new ByteCountInputStream(zipFile.getInputStream(zipArchiveEntry))) {
-            LOGGER.debug(() -> "sendEntry() - " + fullTargetName);
-
-            handler.addEntry(fullTargetName, inputStream, progressHandler);
-            final long totalRead = inputStream.getCount();
-
-            LOGGER.trace(() -> "sendEntry() - " +
-                    fullTargetName +
-                    " " +
-                    ModelStringUtil.formatIECByteSizeString(
-                            totalRead));
-
-            if (totalRead == 0) {
-                LOGGER.warn(() -> "sendEntry() - " + fullTargetName + " IS BLANK");
+        if (handler instanceof final RawZipEntryStreamHandler rawZipEntryStreamHandler &&
+                isRawCopySupported(zipFile, zipArchiveEntry)) {
+            // The handler is writing a zip so copy the entry as is rather than inflating and deflating it again.
+            LOGGER.debug(() -> "sendEntry() - raw " + fullTargetName);
+            final long totalRead = rawZipEntryStreamHandler.addRawEntry(
+                    fullTargetName,
+                    zipFile,
+                    zipArchiveEntry,
+                    progressHandler);
+            logEntrySize(fullTargetName, totalRead);
+
+        } else {
+            try (final ByteCountInputStream inputStream =
+                    new ByteCountInputStream(zipFile.getInputStream(zipArchiveEntry))) {
+                LOGGER.debug(() -> "sendEntry() - " + fullTargetName);
+
+                handler.addEntry(fullTargetName, inputStream, progressHandler);
+                logEntrySize(fullTargetName, inputStream.getCount());
             }
-            LOGGER.debug(() -> "sendEntry() - " + fullTargetName + " size is " + totalRead);
         }
 
         progressLog.increment("AggregateForwarder - forwardAggregateEntry");
     }
 
+    private boolean isRawCopySupported(final ZipFile zipFile, final ZipArchiveEntry zipArchiveEntry) {
+        return zipArchiveEntry != null &&
+                zipFile.canReadEntryData(zipArchiveEntry) &&
+                (zipArchiveEntry.getMethod() == ZipArchiveEntry.STORED ||
+                        zipArchiveEntry.getMethod() == ZipArchiveEntry.DEFLATED) &&
+                zipArchiveEntry.getCrc() != ZipArchiveEntry.CRC_UNKNOWN &&
+                zipArchiveEntry.getSize() != ZipArchiveEntry.SIZE_UNKNOWN &&
+                zipArchiveEntry.getCompressedSize() != ZipArchiveEntry.SIZE_UNKNOWN;
+    }
+
+    private void logEntrySize(final String fullTargetName, final long totalRead) {
+        LOGGER.trace(() -> "sendEntry() - " +
+                fullTargetName +
+                " " +
+                ModelStringUtil.formatIECByteSizeString(
+                        totalRead));
+
+        if (totalRead == 0) {
+            LOGGER.warn(() -> "sendEntry() - " + fullTargetName + " IS BLANK");
+        }
+        LOGGER.debug(() -> "sendEntry() - " + fullTargetName + " size is " + totalRead);
+    }
+
     public void sendDataToHandler(final RepoSource source,
                                   final StreamHandler handler) {
         final FileSet fileSet = sequentialFileStore.getStoreFileSet(source.fileStoreId());
@@ -15,9 +15,10 @@ import stroom.proxy.repo.queue.WriteQueue;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import org.jooq.Condition;
-import org.jooq.impl.DSL;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -29,12 +30,20 @@ import java.util.stream.Collectors;
 import static stroom.proxy.repo.db.jooq.tables.Aggregate.AGGREGATE;
 import static stroom.proxy.repo.db.jooq.tables.SourceItem.SOURCE_ITEM;
 
+/**
+ * Aggregates that are still open, i.e. not yet complete, are also held in memory, indexed by feed. This means that
+ * finding an aggregate to add an item to and finding aggregates that are ready to close doesn't need to query the
+ * DB. The in memory index is rebuilt from the DB on startup.
+ */
 @Singleton
 public class AggregateDao {
 
     private final SqliteJooqHelper jooq;
     private final AtomicLong aggregateId = new AtomicLong();
 
+    // Open aggregates by feed id, each list is in creation order. Guarded by this.
+    private final Map<Long, List<AggregateRecord>> openAggregates = new HashMap<>();
+
     private final AtomicLong aggregateNewPosition = new AtomicLong();
 
     private final RecordQueue recordQueue;
@@ -99,6 +108,21 @@ public class AggregateDao {
             queueMonitor.setWritePos(newPosition);
             aggregateNewPosition.set(newPosition);
         });
+        loadOpenAggregates();
+    }
+
+    private synchronized void loadOpenAggregates() {
+        openAggregates.clear();
+        jooq.readOnlyTransactionResult(context -> context
+                        .selectFrom(AGGREGATE)
+                        .where(AGGREGATE.COMPLETE.isFalse())
+                        .orderBy(AGGREGATE.CREATE_TIME_MS, AGGREGATE.ID)
+                        .fetch())
+                .forEach(this::addOpenAggregate);
+    }
+
+    private void addOpenAggregate(final AggregateRecord record) {
+        openAggregates.computeIfAbsent(record.getFkFeedId(), k -> new ArrayList<>()).add(record);
     }
 
     public void clear() {
@@ -149,26 +173,26 @@ public class AggregateDao {
                                              final long limit) {
         final long oldestMs = System.currentTimeMillis() - maxAggregateAgeMs;
 
-        final Condition condition =
-                AGGREGATE.COMPLETE.eq(false)
-                        .and(
-                                DSL.or(
-                                        AGGREGATE.ITEMS.greaterOrEqual(maxItemsPerAggregate),
-                                        AGGREGATE.BYTE_SIZE.greaterOrEqual(maxUncompressedByteSize),
-                                        AGGREGATE.CREATE_TIME_MS.lessOrEqual(oldestMs)
-                                )
-                        );
-        final List<Aggregate> list = jooq.readOnlyTransactionResult(context -> context
-                        .select(AGGREGATE.ID,
-                                AGGREGATE.FK_FEED_ID)
-                        .from(AGGREGATE)
-                        .where(condition)
-                        .orderBy(AGGREGATE.CREATE_TIME_MS)
-                        .limit(limit)
-                        .fetch())
-                .map(r -> new Aggregate(
-                        r.get(AGGREGATE.ID),
-                        r.get(AGGREGATE.FK_FEED_ID)));
+        // Find closable aggregates from the in memory index rather than polling the DB.
+        final List<AggregateRecord> closable = new ArrayList<>();
+        for (final List<AggregateRecord> records : openAggregates.values()) {
+            for (final AggregateRecord record : records) {
+                if (record.getItems() >= maxItemsPerAggregate ||
+                        record.getByteSize() >= maxUncompressedByteSize ||
+                        record.getCreateTimeMs() <= oldestMs) {
+                    closable.add(record);
+                }
+            }
+        }
+        final List<Aggregate> list = closable
+                .stream()
+                .sorted(Comparator.comparing(AggregateRecord::getCreateTimeMs))
+                .limit(limit)
+                .map(record -> new Aggregate(record.getId(), record.getFkFeedId()))
+                .toList();
+        if (list.isEmpty()) {
+            return 0;
+        }
 
         recordQueue.add(() -> {
             for (final Aggregate aggregate : list) {
@@ -185,7 +209,23 @@ public class AggregateDao {
         });
 
         // Ensure all DB changes are flushed to the db.
-        recordQueue.flush();
+        try {
+            recordQueue.flush();
+        } catch (final RuntimeException e) {
+            // We don't know what made it to the DB so rebuild the index from it.
+            loadOpenAggregates();
+            throw e;
+        }
+
+        for (final Aggregate aggregate : list) {
+            final List<AggregateRecord> records = openAggregates.get(aggregate.feedId());
+            if (records != null) {
+                records.removeIf(record -> record.getId() == aggregate.id());
+                if (records.isEmpty()) {
+                    openAggregates.remove(aggregate.feedId());
+                }
+            }
+        }
 
         return list.size();
     }
@@ -225,18 +265,12 @@ public class AggregateDao {
                             // Commit and nullify current record.
                             final AggregateRecord record = currentRecord;
                             operationWriteQueue.add(context -> context
-                                    .batchUpdate(record).execute());
+                                    .executeUpdate(record));
                             currentRecord = null;
                         }
                     }
 
                     if (currentRecord == null) {
-                        // Flush current queue so aggregates are updated.
-                        if (operationWriteQueue.size() > 0) {
-                            jooq.transaction(operationWriteQueue::flush);
-                            operationWriteQueue.clear();
-                        }
-
                         // Try to find an appropriate record.
                         final Optional<AggregateRecord> aggregateRecord = getTargetAggregate(
                                 item,
@@ -259,6 +293,7 @@ public class AggregateDao {
                                     null);
                             operationWriteQueue.add(context -> context
                                     .executeInsert(record));
+                            addOpenAggregate(record);
                             currentRecord = record;
                         }
                     }
@@ -277,12 +312,20 @@ public class AggregateDao {
             }
 
             if (currentRecord != null) {
-                // Commit and nullify current record.
+                // Commit current record.
                 final AggregateRecord record = currentRecord;
                 operationWriteQueue.add(context -> context
                         .executeUpdate(record));
+            }
+
+            // Write the whole batch in a single transaction. Inserts and updates capture the records so will write
+            // the final item counts and sizes.
+            try {
                 jooq.transaction(operationWriteQueue::flush);
-                operationWriteQueue.clear();
+            } catch (final RuntimeException e) {
+                // The in memory index no longer matches the DB so rebuild it.
+                loadOpenAggregates();
+                throw e;
             }
         }
     }
@@ -291,20 +334,17 @@ public class AggregateDao {
                                                          final int maxItemsPerAggregate,
                                                          final long maxUncompressedByteSize) {
         final long maxAggregateSize = Math.max(0, maxUncompressedByteSize - item.totalByteSize());
-
-        final Condition condition = DSL
-                .and(AGGREGATE.FK_FEED_ID.eq(item.feedId()))
-                .and(AGGREGATE.BYTE_SIZE.lessOrEqual(maxAggregateSize))
-                .and(AGGREGATE.ITEMS.lessThan(maxItemsPerAggregate))
-                .and(AGGREGATE.COMPLETE.isFalse());
-
-        // Try to find an appropriate record.
-        return jooq.readOnlyTransactionResult(context -> context
-                .selectFrom(AGGREGATE)
-                .where(condition)
-                .orderBy(AGGREGATE.CREATE_TIME_MS)
-                .limit(1)
-                .fetchOptional());
+        final List<AggregateRecord> records = openAggregates.get(item.feedId());
+        if (records != null) {
+            // Records are in creation order so we will pick the oldest that fits.
+            for (final AggregateRecord record : records) {
+                if (record.getByteSize() <= maxAggregateSize &&
+                        record.getItems() < maxItemsPerAggregate) {
+                    return Optional.of(record);
+                }
+            }
+        }
+        return Optional.empty();
     }
 
     public int countAggregates() {
@@ -2,23 +2,31 @@ package stroom.proxy.repo.dao;
 
 import stroom.proxy.repo.Aggregator;
 import stroom.proxy.repo.FeedKey;
+import stroom.proxy.repo.ProxyDbConfig;
 import stroom.proxy.repo.ProxyRepoTestModule;
 import stroom.proxy.repo.RepoSource;
 import stroom.proxy.repo.RepoSourceItem;
 import stroom.proxy.repo.queue.Batch;
+import stroom.proxy.repo.queue.BatchUtil;
+import stroom.proxy.repo.queue.QueueMonitors;
 
 import jakarta.inject.Inject;
 import name.falgout.jeffrey.testing.junit.guice.GuiceExtension;
 import name.falgout.jeffrey.testing.junit.guice.IncludeModule;
+import org.jooq.impl.DSL;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static stroom.proxy.repo.db.jooq.tables.Aggregate.AGGREGATE;
+import static stroom.proxy.repo.db.jooq.tables.SourceItem.SOURCE_ITEM;
 
 @ExtendWith(GuiceExtension.class)
 @IncludeModule(ProxyRepoTestModule.class)
@@ -34,6 +42,10 @@ public class TestAggregateDao {
     private AggregateDao aggregateDao;
     @Inject
     private Aggregator aggregator;
+    @Inject
+    private SqliteJooqHelper jooq;
+    @Inject
+    private ProxyDbConfig dbConfig;
 
     @BeforeEach
     void beforeEach() {
@@ -80,4 +92,127 @@ public class TestAggregateDao {
 
         assertThat(aggregateDao.countAggregates()).isOne();
     }
+
+    @Test
+    void testOpenAggregatesReloaded() {
+        final long feedId = feedDao.getId(new FeedKey("testFeed", "Raw Events"));
+        addSource(1, List.of(feedId));
+        addItems(aggregateDao, 10);
+        assertThat(aggregateDao.countAggregates()).isOne();
+
+        // A new DAO should find the open aggregate in the DB and add to it.
+        final AggregateDao reloadedDao = new AggregateDao(jooq, dbConfig, new QueueMonitors());
+        addSource(2, List.of(feedId));
+        addItems(reloadedDao, 10);
+        assertThat(reloadedDao.countAggregates()).isOne();
+        assertThat(reloadedDao.closeAggregates(2, 1_000_000, TimeUnit.HOURS.toMillis(1), 10)).isOne();
+        assertThat(reloadedDao.closeAggregates(2, 1_000_000, TimeUnit.HOURS.toMillis(1), 10)).isZero();
+    }
+
+    /**
+     * Replays the receipt of a burst of small sources spread over a number of feeds, aggregating and closing
+     * aggregates as the sources arrive, and checks that the aggregates held in memory end up matching the DB.
+     */
+    @Test
+    void testBurstyReceipt() {
+        final int feedCount = 20;
+        final int sourceCount = 500;
+        final int itemsPerSource = 20;
+        final int maxItemsPerAggregate = 100;
+
+        final List<Long> feedIds = new ArrayList<>();
+        for (int i = 0; i < feedCount; i++) {
+            feedIds.add(feedDao.getId(new FeedKey("feed" + i, "Raw Events")));
+        }
+
+        long closed = 0;
+        for (int i = 1; i <= sourceCount; i++) {
+            final List<Long> itemFeedIds = new ArrayList<>();
+            for (int j = 0; j < itemsPerSource; j++) {
+                itemFeedIds.add(feedIds.get((i + j) % feedCount));
+            }
+            addSource(i, itemFeedIds);
+
+            if (i % 10 == 0) {
+                addItems(aggregateDao, maxItemsPerAggregate);
+                closed += aggregateDao.closeAggregates(
+                        maxItemsPerAggregate,
+                        1_000_000,
+                        TimeUnit.HOURS.toMillis(1),
+                        dbConfig.getBatchSize());
+            }
+        }
+
+        // Every feed gets the same number of items so all aggregates should be full and closed.
+        final int expectedAggregates = sourceCount * itemsPerSource / maxItemsPerAggregate;
+        assertThat(aggregateDao.countAggregates()).isEqualTo(expectedAggregates);
+        assertThat(closed).isEqualTo(expectedAggregates);
+
+        // Nothing is left to close.
+        assertThat(aggregateDao.closeAggregates(
+                1,
+                1,
+                0,
+                dbConfig.getBatchSize())).isZero();
+
+        jooq.readOnlyTransaction(context -> {
+            // Every item has been added to an aggregate for its own feed.
+            assertThat(context
+                    .selectCount()
+                    .from(SOURCE_ITEM)
+                    .where(SOURCE_ITEM.FK_AGGREGATE_ID.isNull())
+                    .fetchOne(0, int.class))
+                    .isZero();
+            assertThat(context
+                    .selectCount()
+                    .from(SOURCE_ITEM)
+                    .join(AGGREGATE).on(AGGREGATE.ID.eq(SOURCE_ITEM.FK_AGGREGATE_ID))
+                    .where(AGGREGATE.FK_FEED_ID.ne(SOURCE_ITEM.FK_FEED_ID))
+                    .fetchOne(0, int.class))
+                    .isZero();
+
+            // The item counts recorded against each aggregate match the items that were added to it.
+            final Map<Long, Integer> itemCounts = context
+                    .select(SOURCE_ITEM.FK_AGGREGATE_ID, DSL.count())
+                    .from(SOURCE_ITEM)
+                    .groupBy(SOURCE_ITEM.FK_AGGREGATE_ID)
+                    .fetchMap(SOURCE_ITEM.FK_AGGREGATE_ID, DSL.count());
+            final Map<Long, Integer> recordedCounts = context
+                    .select(AGGREGATE.ID, AGGREGATE.ITEMS)
+                    .from(AGGREGATE)
+                    .fetchMap(AGGREGATE.ID, AGGREGATE.ITEMS);
+            assertThat(recordedCounts).isEqualTo(itemCounts);
+            assertThat(recordedCounts.values()).containsOnly(maxItemsPerAggregate);
+
+            // Each feed has the same number of complete aggregates.
+            assertThat(context
+                    .select(AGGREGATE.FK_FEED_ID, DSL.count())
+                    .from(AGGREGATE)
+                    .where(AGGREGATE.COMPLETE.isTrue())
+                    .groupBy(AGGREGATE.FK_FEED_ID)
+                    .fetchMap(AGGREGATE.FK_FEED_ID, DSL.count())
+                    .values())
+                    .hasSize(feedCount)
+                    .containsOnly(expectedAggregates / feedCount);
+        });
+    }
+
+    private void addSource(final long fileStoreId, final List<Long> itemFeedIds) {
+        sourceDao.addSource(fileStoreId, "test", "test");
+        sourceDao.flush();
+        final RepoSource source = sourceDao.getNewSources(0, TimeUnit.MILLISECONDS).list().get(0);
+
+        final List<RepoSourceItem> items = new ArrayList<>();
+        for (int i = 0; i < itemFeedIds.size(); i++) {
+            items.add(new RepoSourceItem(source, i, "item" + i, itemFeedIds.get(i), null, 1_000, "dat"));
+        }
+        sourceItemDao.addItems(source, items);
+        sourceItemDao.flush();
+    }
+
+    private void addItems(final AggregateDao aggregateDao, final int maxItemsPerAggregate) {
+        BatchUtil.transfer(
+                () -> sourceItemDao.getNewSourceItems(0, TimeUnit.MILLISECONDS),
+                batch -> aggregateDao.addItems(batch, maxItemsPerAggregate, 1_000_000));
+    }
 }
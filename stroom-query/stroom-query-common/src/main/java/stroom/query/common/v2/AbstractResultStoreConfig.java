@@ -18,6 +18,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
     private final ByteSize maxPayloadSize;
     private final int maxStringFieldLength;
     private final int maxSortedItems;
+    private final boolean compileExpressions;
 
     private final ResultStoreLmdbConfig lmdbConfig;
 
@@ -29,7 +30,8 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
                 1000,
                 10_000,
                 500_000,
-                ResultStoreLmdbConfig.builder().localDir("search_results").build());
+                ResultStoreLmdbConfig.builder().localDir("search_results").build(),
+                false);
     }
 
     AbstractResultStoreConfig(final int maxPutsBeforeCommit,
@@ -39,7 +41,8 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
                               final int maxStringFieldLength,
                               final int valueQueueSize,
                               final int maxSortedItems,
-                              final ResultStoreLmdbConfig lmdbConfig) {
+                              final ResultStoreLmdbConfig lmdbConfig,
+                              final boolean compileExpressions) {
         this.maxPutsBeforeCommit = maxPutsBeforeCommit;
         this.offHeapResults = offHeapResults;
         this.minPayloadSize = minPayloadSize;
@@ -48,6 +51,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
         this.valueQueueSize = valueQueueSize;
         this.maxSortedItems = maxSortedItems;
         this.lmdbConfig = lmdbConfig;
+        this.compileExpressions = compileExpressions;
     }
 
 
@@ -100,6 +104,15 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
         return lmdbConfig;
     }
 
+    @JsonPropertyDescription("Should arithmetic table column expressions be compiled so that they are evaluated " +
+            "using primitive numbers rather than creating a value object for every intermediate result. Rows " +
+            "that the compiled expression can't deal with, e.g. rows with null or non numeric values, are " +
+            "evaluated in the normal way so results are not affected.")
+    @JsonProperty("compileExpressions")
+    public boolean isCompileExpressions() {
+        return compileExpressions;
+    }
+
     @Override
     public String toString() {
         return "AbstractResultStoreConfig{" +
@@ -111,6 +124,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
                 ", maxStringFieldLength=" + maxStringFieldLength +
                 ", maxSortedItems=" + maxSortedItems +
                 ", lmdbConfig=" + lmdbConfig +
+                ", compileExpressions=" + compileExpressions +
                 '}';
     }
 }
@@ -18,7 +18,8 @@ public class AnalyticResultStoreConfig extends AbstractResultStoreConfig impleme
                 1000,
                 10_000,
                 500_000,
-                ResultStoreLmdbConfig.builder().localDir("lmdb/analytic_store").build());
+                ResultStoreLmdbConfig.builder().localDir("lmdb/analytic_store").build(),
+                false);
     }
 
     @JsonCreator
@@ -29,7 +30,8 @@ public class AnalyticResultStoreConfig extends AbstractResultStoreConfig impleme
                                      @JsonProperty("maxStringFieldLength") final int maxStringFieldLength,
                                      @JsonProperty("valueQueueSize") final int valueQueueSize,
                                      @JsonProperty("maxSortedItems") final int maxSortedItems,
-                                     @JsonProperty("lmdb") final ResultStoreLmdbConfig lmdbConfig) {
+                                     @JsonProperty("lmdb") final ResultStoreLmdbConfig lmdbConfig,
+                                     @JsonProperty("compileExpressions") final boolean compileExpressions) {
         super(maxPutsBeforeCommit,
                 offHeapResults,
                 minPayloadSize,
@@ -37,6 +39,7 @@ public class AnalyticResultStoreConfig extends AbstractResultStoreConfig impleme
                 maxStringFieldLength,
                 valueQueueSize,
                 maxSortedItems,
-                lmdbConfig);
+                lmdbConfig,
+                compileExpressions);
     }
 }
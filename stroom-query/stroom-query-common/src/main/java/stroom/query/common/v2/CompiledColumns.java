@@ -18,6 +18,7 @@ package stroom.query.common.v2;
 
 import stroom.query.api.v2.Column;
 import stroom.query.language.functions.Expression;
+import stroom.query.language.functions.ExpressionCompiler;
 import stroom.query.language.functions.ExpressionContext;
 import stroom.query.language.functions.ExpressionParser;
 import stroom.query.language.functions.FieldIndex;
@@ -86,7 +87,11 @@ public class CompiledColumns {
                             column.getExpression());
                     expression.setStaticMappedValues(paramMap);
                     expression.addValueReferences(valueReferenceIndex);
-                    generator = expression.createGenerator();
+                    if (NullSafe.isTrue(expressionContext, ExpressionContext::isCompileExpressions)) {
+                        generator = ExpressionCompiler.createGenerator(expression);
+                    } else {
+                        generator = expression.createGenerator();
+                    }
                     hasAggregate = expression.hasAggregate();
                     requiresChildData = expression.requiresChildData();
                 } catch (final ParseException e) {
@@ -37,7 +37,7 @@ public class ExpressionContextFactory {
 
     public ExpressionContext createContext(final SearchRequestSource searchRequestSource,
                                            DateTimeSettings dateTimeSettings) {
-        final int maxStringLength = getMaxStringLength(searchRequestSource);
+        final AbstractResultStoreConfig resultStoreConfig = getResultStoreConfig(searchRequestSource);
 
         if (dateTimeSettings == null) {
             dateTimeSettings = DateTimeSettings.builder().build();
@@ -49,23 +49,28 @@ public class ExpressionContextFactory {
         }
 
         return ExpressionContext.builder()
-                .maxStringLength(maxStringLength)
+                .maxStringLength(resultStoreConfig.getMaxStringFieldLength())
                 .dateTimeSettings(dateTimeSettings)
                 .stateProvider(stateProviderProvider.get())
+                .compileExpressions(resultStoreConfig.isCompileExpressions())
                 .build();
     }
 
     public int getMaxStringLength(final SearchRequestSource searchRequestSource) {
+        return getResultStoreConfig(searchRequestSource).getMaxStringFieldLength();
+    }
+
+    private AbstractResultStoreConfig getResultStoreConfig(final SearchRequestSource searchRequestSource) {
         if (searchRequestSource == null) {
-            return searchResultStoreConfigProvider.get().getMaxStringFieldLength();
+            return searchResultStoreConfigProvider.get();
         }
 
         switch (searchRequestSource.getSourceType()) {
             case SCHEDULED_QUERY_ANALYTIC, TABLE_BUILDER_ANALYTIC -> {
-                return analyticResultStoreConfigProvider.get().getMaxStringFieldLength();
+                return analyticResultStoreConfigProvider.get();
             }
             default -> {
-                return searchResultStoreConfigProvider.get().getMaxStringFieldLength();
+                return searchResultStoreConfigProvider.get();
             }
         }
     }
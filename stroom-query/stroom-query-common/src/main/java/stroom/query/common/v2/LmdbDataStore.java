@@ -38,6 +38,7 @@ import stroom.query.language.functions.ExpressionContext;
 import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.Generator;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValNull;
 import stroom.query.language.functions.ref.DataReader;
 import stroom.query.language.functions.ref.DataWriter;
@@ -71,14 +72,17 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -93,8 +97,7 @@ public class LmdbDataStore implements DataStore {
     public static final ByteBuffer DB_STATE_VALUE = ByteBuffer
             .allocateDirect(Long.BYTES + Long.BYTES + Long.BYTES);
 
-    private final LmdbEnv env;
-    private final LmdbDb db;
+    private final Partition[] partitions;
     private final ColumnExpressionMatcher columnExpressionMatcher;
     private final ExpressionOperator valueFilter;
     private final ValueReferenceIndex valueReferenceIndex;
@@ -106,11 +109,13 @@ public class LmdbDataStore implements DataStore {
     private final LmdbPutFilter putFilter;
     private final AtomicLong totalResultCount = new AtomicLong();
     private final AtomicLong resultCount = new AtomicLong();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final SortedChildrenCache sortedChildrenCache;
     private final AtomicBoolean shutdown = new AtomicBoolean();
 
-    private final LmdbWriteQueue queue;
-    private final CountDownLatch complete = new CountDownLatch(1);
-    private final CompletionState completionState = new CompletionStateImpl(this, complete);
+    private final CountDownLatch complete;
+    private final CompletionState completionState;
+    private final AtomicInteger remainingPayloadPartitions;
     private final QueryKey queryKey;
     private final String componentId;
     private final FieldIndex fieldIndex;
@@ -123,7 +128,6 @@ public class LmdbDataStore implements DataStore {
     private final KeyFactoryConfig keyFactoryConfig;
     private final KeyFactory keyFactory;
     private final LmdbPayloadCreator payloadCreator;
-    private final TransferState transferState = new TransferState();
 
     private final WindowSupport windowSupport;
 
@@ -137,7 +141,7 @@ public class LmdbDataStore implements DataStore {
     private final ByteBufferFactory bufferFactory;
 
     public LmdbDataStore(final SearchRequestSource searchRequestSource,
-                         final LmdbEnv.Builder lmdbEnvBuilder,
+                         final List<LmdbEnv.Builder> lmdbEnvBuilders,
                          final AbstractResultStoreConfig resultStoreConfig,
                          final QueryKey queryKey,
                          final String componentId,
@@ -168,8 +172,8 @@ public class LmdbDataStore implements DataStore {
         this.windowSupport = new WindowSupport(tableSettings);
         final TableSettings modifiedTableSettings = windowSupport.getTableSettings();
         columns = Objects.requireNonNullElse(modifiedTableSettings.getColumns(), Collections.emptyList());
-        queue = new LmdbWriteQueue(resultStoreConfig.getValueQueueSize(), bufferFactory);
         maxSortedItems = resultStoreConfig.getMaxSortedItems();
+        sortedChildrenCache = new SortedChildrenCache(maxSortedItems);
         valueFilter = modifiedTableSettings.getValueFilter();
         this.dateTimeSettings = expressionContext == null
                 ? null
@@ -205,13 +209,29 @@ public class LmdbDataStore implements DataStore {
                 bufferFactory);
         maxPutsBeforeCommit = resultStoreConfig.getMaxPutsBeforeCommit();
 
-        this.env = lmdbEnvBuilder
-                .maxDbs(1)
-                .addEnvFlag(EnvFlags.MDB_NOTLS)
-                .maxReaders(1)
-                .errorHandler(this::error)
-                .build();
-        this.db = env.openDb(queryKey + "_" + componentId);
+        // Create a factory that makes DB state objects.
+        currentDbStateFactory = new CurrentDbStateFactory(sourceType, fieldIndex, dataStoreSettings);
+        if (lmdbEnvBuilders.size() > 1 && currentDbStateFactory.isStoreLatestEventReference()) {
+            throw new IllegalArgumentException("Unable to store the latest event reference in a partitioned store");
+        }
+
+        // Each partition has its own env, DB, queue and transfer thread. Rows are assigned to a partition by their
+        // row key so that group rows are always merged within the same partition.
+        partitions = new Partition[lmdbEnvBuilders.size()];
+        for (int i = 0; i < partitions.length; i++) {
+            final LmdbEnv env = lmdbEnvBuilders.get(i)
+                    .maxDbs(1)
+                    .addEnvFlag(EnvFlags.MDB_NOTLS)
+                    .maxReaders(1)
+                    .errorHandler(this::error)
+                    .build();
+            final LmdbDb db = env.openDb(queryKey + "_" + componentId);
+            final LmdbWriteQueue queue = new LmdbWriteQueue(resultStoreConfig.getValueQueueSize(), bufferFactory);
+            partitions[i] = new Partition(env, db, queue);
+        }
+        complete = new CountDownLatch(partitions.length);
+        completionState = new CompletionStateImpl(this, complete);
+        remainingPayloadPartitions = new AtomicInteger(partitions.length);
 
         // Filter puts to the store if we need to. This filter has the effect of preventing addition of items if we have
         // reached the max result size if specified and aren't grouping or sorting.
@@ -222,11 +242,10 @@ public class LmdbDataStore implements DataStore {
                 totalResultCount,
                 completionState);
 
-        // Create a factory that makes DB state objects.
-        currentDbStateFactory = new CurrentDbStateFactory(sourceType, fieldIndex, dataStoreSettings);
-
-        // Start transfer loop.
-        executorProvider.get().execute(this::transfer);
+        // Start transfer loops.
+        for (final Partition partition : partitions) {
+            executorProvider.get().execute(() -> transfer(partition));
+        }
     }
 
     /**
@@ -236,6 +255,21 @@ public class LmdbDataStore implements DataStore {
      */
     @Override
     public void accept(final Val[] values) {
+        add(values, this::put);
+    }
+
+    @Override
+    public void accept(final ValBatch batch) {
+        // Create the rows for the whole batch before putting them so that each partition queue only needs to be
+        // locked once per batch rather than once per row.
+        final List<LmdbKV> rows = new ArrayList<>(batch.size() * compiledDepths.getGroupIndicesByDepth().length);
+        for (int i = 0; i < batch.size(); i++) {
+            add(batch.get(i), rows::add);
+        }
+        putAll(rows);
+    }
+
+    private void add(final Val[] values, final Consumer<LmdbKV> rowConsumer) {
         // Filter incoming data.
         final StoredValues storedValues = valueReferenceIndex.createStoredValues();
         Map<String, Object> fieldIdToValueMap = null;
@@ -279,16 +313,17 @@ public class LmdbDataStore implements DataStore {
             int iteration = 0;
             for (SimpleDuration offset : windowSupport.getOffsets()) {
                 final Val[] modifiedValues = windowSupport.addWindow(fieldIndex, values, offset);
-                addInternal(modifiedValues, iteration);
+                addInternal(modifiedValues, iteration, rowConsumer);
                 iteration++;
             }
         } else {
-            addInternal(values, -1);
+            addInternal(values, -1, rowConsumer);
         }
     }
 
     private void addInternal(final Val[] values,
-                             final int iteration) {
+                             final int iteration,
+                             final Consumer<LmdbKV> rowConsumer) {
         SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_ADD);
         LOGGER.trace(() -> "add() called for " + values.length + " values");
         final boolean[][] groupIndicesByDepth = compiledDepths.getGroupIndicesByDepth();
@@ -333,7 +368,7 @@ public class LmdbDataStore implements DataStore {
         // We build rows first before putting to ensure that the byte buffers used for the parent row key are
         // not released and reused before we have read the values from them.
         for (final LmdbKV row : rows) {
-            put(row);
+            rowConsumer.accept(row);
         }
     }
 
@@ -352,9 +387,43 @@ public class LmdbDataStore implements DataStore {
         putFilter.put(queueItem, this::doPut);
     }
 
+    private void putAll(final List<LmdbKV> rows) {
+        LOGGER.trace(() -> "putAll " + rows.size());
+        SearchProgressLog.add(queryKey, SearchPhase.LMDB_DATA_STORE_PUT, rows.size());
+
+        final List<List<LmdbQueueItem>> partitionItems = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            partitionItems.add(new ArrayList<>());
+        }
+        for (final LmdbKV row : rows) {
+            final List<LmdbQueueItem> items = partitionItems.get(getPartitionIndex(row.getRowKey()));
+            putFilter.put(row, items::add);
+        }
+
+        try {
+            for (int i = 0; i < partitions.length; i++) {
+                final List<LmdbQueueItem> items = partitionItems.get(i);
+                if (!items.isEmpty()) {
+                    partitions[i].queue.putAll(items);
+                }
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.trace(e::getMessage, e);
+            // Keep interrupting this thread.
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void doPut(final LmdbQueueItem queueItem) {
         try {
-            queue.put(queueItem);
+            if (queueItem instanceof final LmdbKV lmdbKV) {
+                getPartition(lmdbKV.getRowKey()).queue.put(queueItem);
+            } else {
+                // State changes, syncs and deletes apply to every partition.
+                for (final Partition partition : partitions) {
+                    partition.queue.put(queueItem);
+                }
+            }
         } catch (final InterruptedException e) {
             LOGGER.trace(e::getMessage, e);
             // Keep interrupting this thread.
@@ -362,12 +431,26 @@ public class LmdbDataStore implements DataStore {
         }
     }
 
-    private void transfer() {
+    private Partition getPartition(final ByteBuffer rowKey) {
+        return partitions[getPartitionIndex(rowKey)];
+    }
+
+    private int getPartitionIndex(final ByteBuffer rowKey) {
+        if (partitions.length == 1) {
+            return 0;
+        }
+        return Math.floorMod(rowKey.hashCode(), partitions.length);
+    }
+
+    private void transfer(final Partition partition) {
+        final TransferState transferState = partition.transferState;
+        final LmdbWriteQueue queue = partition.queue;
+        final LmdbDb db = partition.db;
         Metrics.measure("Transfer", () -> {
             transferState.setThread(Thread.currentThread());
             try {
-                env.write(writeTxn -> {
-                    CurrentDbState currentDbState = getCurrentDbState();
+                partition.env.write(writeTxn -> {
+                    CurrentDbState currentDbState = getCurrentDbState(partition);
                     long lastCommitMs = System.currentTimeMillis();
                     long uncommittedCount = 0;
 
@@ -387,10 +470,10 @@ public class LmdbDataStore implements DataStore {
                                     currentDbState = currentDbStateLmdbQueueItem.getCurrentDbState()
                                             .mergeExisting(currentDbState);
                                 } else if (queueItem instanceof final Sync sync) {
-                                    commit(writeTxn, currentDbState);
+                                    commit(writeTxn, db, currentDbState);
                                     sync.sync();
                                 } else if (queueItem instanceof final DeleteCommand deleteCommand) {
-                                    delete(writeTxn, deleteCommand);
+                                    delete(writeTxn, db, deleteCommand);
                                 }
                             }
 
@@ -398,12 +481,13 @@ public class LmdbDataStore implements DataStore {
                                 // Commit
                                 LOGGER.debug(() -> "Committing for new payload");
 
-                                commit(writeTxn, currentDbState);
+                                commit(writeTxn, db, currentDbState);
                                 lastCommitMs = System.currentTimeMillis();
                                 uncommittedCount = 0;
 
                                 // Create payload and clear the DB.
                                 payloadCreator.addPayload(writeTxn, db, false);
+                                commitCount.incrementAndGet();
 
                             } else if (uncommittedCount > 0) {
                                 final long count = uncommittedCount;
@@ -418,7 +502,7 @@ public class LmdbDataStore implements DataStore {
                                             return "Committing for elapsed time";
                                         }
                                     });
-                                    commit(writeTxn, currentDbState);
+                                    commit(writeTxn, db, currentDbState);
                                     lastCommitMs = System.currentTimeMillis();
                                     uncommittedCount = 0;
                                 }
@@ -438,7 +522,7 @@ public class LmdbDataStore implements DataStore {
 
                     if (!transferState.isTerminated() && uncommittedCount > 0) {
                         LOGGER.debug(() -> "Final commit");
-                        commit(writeTxn, currentDbState);
+                        commit(writeTxn, db, currentDbState);
                     }
 
                     // Create final payloads and ensure they are all delivered before we complete.
@@ -448,12 +532,16 @@ public class LmdbDataStore implements DataStore {
                         boolean finalPayload = false;
                         while (!finalPayload) {
                             finalPayload = payloadCreator.addPayload(writeTxn, db, true);
+                            commitCount.incrementAndGet();
                         }
-                        // Make sure we end with an empty payload to indicate completion.
+                        // Make sure we end with an empty payload to indicate completion once every partition has
+                        // delivered its payloads.
                         // Adding a final empty payload to the queue ensures that a consuming node will have to request
                         // the payload from the queue before we complete.
-                        LOGGER.debug(() -> "Final payload");
-                        payloadCreator.finalPayload();
+                        if (remainingPayloadPartitions.decrementAndGet() == 0) {
+                            LOGGER.debug(() -> "Final payload");
+                            payloadCreator.finalPayload();
+                        }
                     }
                 });
             } catch (final Throwable e) {
@@ -471,6 +559,7 @@ public class LmdbDataStore implements DataStore {
     }
 
     private void delete(final WriteTxn writeTxn,
+                        final LmdbDb db,
                         final DeleteCommand deleteCommand) {
         lmdbRowKeyFactory.createChildKeyRange(
                 deleteCommand.getParentKey(), deleteCommand.getTimeFilter(), keyRange -> {
@@ -484,13 +573,17 @@ public class LmdbDataStore implements DataStore {
                         }
                     });
                     writeTxn.commit();
+                    commitCount.incrementAndGet();
                 });
     }
 
     private void commit(final WriteTxn writeTxn,
+                        final LmdbDb db,
                         final CurrentDbState currentDbState) {
-        putCurrentDbState(writeTxn, currentDbState);
+        putCurrentDbState(writeTxn, db, currentDbState);
         writeTxn.commit();
+        // Let readers know that any sorted children they have cached may now be out of date.
+        commitCount.incrementAndGet();
     }
 
 
@@ -613,7 +706,7 @@ public class LmdbDataStore implements DataStore {
         LOGGER.debug(e::getMessage, e);
         if (e instanceof MapFullException) {
             errorConsumer.add(() -> "Unable to add search result as result store has reached max capacity of " +
-                    env.getMaxStoreSize());
+                    partitions[0].env.getMaxStoreSize());
         } else if (e instanceof LmdbException) {
             String message = e.getMessage();
             if (message != null) {
@@ -643,11 +736,15 @@ public class LmdbDataStore implements DataStore {
         if (shutdown.compareAndSet(false, true)) {
             SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_CLEAR);
 
-            // Let the transfer loop know it should stop ASAP.
-            transferState.terminate();
+            // Let the transfer loops know they should stop ASAP.
+            for (final Partition partition : partitions) {
+                partition.transferState.terminate();
+            }
 
-            // Terminate the queue.
-            queue.terminate();
+            // Terminate the queues.
+            for (final Partition partition : partitions) {
+                partition.queue.terminate();
+            }
 
             // If the transfer loop is waiting on new queue items ensure it loops once more.
             completionState.signalComplete();
@@ -662,7 +759,9 @@ public class LmdbDataStore implements DataStore {
                 Thread.currentThread().interrupt();
             }
 
-            env.close();
+            for (final Partition partition : partitions) {
+                partition.env.close();
+            }
         }
     }
 
@@ -674,8 +773,11 @@ public class LmdbDataStore implements DataStore {
     public synchronized void clear() {
         try {
             close();
-            env.delete();
+            for (final Partition partition : partitions) {
+                partition.env.delete();
+            }
         } finally {
+            sortedChildrenCache.clear();
             resultCount.set(0);
             totalResultCount.set(0);
         }
@@ -719,7 +821,11 @@ public class LmdbDataStore implements DataStore {
 
     @Override
     public long getByteSize() {
-        return FileUtil.getByteSize(env.getDir().getEnvDir());
+        long byteSize = 0;
+        for (final Partition partition : partitions) {
+            byteSize += FileUtil.getByteSize(partition.env.getDir().getEnvDir());
+        }
+        return byteSize;
     }
 
     @Override
@@ -731,7 +837,9 @@ public class LmdbDataStore implements DataStore {
         return fieldIndex;
     }
 
-    private void putCurrentDbState(final WriteTxn writeTxn, final CurrentDbState currentDbState) {
+    private void putCurrentDbState(final WriteTxn writeTxn,
+                                   final LmdbDb db,
+                                   final CurrentDbState currentDbState) {
         if (currentDbState != null) {
             final ByteBuffer keyBuffer = LmdbRowKeyFactoryFactory.DB_STATE_KEY;
             ByteBuffer valueBuffer = DB_STATE_VALUE;
@@ -752,14 +860,14 @@ public class LmdbDataStore implements DataStore {
         }
     }
 
-    private synchronized CurrentDbState getCurrentDbState() {
+    private synchronized CurrentDbState getCurrentDbState(final Partition partition) {
         if (!currentDbStateFactory.isStoreLatestEventReference()) {
             return null;
         }
 
         final AtomicReference<CurrentDbState> currentDbStateAtomicReference = new AtomicReference<>();
         final KeyRange<ByteBuffer> keyRange = LmdbRowKeyFactoryFactory.DB_STATE_KEY_RANGE;
-        env.read(readTxn -> db.iterate(readTxn, keyRange, iterator -> {
+        partition.env.read(readTxn -> partition.db.iterate(readTxn, keyRange, iterator -> {
             if (iterator.hasNext()) {
                 final KeyVal<ByteBuffer> keyVal = iterator.next();
                 final ByteBuffer key = keyVal.key();
@@ -793,12 +901,12 @@ public class LmdbDataStore implements DataStore {
         final CurrentDbState currentDbState;
         try {
             // Synchronise the puts so we know all current items have been added to LMDB.
-            final CountDownLatch complete = new CountDownLatch(1);
+            final CountDownLatch complete = new CountDownLatch(partitions.length);
             put((Sync) complete::countDown);
             complete.await();
 
-            // Get the current DB state.
-            currentDbState = getCurrentDbState();
+            // Get the current DB state. Stores that record the DB state only ever have a single partition.
+            currentDbState = getCurrentDbState(partitions[0]);
             LOGGER.debug(() -> "Current Db State: " + currentDbState);
         } catch (final InterruptedException e) {
             throw UncheckedInterruptedException.create(e);
@@ -832,7 +940,7 @@ public class LmdbDataStore implements DataStore {
 
         SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_GET);
 
-        if (env.isClosed()) {
+        if (isClosed()) {
             // If we query LMDB after the env has been closed then we are likely to crash the JVM
             // see https://github.com/lmdbjava/lmdbjava/issues/185
             LOGGER.debug(() -> "fetch called (queryKey =" +
@@ -842,16 +950,20 @@ public class LmdbDataStore implements DataStore {
                     ") after store has been shut down");
 
         } else {
-            env.read(readTxn ->
+            // Get the commit count before we open read txns so that anything we cache can't be newer than the count.
+            final long commitCount = this.commitCount.get();
+            read(readTxns ->
                     Metrics.measure("fetch", () -> {
                         try {
                             final FetchState fetchState = new FetchState();
+                            fetchState.commitCount = commitCount;
+                            fetchState.cacheSortedChildren = true;
                             fetchState.countRows = totalRowCountConsumer != null;
                             fetchState.reachedRowLimit = fetchState.length >= enforcedRange.getLength();
                             fetchState.keepGoing = fetchState.justCount || !fetchState.reachedRowLimit;
 
                             final LmdbReadContext readContext =
-                                    new LmdbReadContext(LmdbDataStore.this, db, readTxn, timeFilter);
+                                    new LmdbReadContext(LmdbDataStore.this, readTxns, timeFilter);
 
                             getChildren(
                                     readContext,
@@ -876,6 +988,35 @@ public class LmdbDataStore implements DataStore {
         }
     }
 
+    private boolean isClosed() {
+        for (final Partition partition : partitions) {
+            if (partition.env.isClosed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Open a read txn on every partition and supply them all to the consumer.
+     */
+    private void read(final Consumer<ReadTxn[]> consumer) {
+        read(0, new ReadTxn[partitions.length], consumer);
+    }
+
+    private void read(final int index,
+                      final ReadTxn[] readTxns,
+                      final Consumer<ReadTxn[]> consumer) {
+        if (index == partitions.length) {
+            consumer.accept(readTxns);
+        } else {
+            partitions[index].env.read(readTxn -> {
+                readTxns[index] = readTxn;
+                read(index + 1, readTxns, consumer);
+            });
+        }
+    }
+
     private <R> void getChildren(final LmdbReadContext readContext,
                                  final Key parentKey,
                                  final int depth,
@@ -1090,56 +1231,41 @@ public class LmdbDataStore implements DataStore {
             final long lengthRemaining = range.getOffset() + range.getLength() - fetchState.length;
             final int trimmedSize = (int) Math.max(Math.min(Math.min(limit, lengthRemaining), maxSortedItems), 0);
 
-            int maxSize = trimmedSize * 2;
-            maxSize = Math.max(maxSize, 1_000);
-
-            final SortedItems sortedItems = new SortedItems(10, maxSize, trimmedSize, trimTop, sorter);
-            readContext.read(keyRange, iterator -> {
-                long totalRowCount = 0;
-                while (iterator.hasNext()
-                        && !Thread.currentThread().isInterrupted()) {
-                    final KeyVal<ByteBuffer> keyVal = iterator.next();
-
-                    // All valid keys are more than a single byte long. Single byte keys are used to store db
-                    // info.
-                    if (LmdbRowKeyFactoryFactory.isNotStateKey(keyVal.key())) {
-                        final ByteBuffer keyBuffer = keyVal.key();
-                        final ByteBuffer valueBuffer = keyVal.val();
-                        boolean isFirstValue = true;
-                        // It is possible to have no actual values, e.g. if you have just one col of
-                        // 'currentUser()' so we still need to create and add an empty storedValues
-                        while (valueBuffer.hasRemaining() || isFirstValue) {
-                            isFirstValue = false;
-
-                            final StoredValues storedValues = readValues(valueBuffer);
-                            final Key key = lmdbRowKeyFactory.createKey(parentKey, storedValues, keyBuffer);
-                            final ItemImpl item = new ItemImpl(readContext, key, storedValues);
-                            if (mapper.hidesRows()) {
-                                final R row = mapper.create(columns, item);
-                                if (row != null) {
-                                    totalRowCount++;
-                                    sortedItems.add(new ItemImpl(readContext, key, storedValues));
-                                }
-                            } else {
-                                totalRowCount++;
-                                sortedItems.add(new ItemImpl(readContext, key, storedValues));
-                            }
-                        }
-                    }
+            // Sorted children can be reused between fetches if nothing has been committed since they were sorted.
+            // We don't cache if rows are filtered by the mapper as the filter can change with each request.
+            final boolean cacheable = fetchState.cacheSortedChildren && !trimTop && !mapper.hidesRows();
+            final SortedChildrenKey cacheKey = new SortedChildrenKey(parentKey, timeFilter);
+            SortedChildren sortedChildren = null;
+            if (cacheable) {
+                sortedChildren = sortedChildrenCache.get(cacheKey, fetchState.commitCount, trimmedSize);
+            }
+            if (sortedChildren == null) {
+                sortedChildren = sortChildren(
+                        readContext,
+                        keyRange,
+                        parentKey,
+                        trimmedSize,
+                        trimTop,
+                        sorter,
+                        mapper,
+                        fetchState.commitCount);
+                if (cacheable && !Thread.currentThread().isInterrupted()) {
+                    sortedChildrenCache.put(cacheKey, sortedChildren);
                 }
+            }
 
-                // If there is a limit then pretend that the total row count is constrained.
-                fetchState.totalRowCount += Math.min(totalRowCount, limit);
-            });
+            // If there is a limit then pretend that the total row count is constrained.
+            fetchState.totalRowCount += Math.min(sortedChildren.totalRowCount, limit);
 
             // Finally transfer the sorted items to the result.
             long childCount = 0;
-            for (final Item item : sortedItems.getIterable()) {
+            for (int i = 0; i < sortedChildren.keys.length && i < trimmedSize; i++) {
                 if (childCount >= limit) {
                     break;
                 }
                 childCount++;
 
+                final Item item = new ItemImpl(readContext, sortedChildren.keys[i], sortedChildren.storedValues[i]);
                 if (!fetchState.reachedRowLimit) {
                     if (range.getOffset() <= fetchState.offset) {
                         final R row = mapper.create(columns, item);
@@ -1178,6 +1304,57 @@ public class LmdbDataStore implements DataStore {
         });
     }
 
+    private <R> SortedChildren sortChildren(final LmdbReadContext readContext,
+                                            final KeyRange<ByteBuffer> keyRange,
+                                            final Key parentKey,
+                                            final int trimmedSize,
+                                            final boolean trimTop,
+                                            final CompiledSorter<Item> sorter,
+                                            final ItemMapper<R> mapper,
+                                            final long commitCount) {
+        int maxSize = trimmedSize * 2;
+        maxSize = Math.max(maxSize, 1_000);
+
+        final SortedItems sortedItems = new SortedItems(10, maxSize, trimmedSize, trimTop, sorter);
+        final long totalRowCount = Optional.ofNullable(readContext.readResult(keyRange, iterator -> {
+            long count = 0;
+            while (iterator.hasNext()
+                    && !Thread.currentThread().isInterrupted()) {
+                final KeyVal<ByteBuffer> keyVal = iterator.next();
+
+                // All valid keys are more than a single byte long. Single byte keys are used to store db
+                // info.
+                if (LmdbRowKeyFactoryFactory.isNotStateKey(keyVal.key())) {
+                    final ByteBuffer keyBuffer = keyVal.key();
+                    final ByteBuffer valueBuffer = keyVal.val();
+                    boolean isFirstValue = true;
+                    // It is possible to have no actual values, e.g. if you have just one col of
+                    // 'currentUser()' so we still need to create and add an empty storedValues
+                    while (valueBuffer.hasRemaining() || isFirstValue) {
+                        isFirstValue = false;
+
+                        final StoredValues storedValues = readValues(valueBuffer);
+                        final Key key = lmdbRowKeyFactory.createKey(parentKey, storedValues, keyBuffer);
+                        final ItemImpl item = new ItemImpl(readContext, key, storedValues);
+                        if (mapper.hidesRows()) {
+                            final R row = mapper.create(columns, item);
+                            if (row != null) {
+                                count++;
+                                sortedItems.add(item);
+                            }
+                        } else {
+                            count++;
+                            sortedItems.add(item);
+                        }
+                    }
+                }
+            }
+            return count;
+        })).orElse(0L);
+
+        return sortedItems.toSortedChildren(commitCount, trimmedSize, totalRowCount);
+    }
+
     private StoredValues readValues(final ByteBuffer valueBuffer) {
         try (final DataReader reader =
                 new KryoDataReader(new ByteBufferInput(valueBuffer))) {
@@ -1188,31 +1365,78 @@ public class LmdbDataStore implements DataStore {
     // --------------------------------------------------------------------------------
 
 
+    private static class Partition {
+
+        private final LmdbEnv env;
+        private final LmdbDb db;
+        private final LmdbWriteQueue queue;
+        private final TransferState transferState = new TransferState();
+
+        public Partition(final LmdbEnv env,
+                         final LmdbDb db,
+                         final LmdbWriteQueue queue) {
+            this.env = env;
+            this.db = db;
+            this.queue = queue;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
     private static class LmdbReadContext {
 
         private final LmdbDataStore dataStore;
-        private final LmdbDb db;
-        private final ReadTxn readTxn;
+        private final ReadTxn[] readTxns;
         private final TimeFilter timeFilter;
 
         public LmdbReadContext(final LmdbDataStore dataStore,
-                               final LmdbDb db,
-                               final ReadTxn readTxn,
+                               final ReadTxn[] readTxns,
                                final TimeFilter timeFilter) {
             this.dataStore = dataStore;
-            this.db = db;
-            this.readTxn = readTxn;
+            this.readTxns = readTxns;
             this.timeFilter = timeFilter;
         }
 
         public <R> R readResult(final KeyRange<ByteBuffer> keyRange,
                                 final Function<Iterator<KeyVal<ByteBuffer>>, R> iteratorConsumer) {
-            return db.iterateResult(readTxn, keyRange, iteratorConsumer);
+            if (readTxns.length == 1) {
+                return dataStore.partitions[0].db.iterateResult(readTxns[0], keyRange, iteratorConsumer);
+            }
+
+            final AtomicReference<R> result = new AtomicReference<>();
+            read(keyRange, iterator -> result.set(iteratorConsumer.apply(iterator)));
+            return result.get();
         }
 
         public void read(final KeyRange<ByteBuffer> keyRange,
                          final Consumer<Iterator<KeyVal<ByteBuffer>>> iteratorConsumer) {
-            db.iterate(readTxn, keyRange, iteratorConsumer);
+            if (readTxns.length == 1) {
+                dataStore.partitions[0].db.iterate(readTxns[0], keyRange, iteratorConsumer);
+            } else {
+                @SuppressWarnings("unchecked") final Iterator<KeyVal<ByteBuffer>>[] iterators =
+                        new Iterator[readTxns.length];
+                read(0, keyRange, iterators, iteratorConsumer);
+            }
+        }
+
+        /**
+         * Open a cursor on every partition for the key range and then supply a single iterator that merges the
+         * partition cursors in key order.
+         */
+        private void read(final int index,
+                          final KeyRange<ByteBuffer> keyRange,
+                          final Iterator<KeyVal<ByteBuffer>>[] iterators,
+                          final Consumer<Iterator<KeyVal<ByteBuffer>>> iteratorConsumer) {
+            if (index == iterators.length) {
+                iteratorConsumer.accept(new MergedIterator(iterators));
+            } else {
+                dataStore.partitions[index].db.iterate(readTxns[index], keyRange, iterator -> {
+                    iterators[index] = iterator;
+                    read(index + 1, keyRange, iterators, iteratorConsumer);
+                });
+            }
         }
 
         public Val createValue(final Key key,
@@ -1246,6 +1470,91 @@ public class LmdbDataStore implements DataStore {
     // --------------------------------------------------------------------------------
 
 
+    /**
+     * Merges the sorted cursors of several partitions into a single iterator in LMDB key order.
+     * <p>
+     * A cursor is only advanced when the next item is requested so the key and value buffers of the most recently
+     * returned item remain valid until then, as they would for a single cursor.
+     */
+    private static class MergedIterator implements Iterator<KeyVal<ByteBuffer>> {
+
+        private final Iterator<KeyVal<ByteBuffer>>[] iterators;
+        private final KeyVal<ByteBuffer>[] heads;
+        private int lastIndex = -1;
+
+        @SuppressWarnings("unchecked")
+        MergedIterator(final Iterator<KeyVal<ByteBuffer>>[] iterators) {
+            this.iterators = iterators;
+            this.heads = new KeyVal[iterators.length];
+            for (int i = 0; i < iterators.length; i++) {
+                advance(i);
+            }
+        }
+
+        private void advance(final int index) {
+            if (iterators[index].hasNext()) {
+                heads[index] = iterators[index].next();
+            } else {
+                heads[index] = null;
+            }
+        }
+
+        private void advanceLast() {
+            if (lastIndex != -1) {
+                advance(lastIndex);
+                lastIndex = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            advanceLast();
+            for (final KeyVal<ByteBuffer> head : heads) {
+                if (head != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public KeyVal<ByteBuffer> next() {
+            advanceLast();
+            int minIndex = -1;
+            for (int i = 0; i < heads.length; i++) {
+                final KeyVal<ByteBuffer> head = heads[i];
+                if (head != null && (minIndex == -1 || compareKeys(head.key(), heads[minIndex].key()) < 0)) {
+                    minIndex = i;
+                }
+            }
+            if (minIndex == -1) {
+                throw new NoSuchElementException();
+            }
+            lastIndex = minIndex;
+            return heads[minIndex];
+        }
+
+        /**
+         * Compare keys in the same way as the default LMDB comparator, i.e. unsigned lexicographic order with
+         * shorter keys first.
+         */
+        private static int compareKeys(final ByteBuffer key1, final ByteBuffer key2) {
+            final int mismatch = key1.mismatch(key2);
+            if (mismatch == -1) {
+                return 0;
+            } else if (mismatch == key1.remaining() || mismatch == key2.remaining()) {
+                return Integer.compare(key1.remaining(), key2.remaining());
+            }
+            return Byte.compareUnsigned(
+                    key1.get(key1.position() + mismatch),
+                    key2.get(key2.position() + mismatch));
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
     private static class ChildDataImpl implements ChildData {
 
         private final LmdbReadContext readContext;
@@ -1379,6 +1688,99 @@ public class LmdbDataStore implements DataStore {
          * Set to false if we don't want to keep looking through the store.
          */
         boolean keepGoing;
+        /**
+         * The store commit count when the fetch started.
+         */
+        long commitCount;
+        /**
+         * Whether sorted children can be cached for reuse by later fetches.
+         */
+        boolean cacheSortedChildren;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record SortedChildrenKey(Key parentKey, TimeFilter timeFilter) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * The sorted and trimmed children of a parent key. Items are held without a read context so that they can be
+     * reused by later fetches.
+     */
+    private record SortedChildren(long commitCount,
+                                  int trimmedSize,
+                                  long totalRowCount,
+                                  Key[] keys,
+                                  StoredValues[] storedValues) {
+
+        /**
+         * @return True if these children were sorted at the supplied commit count and hold at least the number of
+         * items requested.
+         */
+        boolean canSupply(final long commitCount, final int trimmedSize) {
+            return this.commitCount == commitCount &&
+                    (this.trimmedSize >= trimmedSize || keys.length == totalRowCount);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Keeps sorted children between fetches so that paging through sorted results or refreshing a dashboard does
+     * not have to read and sort all children again unless the store has changed. The least recently used entries
+     * are evicted once the total number of cached items exceeds the maximum number of sorted items.
+     */
+    private static class SortedChildrenCache {
+
+        private final int maxItems;
+        private final LinkedHashMap<SortedChildrenKey, SortedChildren> map =
+                new LinkedHashMap<>(16, 0.75F, true);
+        private long itemCount;
+
+        SortedChildrenCache(final int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        synchronized SortedChildren get(final SortedChildrenKey key,
+                                        final long commitCount,
+                                        final int trimmedSize) {
+            final SortedChildren sortedChildren = map.get(key);
+            if (sortedChildren == null || !sortedChildren.canSupply(commitCount, trimmedSize)) {
+                return null;
+            }
+            return sortedChildren;
+        }
+
+        synchronized void put(final SortedChildrenKey key, final SortedChildren sortedChildren) {
+            final SortedChildren existing = map.put(key, sortedChildren);
+            if (existing != null) {
+                itemCount -= existing.keys.length;
+            }
+            itemCount += sortedChildren.keys.length;
+
+            final Iterator<SortedChildren> iterator = map.values().iterator();
+            while (itemCount > maxItems && iterator.hasNext()) {
+                final SortedChildren eldest = iterator.next();
+                if (eldest != sortedChildren) {
+                    itemCount -= eldest.keys.length;
+                    iterator.remove();
+                }
+            }
+        }
+
+        synchronized void clear() {
+            map.clear();
+            itemCount = 0;
+        }
     }
 
 
@@ -1500,24 +1902,20 @@ public class LmdbDataStore implements DataStore {
             }
         }
 
-        public Iterable<Item> getIterable() {
+        SortedChildren toSortedChildren(final long commitCount,
+                                        final int trimmedSize,
+                                        final long totalRowCount) {
             if (!trimmed) {
                 sortAndTrim();
             }
 
-            return () -> new Iterator<>() {
-                private int pos = 0;
-
-                @Override
-                public boolean hasNext() {
-                    return size > pos;
-                }
-
-                @Override
-                public ItemImpl next() {
-                    return array[pos++];
-                }
-            };
+            final Key[] keys = new Key[size];
+            final StoredValues[] storedValues = new StoredValues[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = array[i].key;
+                storedValues[i] = array[i].storedValues;
+            }
+            return new SortedChildren(commitCount, trimmedSize, totalRowCount, keys, storedValues);
         }
     }
 
@@ -1568,8 +1966,10 @@ public class LmdbDataStore implements DataStore {
         @Override
         public void signalComplete() {
             if (!isComplete()) {
-                // Add an empty item to the transfer queue.
-                lmdbDataStore.queue.complete();
+                // Add an empty item to the transfer queues.
+                for (final Partition partition : lmdbDataStore.partitions) {
+                    partition.queue.complete();
+                }
             }
         }
 
@@ -28,6 +28,8 @@ import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -95,21 +97,31 @@ public class LmdbDataStoreFactory implements DataStoreFactory {
                     errorConsumer);
 
         } else {
-            final String subDirectory = queryKey + "_" + componentId + "_" + UUID.randomUUID();
-            final LmdbEnvDir lmdbEnvDir = lmdbEnvDirFactory
-                    .builder()
-                    .config(resultStoreConfig.getLmdbConfig())
-                    .subDir(subDirectory)
-                    .build();
-
-            final LmdbEnv.Builder lmdbEnvBuilder = LmdbEnv
-                    .builder()
-                    .config(resultStoreConfig.getLmdbConfig())
-                    .lmdbEnvDir(lmdbEnvDir);
+            // Stores that record the latest event reference can only have a single partition as the reference
+            // needs to be committed with the data.
+            final int writerPartitions = dataStoreSettings.isStoreLatestEventReference()
+                    ? 1
+                    : Math.max(1, resultStoreConfig.getWriterPartitions());
+
+            // Each partition gets its own LMDB env in a dedicated dir.
+            final List<LmdbEnv.Builder> lmdbEnvBuilders = new ArrayList<>(writerPartitions);
+            for (int i = 0; i < writerPartitions; i++) {
+                final String subDirectory = queryKey + "_" + componentId + "_" + UUID.randomUUID();
+                final LmdbEnvDir lmdbEnvDir = lmdbEnvDirFactory
+                        .builder()
+                        .config(resultStoreConfig.getLmdbConfig())
+                        .subDir(subDirectory)
+                        .build();
+
+                lmdbEnvBuilders.add(LmdbEnv
+                        .builder()
+                        .config(resultStoreConfig.getLmdbConfig())
+                        .lmdbEnvDir(lmdbEnvDir));
+            }
 
             return new LmdbDataStore(
                     searchRequestSource,
-                    lmdbEnvBuilder,
+                    lmdbEnvBuilders,
                     resultStoreConfig,
                     queryKey,
                     componentId,
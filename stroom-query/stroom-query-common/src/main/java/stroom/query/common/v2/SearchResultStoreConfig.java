@@ -5,12 +5,15 @@ import stroom.util.shared.IsStroomConfig;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
 
 @JsonPropertyOrder(alphabetic = true)
 public class SearchResultStoreConfig extends AbstractResultStoreConfig implements IsStroomConfig {
 
     private final ResultStoreMapConfig mapConfig;
+    private final int writerPartitions;
 
     public SearchResultStoreConfig() {
         this(10_000,
@@ -21,7 +24,9 @@ public class SearchResultStoreConfig extends AbstractResultStoreConfig implement
                 10_000,
                 500_000,
                 ResultStoreLmdbConfig.builder().localDir("search_results").build(),
-                new ResultStoreMapConfig());
+                new ResultStoreMapConfig(),
+                1,
+                false);
     }
 
     @JsonCreator
@@ -33,7 +38,9 @@ public class SearchResultStoreConfig extends AbstractResultStoreConfig implement
                                    @JsonProperty("valueQueueSize") final int valueQueueSize,
                                    @JsonProperty("maxSortedItems") final int maxSortedItems,
                                    @JsonProperty("lmdb") final ResultStoreLmdbConfig lmdbConfig,
-                                   @JsonProperty("map") final ResultStoreMapConfig mapConfig) {
+                                   @JsonProperty("map") final ResultStoreMapConfig mapConfig,
+                                   @JsonProperty("writerPartitions") final int writerPartitions,
+                                   @JsonProperty("compileExpressions") final boolean compileExpressions) {
         super(maxPutsBeforeCommit,
                 offHeapResults,
                 minPayloadSize,
@@ -41,12 +48,24 @@ public class SearchResultStoreConfig extends AbstractResultStoreConfig implement
                 maxStringFieldLength,
                 valueQueueSize,
                 maxSortedItems,
-                lmdbConfig);
+                lmdbConfig,
+                compileExpressions);
         this.mapConfig = mapConfig;
+        this.writerPartitions = writerPartitions;
     }
 
     @JsonProperty("map")
     public ResultStoreMapConfig getMapConfig() {
         return mapConfig;
     }
+
+    @Min(1)
+    @JsonPropertyDescription("The number of partitions to split each off heap search result store into. Each " +
+            "partition is a separate LMDB environment with its own writer thread so that rows for large grouped " +
+            "searches can be added in parallel. Rows are assigned to a partition by hashing the row key. Stores " +
+            "that record the latest event reference always use a single partition.")
+    @JsonProperty("writerPartitions")
+    public int getWriterPartitions() {
+        return writerPartitions;
+    }
 }
@@ -31,6 +31,7 @@ import stroom.query.api.v2.TableSettings;
 import stroom.query.common.v2.format.ColumnFormatter;
 import stroom.query.common.v2.format.FormatterFactory;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValLong;
 import stroom.query.language.functions.ValString;
 import stroom.util.logging.Metrics;
@@ -473,6 +474,65 @@ abstract class AbstractDataStoreTest {
         checkResults(dataStore, tableResultRequest, 0, true);
     }
 
+    void batchTest() {
+        final Sort sort = new Sort(0, SortDirection.ASCENDING);
+
+        final TableSettings tableSettings = TableSettings.builder()
+                .addColumns(Column.builder()
+                        .id("Text")
+                        .name("Text")
+                        .expression(ParamSubstituteUtil.makeParam("Text"))
+                        .sort(sort)
+                        .group(0)
+                        .build())
+                .addColumns(Column.builder()
+                        .id("Count")
+                        .name("Count")
+                        .expression("count()")
+                        .build())
+                .build();
+
+        final DataStore dataStore = create(tableSettings);
+
+        // Add rows in batches with a final partial batch.
+        final ValBatch batch = new ValBatch(128);
+        for (int i = 0; i < 3000; i++) {
+            final String text = "Text " + (i % 10);
+            if (batch.add(Val.of(ValString.create(text)))) {
+                dataStore.accept(batch);
+                batch.clear();
+            }
+        }
+        dataStore.accept(batch);
+
+        // Wait for all items to be added.
+        try {
+            dataStore.getCompletionState().signalComplete();
+            dataStore.getCompletionState().awaitCompletion();
+        } catch (final InterruptedException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        final ResultRequest tableResultRequest = ResultRequest.builder()
+                .componentId("componentX")
+                .addMappings(tableSettings)
+                .requestedRange(new OffsetRange(0, 50))
+                .build();
+        final FormatterFactory formatterFactory = new FormatterFactory(null);
+        final TableResultCreator tableComponentResultCreator =
+                new TableResultCreator(new ColumnFormatter(formatterFactory));
+        final TableResult searchResult = (TableResult) tableComponentResultCreator.create(
+                dataStore,
+                tableResultRequest);
+
+        assertThat(searchResult.getTotalResults()).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            final Row row = searchResult.getRows().get(i);
+            assertThat(row.getValues().get(0)).isEqualTo("Text " + i);
+            assertThat(row.getValues().get(1)).isEqualTo("300");
+        }
+    }
+
     void sortedCountedTextTest2() {
         final Sort sort = new Sort(0, SortDirection.ASCENDING);
 
@@ -31,6 +31,8 @@ import stroom.query.api.v2.ResultRequest;
 import stroom.query.api.v2.Row;
 import stroom.query.api.v2.SearchRequestSource;
 import stroom.query.api.v2.SearchRequestSource.SourceType;
+import stroom.query.api.v2.Sort;
+import stroom.query.api.v2.Sort.SortDirection;
 import stroom.query.api.v2.TableResult;
 import stroom.query.api.v2.TableSettings;
 import stroom.query.common.v2.format.ColumnFormatter;
@@ -54,7 +56,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -99,19 +103,27 @@ class TestLmdbDataStore extends AbstractDataStoreTest {
         final LmdbLibraryConfig lmdbLibraryConfig = new LmdbLibraryConfig();
         final LmdbEnvDirFactory lmdbEnvDirFactory = new LmdbEnvDirFactory(
                 new LmdbLibrary(pathCreator, tempDirProvider, () -> lmdbLibraryConfig), pathCreator);
-        final LmdbEnvDir lmdbEnvDir = lmdbEnvDirFactory
-                .builder()
-                .config(resultStoreConfig.getLmdbConfig())
-                .subDir(subDirectory)
-                .build();
-        final LmdbEnv.Builder lmdbEnvBuilder = LmdbEnv
-                .builder()
-                .config(resultStoreConfig.getLmdbConfig())
-                .lmdbEnvDir(lmdbEnvDir);
+        final int writerPartitions = dataStoreSettings.isStoreLatestEventReference()
+                ? 1
+                : getWriterPartitions();
+        final List<LmdbEnv.Builder> lmdbEnvBuilders = new ArrayList<>();
+        for (int i = 0; i < writerPartitions; i++) {
+            final LmdbEnvDir lmdbEnvDir = lmdbEnvDirFactory
+                    .builder()
+                    .config(resultStoreConfig.getLmdbConfig())
+                    .subDir(writerPartitions == 1
+                            ? subDirectory
+                            : subDirectory + "_" + i)
+                    .build();
+            lmdbEnvBuilders.add(LmdbEnv
+                    .builder()
+                    .config(resultStoreConfig.getLmdbConfig())
+                    .lmdbEnvDir(lmdbEnvDir));
+        }
         final ErrorConsumerImpl errorConsumer = new ErrorConsumerImpl();
         return new LmdbDataStore(
                 searchRequestSource,
-                lmdbEnvBuilder,
+                lmdbEnvBuilders,
                 resultStoreConfig,
                 queryKey,
                 componentId,
@@ -125,6 +137,10 @@ class TestLmdbDataStore extends AbstractDataStoreTest {
                 new ByteBufferFactoryImpl());
     }
 
+    int getWriterPartitions() {
+        return 1;
+    }
+
     @Test
     void testBigValues() {
         final FormatterFactory formatterFactory = new FormatterFactory(null);
@@ -465,11 +481,75 @@ class TestLmdbDataStore extends AbstractDataStoreTest {
         assertThat(searchResult.getTotalResults().intValue()).isEqualTo(20000);
     }
 
+    @Test
+    void testSortedPagesUpdatedAfterCommit() {
+        final FormatterFactory formatterFactory = new FormatterFactory(null);
+        final ColumnFormatter columnFormatter = new ColumnFormatter(formatterFactory);
+
+        final TableSettings tableSettings = TableSettings.builder()
+                .addColumns(Column.builder()
+                        .id("Text")
+                        .name("Text")
+                        .expression(ParamSubstituteUtil.makeParam("Text"))
+                        .sort(new Sort(0, SortDirection.DESCENDING))
+                        .format(Format.TEXT)
+                        .build())
+                .build();
+
+        final LmdbDataStore dataStore = (LmdbDataStore) createUnlimitedDataStore(tableSettings);
+        for (int i = 0; i < 100; i++) {
+            dataStore.accept(Val.of(ValString.create("Text " + String.format("%03d", i))));
+        }
+        dataStore.sync();
+
+        final TableResultCreator tableComponentResultCreator = new TableResultCreator(columnFormatter);
+        final ResultRequest firstPage = ResultRequest.builder()
+                .componentId("componentX")
+                .addMappings(tableSettings)
+                .requestedRange(new OffsetRange(0, 10))
+                .build();
+        final ResultRequest secondPage = ResultRequest.builder()
+                .componentId("componentX")
+                .addMappings(tableSettings)
+                .requestedRange(new OffsetRange(10, 10))
+                .build();
+
+        // Fetch the same pages repeatedly while nothing changes.
+        for (int i = 0; i < 2; i++) {
+            TableResult searchResult = (TableResult) tableComponentResultCreator.create(dataStore, firstPage);
+            assertThat(searchResult.getRows().getFirst().getValues().getFirst()).isEqualTo("Text 099");
+            assertThat(searchResult.getTotalResults().intValue()).isEqualTo(100);
+
+            searchResult = (TableResult) tableComponentResultCreator.create(dataStore, secondPage);
+            assertThat(searchResult.getRows().getFirst().getValues().getFirst()).isEqualTo("Text 089");
+            assertThat(searchResult.getTotalResults().intValue()).isEqualTo(100);
+        }
+
+        // Add a row that sorts first and make sure we see it.
+        dataStore.accept(Val.of(ValString.create("Text 999")));
+        dataStore.sync();
+
+        TableResult searchResult = (TableResult) tableComponentResultCreator.create(dataStore, firstPage);
+        assertThat(searchResult.getRows().getFirst().getValues().getFirst()).isEqualTo("Text 999");
+        assertThat(searchResult.getTotalResults().intValue()).isEqualTo(101);
+
+        searchResult = (TableResult) tableComponentResultCreator.create(dataStore, secondPage);
+        assertThat(searchResult.getRows().getFirst().getValues().getFirst()).isEqualTo("Text 090");
+
+        dataStore.getCompletionState().signalComplete();
+        dataStore.clear();
+    }
+
     @Test
     void basicTest() {
         super.basicTest();
     }
 
+    @Test
+    void batchTest() {
+        super.batchTest();
+    }
+
     @Test
     void nestedTest() {
         super.nestedTest();
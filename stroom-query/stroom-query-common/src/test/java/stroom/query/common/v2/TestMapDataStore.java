@@ -55,6 +55,11 @@ class TestMapDataStore extends AbstractDataStoreTest {
         super.basicTest();
     }
 
+    @Test
+    void batchTest() {
+        super.batchTest();
+    }
+
     @Test
     void nestedTest() {
         super.nestedTest();
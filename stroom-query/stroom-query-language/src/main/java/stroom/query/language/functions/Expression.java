@@ -58,6 +58,10 @@ public class Expression implements Function {
         return function.createGenerator();
     }
 
+    Function getFunction() {
+        return function;
+    }
+
     @Override
     public String toString() {
         if (function == null) {
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2024 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.FieldValReference;
+import stroom.query.language.functions.ref.StoredValues;
+
+import java.util.function.Supplier;
+
+/**
+ * Compiles the arithmetic parts of a parsed {@link Expression} into a tree of nodes that evaluate with primitive
+ * doubles rather than creating a {@link Val} for every intermediate result.
+ * <p>
+ * Only expressions whose root is one of the basic arithmetic functions (+, -, *, /, %, ^ and negate) are compiled.
+ * Field references and numeric constants become leaf nodes and constant sub expressions are folded when the
+ * expression is compiled. Any other function in the tree is evaluated by its normal generator and its result is
+ * used as a leaf.
+ * <p>
+ * The compiled generator produces exactly the same result as the interpreted one. Whenever a leaf is not a plain
+ * number (e.g. null, error, string, date or duration) or a divide or modulo does not produce a number, evaluation
+ * of the row is handed back to the interpreted generator. {@link Generator#set} and {@link Generator#merge} are
+ * always performed by the interpreted generator.
+ */
+public final class ExpressionCompiler {
+
+    private static final Fallback FALLBACK = new Fallback();
+
+    private ExpressionCompiler() {
+        // Utility class.
+    }
+
+    /**
+     * Create a generator for the supplied expression, compiling it if possible.
+     *
+     * @param expression The expression to create a generator for.
+     * @return A compiled generator or the normal interpreted generator if the expression can't be compiled.
+     */
+    public static Generator createGenerator(final Expression expression) {
+        final Generator interpreted = expression.createGenerator();
+        final Function function = expression.getFunction();
+        // A single operand function just returns its operand unchanged so only compile if there is some work to do.
+        if (!isCompilable(function) ||
+                (!(function instanceof Negate) && ((AbstractManyChildFunction) function).functions.length < 2)) {
+            return interpreted;
+        }
+
+        final Node node = compile(function);
+        if (node instanceof final ConstantNode constantNode) {
+            return new StaticValueGen(ValDouble.create(constantNode.value));
+        }
+        return new CompiledGen(interpreted, node);
+    }
+
+    private static boolean isCompilable(final Function function) {
+        return function instanceof Add ||
+                function instanceof Subtract ||
+                function instanceof Multiply ||
+                function instanceof Divide ||
+                function instanceof Modulo ||
+                function instanceof Power ||
+                function instanceof Negate;
+    }
+
+    private static Node compile(final Function function) {
+        if (isCompilable(function)) {
+            final Function[] functions = ((AbstractManyChildFunction) function).functions;
+            final Node[] children = new Node[functions.length];
+            boolean allConstant = true;
+            for (int i = 0; i < functions.length; i++) {
+                children[i] = compile(functions[i]);
+                allConstant = allConstant && children[i] instanceof ConstantNode;
+            }
+
+            final Node node = createOpNode(function, children);
+            if (allConstant) {
+                try {
+                    return new ConstantNode(node.eval(null, null));
+                } catch (final Fallback e) {
+                    // The result of this constant sub expression is an error so leave it to be evaluated at
+                    // runtime where it will cause a fallback to the interpreter.
+                }
+            }
+            return node;
+
+        } else if (function instanceof final StaticValueFunction staticValueFunction) {
+            final Val value = staticValueFunction.getValue();
+            if (isPlainNumber(value)) {
+                return new ConstantNode(value.toDouble());
+            }
+
+        } else if (function instanceof final Ref ref) {
+            final FieldValReference fieldValReference = ref.getFieldValReference();
+            if (fieldValReference != null) {
+                return new RefNode(fieldValReference);
+            }
+        }
+
+        return new InterpretedNode(function.createGenerator());
+    }
+
+    private static Node createOpNode(final Function function, final Node[] children) {
+        if (function instanceof Negate) {
+            return new NegateNode(children[0]);
+        } else if (function instanceof Add) {
+            return new AddNode(children);
+        } else if (function instanceof Subtract) {
+            return new SubtractNode(children);
+        } else if (function instanceof Multiply) {
+            return new MultiplyNode(children);
+        } else if (function instanceof Divide) {
+            return new DivideNode(children);
+        } else if (function instanceof Modulo) {
+            return new ModuloNode(children);
+        } else if (function instanceof Power) {
+            return new PowerNode(children);
+        }
+        throw new IllegalArgumentException("Unexpected function " + function);
+    }
+
+    private static boolean isPlainNumber(final Val val) {
+        // Dates and durations have special handling in some functions so only deal with plain numbers.
+        return val instanceof ValDouble ||
+                val instanceof ValLong ||
+                val instanceof ValInteger ||
+                val instanceof ValFloat;
+    }
+
+    private static double toDouble(final Val val) {
+        if (isPlainNumber(val)) {
+            return val.toDouble();
+        }
+        throw FALLBACK;
+    }
+
+    private static double checkNumber(final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw FALLBACK;
+        }
+        return value;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static final class CompiledGen implements Generator {
+
+        private final Generator interpreted;
+        private final Node node;
+
+        private CompiledGen(final Generator interpreted, final Node node) {
+            this.interpreted = interpreted;
+            this.node = node;
+        }
+
+        @Override
+        public void set(final Val[] values, final StoredValues storedValues) {
+            interpreted.set(values, storedValues);
+        }
+
+        @Override
+        public Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            try {
+                return ValDouble.create(node.eval(storedValues, childDataSupplier));
+            } catch (final Fallback e) {
+                return interpreted.eval(storedValues, childDataSupplier);
+            }
+        }
+
+        @Override
+        public void merge(final StoredValues existingValues, final StoredValues newValues) {
+            interpreted.merge(existingValues, newValues);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Thrown when a row can't be evaluated by the compiled expression. This is preallocated and has no stack trace
+     * so it is cheap to throw.
+     */
+    private static final class Fallback extends RuntimeException {
+
+        private Fallback() {
+            super(null, null, false, false);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private abstract static class Node {
+
+        abstract double eval(StoredValues storedValues, Supplier<ChildData> childDataSupplier);
+    }
+
+    private static final class ConstantNode extends Node {
+
+        private final double value;
+
+        private ConstantNode(final double value) {
+            this.value = value;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            return value;
+        }
+    }
+
+    private static final class RefNode extends Node {
+
+        private final FieldValReference fieldValReference;
+
+        private RefNode(final FieldValReference fieldValReference) {
+            this.fieldValReference = fieldValReference;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            return toDouble(fieldValReference.get(storedValues));
+        }
+    }
+
+    private static final class InterpretedNode extends Node {
+
+        private final Generator generator;
+
+        private InterpretedNode(final Generator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            return toDouble(generator.eval(storedValues, childDataSupplier));
+        }
+    }
+
+    private static final class NegateNode extends Node {
+
+        private final Node child;
+
+        private NegateNode(final Node child) {
+            this.child = child;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            return child.eval(storedValues, childDataSupplier) * -1D;
+        }
+    }
+
+    private static final class AddNode extends Node {
+
+        private final Node[] children;
+
+        private AddNode(final Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            double value = children[0].eval(storedValues, childDataSupplier);
+            for (int i = 1; i < children.length; i++) {
+                value = value + children[i].eval(storedValues, childDataSupplier);
+            }
+            return value;
+        }
+    }
+
+    private static final class SubtractNode extends Node {
+
+        private final Node[] children;
+
+        private SubtractNode(final Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            double value = children[0].eval(storedValues, childDataSupplier);
+            for (int i = 1; i < children.length; i++) {
+                value = value - children[i].eval(storedValues, childDataSupplier);
+            }
+            return value;
+        }
+    }
+
+    private static final class MultiplyNode extends Node {
+
+        private final Node[] children;
+
+        private MultiplyNode(final Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            double value = children[0].eval(storedValues, childDataSupplier);
+            for (int i = 1; i < children.length; i++) {
+                value = value * children[i].eval(storedValues, childDataSupplier);
+            }
+            return value;
+        }
+    }
+
+    private static final class DivideNode extends Node {
+
+        private final Node[] children;
+
+        private DivideNode(final Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            double value = children[0].eval(storedValues, childDataSupplier);
+            for (int i = 1; i < children.length; i++) {
+                value = checkNumber(value / children[i].eval(storedValues, childDataSupplier));
+            }
+            return value;
+        }
+    }
+
+    private static final class ModuloNode extends Node {
+
+        private final Node[] children;
+
+        private ModuloNode(final Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            double value = children[0].eval(storedValues, childDataSupplier);
+            for (int i = 1; i < children.length; i++) {
+                value = checkNumber(value % children[i].eval(storedValues, childDataSupplier));
+            }
+            return value;
+        }
+    }
+
+    private static final class PowerNode extends Node {
+
+        private final Node[] children;
+
+        private PowerNode(final Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        double eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            double value = children[0].eval(storedValues, childDataSupplier);
+            for (int i = 1; i < children.length; i++) {
+                value = Math.pow(value, children[i].eval(storedValues, childDataSupplier));
+            }
+            return value;
+        }
+    }
+}
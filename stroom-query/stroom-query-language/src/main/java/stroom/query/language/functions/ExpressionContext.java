@@ -11,20 +11,24 @@ public class ExpressionContext {
     private final int maxStringLength;
     private final DateTimeSettings dateTimeSettings;
     private final StateProvider stateProvider;
+    private final boolean compileExpressions;
 
     public ExpressionContext() {
         this.maxStringLength = 100;
         this.dateTimeSettings = DateTimeSettings.builder().build();
         this.stateProvider = (map, key, effectiveTimeMs) -> ValNull.INSTANCE;
+        this.compileExpressions = false;
     }
 
     @JsonCreator
     public ExpressionContext(final int maxStringLength,
                              final DateTimeSettings dateTimeSettings,
-                             final StateProvider stateProvider) {
+                             final StateProvider stateProvider,
+                             final boolean compileExpressions) {
         this.maxStringLength = maxStringLength;
         this.dateTimeSettings = dateTimeSettings;
         this.stateProvider = stateProvider;
+        this.compileExpressions = compileExpressions;
     }
 
     public int getMaxStringLength() {
@@ -39,6 +43,10 @@ public class ExpressionContext {
         return stateProvider;
     }
 
+    public boolean isCompileExpressions() {
+        return compileExpressions;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -49,12 +57,13 @@ public class ExpressionContext {
         }
         final ExpressionContext that = (ExpressionContext) o;
         return maxStringLength == that.maxStringLength &&
+                compileExpressions == that.compileExpressions &&
                 Objects.equals(dateTimeSettings, that.dateTimeSettings);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(maxStringLength, dateTimeSettings);
+        return Objects.hash(maxStringLength, dateTimeSettings, compileExpressions);
     }
 
     @Override
@@ -62,6 +71,7 @@ public class ExpressionContext {
         return "ExpressionContext{" +
                 "maxStringLength=" + maxStringLength +
                 ", dateTimeSettings=" + dateTimeSettings +
+                ", compileExpressions=" + compileExpressions +
                 '}';
     }
 
@@ -82,6 +92,7 @@ public class ExpressionContext {
         private int maxStringLength;
         private DateTimeSettings dateTimeSettings;
         private StateProvider stateProvider;
+        private boolean compileExpressions;
 
         private Builder() {
         }
@@ -90,6 +101,7 @@ public class ExpressionContext {
             this.maxStringLength = expressionContext.maxStringLength;
             this.dateTimeSettings = expressionContext.dateTimeSettings;
             this.stateProvider = expressionContext.stateProvider;
+            this.compileExpressions = expressionContext.compileExpressions;
         }
 
         public Builder maxStringLength(final int maxStringLength) {
@@ -107,8 +119,13 @@ public class ExpressionContext {
             return this;
         }
 
+        public Builder compileExpressions(final boolean compileExpressions) {
+            this.compileExpressions = compileExpressions;
+            return this;
+        }
+
         public ExpressionContext build() {
-            return new ExpressionContext(maxStringLength, dateTimeSettings, stateProvider);
+            return new ExpressionContext(maxStringLength, dateTimeSettings, stateProvider, compileExpressions);
         }
     }
 }
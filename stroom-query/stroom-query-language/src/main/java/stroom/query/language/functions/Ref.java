@@ -56,6 +56,10 @@ class Ref extends AbstractFunction {
         }
     }
 
+    FieldValReference getFieldValReference() {
+        return fieldValReference;
+    }
+
     @Override
     public void appendString(final StringBuilder sb) {
         sb.append("${");
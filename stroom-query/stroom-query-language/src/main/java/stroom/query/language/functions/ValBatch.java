@@ -0,0 +1,79 @@
+package stroom.query.language.functions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A batch of rows of values so that producers can pass many rows to a {@link ValuesConsumer} in a single call.
+ * <p>
+ * Batches are intended to be reused by the producer so consumers must not keep a reference to the batch itself
+ * after {@link ValuesConsumer#accept(ValBatch)} returns, although they may keep references to the rows.
+ */
+public final class ValBatch {
+
+    private final Val[][] rows;
+    private int size;
+
+    public ValBatch(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.rows = new Val[capacity][];
+    }
+
+    /**
+     * Add a row to the batch.
+     *
+     * @param values The row to add.
+     * @return True if the batch is now full.
+     */
+    public boolean add(final Val[] values) {
+        if (size == rows.length) {
+            throw new IllegalStateException("Batch is full");
+        }
+        rows[size++] = values;
+        return size == rows.length;
+    }
+
+    public Val[] get(final int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return rows[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == rows.length;
+    }
+
+    /**
+     * @return A view of the rows currently in the batch. The view is only valid until the batch is next changed.
+     */
+    public List<Val[]> asList() {
+        return Arrays.asList(rows).subList(0, size);
+    }
+
+    /**
+     * Remove all rows from the batch so that it can be reused.
+     */
+    public void clear() {
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ValBatch{" +
+                "size=" + size +
+                ", capacity=" + rows.length +
+                '}';
+    }
+}
@@ -3,4 +3,14 @@ package stroom.query.language.functions;
 public interface ValuesConsumer {
 
     void accept(Val[] values);
+
+    /**
+     * Accept a batch of rows. Implementations that can process many rows more efficiently than one at a time
+     * should override this.
+     */
+    default void accept(final ValBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            accept(batch.get(i));
+        }
+    }
 }
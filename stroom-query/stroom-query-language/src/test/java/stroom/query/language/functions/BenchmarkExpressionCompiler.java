@@ -0,0 +1,90 @@
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the interpreted and compiled generators for a number of arithmetic expressions evaluated against many
+ * rows of numeric values.
+ */
+public class BenchmarkExpressionCompiler {
+
+    private static final int ROW_COUNT = 10_000;
+
+    @Fork(value = 1, warmups = 1)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void benchEval(final ExecutionPlan plan, final Blackhole blackhole) {
+        final Generator generator = plan.generator;
+        for (final StoredValues storedValues : plan.rows) {
+            blackhole.consume(generator.eval(storedValues, null));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({
+                "${val1}+${val2}",
+                "(${val1}*${val2})+(${val3}/${val2})-${val1}",
+                "((${val1}+1)*(${val2}-2)/(${val3}+3))^2",
+                "${val1}*(60*60*1000)+${val2}%7"})
+        public String expression;
+
+        @Param({"interpreted", "compiled"})
+        public String engine;
+
+        private Generator generator;
+        private StoredValues[] rows;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ParseException {
+            final FieldIndex fieldIndex = new FieldIndex();
+            fieldIndex.create("val1");
+            fieldIndex.create("val2");
+            fieldIndex.create("val3");
+
+            final ExpressionParser parser = new ExpressionParser(new ParamFactory(new HashMap<>()));
+            final Expression exp = parser.parse(new ExpressionContext(), fieldIndex, expression);
+            final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+            exp.addValueReferences(valueReferenceIndex);
+
+            if ("compiled".equals(engine)) {
+                generator = ExpressionCompiler.createGenerator(exp);
+            } else {
+                generator = exp.createGenerator();
+            }
+
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            rows = new StoredValues[ROW_COUNT];
+            for (int i = 0; i < ROW_COUNT; i++) {
+                final StoredValues storedValues = valueReferenceIndex.createStoredValues();
+                generator.set(Val.of(
+                                ValLong.create(random.nextLong(1, 1_000_000)),
+                                ValInteger.create(random.nextInt(1, 1_000)),
+                                ValDouble.create(random.nextDouble(1, 1_000))),
+                        storedValues);
+                rows[i] = storedValues;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestExpressionCompiler extends AbstractExpressionParserTest {
+
+    private static final List<Val[]> ROWS = List.of(
+            Val.of(ValInteger.create(10), ValInteger.create(3)),
+            Val.of(ValLong.create(-7), ValDouble.create(2.5)),
+            Val.of(ValFloat.create(1.5F), ValInteger.create(0)),
+            Val.of(ValDouble.create(0), ValDouble.create(0)),
+            Val.of(ValDouble.create(Double.NaN), ValInteger.create(1)),
+            Val.of(ValString.create("5"), ValInteger.create(2)),
+            Val.of(ValString.create("abc"), ValInteger.create(2)),
+            Val.of(ValDate.create(1_000_000L), ValDuration.create(1_000L)),
+            Val.of(ValNull.INSTANCE, ValInteger.create(2)),
+            Val.of(ValErr.create("bad"), ValInteger.create(2)),
+            Val.of(ValBoolean.TRUE, ValInteger.create(2)));
+
+    @TestFactory
+    Stream<DynamicTest> testSameAsInterpreted() {
+        return Stream.of(
+                        "${val1}+${val2}",
+                        "${val1}-${val2}",
+                        "${val1}*${val2}",
+                        "${val1}/${val2}",
+                        "${val1}%${val2}",
+                        "${val1}^${val2}",
+                        "-${val1}",
+                        "negate(${val1})",
+                        "add(${val1}, ${val2}, 3)",
+                        "subtract(${val1}, ${val2}, 3)",
+                        "divide(${val1}, ${val2}, 2)",
+                        "(${val1}+${val2})*(${val1}-${val2})/2",
+                        "${val1}*(1+2)/(3*4)",
+                        "1/(${val2}/0)",
+                        "${val1}+10/0",
+                        "${val1}+'abc'",
+                        "${val1}+round(${val2}/3, 2)",
+                        "sum(${val1})/count()",
+                        "max(${val1})-min(${val2})")
+                .map(expression -> DynamicTest.dynamicTest(expression, () ->
+                        createExpression(expression, 2, exp -> {
+                            final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+                            exp.addValueReferences(valueReferenceIndex);
+                            final Generator interpreted = exp.createGenerator();
+                            final Generator compiled = ExpressionCompiler.createGenerator(exp);
+
+                            for (final Val[] row : ROWS) {
+                                final StoredValues storedValues = valueReferenceIndex.createStoredValues();
+                                compiled.set(row, storedValues);
+
+                                final Val expected = interpreted.eval(storedValues, null);
+                                final Val actual = compiled.eval(storedValues, null);
+                                assertThat(valToString(actual))
+                                        .isEqualTo(valToString(expected));
+                            }
+                        })));
+    }
+
+    @Test
+    void testConstantFolding() {
+        createExpression("(1+2)*3-negate(4)", exp -> {
+            final Generator generator = ExpressionCompiler.createGenerator(exp);
+            assertThat(generator).isInstanceOf(StaticValueGen.class);
+            assertThat(generator.eval(null, null)).isEqualTo(ValDouble.create(13));
+        });
+    }
+
+    @Test
+    void testNotCompiled() {
+        createExpression("round(${val1})", exp -> {
+            final Generator generator = ExpressionCompiler.createGenerator(exp);
+            assertThat(generator.getClass()).isEqualTo(exp.createGenerator().getClass());
+        });
+    }
+}
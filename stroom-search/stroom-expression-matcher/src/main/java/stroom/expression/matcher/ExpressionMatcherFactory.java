@@ -21,9 +21,14 @@ public class ExpressionMatcherFactory {
     }
 
     public ExpressionMatcher create(final Map<String, QueryField> fieldMap) {
+        return create(fieldMap, DateTimeSettings.builder().build());
+    }
+
+    public ExpressionMatcher create(final Map<String, QueryField> fieldMap,
+                                    final DateTimeSettings dateTimeSettings) {
         return new ExpressionMatcher(fieldMap,
                 wordListProvider,
                 collectionService,
-                DateTimeSettings.builder().build());
+                dateTimeSettings);
     }
 }
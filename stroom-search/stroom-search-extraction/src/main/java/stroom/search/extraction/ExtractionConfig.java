@@ -25,23 +25,27 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
     private final int maxThreadsPerTask;
     private final int maxStreamEventMapSize;
     private final long extractionDelayMs;
+    private final ExtractionResultCacheConfig resultCacheConfig;
 
     public ExtractionConfig() {
         maxStoredDataQueueSize = DEFAULT_MAX_STORED_DATA_QUEUE_SIZE;
         maxThreadsPerTask = DEFAULT_MAX_THREADS_PER_TASK;
         maxStreamEventMapSize = DEFAULT_MAX_STREAM_EVENT_MAP_SIZE;
         extractionDelayMs = DEFAULT_EXTRACTION_DELAY_MS;
+        resultCacheConfig = new ExtractionResultCacheConfig();
     }
 
     @JsonCreator
     public ExtractionConfig(@JsonProperty("maxStoredDataQueueSize") final int maxStoredDataQueueSize,
                             @JsonProperty("maxThreadsPerTask") final int maxThreadsPerTask,
                             @JsonProperty("maxStreamEventMapSize") final int maxStreamEventMapSize,
-                            @JsonProperty("extractionDelayMs") final long extractionDelayMs) {
+                            @JsonProperty("extractionDelayMs") final long extractionDelayMs,
+                            @JsonProperty("resultCache") final ExtractionResultCacheConfig resultCacheConfig) {
         this.maxStoredDataQueueSize = maxStoredDataQueueSize;
         this.maxThreadsPerTask = maxThreadsPerTask;
         this.maxStreamEventMapSize = maxStreamEventMapSize;
         this.extractionDelayMs = extractionDelayMs;
+        this.resultCacheConfig = resultCacheConfig;
     }
 
     @JsonPropertyDescription("The maximum number documents that will have stored data retrieved from the index " +
@@ -67,6 +71,11 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
         return extractionDelayMs;
     }
 
+    @JsonProperty("resultCache")
+    public ExtractionResultCacheConfig getResultCacheConfig() {
+        return resultCacheConfig;
+    }
+
     @Override
     public String toString() {
         return "ExtractionConfig{" +
@@ -74,6 +83,7 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
                 ", maxThreadsPerTask=" + maxThreadsPerTask +
                 ", maxStreamEventMapSize=" + maxStreamEventMapSize +
                 ", extractionDelayMs=" + extractionDelayMs +
+                ", resultCacheConfig=" + resultCacheConfig +
                 '}';
     }
 }
@@ -9,6 +9,7 @@ import stroom.pipeline.PipelineStore;
 import stroom.pipeline.factory.PipelineDataCache;
 import stroom.pipeline.shared.PipelineDoc;
 import stroom.pipeline.shared.data.PipelineData;
+import stroom.pipeline.state.IdEnrichmentExpectedIds;
 import stroom.query.api.v2.Query;
 import stroom.query.api.v2.QueryKey;
 import stroom.query.common.v2.Coprocessors;
@@ -16,6 +17,7 @@ import stroom.query.common.v2.SearchProgressLog;
 import stroom.query.common.v2.SearchProgressLog.SearchPhase;
 import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValuesConsumer;
 import stroom.query.language.functions.ref.ErrorConsumer;
 import stroom.search.extraction.StreamEventMap.EventSet;
@@ -33,7 +35,10 @@ import stroom.util.pipeline.scope.PipelineScopeRunnable;
 
 import jakarta.inject.Provider;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -68,9 +73,12 @@ public class ExtractionDecorator {
     private final Provider<ExtractionTaskHandler> handlerProvider;
     private final Provider<QueryInfoHolder> queryInfoHolderProvider;
     private final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider;
+    private final Provider<IdEnrichmentExpectedIds> idEnrichmentExpectedIdsProvider;
+    private final ExtractionResultCache extractionResultCache;
     private final QueryKey queryKey;
 
     private final Map<DocRef, PipelineData> pipelineDataMap = new ConcurrentHashMap<>();
+    private final Map<DocRef, String> pipelineVersionMap = new ConcurrentHashMap<>();
     private final StreamEventMap streamEventMap;
     private final StoredDataQueue storedDataQueue;
     private final Map<DocRef, Receiver> receivers;
@@ -90,6 +98,8 @@ public class ExtractionDecorator {
                         final Provider<ExtractionTaskHandler> handlerProvider,
                         final Provider<QueryInfoHolder> queryInfoHolderProvider,
                         final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider,
+                        final Provider<IdEnrichmentExpectedIds> idEnrichmentExpectedIdsProvider,
+                        final ExtractionResultCache extractionResultCache,
                         final QueryKey queryKey) {
         this.fieldValueExtractorFactory = fieldValueExtractorFactory;
         this.extractionConfig = extractionConfig;
@@ -104,6 +114,8 @@ public class ExtractionDecorator {
         this.handlerProvider = handlerProvider;
         this.queryInfoHolderProvider = queryInfoHolderProvider;
         this.fieldListConsumerHolderProvider = fieldListConsumerHolderProvider;
+        this.idEnrichmentExpectedIdsProvider = idEnrichmentExpectedIdsProvider;
+        this.extractionResultCache = extractionResultCache;
         this.queryKey = queryKey;
 
         // Create a queue to receive values and store them for asynchronous processing.
@@ -130,7 +142,17 @@ public class ExtractionDecorator {
             if (coprocessorSet.size() == 1) {
                 valuesConsumer = coprocessorSet.iterator().next();
             } else {
-                valuesConsumer = values -> coprocessorSet.forEach(coprocessor -> coprocessor.accept(values));
+                valuesConsumer = new ValuesConsumer() {
+                    @Override
+                    public void accept(final Val[] values) {
+                        coprocessorSet.forEach(coprocessor -> coprocessor.accept(values));
+                    }
+
+                    @Override
+                    public void accept(final ValBatch batch) {
+                        coprocessorSet.forEach(coprocessor -> coprocessor.accept(batch));
+                    }
+                };
             }
 
             // Decorate result with annotations.
@@ -343,33 +365,99 @@ public class ExtractionDecorator {
                         // Get cached pipeline data.
                         final PipelineData pipelineData = getPipelineData(docRef);
 
-                        // Execute the extraction within a fresh pipeline scope.
-                        meta = pipelineScopeRunnable.scopeResult(() -> {
-                            final ExtractionTaskHandler handler = handlerProvider.get();
-
-                            // Get the index and index fields from the cache.
-                            final FieldValueExtractor fieldValueExtractor =
-                                    fieldValueExtractorFactory.create(dataSource, receiver.fieldIndex);
-                            final StandardFieldListConsumer fieldListConsumer =
-                                    new StandardFieldListConsumer(fieldValueExtractor);
-                            fieldListConsumer.setQueryKey(queryKey);
-                            fieldListConsumer.setFieldIndex(receiver.fieldIndex);
-                            fieldListConsumer.setReceiver(receiver.valuesConsumer);
-                            fieldListConsumerHolderProvider.get().setFieldListConsumer(fieldListConsumer);
-
-                            final QueryInfoHolder queryInfoHolder = queryInfoHolderProvider.get();
-                            queryInfoHolder.setQueryKey(queryKey);
-                            queryInfoHolder.setFieldIndex(receiver.fieldIndex);
-
-                            return handler.extract(
-                                    taskContext,
-                                    queryKey,
-                                    streamId,
-                                    eventIds,
+                        // See if we have already extracted values for any of these events.
+                        long[] extractEventIds = eventIds;
+                        long resultCacheKey = 0;
+                        final boolean useResultCache = extractionResultCache.isEnabled();
+                        if (useResultCache) {
+                            resultCacheKey = extractionResultCache.createKey(
                                     docRef,
-                                    errorConsumer,
-                                    pipelineData);
-                        });
+                                    pipelineVersionMap.get(docRef),
+                                    dataSource,
+                                    receiver.fieldIndex);
+                            final Val[][] cachedValues = extractionResultCache.get(
+                                    resultCacheKey,
+                                    streamId,
+                                    eventIds);
+                            extractEventIds = getUncachedEventIds(eventIds, cachedValues);
+                            if (extractEventIds.length < eventIds.length) {
+                                // Make sure we are still allowed to see this stream before we use cached values.
+                                if (meta == null) {
+                                    meta = metaService.getMeta(streamId);
+                                    if (meta == null) {
+                                        throw new DataException(
+                                                "Unable to find data, could be due to lack of permissions");
+                                    }
+                                }
+
+                                final ValBatch batch = new ValBatch(eventIds.length - extractEventIds.length);
+                                for (final Val[] values : cachedValues) {
+                                    if (values != null) {
+                                        batch.add(values);
+                                    }
+                                }
+                                receiver.valuesConsumer.accept(batch);
+                            }
+                        }
+
+                        if (extractEventIds.length > 0) {
+                            final long[] ids = extractEventIds;
+
+                            // Record the values extracted for each event so we can cache them.
+                            final Map<Long, List<Val[]>> extractedValues = useResultCache
+                                    ? new HashMap<>()
+                                    : null;
+
+                            // Execute the extraction within a fresh pipeline scope.
+                            meta = pipelineScopeRunnable.scopeResult(() -> {
+                                final ExtractionTaskHandler handler = handlerProvider.get();
+                                final ValuesConsumer valuesConsumer;
+                                if (extractedValues == null) {
+                                    valuesConsumer = receiver.valuesConsumer;
+                                } else {
+                                    // The id enrichment filter tells us which event the values came from.
+                                    final IdEnrichmentExpectedIds idEnrichmentExpectedIds =
+                                            idEnrichmentExpectedIdsProvider.get();
+                                    valuesConsumer = values -> {
+                                        final long eventId = idEnrichmentExpectedIds.getCurrentEventId();
+                                        if (eventId != -1) {
+                                            // Copy the values as they may be modified by the receiver.
+                                            extractedValues
+                                                    .computeIfAbsent(eventId, k -> new ArrayList<>(1))
+                                                    .add(Arrays.copyOf(values, values.length));
+                                        }
+                                        receiver.valuesConsumer.accept(values);
+                                    };
+                                }
+
+                                // Get the index and index fields from the cache.
+                                final FieldValueExtractor fieldValueExtractor =
+                                        fieldValueExtractorFactory.create(dataSource, receiver.fieldIndex);
+                                final StandardFieldListConsumer fieldListConsumer =
+                                        new StandardFieldListConsumer(fieldValueExtractor);
+                                fieldListConsumer.setQueryKey(queryKey);
+                                fieldListConsumer.setFieldIndex(receiver.fieldIndex);
+                                fieldListConsumer.setReceiver(valuesConsumer);
+                                fieldListConsumerHolderProvider.get().setFieldListConsumer(fieldListConsumer);
+
+                                final QueryInfoHolder queryInfoHolder = queryInfoHolderProvider.get();
+                                queryInfoHolder.setQueryKey(queryKey);
+                                queryInfoHolder.setFieldIndex(receiver.fieldIndex);
+
+                                return handler.extract(
+                                        taskContext,
+                                        queryKey,
+                                        streamId,
+                                        ids,
+                                        docRef,
+                                        errorConsumer,
+                                        pipelineData);
+                            });
+
+                            if (extractedValues != null) {
+                                extractionResultCache.put(resultCacheKey, streamId, extractedValues);
+                            }
+                        }
 
                         extractionCount.add(events.size());
 
@@ -391,13 +479,17 @@ public class ExtractionDecorator {
                         info(taskContext,
                                 () -> "Transferring " + events.size() + " records from stream " + streamId);
                         // Pass raw values to coprocessors that are not requesting values to be extracted.
+                        final ValBatch batch = new ValBatch(Math.max(1, events.size()));
                         for (final Event event : events) {
                             if (Thread.currentThread().isInterrupted()) {
                                 LOGGER.debug("Interrupted, breaking out");
                                 break;
                             }
-                            receiver.valuesConsumer.accept(event.getValues());
-                            extractionCount.increment();
+                            batch.add(event.getValues());
+                        }
+                        if (!batch.isEmpty()) {
+                            receiver.valuesConsumer.accept(batch);
+                            extractionCount.add(batch.size());
                         }
                     }
                 }
@@ -416,6 +508,24 @@ public class ExtractionDecorator {
         }
     }
 
+    private long[] getUncachedEventIds(final long[] eventIds, final Val[][] cachedValues) {
+        int count = 0;
+        for (final Val[] values : cachedValues) {
+            if (values == null) {
+                count++;
+            }
+        }
+
+        final long[] uncachedEventIds = new long[count];
+        int index = 0;
+        for (int i = 0; i < eventIds.length; i++) {
+            if (cachedValues[i] == null) {
+                uncachedEventIds[index++] = eventIds[i];
+            }
+        }
+        return uncachedEventIds;
+    }
+
     private PipelineData getPipelineData(final DocRef pipelineRef) {
         return pipelineDataMap.computeIfAbsent(pipelineRef, k -> {
             // Check the pipelineRef is not our 'NULL SELECTION'
@@ -429,6 +539,9 @@ public class ExtractionDecorator {
                 throw new ExtractionException("Unable to find result pipeline: " + pipelineRef);
             }
 
+            // Remember the pipeline version so that it can be used to key cached extraction results.
+            pipelineVersionMap.put(pipelineRef, pipelineDoc.getVersion());
+
             // Create the parser.
             return pipelineDataCache.get(pipelineDoc);
         });
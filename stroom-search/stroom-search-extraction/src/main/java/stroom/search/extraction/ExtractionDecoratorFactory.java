@@ -3,6 +3,7 @@ package stroom.search.extraction;
 import stroom.meta.api.MetaService;
 import stroom.pipeline.PipelineStore;
 import stroom.pipeline.factory.PipelineDataCache;
+import stroom.pipeline.state.IdEnrichmentExpectedIds;
 import stroom.query.api.v2.QueryKey;
 import stroom.security.api.SecurityContext;
 import stroom.task.api.ExecutorProvider;
@@ -27,6 +28,8 @@ public class ExtractionDecoratorFactory {
     private final Provider<ExtractionTaskHandler> handlerProvider;
     private final Provider<QueryInfoHolder> queryInfoHolderProvider;
     private final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider;
+    private final Provider<IdEnrichmentExpectedIds> idEnrichmentExpectedIdsProvider;
+    private final ExtractionResultCache extractionResultCache;
 
     @Inject
     ExtractionDecoratorFactory(final FieldValueExtractorFactory fieldValueExtractorFactory,
@@ -41,7 +44,9 @@ public class ExtractionDecoratorFactory {
                                final PipelineDataCache pipelineDataCache,
                                final Provider<ExtractionTaskHandler> handlerProvider,
                                final Provider<QueryInfoHolder> queryInfoHolderProvider,
-                               final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider) {
+                               final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider,
+                               final Provider<IdEnrichmentExpectedIds> idEnrichmentExpectedIdsProvider,
+                               final ExtractionResultCache extractionResultCache) {
         this.fieldValueExtractorFactory = fieldValueExtractorFactory;
         this.extractionConfig = extractionConfig;
         this.executorProvider = executorProvider;
@@ -55,6 +60,8 @@ public class ExtractionDecoratorFactory {
         this.handlerProvider = handlerProvider;
         this.queryInfoHolderProvider = queryInfoHolderProvider;
         this.fieldListConsumerHolderProvider = fieldListConsumerHolderProvider;
+        this.idEnrichmentExpectedIdsProvider = idEnrichmentExpectedIdsProvider;
+        this.extractionResultCache = extractionResultCache;
     }
 
     public ExtractionDecorator create(final QueryKey queryKey) {
@@ -72,6 +79,8 @@ public class ExtractionDecoratorFactory {
                 handlerProvider,
                 queryInfoHolderProvider,
                 fieldListConsumerHolderProvider,
+                idEnrichmentExpectedIdsProvider,
+                extractionResultCache,
                 queryKey);
     }
 }
@@ -16,6 +16,10 @@
 
 package stroom.search.extraction;
 
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.guice.GuiceUtil;
+import stroom.util.shared.Clearable;
+
 import com.google.inject.AbstractModule;
 
 public class ExtractionModule extends AbstractModule {
@@ -23,5 +27,10 @@ public class ExtractionModule extends AbstractModule {
     @Override
     protected void configure() {
         install(new ExtractionElementModule());
+
+        GuiceUtil.buildMultiBinder(binder(), Clearable.class)
+                .addBinding(ExtractionResultCache.class);
+        GuiceUtil.buildMultiBinder(binder(), EntityEvent.Handler.class)
+                .addBinding(ExtractionResultCache.class);
     }
 }
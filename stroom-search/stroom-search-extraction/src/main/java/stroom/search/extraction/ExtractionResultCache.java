@@ -0,0 +1,357 @@
+package stroom.search.extraction;
+
+import stroom.docref.DocRef;
+import stroom.index.shared.LuceneIndexDoc;
+import stroom.lmdb.LmdbConfig;
+import stroom.lmdb2.LmdbDb;
+import stroom.lmdb2.LmdbEnv;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.lmdb2.LmdbEnvDirFactory;
+import stroom.lmdb2.WriteTxn;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.TextConverterDoc;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValSerialiser;
+import stroom.query.language.functions.ref.KryoDataReader;
+import stroom.query.language.functions.ref.KryoDataWriter;
+import stroom.util.NullSafe;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventHandler;
+import stroom.util.io.FileUtil;
+import stroom.util.io.PathCreator;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.Clearable;
+
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.Output;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import net.openhft.hashing.LongHashFunction;
+import org.lmdbjava.EnvFlags;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An off-heap cache of the values that a search extraction pipeline produced for each event so that repeated
+ * searches over the same events, e.g. dashboard refreshes and drill downs, don't need to run the pipeline again.
+ * <p>
+ * Entries are keyed by a hash of the extraction pipeline, its version, the data source and the fields being
+ * extracted along with the stream and event id. Entries are held in two LMDB dbs, one for the current generation
+ * and one for the previous generation. When the current generation reaches half of the max entries the previous
+ * generation is emptied and becomes the current one. As XSLTs, text converters and index fields can change
+ * without changing the version of the pipeline that uses them the whole cache is cleared whenever any of these
+ * documents change. Each clear also changes the keys that are created from then on so that values extracted
+ * before a clear and put after it can never be read.
+ */
+@Singleton
+@EntityEventHandler(type = PipelineDoc.DOCUMENT_TYPE)
+@EntityEventHandler(type = XsltDoc.DOCUMENT_TYPE)
+@EntityEventHandler(type = TextConverterDoc.DOCUMENT_TYPE)
+@EntityEventHandler(type = LuceneIndexDoc.DOCUMENT_TYPE)
+public class ExtractionResultCache implements Clearable, EntityEvent.Handler {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ExtractionResultCache.class);
+
+    private static final int KEY_LENGTH = Long.BYTES * 3;
+    private static final String[] DB_NAMES = {"generation_0", "generation_1"};
+
+    private final LmdbEnvDirFactory lmdbEnvDirFactory;
+    private final PathCreator pathCreator;
+    private final Provider<ExtractionConfig> extractionConfigProvider;
+
+    private final AtomicLong clearCount = new AtomicLong();
+
+    private volatile Store store;
+    private volatile boolean failed;
+
+    @Inject
+    public ExtractionResultCache(final LmdbEnvDirFactory lmdbEnvDirFactory,
+                                 final PathCreator pathCreator,
+                                 final Provider<ExtractionConfig> extractionConfigProvider) {
+        this.lmdbEnvDirFactory = lmdbEnvDirFactory;
+        this.pathCreator = pathCreator;
+        this.extractionConfigProvider = extractionConfigProvider;
+    }
+
+    public boolean isEnabled() {
+        return !failed && getConfig().isEnabled();
+    }
+
+    /**
+     * Create the part of the key that identifies the pipeline and the fields that it is extracting. Values are
+     * stored in the positions given by the field index so the fields in the index must be part of the key.
+     * <p>
+     * The key also includes the number of times the cache has been cleared so the same key must be used to get
+     * values before extraction and to put the extracted values afterwards.
+     */
+    public long createKey(final DocRef pipelineRef,
+                          final String pipelineVersion,
+                          final DocRef dataSource,
+                          final FieldIndex fieldIndex) {
+        final StringBuilder sb = new StringBuilder()
+                .append(pipelineRef.getUuid())
+                .append('\u0000')
+                .append(pipelineVersion)
+                .append('\u0000')
+                .append(NullSafe.get(dataSource, DocRef::getUuid))
+                .append('\u0000')
+                .append(clearCount.get());
+        for (final String field : fieldIndex.getFields()) {
+            sb.append('\u0000').append(field);
+        }
+        return LongHashFunction.xx3().hashChars(sb);
+    }
+
+    /**
+     * Get any cached values for the supplied events.
+     *
+     * @return An array the same length as the event ids containing the cached values for each event or null if
+     * there are no cached values for an event.
+     */
+    public Val[][] get(final long key, final long streamId, final long[] eventIds) {
+        final Val[][] values = new Val[eventIds.length][];
+        final Store store = getStore();
+        if (store != null) {
+            try {
+                store.get(key, streamId, eventIds, values);
+            } catch (final RuntimeException e) {
+                LOGGER.debug(e::getMessage, e);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Cache the values extracted for the supplied events. Only events that produced exactly one set of values are
+     * cached, any others will be extracted again next time.
+     *
+     * @param valuesByEventId The values extracted for each event keyed by event id.
+     */
+    public void put(final long key, final long streamId, final Map<Long, List<Val[]>> valuesByEventId) {
+        final Store store = getStore();
+        if (store != null) {
+            try {
+                store.put(key, streamId, valuesByEventId);
+            } catch (final RuntimeException e) {
+                // The most likely cause is that the store is full so just start again.
+                LOGGER.warn(() -> "Error writing to extraction result cache, clearing cache - " + e.getMessage());
+                LOGGER.debug(e::getMessage, e);
+                clear();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        clearCount.incrementAndGet();
+        final Store store = this.store;
+        if (store != null) {
+            LOGGER.debug("Clearing extraction result cache");
+            store.clear();
+        }
+    }
+
+    @Override
+    public void onChange(final EntityEvent event) {
+        if (EntityAction.CLEAR_CACHE.equals(event.getAction()) ||
+                EntityAction.UPDATE.equals(event.getAction()) ||
+                EntityAction.DELETE.equals(event.getAction())) {
+            clear();
+        }
+    }
+
+    private ExtractionResultCacheConfig getConfig() {
+        return extractionConfigProvider.get().getResultCacheConfig();
+    }
+
+    private Store getStore() {
+        Store store = this.store;
+        if (store == null && isEnabled()) {
+            synchronized (this) {
+                store = this.store;
+                if (store == null && !failed) {
+                    try {
+                        store = new Store(getConfig());
+                        this.store = store;
+                    } catch (final RuntimeException e) {
+                        LOGGER.error(() -> "Unable to create extraction result cache - " + e.getMessage(), e);
+                        failed = true;
+                    }
+                }
+            }
+        }
+        return store;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private class Store {
+
+        private final LmdbEnv env;
+        private final LmdbDb[] dbs;
+        private final long maxGenerationSize;
+        private volatile int current;
+        private long currentCount;
+        private ByteBuffer valueBuffer = ByteBuffer.allocateDirect(1024);
+
+        private Store(final ExtractionResultCacheConfig config) {
+            final Path localDir = pathCreator.toAppPath(config.getLocalDir());
+            try {
+                Files.createDirectories(localDir);
+            } catch (final IOException e) {
+                throw new RuntimeException(LogUtil.message("Error ensuring directory {} exists (from " +
+                                "configuration property {})",
+                        localDir.toAbsolutePath(),
+                        config.getFullPathStr(LmdbConfig.LOCAL_DIR_PROP_NAME)), e);
+            }
+
+            // Cache entries that were written before a restart may be stale as we won't have seen any document
+            // changes while we were down so start with an empty store.
+            LOGGER.info("Deleting previous extraction result cache from {}", localDir);
+            if (!FileUtil.deleteContents(localDir)) {
+                throw new RuntimeException(LogUtil.message("Error deleting contents of {}", localDir));
+            }
+
+            final LmdbEnvDir lmdbEnvDir = lmdbEnvDirFactory
+                    .builder()
+                    .config(config)
+                    .build();
+            env = LmdbEnv
+                    .builder()
+                    .config(config)
+                    .lmdbEnvDir(lmdbEnvDir)
+                    .maxDbs(DB_NAMES.length)
+                    .addEnvFlag(EnvFlags.MDB_NOTLS)
+                    .build();
+            dbs = new LmdbDb[DB_NAMES.length];
+            for (int i = 0; i < DB_NAMES.length; i++) {
+                dbs[i] = env.openDb(DB_NAMES[i]);
+            }
+            maxGenerationSize = Math.max(1, config.getMaxEntries() / 2);
+        }
+
+        void get(final long key, final long streamId, final long[] eventIds, final Val[][] values) {
+            final ByteBuffer keyBuffer = ByteBuffer.allocateDirect(KEY_LENGTH);
+            env.read(readTxn -> {
+                // Look in the current generation first.
+                final int current = this.current;
+                for (int i = 0; i < dbs.length; i++) {
+                    final LmdbDb db = dbs[(current + i) % dbs.length];
+                    for (int j = 0; j < eventIds.length; j++) {
+                        if (values[j] == null) {
+                            writeKey(keyBuffer, key, streamId, eventIds[j]);
+                            final ByteBuffer valueBuffer = db.get(readTxn, keyBuffer);
+                            if (valueBuffer != null) {
+                                values[j] = readValues(valueBuffer);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        synchronized void put(final long key, final long streamId, final Map<Long, List<Val[]>> valuesByEventId) {
+            final ByteBuffer keyBuffer = ByteBuffer.allocateDirect(KEY_LENGTH);
+            final long count = valuesByEventId.values().stream().filter(values -> values.size() == 1).count();
+            final boolean rollOver = currentCount + count >= maxGenerationSize;
+            final LmdbDb db = dbs[current];
+            final int next = (current + 1) % dbs.length;
+            env.write(writeTxn -> {
+                try (final Output output = new Output(1024, -1)) {
+                    for (final Entry<Long, List<Val[]>> entry : valuesByEventId.entrySet()) {
+                        if (entry.getValue().size() == 1) {
+                            output.reset();
+                            writeValues(output, entry.getValue().getFirst());
+                            writeKey(keyBuffer, key, streamId, entry.getKey());
+                            db.put(writeTxn, keyBuffer, getValueBuffer(output));
+                        }
+                    }
+                }
+                if (rollOver) {
+                    // Empty the old generation so it can become the current one.
+                    dbs[next].drop(writeTxn);
+                }
+                writeTxn.commit();
+            });
+
+            // Only switch generation once the old generation has been emptied and committed.
+            if (rollOver) {
+                current = next;
+                currentCount = 0;
+            } else {
+                currentCount += count;
+            }
+        }
+
+        synchronized void clear() {
+            env.write(writeTxn -> {
+                for (final LmdbDb db : dbs) {
+                    db.drop(writeTxn);
+                }
+                writeTxn.commit();
+            });
+            current = 0;
+            currentCount = 0;
+        }
+
+        private void writeKey(final ByteBuffer keyBuffer, final long key, final long streamId, final long eventId) {
+            keyBuffer.clear();
+            keyBuffer.putLong(key);
+            keyBuffer.putLong(streamId);
+            keyBuffer.putLong(eventId);
+            keyBuffer.flip();
+        }
+
+        private ByteBuffer getValueBuffer(final Output output) {
+            final int length = output.position();
+            if (valueBuffer.capacity() < length) {
+                valueBuffer = ByteBuffer.allocateDirect(Math.max(length, valueBuffer.capacity() * 2));
+            }
+            valueBuffer.clear();
+            valueBuffer.put(output.getBuffer(), 0, length);
+            valueBuffer.flip();
+            return valueBuffer;
+        }
+
+        private void writeValues(final Output output, final Val[] values) {
+            try (final KryoDataWriter writer = new KryoDataWriter(output)) {
+                writer.writeInt(values.length);
+                for (final Val val : values) {
+                    if (val == null) {
+                        writer.writeBoolean(false);
+                    } else {
+                        writer.writeBoolean(true);
+                        ValSerialiser.write(writer, val);
+                    }
+                }
+            }
+        }
+
+        private Val[] readValues(final ByteBuffer valueBuffer) {
+            try (final KryoDataReader reader = new KryoDataReader(new ByteBufferInput(valueBuffer))) {
+                final Val[] values = new Val[reader.readInt()];
+                for (int i = 0; i < values.length; i++) {
+                    if (reader.readBoolean()) {
+                        values[i] = ValSerialiser.read(reader);
+                    }
+                }
+                return values;
+            }
+        }
+    }
+}
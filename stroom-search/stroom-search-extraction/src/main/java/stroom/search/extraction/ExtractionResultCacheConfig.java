@@ -0,0 +1,159 @@
+package stroom.search.extraction;
+
+import stroom.lmdb.LmdbConfig;
+import stroom.util.config.annotations.RequiresRestart;
+import stroom.util.io.ByteSize;
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@JsonPropertyOrder(alphabetic = true)
+public class ExtractionResultCacheConfig extends AbstractConfig implements LmdbConfig, IsStroomConfig {
+
+    static final String DEFAULT_LOCAL_DIR = "extraction_result_cache";
+    static final int DEFAULT_MAX_READERS = LmdbConfig.DEFAULT_MAX_READERS;
+    static final ByteSize DEFAULT_MAX_STORE_SIZE = ByteSize.ofGibibytes(2);
+    static final boolean DEFAULT_IS_READ_AHEAD_ENABLED = true;
+    static final boolean DEFAULT_IS_READER_BLOCKED_BY_WRITER = false;
+    static final long DEFAULT_MAX_ENTRIES = 1_000_000;
+
+    private final boolean enabled;
+    private final String localDir;
+    private final int maxReaders;
+    private final ByteSize maxStoreSize;
+    private final boolean isReadAheadEnabled;
+    private final boolean isReaderBlockedByWriter;
+    private final long maxEntries;
+
+    public ExtractionResultCacheConfig() {
+        enabled = false;
+        localDir = DEFAULT_LOCAL_DIR;
+        maxReaders = DEFAULT_MAX_READERS;
+        maxStoreSize = DEFAULT_MAX_STORE_SIZE;
+        isReadAheadEnabled = DEFAULT_IS_READ_AHEAD_ENABLED;
+        isReaderBlockedByWriter = DEFAULT_IS_READER_BLOCKED_BY_WRITER;
+        maxEntries = DEFAULT_MAX_ENTRIES;
+    }
+
+    @SuppressWarnings("unused")
+    @JsonCreator
+    public ExtractionResultCacheConfig(
+            @JsonProperty("enabled") final boolean enabled,
+            @JsonProperty("localDir") final String localDir,
+            @JsonProperty("maxReaders") final int maxReaders,
+            @JsonProperty("maxStoreSize") final ByteSize maxStoreSize,
+            @JsonProperty("readAheadEnabled") final boolean isReadAheadEnabled,
+            @JsonProperty("readerBlockedByWriter") final boolean isReaderBlockedByWriter,
+            @JsonProperty("maxEntries") final long maxEntries) {
+        this.enabled = enabled;
+        this.localDir = localDir;
+        this.maxReaders = maxReaders;
+        this.maxStoreSize = maxStoreSize;
+        this.isReadAheadEnabled = isReadAheadEnabled;
+        this.isReaderBlockedByWriter = isReaderBlockedByWriter;
+        this.maxEntries = maxEntries;
+    }
+
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("Whether the values extracted for each event by a search extraction pipeline should be " +
+            "cached so that repeated searches over the same events don't need to run the pipeline again. " +
+            "Cached values are discarded when any pipeline, XSLT, text converter or index is changed. " +
+            "Values that an XSLT gets from reference data lookups are cached as they were when the event was " +
+            "first extracted.")
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    @NotNull
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The path to store the extraction result cache in. " +
+            "It MUST be on local disk, NOT network storage, due to use of memory mapped files. " +
+            "The directory will be created if it doesn't exist and any existing content will be deleted " +
+            "when the cache is first used. " +
+            "If the value is a relative path then it will be treated as being relative to stroom.path.home.")
+    public String getLocalDir() {
+        return localDir;
+    }
+
+    @Override
+    @Min(1)
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The maximum number of concurrent readers/threads that can use the off-heap store.")
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    @Override
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The maximum size for the off heap store. There must be " +
+            "available space on the disk to accommodate this size. If the store becomes full then all cached " +
+            "values are discarded. Can be expressed in IEC units (multiples of 1024), " +
+            "e.g. 1024, 1024B, 1024bytes, 1KiB, 1KB, 1K, etc.")
+    public ByteSize getMaxStoreSize() {
+        return maxStoreSize;
+    }
+
+    @Override
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("Read ahead means the OS will pre-fetch additional data from the disk in the " +
+            "expectation that it will be used at some point. This generally improves performance as more data is " +
+            "available in the page cache. Read ahead is enabled by default. It may be worth disabling it if " +
+            "the actively used data is larger than the available RAM, as this will stop it evicting hot " +
+            "entries to make space for pre-fetched data.")
+    public boolean isReadAheadEnabled() {
+        return isReadAheadEnabled;
+    }
+
+    @Override
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("If true, then a process writing to the data store will block all " +
+            "other processes from reading from the store. This setting is a trade off between " +
+            "performance and store size.")
+    public boolean isReaderBlockedByWriter() {
+        return isReaderBlockedByWriter;
+    }
+
+    @Min(2)
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The approximate maximum number of events to hold extracted values for. Entries are " +
+            "held in two generations, each holding up to half of this number. When the current generation is " +
+            "full the oldest generation is discarded.")
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public ExtractionResultCacheConfig withEnabled(final boolean enabled) {
+        return new ExtractionResultCacheConfig(
+                enabled, localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter, maxEntries);
+    }
+
+    public ExtractionResultCacheConfig withLocalDir(final String localDir) {
+        return new ExtractionResultCacheConfig(
+                enabled, localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter, maxEntries);
+    }
+
+    public ExtractionResultCacheConfig withMaxEntries(final long maxEntries) {
+        return new ExtractionResultCacheConfig(
+                enabled, localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter, maxEntries);
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionResultCacheConfig{" +
+                "enabled=" + enabled +
+                ", localDir='" + localDir + '\'' +
+                ", maxReaders=" + maxReaders +
+                ", maxStoreSize=" + maxStoreSize +
+                ", isReadAheadEnabled=" + isReadAheadEnabled +
+                ", isReaderBlockedByWriter=" + isReaderBlockedByWriter +
+                ", maxEntries=" + maxEntries +
+                '}';
+    }
+}
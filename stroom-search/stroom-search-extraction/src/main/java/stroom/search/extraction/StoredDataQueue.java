@@ -4,6 +4,7 @@ import stroom.query.api.v2.QueryKey;
 import stroom.query.common.v2.SearchProgressLog;
 import stroom.query.common.v2.SearchProgressLog.SearchPhase;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValuesConsumer;
 import stroom.util.concurrent.CompletableObjectQueue;
 
@@ -22,4 +23,12 @@ public class StoredDataQueue extends CompletableObjectQueue<Val[]> implements Va
         SearchProgressLog.increment(queryKey, SearchPhase.EXTRACTION_DECORATOR_FACTORY_STORED_DATA_QUEUE_PUT);
         put(values);
     }
+
+    @Override
+    public void accept(final ValBatch batch) {
+        SearchProgressLog.add(queryKey,
+                SearchPhase.EXTRACTION_DECORATOR_FACTORY_STORED_DATA_QUEUE_PUT,
+                batch.size());
+        putAll(batch.asList());
+    }
 }
@@ -0,0 +1,130 @@
+package stroom.search.extraction;
+
+import stroom.docref.DocRef;
+import stroom.lmdb.LmdbLibrary;
+import stroom.lmdb.LmdbLibraryConfig;
+import stroom.lmdb2.LmdbEnvDirFactory;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValLong;
+import stroom.query.language.functions.ValNull;
+import stroom.query.language.functions.ValString;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestExtractionResultCache {
+
+    private static final DocRef PIPELINE = new DocRef(PipelineDoc.DOCUMENT_TYPE, "pipeline-uuid", "pipeline");
+    private static final DocRef DATA_SOURCE = new DocRef("Index", "index-uuid", "index");
+
+    private ExtractionResultCache cache;
+    private FieldIndex fieldIndex;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        final PathCreator pathCreator = new SimplePathCreator(() -> tempDir, () -> tempDir);
+        final LmdbEnvDirFactory lmdbEnvDirFactory = new LmdbEnvDirFactory(
+                new LmdbLibrary(pathCreator, () -> tempDir, LmdbLibraryConfig::new), pathCreator);
+        final ExtractionResultCacheConfig resultCacheConfig = new ExtractionResultCacheConfig()
+                .withEnabled(true)
+                .withLocalDir(tempDir.resolve("cache").toString())
+                .withMaxEntries(4);
+        final ExtractionConfig extractionConfig = new ExtractionConfig(
+                1000,
+                5,
+                1000000,
+                100,
+                resultCacheConfig);
+        cache = new ExtractionResultCache(lmdbEnvDirFactory, pathCreator, () -> extractionConfig);
+
+        fieldIndex = new FieldIndex();
+        fieldIndex.create("Text");
+        fieldIndex.create("Number");
+    }
+
+    @Test
+    void testPutAndGet() {
+        final long key = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        cache.put(key, 1, Map.of(
+                1L, List.<Val[]>of(Val.of(ValString.create("a"), ValLong.create(1))),
+                3L, List.<Val[]>of(new Val[]{ValString.create("c"), null})));
+
+        final Val[][] values = cache.get(key, 1, new long[]{1, 2, 3});
+        assertThat(values[0]).containsExactly(ValString.create("a"), ValLong.create(1));
+        assertThat(values[1]).isNull();
+        assertThat(values[2]).containsExactly(ValString.create("c"), null);
+
+        // A different stream, pipeline version or field list shouldn't match.
+        assertThat(cache.get(key, 2, new long[]{1})[0]).isNull();
+        final long otherVersionKey = cache.createKey(PIPELINE, "2", DATA_SOURCE, fieldIndex);
+        assertThat(cache.get(otherVersionKey, 1, new long[]{1})[0]).isNull();
+        fieldIndex.create("Other");
+        final long otherFieldsKey = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        assertThat(cache.get(otherFieldsKey, 1, new long[]{1})[0]).isNull();
+    }
+
+    @Test
+    void testMultipleRecordsNotCached() {
+        final long key = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        cache.put(key, 1, Map.of(
+                1L, List.of(Val.of(ValNull.INSTANCE, ValNull.INSTANCE), Val.of(ValNull.INSTANCE, ValNull.INSTANCE)),
+                2L, List.<Val[]>of(Val.of(ValLong.create(2), ValNull.INSTANCE))));
+
+        // Only the event that produced a single record is cached.
+        final Val[][] values = cache.get(key, 1, new long[]{1, 2});
+        assertThat(values[0]).isNull();
+        assertThat(values[1]).containsExactly(ValLong.create(2), ValNull.INSTANCE);
+    }
+
+    @Test
+    void testEviction() {
+        final long key = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        // Max entries is 4 so each generation holds 2.
+        for (long eventId = 1; eventId <= 6; eventId++) {
+            cache.put(key, 1, Map.of(eventId, List.<Val[]>of(Val.of(ValLong.create(eventId)))));
+        }
+
+        final Val[][] values = cache.get(key, 1, new long[]{1, 2, 3, 4, 5, 6});
+        assertThat(values[0]).isNull();
+        assertThat(values[1]).isNull();
+        assertThat(values[2]).isNull();
+        assertThat(values[3]).isNull();
+        assertThat(values[4]).containsExactly(ValLong.create(5));
+        assertThat(values[5]).containsExactly(ValLong.create(6));
+    }
+
+    @Test
+    void testClearOnChange() {
+        final long key = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        cache.put(key, 1, Map.of(1L, List.<Val[]>of(Val.of(ValLong.create(1)))));
+        assertThat(cache.get(key, 1, new long[]{1})[0]).isNotNull();
+
+        cache.onChange(new EntityEvent(PIPELINE, EntityAction.UPDATE));
+        assertThat(cache.get(key, 1, new long[]{1})[0]).isNull();
+    }
+
+    @Test
+    void testPutAfterClear() {
+        // Values extracted before a clear but put after it must not be seen by later searches.
+        final long key = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        cache.clear();
+        cache.put(key, 1, Map.of(1L, List.<Val[]>of(Val.of(ValLong.create(1)))));
+
+        final long newKey = cache.createKey(PIPELINE, "1", DATA_SOURCE, fieldIndex);
+        assertThat(newKey).isNotEqualTo(key);
+        assertThat(cache.get(newKey, 1, new long[]{1})[0]).isNull();
+    }
+}
@@ -111,6 +111,7 @@ public class LuceneSearcher {
         final int threadCount = indexShardSearchConfig.getMaxThreadsPerTask();
         final CompletableFuture<Void>[] futures = new CompletableFuture[threadCount];
         final Executor executor = executorProvider.get(INDEX_SHARD_SEARCH_THREAD_POOL);
+        final AtomicInteger prunedShardCount = new AtomicInteger();
 
         if (!task.getShards().isEmpty()) {
 //            final IndexShardQueryFactory queryFactory = createIndexShardQueryFactory(
@@ -152,16 +153,26 @@ public class LuceneSearcher {
                                                                                 task.getDateTimeSettings(),
                                                                                 task.getKey()));
 
-                                                luceneShardSearcher.searchShard(
-                                                        taskContext,
-                                                        indexShard,
-                                                        storedFields,
-                                                        fieldsToLoad,
-                                                        hitCount,
-                                                        shardNo.incrementAndGet(),
-                                                        task.getShards().size(),
-                                                        storedDataQueue,
-                                                        errorConsumer);
+                                                // Skipped shards still count towards progress so it
+                                                // reaches the total number of shards.
+                                                final int currentShardNo = shardNo.incrementAndGet();
+                                                if (luceneShardSearcher.canMatch(indexShard)) {
+                                                    luceneShardSearcher.searchShard(
+                                                            taskContext,
+                                                            indexShard,
+                                                            storedFields,
+                                                            fieldsToLoad,
+                                                            hitCount,
+                                                            currentShardNo,
+                                                            task.getShards().size(),
+                                                            storedDataQueue,
+                                                            errorConsumer);
+                                                } else {
+                                                    prunedShardCount.incrementAndGet();
+                                                    taskContext.info(() -> "Skipped index shard " +
+                                                            currentShardNo + " of " + task.getShards().size() +
+                                                            " (shard id = " + shardId + ") as it cannot match");
+                                                }
                                             } else {
                                                 complete = true;
                                             }
@@ -182,6 +193,11 @@ public class LuceneSearcher {
                         taskContext -> {
                             taskContext.info(() -> "Complete stored data queue");
                             LOGGER.debug("Complete stored data queue");
+                            if (prunedShardCount.get() > 0) {
+                                LOGGER.info(() -> "Skipped " + prunedShardCount.get() + " of " +
+                                        task.getShards().size() + " index shards that could not match " +
+                                        task.getKey());
+                            }
                             storedDataQueue.complete();
                         }).run(), executor);
     }
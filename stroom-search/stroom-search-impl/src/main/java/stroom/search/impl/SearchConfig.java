@@ -24,6 +24,7 @@ public class SearchConfig extends AbstractConfig implements IsStroomConfig {
 
     private final int maxStoredDataQueueSize;
     private final int maxBooleanClauseCount;
+    private final boolean compiledRuleMatchingEnabled;
     private final ExtractionConfig extractionConfig;
     private final IndexShardSearchConfig shardConfig;
     private final SearchResultStoreConfig resultStoreConfig;
@@ -31,6 +32,7 @@ public class SearchConfig extends AbstractConfig implements IsStroomConfig {
     public SearchConfig() {
         maxStoredDataQueueSize = DEFAULT_MAX_STORED_DATA_QUEUE_SIZE;
         maxBooleanClauseCount = DEFAULT_MAX_BOOLEAN_CLAUSE_COUNT;
+        compiledRuleMatchingEnabled = false;
         extractionConfig = new ExtractionConfig();
         shardConfig = new IndexShardSearchConfig();
         resultStoreConfig = new SearchResultStoreConfig();
@@ -39,11 +41,13 @@ public class SearchConfig extends AbstractConfig implements IsStroomConfig {
     @JsonCreator
     public SearchConfig(@JsonProperty("maxStoredDataQueueSize") final int maxStoredDataQueueSize,
                         @JsonProperty("maxBooleanClauseCount") final int maxBooleanClauseCount,
+                        @JsonProperty("compiledRuleMatchingEnabled") final boolean compiledRuleMatchingEnabled,
                         @JsonProperty("extraction") final ExtractionConfig extractionConfig,
                         @JsonProperty("shard") final IndexShardSearchConfig shardConfig,
                         @JsonProperty("resultStore") final SearchResultStoreConfig resultStoreConfig) {
         this.maxStoredDataQueueSize = maxStoredDataQueueSize;
         this.maxBooleanClauseCount = maxBooleanClauseCount;
+        this.compiledRuleMatchingEnabled = compiledRuleMatchingEnabled;
         this.extractionConfig = extractionConfig;
         this.shardConfig = shardConfig;
         this.resultStoreConfig = resultStoreConfig;
@@ -60,6 +64,12 @@ public class SearchConfig extends AbstractConfig implements IsStroomConfig {
         return maxBooleanClauseCount;
     }
 
+    @JsonPropertyDescription("If true, events are matched against streaming analytic rules using a shared set of " +
+            "compiled rule predicates rather than building a Lucene memory index for every event and rule.")
+    public boolean isCompiledRuleMatchingEnabled() {
+        return compiledRuleMatchingEnabled;
+    }
+
     @JsonProperty("extraction")
     public ExtractionConfig getExtractionConfig() {
         return extractionConfig;
@@ -80,6 +90,7 @@ public class SearchConfig extends AbstractConfig implements IsStroomConfig {
         return "SearchConfig{" +
                 "maxStoredDataQueueSize=" + maxStoredDataQueueSize +
                 ", maxBooleanClauseCount=" + maxBooleanClauseCount +
+                ", compiledRuleMatchingEnabled=" + compiledRuleMatchingEnabled +
                 '}';
     }
 }
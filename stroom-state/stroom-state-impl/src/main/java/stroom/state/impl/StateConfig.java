@@ -1,5 +1,6 @@
 package stroom.state.impl;
 
+import stroom.query.common.v2.ResultStoreLmdbConfig;
 import stroom.util.cache.CacheConfig;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
@@ -7,7 +8,9 @@ import stroom.util.time.StroomDuration;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
 
 
 @JsonPropertyOrder(alphabetic = true)
@@ -16,6 +19,8 @@ public class StateConfig extends AbstractConfig implements IsStroomConfig {
     private final CacheConfig stateDocCache;
     private final CacheConfig scyllaDbDocCache;
     private final CacheConfig sessionCache;
+    private final ResultStoreLmdbConfig lmdbConfig;
+    private final int maxInFlightWrites;
 
     public StateConfig() {
         stateDocCache = CacheConfig.builder()
@@ -30,16 +35,22 @@ public class StateConfig extends AbstractConfig implements IsStroomConfig {
                 .maximumSize(10L)
                 .expireAfterAccess(StroomDuration.ofHours(1))
                 .build();
+        lmdbConfig = ResultStoreLmdbConfig.builder().localDir("lmdb/state").build();
+        maxInFlightWrites = 32;
     }
 
     @SuppressWarnings("unused")
     @JsonCreator
     public StateConfig(@JsonProperty("stateDocCache") final CacheConfig stateDocCache,
                        @JsonProperty("scyllaDbDocCache") final CacheConfig scyllaDbDocCache,
-                       @JsonProperty("sessionCache") final CacheConfig sessionCache) {
+                       @JsonProperty("sessionCache") final CacheConfig sessionCache,
+                       @JsonProperty("lmdb") final ResultStoreLmdbConfig lmdbConfig,
+                       @JsonProperty("maxInFlightWrites") final int maxInFlightWrites) {
         this.stateDocCache = stateDocCache;
         this.scyllaDbDocCache = scyllaDbDocCache;
         this.sessionCache = sessionCache;
+        this.lmdbConfig = lmdbConfig;
+        this.maxInFlightWrites = maxInFlightWrites;
     }
 
     public CacheConfig getStateDocCache() {
@@ -54,12 +65,28 @@ public class StateConfig extends AbstractConfig implements IsStroomConfig {
         return sessionCache;
     }
 
+    @JsonProperty("lmdb")
+    @JsonPropertyDescription("The local storage used by state stores that are set to use LMDB storage. " +
+            "Each state store gets its own sub directory.")
+    public ResultStoreLmdbConfig getLmdbConfig() {
+        return lmdbConfig;
+    }
+
+    @Min(1)
+    @JsonPropertyDescription("The maximum number of asynchronous batch writes that each pipeline can have in " +
+            "flight to ScyllaDB for a state store before it waits for some to complete.")
+    public int getMaxInFlightWrites() {
+        return maxInFlightWrites;
+    }
+
     @Override
     public String toString() {
         return "StateConfig{" +
                 "stateDocCache=" + stateDocCache +
                 ", scyllaDbDocCache=" + scyllaDbDocCache +
                 ", sessionCache=" + sessionCache +
+                ", lmdbConfig=" + lmdbConfig +
+                ", maxInFlightWrites=" + maxInFlightWrites +
                 '}';
     }
 }
@@ -27,7 +27,9 @@ import stroom.explorer.shared.DocumentTypeGroup;
 import stroom.importexport.shared.ImportSettings;
 import stroom.importexport.shared.ImportState;
 import stroom.security.api.SecurityContext;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 import stroom.state.shared.StateType;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
@@ -56,6 +58,7 @@ public class StateDocStoreImpl implements StateDocStore {
             StateDoc.ICON);
     private final Store<StateDoc> store;
     private final Provider<CqlSessionCache> cqlSessionCacheProvider;
+    private final Provider<LmdbStateDaoFactory> lmdbStateDaoFactoryProvider;
     private final SecurityContext securityContext;
 
     @Inject
@@ -63,9 +66,11 @@ public class StateDocStoreImpl implements StateDocStore {
             final StoreFactory storeFactory,
             final StateDocSerialiser serialiser,
             final Provider<CqlSessionCache> cqlSessionCacheProvider,
+            final Provider<LmdbStateDaoFactory> lmdbStateDaoFactoryProvider,
             final SecurityContext securityContext) {
         this.store = storeFactory.createStore(serialiser, StateDoc.DOCUMENT_TYPE, StateDoc.class);
         this.cqlSessionCacheProvider = cqlSessionCacheProvider;
+        this.lmdbStateDaoFactoryProvider = lmdbStateDaoFactoryProvider;
         this.securityContext = securityContext;
     }
 
@@ -196,13 +201,18 @@ public class StateDocStoreImpl implements StateDocStore {
 
     @Override
     public void deleteDocument(final String uuid) {
-        // Drop the associated ScyllaDB table before deleting the document.
+        // Drop the associated ScyllaDB table or LMDB store before deleting the document.
         final StateDoc doc = readDocument(new DocRef(StateDoc.DOCUMENT_TYPE, uuid));
         if (doc != null) {
             try {
-                final CqlSessionCache sessionCache = cqlSessionCacheProvider.get();
-                final CqlSession session = sessionCache.get(doc.getScyllaDbRef());
-                ScyllaDbUtil.dropTable(session, doc.getName());
+                if (StateStorageType.LMDB.equals(doc.getStorageType())) {
+                    // Other nodes delete their copy of the store when they receive the delete event.
+                    lmdbStateDaoFactoryProvider.get().delete(doc);
+                } else {
+                    final CqlSessionCache sessionCache = cqlSessionCacheProvider.get();
+                    final CqlSession session = sessionCache.get(doc.getScyllaDbRef());
+                    ScyllaDbUtil.dropTable(session, doc.getName());
+                }
             } catch (final RuntimeException e) {
                 LOGGER.error(e::getMessage, e);
             }
@@ -2,21 +2,18 @@ package stroom.state.impl;
 
 import stroom.docref.DocRef;
 import stroom.security.api.SecurityContext;
-import stroom.state.impl.dao.AbstractStateDao;
 import stroom.state.impl.dao.DaoFactory;
-import stroom.state.impl.dao.SessionDao;
-import stroom.state.impl.dao.TemporalRangedStateDao;
-import stroom.state.impl.dao.TemporalStateDao;
+import stroom.state.impl.dao.StateStoreDao;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 import stroom.task.api.TaskContextFactory;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.time.SimpleDuration;
 import stroom.util.time.SimpleDurationUtil;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import jakarta.inject.Inject;
-import jakarta.inject.Provider;
 
 import java.time.Instant;
 import java.util.List;
@@ -31,16 +28,19 @@ public class StateMaintenanceExecutor {
     private final SecurityContext securityContext;
     private final TaskContextFactory taskContextFactory;
     private final CqlSessionFactory cqlSessionFactory;
+    private final LmdbStateDaoFactory lmdbStateDaoFactory;
 
     @Inject
     public StateMaintenanceExecutor(final StateDocStoreImpl stateDocStore,
                                     final SecurityContext securityContext,
                                     final TaskContextFactory taskContextFactory,
-                                    final CqlSessionFactory cqlSessionFactory) {
+                                    final CqlSessionFactory cqlSessionFactory,
+                                    final LmdbStateDaoFactory lmdbStateDaoFactory) {
         this.stateDocStore = stateDocStore;
         this.securityContext = securityContext;
         this.taskContextFactory = taskContextFactory;
         this.cqlSessionFactory = cqlSessionFactory;
+        this.lmdbStateDaoFactory = lmdbStateDaoFactory;
     }
 
     public void exec() {
@@ -51,9 +51,8 @@ public class StateMaintenanceExecutor {
                 for (final DocRef docRef : list) {
                     try {
                         final StateDoc doc = stateDocStore.readDocument(docRef);
-                        final Provider<CqlSession> cqlSessionProvider =
-                                cqlSessionFactory.getSessionProvider(doc.getScyllaDbRef());
                         final String tableName = doc.getName();
+                        final StateStoreDao<?> stateDao = createDao(doc);
                         if (doc.isCondense()) {
                             taskContext.info(() -> "Condensing " + tableName);
                             final SimpleDuration duration = SimpleDuration
@@ -62,14 +61,7 @@ public class StateMaintenanceExecutor {
                                     .timeUnit(doc.getCondenseTimeUnit())
                                     .build();
                             final Instant oldest = SimpleDurationUtil.minus(Instant.now(), duration);
-                            switch (doc.getStateType()) {
-                                case TEMPORAL_STATE -> new TemporalStateDao(cqlSessionProvider, tableName)
-                                        .condense(oldest);
-                                case TEMPORAL_RANGED_STATE -> new TemporalRangedStateDao(cqlSessionProvider, tableName)
-                                        .condense(oldest);
-                                case SESSION -> new SessionDao(cqlSessionProvider, tableName)
-                                        .condense(oldest);
-                            }
+                            stateDao.condense(oldest);
                         }
 
                         if (!doc.isRetainForever()) {
@@ -80,8 +72,6 @@ public class StateMaintenanceExecutor {
                                     .timeUnit(doc.getRetainTimeUnit())
                                     .build();
                             final Instant oldest = SimpleDurationUtil.minus(Instant.now(), duration);
-                            final AbstractStateDao<?> stateDao =
-                                    DaoFactory.create(cqlSessionProvider, doc.getStateType(), tableName);
                             stateDao.removeOldData(oldest);
                         }
                     } catch (final Exception e) {
@@ -91,4 +81,14 @@ public class StateMaintenanceExecutor {
             });
         });
     }
+
+    private StateStoreDao<?> createDao(final StateDoc doc) {
+        if (StateStorageType.LMDB.equals(doc.getStorageType())) {
+            return lmdbStateDaoFactory.create(doc);
+        }
+        return DaoFactory.create(
+                cqlSessionFactory.getSessionProvider(doc.getScyllaDbRef()),
+                doc.getStateType(),
+                doc.getName());
+    }
 }
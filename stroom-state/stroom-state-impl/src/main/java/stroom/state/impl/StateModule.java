@@ -23,10 +23,12 @@ import stroom.docstore.api.DocumentActionHandlerBinder;
 import stroom.explorer.api.ExplorerActionHandler;
 import stroom.importexport.api.ImportExportActionHandler;
 import stroom.job.api.ScheduledJobsBinder;
+import stroom.lifecycle.api.LifecycleBinder;
 import stroom.pipeline.xsltfunctions.StateLookup;
 import stroom.query.common.v2.IndexFieldProvider;
 import stroom.query.common.v2.SearchProvider;
 import stroom.query.language.functions.StateProvider;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.impl.pipeline.StateElementModule;
 import stroom.state.impl.pipeline.StateLookupImpl;
 import stroom.state.impl.pipeline.StateProviderImpl;
@@ -58,7 +60,8 @@ public class StateModule extends AbstractModule {
 
         GuiceUtil.buildMultiBinder(binder(), EntityEvent.Handler.class)
                 .addBinding(ScyllaDbDocCacheImpl.class)
-                .addBinding(StateDocCacheImpl.class);
+                .addBinding(StateDocCacheImpl.class)
+                .addBinding(LmdbStateDaoFactory.class);
 
         GuiceUtil.buildMultiBinder(binder(), Clearable.class)
                 .addBinding(ScyllaDbDocCacheImpl.class)
@@ -110,6 +113,9 @@ public class StateModule extends AbstractModule {
                         .description("State store maintenance")
                         .cronSchedule("0 0 0 * * ?")
                         .advanced(true));
+
+        LifecycleBinder.create(binder())
+                .bindShutdownTaskTo(LmdbStateDaoFactoryShutdown.class);
     }
 
     private static class StateMaintenanceRunnable extends RunnableWrapper {
@@ -120,4 +126,13 @@ public class StateModule extends AbstractModule {
             super(() -> clusterLockService.tryLock(StateMaintenanceExecutor.TASK_NAME, condenserExecutor::exec));
         }
     }
+
+
+    private static class LmdbStateDaoFactoryShutdown extends RunnableWrapper {
+
+        @Inject
+        LmdbStateDaoFactoryShutdown(final LmdbStateDaoFactory lmdbStateDaoFactory) {
+            super(lmdbStateDaoFactory::shutdown);
+        }
+    }
 }
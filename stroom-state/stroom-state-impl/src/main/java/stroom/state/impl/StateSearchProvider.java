@@ -22,7 +22,10 @@ import stroom.query.common.v2.SearchProcess;
 import stroom.query.common.v2.SearchProvider;
 import stroom.state.impl.dao.DaoFactory;
 import stroom.state.impl.dao.StateFieldUtil;
+import stroom.state.impl.dao.StateStoreDao;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 import stroom.task.api.TaskContextFactory;
 import stroom.task.api.TaskManager;
 import stroom.task.shared.TaskProgress;
@@ -32,9 +35,7 @@ import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
 import stroom.util.shared.ResultPage;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import jakarta.inject.Inject;
-import jakarta.inject.Provider;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -56,6 +57,7 @@ public class StateSearchProvider implements SearchProvider, IndexFieldProvider {
     private final StateDocStore stateDocStore;
     private final StateDocCache stateDocCache;
     private final CqlSessionFactory cqlSessionFactory;
+    private final LmdbStateDaoFactory lmdbStateDaoFactory;
     private final CoprocessorsFactory coprocessorsFactory;
     private final ResultStoreFactory resultStoreFactory;
     private final TaskManager taskManager;
@@ -66,6 +68,7 @@ public class StateSearchProvider implements SearchProvider, IndexFieldProvider {
                                final StateDocStore stateDocStore,
                                final StateDocCache stateDocCache,
                                final CqlSessionFactory cqlSessionFactory,
+                               final LmdbStateDaoFactory lmdbStateDaoFactory,
                                final CoprocessorsFactory coprocessorsFactory,
                                final ResultStoreFactory resultStoreFactory,
                                final TaskManager taskManager,
@@ -74,6 +77,7 @@ public class StateSearchProvider implements SearchProvider, IndexFieldProvider {
         this.stateDocStore = stateDocStore;
         this.stateDocCache = stateDocCache;
         this.cqlSessionFactory = cqlSessionFactory;
+        this.lmdbStateDaoFactory = lmdbStateDaoFactory;
         this.coprocessorsFactory = coprocessorsFactory;
         this.resultStoreFactory = resultStoreFactory;
         this.taskManager = taskManager;
@@ -133,7 +137,12 @@ public class StateSearchProvider implements SearchProvider, IndexFieldProvider {
         // Check we have permission to read the doc.
         final StateDoc doc = stateDocCache.get(docRef.getName());
         Objects.requireNonNull(doc, "Unable to find state doc with name: " + docRef.getName());
-        final Provider<CqlSession> sessionProvider = cqlSessionFactory.getSessionProvider(doc.getScyllaDbRef());
+        final StateStoreDao<?> stateDao = StateStorageType.LMDB.equals(doc.getStorageType())
+                ? lmdbStateDaoFactory.create(doc)
+                : DaoFactory.create(
+                        cqlSessionFactory.getSessionProvider(doc.getScyllaDbRef()),
+                        doc.getStateType(),
+                        doc.getName());
 
         // Extract highlights.
         final Set<String> highlights = Collections.emptySet();
@@ -205,7 +214,7 @@ public class StateSearchProvider implements SearchProvider, IndexFieldProvider {
 
                 final Instant queryStart = Instant.now();
                 try {
-                    DaoFactory.create(sessionProvider, doc.getStateType(), doc.getName()).search(
+                    stateDao.search(
                             criteria,
                             coprocessors.getFieldIndex(),
                             searchRequest.getDateTimeSettings(),
@@ -23,7 +23,7 @@ import java.util.function.Function;
 import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.selectFrom;
 import static com.datastax.oss.driver.api.querybuilder.SchemaBuilder.dropTable;
 
-public abstract class AbstractStateDao<T> {
+public abstract class AbstractStateDao<T> implements StateStoreDao<T> {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(AbstractStateDao.class);
 
@@ -31,6 +31,7 @@ public abstract class AbstractStateDao<T> {
 
     final Provider<CqlSession> sessionProvider;
     final CqlIdentifier table;
+    private int maxInFlightWrites = BatchStatementExecutor.DEFAULT_MAX_IN_FLIGHT;
 
     public AbstractStateDao(final Provider<CqlSession> sessionProvider,
                             final CqlIdentifier table) {
@@ -47,6 +48,18 @@ public abstract class AbstractStateDao<T> {
         sessionProvider.get().execute(statement);
     }
 
+    /**
+     * Set the maximum number of asynchronous writes that this DAO will have in flight at once when writing
+     * batches of rows.
+     */
+    public void setMaxInFlightWrites(final int maxInFlightWrites) {
+        this.maxInFlightWrites = maxInFlightWrites;
+    }
+
+    BatchStatementExecutor createBatchStatementExecutor() {
+        return new BatchStatementExecutor(sessionProvider, maxInFlightWrites);
+    }
+
     public abstract void insert(List<T> rows);
 
     public abstract void delete(List<T> rows);
@@ -58,7 +71,7 @@ public abstract class AbstractStateDao<T> {
 
         final PreparedStatement preparedStatement = sessionProvider.get().prepare(deleteStatement);
 
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final T row : rows) {
                 final Object[] values = valuesFunction.apply(row);
                 executor.addStatement(preparedStatement.bind(values));
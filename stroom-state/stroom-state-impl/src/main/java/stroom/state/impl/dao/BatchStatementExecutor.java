@@ -1,40 +1,150 @@
 package stroom.state.impl.dao;
 
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
 import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BatchType;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
 import jakarta.inject.Provider;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes statements to ScyllaDB asynchronously so that the caller can carry on adding statements while earlier
+ * writes are in flight.
+ * <p>
+ * Statements are grouped by routing key so that each write only touches a single partition and the driver can
+ * send it straight to a replica that owns it. Statements without a routing key are grouped together. No more
+ * than the maximum number of writes are allowed in flight at once, beyond that {@link #addStatement} blocks
+ * until a write completes.
+ * <p>
+ * {@link #close()} waits for all writes to complete and throws if any of them failed. Statements may reference
+ * buffers owned by the caller so the caller must not reuse them until the executor is closed.
+ */
 public class BatchStatementExecutor implements AutoCloseable {
 
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(BatchStatementExecutor.class);
+
     public static final int MAX_BATCH_STATEMENTS = 65535;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 32;
+
+    // The number of statements to group before sending them.
+    static final int MAX_PENDING_STATEMENTS = 1000;
+    private static final ByteBuffer NO_ROUTING_KEY = ByteBuffer.allocate(0);
 
     private final Provider<CqlSession> sessionProvider;
-    private final BatchStatementBuilder builder = new BatchStatementBuilder(BatchType.UNLOGGED);
-    private int statementCount;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Map<ByteBuffer, List<BatchableStatement<?>>> pending = new LinkedHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private int pendingCount;
 
     public BatchStatementExecutor(final Provider<CqlSession> sessionProvider) {
+        this(sessionProvider, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public BatchStatementExecutor(final Provider<CqlSession> sessionProvider,
+                                  final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in flight must be at least 1");
+        }
         this.sessionProvider = sessionProvider;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
     }
 
     public void addStatement(final BatchableStatement<?> statement) {
-        builder.addStatement(statement);
-        statementCount++;
+        checkFailure();
+
+        final ByteBuffer routingKey = statement.getRoutingKey();
+        final List<BatchableStatement<?>> statements = pending.computeIfAbsent(
+                routingKey == null
+                        ? NO_ROUTING_KEY
+                        : routingKey,
+                k -> new ArrayList<>());
+        statements.add(statement);
+        pendingCount++;
+
+        if (statements.size() >= MAX_BATCH_STATEMENTS || pendingCount >= MAX_PENDING_STATEMENTS) {
+            sendPending();
+        }
+    }
+
+    private void sendPending() {
+        // Remove each group before sending it so that if a send fails the groups already sent are not sent
+        // again by a later call.
+        final Iterator<List<BatchableStatement<?>>> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            final List<BatchableStatement<?>> statements = iterator.next();
+            iterator.remove();
+            pendingCount -= statements.size();
+            send(statements);
+        }
+    }
+
+    private void send(final List<BatchableStatement<?>> statements) {
+        final Statement<?> statement = statements.size() == 1
+                ? statements.getFirst()
+                : BatchStatement.newInstance(BatchType.UNLOGGED, statements);
+
+        // Wait for a slot so that we don't get too far ahead of the cluster.
+        try {
+            inFlight.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedInterruptedException(e);
+        }
+
+        try {
+            sessionProvider.get()
+                    .executeAsync(statement)
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            LOGGER.debug(throwable::getMessage, throwable);
+                            failure.compareAndSet(null, throwable);
+                        }
+                        inFlight.release();
+                    });
+        } catch (final RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
 
-        if (statementCount >= MAX_BATCH_STATEMENTS) {
-            sessionProvider.get().execute(builder.build());
-            builder.clearStatements();
-            statementCount = 0;
+    private void checkFailure() {
+        final Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw new RuntimeException("Error writing to ScyllaDB: " + throwable.getMessage(), throwable);
         }
     }
 
     @Override
     public void close() {
-        if (statementCount > 0) {
-            sessionProvider.get().execute(builder.build());
-            builder.clearStatements();
-            statementCount = 0;
+        try {
+            if (pendingCount > 0) {
+                sendPending();
+            }
+        } finally {
+            // Wait for everything in flight to complete.
+            try {
+                inFlight.acquire(maxInFlight);
+                inFlight.release(maxInFlight);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedInterruptedException(e);
+            }
         }
+        checkFailure();
     }
 }
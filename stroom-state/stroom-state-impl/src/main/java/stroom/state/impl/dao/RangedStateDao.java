@@ -87,7 +87,7 @@ public class RangedStateDao extends AbstractStateDao<RangedState> {
                 .usingTimeout(TEN_SECONDS)
                 .build();
         final PreparedStatement preparedStatement = prepare(statement);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final RangedState state : states) {
                 executor.addStatement(preparedStatement.bind(
                         state.keyStart(),
@@ -159,7 +159,7 @@ public class RangedStateDao extends AbstractStateDao<RangedState> {
                 .whereColumn(COLUMN_KEY_END).isEqualTo(bindMarker())
                 .build();
         final PreparedStatement preparedStatement = sessionProvider.get().prepare(delete);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final Row row : sessionProvider.get().execute(select)) {
                 executor.addStatement(preparedStatement.bind(row.getLong(0), row.getLong(1)));
             }
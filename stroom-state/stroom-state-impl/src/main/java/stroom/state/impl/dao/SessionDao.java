@@ -94,7 +94,7 @@ public class SessionDao extends AbstractStateDao<Session> {
                 .usingTimeout(TEN_SECONDS)
                 .build();
         final PreparedStatement preparedStatement = prepare(statement);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final Session session : sessions) {
                 Objects.requireNonNull(session.key());
                 Objects.requireNonNull(session.start());
@@ -232,7 +232,7 @@ public class SessionDao extends AbstractStateDao<Session> {
 
     @Override
     public void removeOldData(final Instant oldest) {
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             findKeys(Collections.emptyList(), key -> {
                 final SimpleStatement statement = deleteFrom(table)
                         .whereColumn(COLUMN_KEY).isEqualTo(literal(key))
@@ -82,7 +82,7 @@ public class StateDao extends AbstractStateDao<State> {
                 .usingTimeout(TEN_SECONDS)
                 .build();
         final PreparedStatement preparedStatement = prepare(statement);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final State state : states) {
                 executor.addStatement(preparedStatement.bind(
                         state.key(),
@@ -146,7 +146,7 @@ public class StateDao extends AbstractStateDao<State> {
                 .whereColumn(COLUMN_KEY).isEqualTo(bindMarker())
                 .build();
         final PreparedStatement preparedStatement = sessionProvider.get().prepare(delete);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final Row row : sessionProvider.get().execute(select)) {
                 executor.addStatement(preparedStatement.bind(row.getString(0)));
             }
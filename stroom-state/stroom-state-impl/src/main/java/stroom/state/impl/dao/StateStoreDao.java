@@ -0,0 +1,30 @@
+package stroom.state.impl.dao;
+
+import stroom.entity.shared.ExpressionCriteria;
+import stroom.expression.api.DateTimeSettings;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.ValuesConsumer;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The operations that every state DAO supports regardless of where the state is stored.
+ */
+public interface StateStoreDao<T> {
+
+    void insert(List<T> rows);
+
+    void delete(List<T> rows);
+
+    void search(ExpressionCriteria criteria,
+                FieldIndex fieldIndex,
+                DateTimeSettings dateTimeSettings,
+                ValuesConsumer valuesConsumer);
+
+    long count();
+
+    void condense(Instant oldest);
+
+    void removeOldData(Instant oldest);
+}
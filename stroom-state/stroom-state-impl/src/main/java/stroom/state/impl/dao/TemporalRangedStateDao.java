@@ -90,7 +90,7 @@ public class TemporalRangedStateDao extends AbstractStateDao<TemporalRangedState
                 .usingTimeout(TEN_SECONDS)
                 .build();
         final PreparedStatement preparedStatement = prepare(statement);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final TemporalRangedState state : states) {
                 executor.addStatement(preparedStatement.bind(
                         state.keyStart(),
@@ -189,7 +189,7 @@ public class TemporalRangedStateDao extends AbstractStateDao<TemporalRangedState
 
             Byte lastTypeId = null;
             String lastValue = null;
-            try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+            try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
                 for (final Row row : sessionProvider.get().execute(select)) {
                     final Instant effectiveTime = row.getInstant(0);
                     final byte typeId = row.getByte(1);
@@ -225,7 +225,7 @@ public class TemporalRangedStateDao extends AbstractStateDao<TemporalRangedState
                 .whereColumn(COLUMN_EFFECTIVE_TIME).isEqualTo(bindMarker())
                 .build();
         final PreparedStatement preparedStatement = sessionProvider.get().prepare(delete);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final Row row : sessionProvider.get().execute(select)) {
                 executor.addStatement(preparedStatement.bind(row.getLong(0), row.getLong(1), row.getInstant(2)));
             }
@@ -91,7 +91,7 @@ public class TemporalStateDao extends AbstractStateDao<TemporalState> {
                 .usingTimeout(TEN_SECONDS)
                 .build();
         final PreparedStatement preparedStatement = prepare(statement);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final TemporalState state : states) {
                 executor.addStatement(preparedStatement.bind(
                         state.key(),
@@ -182,7 +182,7 @@ public class TemporalStateDao extends AbstractStateDao<TemporalState> {
 
             Byte lastTypeId = null;
             String lastValue = null;
-            try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+            try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
                 for (final Row row : sessionProvider.get().execute(select)) {
                     final Instant effectiveTime = row.getInstant(0);
                     final byte typeId = row.getByte(1);
@@ -216,7 +216,7 @@ public class TemporalStateDao extends AbstractStateDao<TemporalState> {
                 .whereColumn(COLUMN_EFFECTIVE_TIME).isEqualTo(bindMarker())
                 .build();
         final PreparedStatement preparedStatement = sessionProvider.get().prepare(delete);
-        try (final BatchStatementExecutor executor = new BatchStatementExecutor(sessionProvider)) {
+        try (final BatchStatementExecutor executor = createBatchStatementExecutor()) {
             for (final Row row : sessionProvider.get().execute(select)) {
                 executor.addStatement(preparedStatement.bind(row.getString(0), row.getInstant(1)));
             }
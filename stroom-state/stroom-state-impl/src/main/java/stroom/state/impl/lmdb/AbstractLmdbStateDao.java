@@ -0,0 +1,355 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactory;
+import stroom.datasource.api.v2.FieldType;
+import stroom.datasource.api.v2.QueryField;
+import stroom.entity.shared.ExpressionCriteria;
+import stroom.expression.api.DateTimeSettings;
+import stroom.expression.matcher.ExpressionMatcher;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.lmdb2.LmdbDb;
+import stroom.query.api.v2.ExpressionOperator;
+import stroom.query.api.v2.ExpressionUtil;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValNull;
+import stroom.query.language.functions.ValuesConsumer;
+import stroom.state.impl.dao.StateStoreDao;
+import stroom.state.shared.StateType;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import org.lmdbjava.KeyVal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Base class for state DAOs that keep state in a node local LMDB database.
+ * <p>
+ * Every value is stored as the value type id followed by the insert time and then the value bytes. Keys are
+ * laid out by each implementation so that lookups are a cursor seek rather than a scan. Numbers and times in keys
+ * are stored big endian with the sign bit flipped so that they sort in numeric order.
+ */
+abstract class AbstractLmdbStateDao<T> implements StateStoreDao<T> {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(AbstractLmdbStateDao.class);
+
+    // The default maximum key size for LMDB.
+    static final int MAX_KEY_LENGTH = 511;
+    private static final int VALUE_HEADER_LENGTH = Byte.BYTES + Long.BYTES;
+    private static final int DELETE_BATCH_SIZE = 1_000;
+
+    final LmdbStateStore store;
+    final LmdbDb db;
+    final ByteBufferFactory byteBufferFactory;
+    private final ExpressionMatcherFactory expressionMatcherFactory;
+    private final Map<String, QueryField> fieldMap;
+    private final Map<String, Function<Row<T>, Val>> valueFunctionMap;
+
+    AbstractLmdbStateDao(final LmdbStateStore store,
+                         final StateType stateType,
+                         final ByteBufferFactory byteBufferFactory,
+                         final ExpressionMatcherFactory expressionMatcherFactory,
+                         final Map<String, QueryField> fieldMap,
+                         final Map<String, Function<Row<T>, Val>> valueFunctionMap) {
+        this.store = store;
+        this.db = store.getDb(stateType);
+        this.byteBufferFactory = byteBufferFactory;
+        this.expressionMatcherFactory = expressionMatcherFactory;
+        this.fieldMap = fieldMap;
+        this.valueFunctionMap = valueFunctionMap;
+    }
+
+    /**
+     * @return A key buffer acquired from the {@link ByteBufferFactory} and ready to read.
+     */
+    abstract ByteBuffer createKey(T row);
+
+    abstract byte getTypeId(T row);
+
+    abstract ByteBuffer getValue(T row);
+
+    /**
+     * Create a row from a key and a copy of the value bytes.
+     */
+    abstract T createRow(ByteBuffer key, byte typeId, ByteBuffer value);
+
+    @Override
+    public void insert(final List<T> rows) {
+        Objects.requireNonNull(rows, "Null rows list");
+        final long insertTimeMs = System.currentTimeMillis();
+        store.write(writeTxn -> {
+            for (final T row : rows) {
+                final ByteBuffer key = createKey(row);
+                final ByteBuffer value = createValue(getTypeId(row), getValue(row), insertTimeMs);
+                try {
+                    db.put(writeTxn, key, value);
+                } finally {
+                    byteBufferFactory.release(key);
+                    byteBufferFactory.release(value);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void delete(final List<T> rows) {
+        Objects.requireNonNull(rows, "Null rows list");
+        store.write(writeTxn -> {
+            for (final T row : rows) {
+                final ByteBuffer key = createKey(row);
+                try {
+                    db.delete(writeTxn, key);
+                } finally {
+                    byteBufferFactory.release(key);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void search(final ExpressionCriteria criteria,
+                       final FieldIndex fieldIndex,
+                       final DateTimeSettings dateTimeSettings,
+                       final ValuesConsumer consumer) {
+        final String[] fieldNames = fieldIndex.getFields();
+        final List<Function<Row<T>, Val>> valueFunctions = new ArrayList<>(fieldNames.length);
+        for (final String fieldName : fieldNames) {
+            valueFunctions.add(valueFunctionMap.getOrDefault(fieldName, row -> ValNull.INSTANCE));
+        }
+        final Predicate<Row<T>> predicate = createPredicate(criteria.getExpression(), dateTimeSettings);
+
+        store.read(readTxn -> {
+            db.iterate(readTxn, cursorIterable -> {
+                for (final KeyVal<ByteBuffer> kv : cursorIterable) {
+                    final Row<T> row = readRow(kv);
+                    if (predicate.test(row)) {
+                        final Val[] values = new Val[valueFunctions.size()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = valueFunctions.get(i).apply(row);
+                        }
+                        consumer.accept(Val.of(values));
+                    }
+                }
+            });
+            return null;
+        });
+    }
+
+    private Predicate<Row<T>> createPredicate(final ExpressionOperator expression,
+                                              final DateTimeSettings dateTimeSettings) {
+        if (expression == null || !expression.enabled() || !expression.hasEnabledChildren()) {
+            return row -> true;
+        }
+
+        // Only convert the fields that the expression uses as converting values can be expensive.
+        final ExpressionMatcher expressionMatcher = expressionMatcherFactory.create(fieldMap, dateTimeSettings);
+        final Set<String> expressionFields = new HashSet<>(ExpressionUtil.fields(expression));
+        return row -> {
+            final Map<String, Object> attributeMap = new HashMap<>();
+            for (final String fieldName : expressionFields) {
+                final Function<Row<T>, Val> valueFunction = valueFunctionMap.get(fieldName);
+                final QueryField field = fieldMap.get(fieldName);
+                if (valueFunction != null && field != null) {
+                    final Object attribute = toAttribute(field, valueFunction.apply(row));
+                    if (attribute != null) {
+                        attributeMap.put(fieldName, attribute);
+                    }
+                }
+            }
+            return expressionMatcher.match(attributeMap, expression);
+        };
+    }
+
+    private static Object toAttribute(final QueryField field, final Val val) {
+        if (val == null || val.type().isNull()) {
+            return null;
+        } else if (field.isNumeric() || FieldType.DATE.equals(field.getFldType())) {
+            return val.toLong();
+        }
+        return val.toString();
+    }
+
+    @Override
+    public long count() {
+        return store.read(db::count);
+    }
+
+    @Override
+    public void condense(final Instant oldest) {
+        // Not all implementations condense data.
+    }
+
+    @Override
+    public void removeOldData(final Instant oldest) {
+        deleteWhere(kv -> getInsertTime(kv.val()).isBefore(oldest));
+    }
+
+    /**
+     * Condense keys that end with an effective time. Later entries for the same leading key that have the same
+     * value as the entry before them and are no newer than the oldest time are removed.
+     */
+    void condenseTemporal(final Instant oldest) {
+        final long oldestMs = oldest.toEpochMilli();
+        final List<byte[]> keys = store.read(readTxn -> {
+            final List<byte[]> list = new ArrayList<>();
+            db.iterate(readTxn, cursorIterable -> {
+                ByteBuffer lastPrefix = null;
+                ByteBuffer lastValue = null;
+                for (final KeyVal<ByteBuffer> kv : cursorIterable) {
+                    final ByteBuffer key = kv.key();
+                    final int prefixLength = key.limit() - Long.BYTES;
+                    if (getSortableLong(key, prefixLength) <= oldestMs) {
+                        final ByteBuffer prefix = key.slice(0, prefixLength);
+                        if (prefix.equals(lastPrefix) && isSameValue(lastValue, kv.val())) {
+                            list.add(toBytes(key));
+                        }
+                        // LMDB reuses the buffers as the cursor moves so keep copies.
+                        lastPrefix = ByteBuffer.wrap(toBytes(prefix));
+                        lastValue = ByteBuffer.wrap(toBytes(kv.val()));
+                    }
+                }
+            });
+            return list;
+        });
+        deleteKeys(keys);
+    }
+
+    /**
+     * Remove data from keys that end with an effective time that is before the oldest time.
+     */
+    void removeOldTemporalData(final Instant oldest) {
+        final long oldestMs = oldest.toEpochMilli();
+        deleteWhere(kv -> getSortableLong(kv.key(), kv.key().limit() - Long.BYTES) < oldestMs);
+    }
+
+    /**
+     * Delete every entry that the predicate matches. Keys are found with a read transaction first as LMDB
+     * cursors can't be relied on while the same database is being changed.
+     */
+    void deleteWhere(final Predicate<KeyVal<ByteBuffer>> predicate) {
+        final List<byte[]> keys = store.read(readTxn -> {
+            final List<byte[]> list = new ArrayList<>();
+            db.iterate(readTxn, cursorIterable -> {
+                for (final KeyVal<ByteBuffer> kv : cursorIterable) {
+                    if (predicate.test(kv)) {
+                        list.add(toBytes(kv.key()));
+                    }
+                }
+            });
+            return list;
+        });
+        deleteKeys(keys);
+    }
+
+    void deleteKeys(final List<byte[]> keys) {
+        LOGGER.debug(() -> "Deleting " + keys.size() + " entries");
+        for (int i = 0; i < keys.size(); i += DELETE_BATCH_SIZE) {
+            final List<byte[]> batch = keys.subList(i, Math.min(keys.size(), i + DELETE_BATCH_SIZE));
+            store.write(writeTxn -> {
+                for (final byte[] bytes : batch) {
+                    final ByteBuffer key = byteBufferFactory.acquire(bytes.length);
+                    try {
+                        key.put(bytes);
+                        key.flip();
+                        db.delete(writeTxn, key);
+                    } finally {
+                        byteBufferFactory.release(key);
+                    }
+                }
+            });
+        }
+        store.flush();
+    }
+
+    Row<T> readRow(final KeyVal<ByteBuffer> kv) {
+        return readRow(kv.key(), kv.val());
+    }
+
+    Row<T> readRow(final ByteBuffer key, final ByteBuffer value) {
+        final byte typeId = value.get(0);
+        final Instant insertTime = getInsertTime(value);
+        // Copy the value as LMDB buffers are only valid within the transaction.
+        final ByteBuffer valueCopy = ByteBuffer.wrap(toBytes(value.slice(
+                VALUE_HEADER_LENGTH,
+                value.limit() - VALUE_HEADER_LENGTH)));
+        return new Row<>(createRow(key, typeId, valueCopy), insertTime);
+    }
+
+    /**
+     * @return True if the two LMDB values have the same type and value bytes, ignoring the insert time.
+     */
+    static boolean isSameValue(final ByteBuffer value1, final ByteBuffer value2) {
+        return value1.get(0) == value2.get(0) &&
+                value1.slice(VALUE_HEADER_LENGTH, value1.limit() - VALUE_HEADER_LENGTH)
+                        .equals(value2.slice(VALUE_HEADER_LENGTH, value2.limit() - VALUE_HEADER_LENGTH));
+    }
+
+    private static Instant getInsertTime(final ByteBuffer value) {
+        return Instant.ofEpochMilli(value.getLong(Byte.BYTES));
+    }
+
+    private ByteBuffer createValue(final byte typeId, final ByteBuffer value, final long insertTimeMs) {
+        final ByteBuffer source = value.duplicate();
+        final ByteBuffer byteBuffer = byteBufferFactory.acquire(VALUE_HEADER_LENGTH + source.remaining());
+        byteBuffer.put(typeId);
+        byteBuffer.putLong(insertTimeMs);
+        byteBuffer.put(source);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    ByteBuffer acquireKey(final int length) {
+        if (length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key length " + length +
+                    " exceeds the maximum LMDB key length of " + MAX_KEY_LENGTH);
+        }
+        return byteBufferFactory.acquire(length);
+    }
+
+    static byte[] toBytes(final ByteBuffer byteBuffer) {
+        final byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    static byte[] toBytes(final String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String toString(final ByteBuffer byteBuffer, final int index, final int length) {
+        final byte[] bytes = new byte[length];
+        byteBuffer.get(index, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Flip the sign bit so that negative numbers sort before positive ones when compared as unsigned bytes.
+     */
+    static void putSortableLong(final ByteBuffer byteBuffer, final long value) {
+        byteBuffer.putLong(value ^ Long.MIN_VALUE);
+    }
+
+    static long getSortableLong(final ByteBuffer byteBuffer, final int index) {
+        return byteBuffer.getLong(index) ^ Long.MIN_VALUE;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    record Row<T>(T row, Instant insertTime) {
+
+    }
+}
@@ -0,0 +1,102 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactory;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValLong;
+import stroom.state.impl.dao.RangedState;
+import stroom.state.impl.dao.RangedStateFields;
+import stroom.state.impl.dao.RangedStateRequest;
+import stroom.state.impl.dao.State;
+import stroom.state.impl.dao.ValUtil;
+import stroom.state.shared.StateType;
+
+import org.lmdbjava.KeyRange;
+import org.lmdbjava.KeyVal;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keys are the range start followed by the range end. The range that contains a key is found by seeking backwards
+ * from the key to the range with the highest start at or before it. Ranges are expected not to overlap.
+ */
+public class LmdbRangedStateDao extends AbstractLmdbStateDao<RangedState> {
+
+    private static final int KEY_LENGTH = Long.BYTES + Long.BYTES;
+
+    private static final Map<String, Function<Row<RangedState>, Val>> VALUE_FUNCTION_MAP = Map.of(
+            RangedStateFields.KEY_START, row -> ValLong.create(row.row().keyStart()),
+            RangedStateFields.KEY_END, row -> ValLong.create(row.row().keyEnd()),
+            RangedStateFields.VALUE_TYPE, row -> ValUtil.getType(row.row().typeId()),
+            RangedStateFields.VALUE, row -> ValUtil.getValue(row.row().typeId(), row.row().value()),
+            RangedStateFields.INSERT_TIME, row -> ValDate.create(row.insertTime()));
+
+    LmdbRangedStateDao(final LmdbStateStore store,
+                       final ByteBufferFactory byteBufferFactory,
+                       final ExpressionMatcherFactory expressionMatcherFactory) {
+        super(store,
+                StateType.RANGED_STATE,
+                byteBufferFactory,
+                expressionMatcherFactory,
+                RangedStateFields.FIELD_MAP,
+                VALUE_FUNCTION_MAP);
+    }
+
+    @Override
+    ByteBuffer createKey(final RangedState row) {
+        return createKey(row.keyStart(), row.keyEnd());
+    }
+
+    private ByteBuffer createKey(final long keyStart, final long keyEnd) {
+        final ByteBuffer byteBuffer = acquireKey(KEY_LENGTH);
+        putSortableLong(byteBuffer, keyStart);
+        putSortableLong(byteBuffer, keyEnd);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    @Override
+    byte getTypeId(final RangedState row) {
+        return row.typeId();
+    }
+
+    @Override
+    ByteBuffer getValue(final RangedState row) {
+        return row.value();
+    }
+
+    @Override
+    RangedState createRow(final ByteBuffer key, final byte typeId, final ByteBuffer value) {
+        return new RangedState(
+                getSortableLong(key, 0),
+                getSortableLong(key, Long.BYTES),
+                typeId,
+                value);
+    }
+
+    public Optional<State> getState(final RangedStateRequest request) {
+        final ByteBuffer start = createKey(request.key(), Long.MAX_VALUE);
+        try {
+            return Optional.ofNullable(store.read(readTxn ->
+                    db.iterateResult(readTxn, KeyRange.atLeastBackward(start), iterator -> {
+                        if (iterator.hasNext()) {
+                            final KeyVal<ByteBuffer> kv = iterator.next();
+                            if (getSortableLong(kv.key(), Long.BYTES) >= request.key()) {
+                                final RangedState rangedState = readRow(kv).row();
+                                return new State(
+                                        Long.toString(request.key()),
+                                        rangedState.typeId(),
+                                        rangedState.value());
+                            }
+                        }
+                        return null;
+                    })));
+        } finally {
+            byteBufferFactory.release(start);
+        }
+    }
+}
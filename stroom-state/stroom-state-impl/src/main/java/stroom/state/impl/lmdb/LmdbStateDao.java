@@ -0,0 +1,79 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactory;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValString;
+import stroom.state.impl.dao.State;
+import stroom.state.impl.dao.StateFields;
+import stroom.state.impl.dao.StateRequest;
+import stroom.state.impl.dao.ValUtil;
+import stroom.state.shared.StateType;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keys are the UTF-8 bytes of the state key.
+ */
+public class LmdbStateDao extends AbstractLmdbStateDao<State> {
+
+    private static final Map<String, Function<Row<State>, Val>> VALUE_FUNCTION_MAP = Map.of(
+            StateFields.KEY, row -> ValString.create(row.row().key()),
+            StateFields.VALUE_TYPE, row -> ValUtil.getType(row.row().typeId()),
+            StateFields.VALUE, row -> ValUtil.getValue(row.row().typeId(), row.row().value()),
+            StateFields.INSERT_TIME, row -> ValDate.create(row.insertTime()));
+
+    LmdbStateDao(final LmdbStateStore store,
+                 final ByteBufferFactory byteBufferFactory,
+                 final ExpressionMatcherFactory expressionMatcherFactory) {
+        super(store,
+                StateType.STATE,
+                byteBufferFactory,
+                expressionMatcherFactory,
+                StateFields.FIELD_MAP,
+                VALUE_FUNCTION_MAP);
+    }
+
+    @Override
+    ByteBuffer createKey(final State row) {
+        return createKey(row.key());
+    }
+
+    private ByteBuffer createKey(final String key) {
+        final byte[] bytes = toBytes(key);
+        final ByteBuffer byteBuffer = acquireKey(bytes.length);
+        byteBuffer.put(bytes);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    @Override
+    byte getTypeId(final State row) {
+        return row.typeId();
+    }
+
+    @Override
+    ByteBuffer getValue(final State row) {
+        return row.value();
+    }
+
+    @Override
+    State createRow(final ByteBuffer key, final byte typeId, final ByteBuffer value) {
+        return new State(toString(key, 0, key.limit()), typeId, value);
+    }
+
+    public Optional<State> getState(final StateRequest request) {
+        final ByteBuffer key = createKey(request.key());
+        try {
+            return store.read(readTxn -> Optional
+                    .ofNullable(db.get(readTxn, key))
+                    .map(value -> readRow(key, value).row()));
+        } finally {
+            byteBufferFactory.release(key);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactory;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.lmdb2.LmdbEnvDirFactory;
+import stroom.state.impl.StateConfig;
+import stroom.state.impl.dao.RangedStateRequest;
+import stroom.state.impl.dao.StateRequest;
+import stroom.state.impl.dao.StateStoreDao;
+import stroom.state.impl.dao.TemporalRangedStateRequest;
+import stroom.state.impl.dao.TemporalState;
+import stroom.state.impl.dao.TemporalStateRequest;
+import stroom.state.shared.StateDoc;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventHandler;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates DAOs for state stores that use node local LMDB storage rather than ScyllaDB. Each state store has its own
+ * LMDB environment in a sub directory of the configured local directory named after the store UUID.
+ * <p>
+ * As the data is local to each node, every node deletes its own copy of a store when it receives the delete event
+ * for the state doc.
+ */
+@Singleton
+@EntityEventHandler(type = StateDoc.DOCUMENT_TYPE, action = EntityAction.DELETE)
+public class LmdbStateDaoFactory implements EntityEvent.Handler {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(LmdbStateDaoFactory.class);
+
+    private final LmdbEnvDirFactory lmdbEnvDirFactory;
+    private final Provider<StateConfig> stateConfigProvider;
+    private final Provider<Executor> executorProvider;
+    private final ByteBufferFactory byteBufferFactory;
+    private final ExpressionMatcherFactory expressionMatcherFactory;
+    private final Map<String, LmdbStateStore> storeMap = new ConcurrentHashMap<>();
+
+    @Inject
+    public LmdbStateDaoFactory(final LmdbEnvDirFactory lmdbEnvDirFactory,
+                               final Provider<StateConfig> stateConfigProvider,
+                               final Provider<Executor> executorProvider,
+                               final ByteBufferFactory byteBufferFactory,
+                               final ExpressionMatcherFactory expressionMatcherFactory) {
+        this.lmdbEnvDirFactory = lmdbEnvDirFactory;
+        this.stateConfigProvider = stateConfigProvider;
+        this.executorProvider = executorProvider;
+        this.byteBufferFactory = byteBufferFactory;
+        this.expressionMatcherFactory = expressionMatcherFactory;
+    }
+
+    public StateStoreDao<?> create(final StateDoc doc) {
+        return switch (doc.getStateType()) {
+            case STATE -> createStateDao(doc);
+            case RANGED_STATE -> createRangedStateDao(doc);
+            case TEMPORAL_STATE -> createTemporalStateDao(doc);
+            case TEMPORAL_RANGED_STATE -> createTemporalRangedStateDao(doc);
+            default -> throw new RuntimeException(doc.getStateType().getDisplayValue() +
+                    " is not supported with LMDB storage");
+        };
+    }
+
+    public LmdbStateDao createStateDao(final StateDoc doc) {
+        return new LmdbStateDao(getStore(doc), byteBufferFactory, expressionMatcherFactory);
+    }
+
+    public LmdbRangedStateDao createRangedStateDao(final StateDoc doc) {
+        return new LmdbRangedStateDao(getStore(doc), byteBufferFactory, expressionMatcherFactory);
+    }
+
+    public LmdbTemporalStateDao createTemporalStateDao(final StateDoc doc) {
+        return new LmdbTemporalStateDao(getStore(doc), byteBufferFactory, expressionMatcherFactory);
+    }
+
+    public LmdbTemporalRangedStateDao createTemporalRangedStateDao(final StateDoc doc) {
+        return new LmdbTemporalRangedStateDao(getStore(doc), byteBufferFactory, expressionMatcherFactory);
+    }
+
+    /**
+     * Get the latest state for a key at or before the event time, whatever the state type of the store is.
+     */
+    public Optional<TemporalState> getState(final StateDoc doc,
+                                            final String keyName,
+                                            final Instant eventTime) {
+        final String mapName = doc.getName();
+        return switch (doc.getStateType()) {
+            case STATE -> createStateDao(doc)
+                    .getState(new StateRequest(mapName, keyName))
+                    .map(state -> new TemporalState(state.key(),
+                            Instant.ofEpochMilli(0),
+                            state.typeId(),
+                            state.value()));
+            case TEMPORAL_STATE -> createTemporalStateDao(doc)
+                    .getState(new TemporalStateRequest(mapName, keyName, eventTime));
+            case RANGED_STATE -> createRangedStateDao(doc)
+                    .getState(new RangedStateRequest(mapName, Long.parseLong(keyName)))
+                    .map(state -> new TemporalState(state.key(),
+                            Instant.ofEpochMilli(0),
+                            state.typeId(),
+                            state.value()));
+            case TEMPORAL_RANGED_STATE -> createTemporalRangedStateDao(doc)
+                    .getState(new TemporalRangedStateRequest(mapName, Long.parseLong(keyName), eventTime));
+            default -> throw new RuntimeException(doc.getStateType().getDisplayValue() +
+                    " is not supported with LMDB storage");
+        };
+    }
+
+    /**
+     * Commit any writes to the store that are still waiting for their batch to be committed.
+     */
+    public void flush(final StateDoc doc) {
+        final LmdbStateStore store = storeMap.get(doc.getUuid());
+        if (store != null) {
+            store.flush();
+        }
+    }
+
+    /**
+     * Close the store for the doc and delete its data from this node.
+     */
+    public void delete(final StateDoc doc) {
+        delete(doc.getUuid());
+    }
+
+    private void delete(final String uuid) {
+        // Closing the store waits for any DAOs that are still using it. Any DAO that tries to use it afterwards
+        // will fail rather than use a closed environment.
+        final LmdbStateStore store = storeMap.remove(uuid);
+        if (store != null) {
+            store.delete();
+        } else {
+            final LmdbEnvDir lmdbEnvDir = getDir(uuid);
+            LOGGER.debug(() -> "Deleting " + lmdbEnvDir);
+            lmdbEnvDir.delete();
+        }
+    }
+
+    @Override
+    public void onChange(final EntityEvent event) {
+        if (EntityAction.DELETE.equals(event.getAction())) {
+            try {
+                delete(event.getDocRef().getUuid());
+            } catch (final RuntimeException e) {
+                LOGGER.error(e::getMessage, e);
+            }
+        }
+    }
+
+    /**
+     * Commit outstanding writes and close all open stores.
+     */
+    public void shutdown() {
+        storeMap.keySet().forEach(uuid -> {
+            final LmdbStateStore store = storeMap.remove(uuid);
+            if (store != null) {
+                store.close();
+            }
+        });
+    }
+
+    private LmdbStateStore getStore(final StateDoc doc) {
+        return storeMap.computeIfAbsent(doc.getUuid(), k -> {
+            LOGGER.debug(() -> "Opening LMDB state store for " + doc.getName());
+            return new LmdbStateStore(getDir(k), stateConfigProvider.get().getLmdbConfig(), executorProvider);
+        });
+    }
+
+    private LmdbEnvDir getDir(final String uuid) {
+        return lmdbEnvDirFactory
+                .builder()
+                .config(stateConfigProvider.get().getLmdbConfig())
+                .subDir(uuid)
+                .build();
+    }
+}
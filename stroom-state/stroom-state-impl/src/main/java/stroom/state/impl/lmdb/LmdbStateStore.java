@@ -0,0 +1,131 @@
+package stroom.state.impl.lmdb;
+
+import stroom.lmdb.LmdbConfig;
+import stroom.lmdb2.LmdbBatchWriter;
+import stroom.lmdb2.LmdbDb;
+import stroom.lmdb2.LmdbEnv;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.lmdb2.ReadTxn;
+import stroom.lmdb2.WriteTxn;
+import stroom.state.shared.StateType;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Provider;
+import org.lmdbjava.DbiFlags;
+import org.lmdbjava.EnvFlags;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The node local LMDB environment that holds the data for a single state store. Each state type gets its own
+ * database so changing the state type of a store never mixes key layouts.
+ * <p>
+ * All writes go through a single {@link LmdbBatchWriter} so that many pipelines writing to the same store share
+ * write transactions.
+ * <p>
+ * DAOs hold on to the store so every use of the environment holds the read lock and closing the store takes the
+ * write lock. This stops the environment being closed while a pipeline is still reading or writing and makes any
+ * use of the store after it is closed fail rather than touch a closed environment.
+ */
+class LmdbStateStore {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(LmdbStateStore.class);
+
+    private final LmdbEnv env;
+    private final LmdbBatchWriter writer;
+    private final Map<StateType, LmdbDb> dbMap = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LmdbEnvDir lmdbEnvDir;
+    private volatile boolean closed;
+
+    LmdbStateStore(final LmdbEnvDir lmdbEnvDir,
+                   final LmdbConfig lmdbConfig,
+                   final Provider<Executor> executorProvider) {
+        this.lmdbEnvDir = lmdbEnvDir;
+        env = LmdbEnv
+                .builder()
+                .config(lmdbConfig)
+                .lmdbEnvDir(lmdbEnvDir)
+                .maxDbs(StateType.values().length)
+                .addEnvFlag(EnvFlags.MDB_NOTLS)
+                .build();
+        writer = new LmdbBatchWriter(executorProvider, env);
+    }
+
+    LmdbDb getDb(final StateType stateType) {
+        return withReadLock(() ->
+                dbMap.computeIfAbsent(stateType, k -> env.openDb(k.name(), DbiFlags.MDB_CREATE)));
+    }
+
+    <R> R read(final Function<ReadTxn, R> function) {
+        return withReadLock(() -> env.readResult(function));
+    }
+
+    /**
+     * Apply a write to the shared write transaction and wait for it to be applied. The write is committed with
+     * the rest of its batch so may not be visible to readers until {@link #flush()} is called or the writer
+     * commits.
+     */
+    void write(final Consumer<WriteTxn> consumer) {
+        withReadLock(() -> writer.write(writeTxn -> {
+            consumer.accept(writeTxn);
+            return null;
+        }).join());
+    }
+
+    void flush() {
+        withReadLock(() -> {
+            writer.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Commit any outstanding writes and close the environment once nothing is using it.
+     */
+    void close() {
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                LOGGER.debug(() -> "Closing " + lmdbEnvDir);
+                writer.close();
+                try {
+                    env.close();
+                } catch (final RuntimeException e) {
+                    LOGGER.error(e::getMessage, e);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void delete() {
+        close();
+        env.delete();
+    }
+
+    private <R> R withReadLock(final Supplier<R> supplier) {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("State store " + lmdbEnvDir + " has been closed");
+            }
+            return supplier.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactory;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValLong;
+import stroom.state.impl.dao.TemporalRangedState;
+import stroom.state.impl.dao.TemporalRangedStateFields;
+import stroom.state.impl.dao.TemporalRangedStateRequest;
+import stroom.state.impl.dao.TemporalState;
+import stroom.state.impl.dao.ValUtil;
+import stroom.state.shared.StateType;
+
+import org.lmdbjava.KeyRange;
+import org.lmdbjava.KeyVal;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keys are the range start, the range end and then the effective time. Seeking backwards from the key and time
+ * finds the range with the highest start at or before the key with its entries in descending time order, so the
+ * first entry at or before the time is the latest value. Ranges are expected not to overlap.
+ */
+public class LmdbTemporalRangedStateDao extends AbstractLmdbStateDao<TemporalRangedState> {
+
+    private static final int KEY_LENGTH = Long.BYTES + Long.BYTES + Long.BYTES;
+
+    private static final Map<String, Function<Row<TemporalRangedState>, Val>> VALUE_FUNCTION_MAP = Map.of(
+            TemporalRangedStateFields.KEY_START, row -> ValLong.create(row.row().keyStart()),
+            TemporalRangedStateFields.KEY_END, row -> ValLong.create(row.row().keyEnd()),
+            TemporalRangedStateFields.EFFECTIVE_TIME, row -> ValDate.create(row.row().effectiveTime()),
+            TemporalRangedStateFields.VALUE_TYPE, row -> ValUtil.getType(row.row().typeId()),
+            TemporalRangedStateFields.VALUE, row -> ValUtil.getValue(row.row().typeId(), row.row().value()));
+
+    LmdbTemporalRangedStateDao(final LmdbStateStore store,
+                               final ByteBufferFactory byteBufferFactory,
+                               final ExpressionMatcherFactory expressionMatcherFactory) {
+        super(store,
+                StateType.TEMPORAL_RANGED_STATE,
+                byteBufferFactory,
+                expressionMatcherFactory,
+                TemporalRangedStateFields.FIELD_MAP,
+                VALUE_FUNCTION_MAP);
+    }
+
+    @Override
+    ByteBuffer createKey(final TemporalRangedState row) {
+        return createKey(row.keyStart(), row.keyEnd(), row.effectiveTime().toEpochMilli());
+    }
+
+    private ByteBuffer createKey(final long keyStart, final long keyEnd, final long effectiveTimeMs) {
+        final ByteBuffer byteBuffer = acquireKey(KEY_LENGTH);
+        putSortableLong(byteBuffer, keyStart);
+        putSortableLong(byteBuffer, keyEnd);
+        putSortableLong(byteBuffer, effectiveTimeMs);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    @Override
+    byte getTypeId(final TemporalRangedState row) {
+        return row.typeId();
+    }
+
+    @Override
+    ByteBuffer getValue(final TemporalRangedState row) {
+        return row.value();
+    }
+
+    @Override
+    TemporalRangedState createRow(final ByteBuffer key, final byte typeId, final ByteBuffer value) {
+        return new TemporalRangedState(
+                getSortableLong(key, 0),
+                getSortableLong(key, Long.BYTES),
+                Instant.ofEpochMilli(getSortableLong(key, Long.BYTES + Long.BYTES)),
+                typeId,
+                value);
+    }
+
+    public Optional<TemporalState> getState(final TemporalRangedStateRequest request) {
+        final long effectiveTimeMs = request.effectiveTime().toEpochMilli();
+        final ByteBuffer start = createKey(request.key(), Long.MAX_VALUE, Long.MAX_VALUE);
+        try {
+            return Optional.ofNullable(store.read(readTxn ->
+                    db.iterateResult(readTxn, KeyRange.atLeastBackward(start), iterator -> {
+                        while (iterator.hasNext()) {
+                            final KeyVal<ByteBuffer> kv = iterator.next();
+                            if (getSortableLong(kv.key(), Long.BYTES) < request.key()) {
+                                // We have reached a range that ends before the key.
+                                return null;
+                            }
+                            if (getSortableLong(kv.key(), Long.BYTES + Long.BYTES) <= effectiveTimeMs) {
+                                final TemporalRangedState state = readRow(kv).row();
+                                return new TemporalState(
+                                        Long.toString(request.key()),
+                                        state.effectiveTime(),
+                                        state.typeId(),
+                                        state.value());
+                            }
+                        }
+                        return null;
+                    })));
+        } finally {
+            byteBufferFactory.release(start);
+        }
+    }
+
+    @Override
+    public void condense(final Instant oldest) {
+        condenseTemporal(oldest);
+    }
+
+    @Override
+    public void removeOldData(final Instant oldest) {
+        removeOldTemporalData(oldest);
+    }
+}
@@ -0,0 +1,104 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactory;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValString;
+import stroom.state.impl.dao.TemporalState;
+import stroom.state.impl.dao.TemporalStateFields;
+import stroom.state.impl.dao.TemporalStateRequest;
+import stroom.state.impl.dao.ValUtil;
+import stroom.state.shared.StateType;
+
+import org.lmdbjava.KeyRange;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Keys are the length of the UTF-8 state key, the state key and then the effective time. All the entries for a
+ * state key are therefore together and in time order so the latest value at or before a time is found by seeking
+ * backwards from that time.
+ */
+public class LmdbTemporalStateDao extends AbstractLmdbStateDao<TemporalState> {
+
+    private static final Map<String, Function<Row<TemporalState>, Val>> VALUE_FUNCTION_MAP = Map.of(
+            TemporalStateFields.KEY, row -> ValString.create(row.row().key()),
+            TemporalStateFields.EFFECTIVE_TIME, row -> ValDate.create(row.row().effectiveTime()),
+            TemporalStateFields.VALUE_TYPE, row -> ValUtil.getType(row.row().typeId()),
+            TemporalStateFields.VALUE, row -> ValUtil.getValue(row.row().typeId(), row.row().value()));
+
+    LmdbTemporalStateDao(final LmdbStateStore store,
+                         final ByteBufferFactory byteBufferFactory,
+                         final ExpressionMatcherFactory expressionMatcherFactory) {
+        super(store,
+                StateType.TEMPORAL_STATE,
+                byteBufferFactory,
+                expressionMatcherFactory,
+                TemporalStateFields.FIELD_MAP,
+                VALUE_FUNCTION_MAP);
+    }
+
+    @Override
+    ByteBuffer createKey(final TemporalState row) {
+        return createKey(toBytes(row.key()), row.effectiveTime().toEpochMilli());
+    }
+
+    private ByteBuffer createKey(final byte[] key, final long effectiveTimeMs) {
+        final ByteBuffer byteBuffer = acquireKey(Integer.BYTES + key.length + Long.BYTES);
+        byteBuffer.putInt(key.length);
+        byteBuffer.put(key);
+        putSortableLong(byteBuffer, effectiveTimeMs);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    @Override
+    byte getTypeId(final TemporalState row) {
+        return row.typeId();
+    }
+
+    @Override
+    ByteBuffer getValue(final TemporalState row) {
+        return row.value();
+    }
+
+    @Override
+    TemporalState createRow(final ByteBuffer key, final byte typeId, final ByteBuffer value) {
+        final int keyLength = key.getInt(0);
+        return new TemporalState(
+                toString(key, Integer.BYTES, keyLength),
+                Instant.ofEpochMilli(getSortableLong(key, Integer.BYTES + keyLength)),
+                typeId,
+                value);
+    }
+
+    public Optional<TemporalState> getState(final TemporalStateRequest request) {
+        final byte[] key = toBytes(request.key());
+        final ByteBuffer start = createKey(key, request.effectiveTime().toEpochMilli());
+        final ByteBuffer stop = createKey(key, Long.MIN_VALUE);
+        try {
+            return Optional.ofNullable(store.read(readTxn ->
+                    db.iterateResult(readTxn, KeyRange.closedBackward(start, stop), iterator -> iterator.hasNext()
+                            ? readRow(iterator.next()).row()
+                            : null)));
+        } finally {
+            byteBufferFactory.release(start);
+            byteBufferFactory.release(stop);
+        }
+    }
+
+    @Override
+    public void condense(final Instant oldest) {
+        condenseTemporal(oldest);
+    }
+
+    @Override
+    public void removeOldData(final Instant oldest) {
+        removeOldTemporalData(oldest);
+    }
+}
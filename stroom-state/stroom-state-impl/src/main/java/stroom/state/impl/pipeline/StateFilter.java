@@ -30,22 +30,28 @@ import stroom.pipeline.shared.data.PipelineElementType.Category;
 import stroom.pipeline.state.MetaHolder;
 import stroom.state.impl.CqlSessionFactory;
 import stroom.state.impl.ScyllaDbNameValidator;
+import stroom.state.impl.StateConfig;
 import stroom.state.impl.StateDocCache;
+import stroom.state.impl.dao.AbstractStateDao;
 import stroom.state.impl.dao.RangedState;
 import stroom.state.impl.dao.RangedStateDao;
 import stroom.state.impl.dao.Session;
 import stroom.state.impl.dao.SessionDao;
 import stroom.state.impl.dao.State;
 import stroom.state.impl.dao.StateDao;
+import stroom.state.impl.dao.StateStoreDao;
 import stroom.state.impl.dao.TemporalRangedState;
 import stroom.state.impl.dao.TemporalRangedStateDao;
 import stroom.state.impl.dao.TemporalState;
 import stroom.state.impl.dao.TemporalStateDao;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 import stroom.svg.shared.SvgImage;
 import stroom.util.CharBuffer;
 import stroom.util.NullSafe;
 import stroom.util.date.DateUtil;
+import stroom.util.logging.DurationTimer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
@@ -62,6 +68,7 @@ import org.xml.sax.SAXException;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -198,6 +205,8 @@ public class StateFilter extends AbstractXMLFilter {
     private Instant effectiveTime;
     private final LocationFactoryProxy locationFactory;
     private final CqlSessionFactory cqlSessionFactory;
+    private final Provider<StateConfig> stateConfigProvider;
+    private final LmdbStateDaoFactory lmdbStateDaoFactory;
     private final StateDocCache stateDocCache;
     private final Map<StateDoc, List<State>> stateMap = new HashMap<>();
     private final Map<StateDoc, List<TemporalState>> temporalStateMap = new HashMap<>();
@@ -215,12 +224,16 @@ public class StateFilter extends AbstractXMLFilter {
                        final LocationFactoryProxy locationFactory,
                        final MetaHolder metaHolder,
                        final CqlSessionFactory cqlSessionFactory,
+                       final Provider<StateConfig> stateConfigProvider,
+                       final LmdbStateDaoFactory lmdbStateDaoFactory,
                        final StateDocCache stateDocCache,
                        final ByteBufferFactory byteBufferFactory) {
         this.errorReceiverProxy = errorReceiverProxy;
         this.locationFactory = locationFactory;
         this.metaHolder = metaHolder;
         this.cqlSessionFactory = cqlSessionFactory;
+        this.stateConfigProvider = stateConfigProvider;
+        this.lmdbStateDaoFactory = lmdbStateDaoFactory;
         this.stateDocCache = stateDocCache;
         this.byteBufferFactory = byteBufferFactory;
     }
@@ -251,21 +264,34 @@ public class StateFilter extends AbstractXMLFilter {
     public void endStream() {
         super.endStream();
         insert();
+
+        // LMDB writes are batched with those from other pipelines so make sure ours are committed.
+        stateDocMap.values().forEach(optional -> optional
+                .filter(this::isLmdb)
+                .ifPresent(stateDoc -> {
+                    try {
+                        lmdbStateDaoFactory.flush(stateDoc);
+                    } catch (final Exception e) {
+                        errorReceiverProxy.log(Severity.ERROR, null, getElementId(), e.getMessage(), e);
+                    }
+                }));
     }
 
     private void tryFlush() {
         uncommited++;
         if (uncommited > 1000) {
             insert();
+            uncommited = 0;
         }
     }
 
     private void insert() {
         stateMap.forEach((stateDoc, list) -> {
             try {
-                final Provider<CqlSession> sessionProvider =
-                        cqlSessionFactory.getSessionProvider(stateDoc.getScyllaDbRef());
-                new StateDao(sessionProvider, stateDoc.getName()).insert(list);
+                final StateStoreDao<State> dao = isLmdb(stateDoc)
+                        ? lmdbStateDaoFactory.createStateDao(stateDoc)
+                        : configure(new StateDao(getSessionProvider(stateDoc), stateDoc.getName()));
+                insert(stateDoc, dao, list);
                 list.forEach(state -> byteBufferFactory.release(state.value()));
                 list.clear();
             } catch (final Exception e) {
@@ -276,9 +302,10 @@ public class StateFilter extends AbstractXMLFilter {
 
         temporalStateMap.forEach((stateDoc, list) -> {
             try {
-                final Provider<CqlSession> sessionProvider =
-                        cqlSessionFactory.getSessionProvider(stateDoc.getScyllaDbRef());
-                new TemporalStateDao(sessionProvider, stateDoc.getName()).insert(list);
+                final StateStoreDao<TemporalState> dao = isLmdb(stateDoc)
+                        ? lmdbStateDaoFactory.createTemporalStateDao(stateDoc)
+                        : configure(new TemporalStateDao(getSessionProvider(stateDoc), stateDoc.getName()));
+                insert(stateDoc, dao, list);
                 list.forEach(state -> byteBufferFactory.release(state.value()));
                 list.clear();
             } catch (final Exception e) {
@@ -289,9 +316,10 @@ public class StateFilter extends AbstractXMLFilter {
 
         rangedStateMap.forEach((stateDoc, list) -> {
             try {
-                final Provider<CqlSession> sessionProvider =
-                        cqlSessionFactory.getSessionProvider(stateDoc.getScyllaDbRef());
-                new RangedStateDao(sessionProvider, stateDoc.getName()).insert(list);
+                final StateStoreDao<RangedState> dao = isLmdb(stateDoc)
+                        ? lmdbStateDaoFactory.createRangedStateDao(stateDoc)
+                        : configure(new RangedStateDao(getSessionProvider(stateDoc), stateDoc.getName()));
+                insert(stateDoc, dao, list);
                 list.forEach(state -> byteBufferFactory.release(state.value()));
                 list.clear();
             } catch (final Exception e) {
@@ -302,9 +330,10 @@ public class StateFilter extends AbstractXMLFilter {
 
         temporalRangedStateMap.forEach((stateDoc, list) -> {
             try {
-                final Provider<CqlSession> sessionProvider =
-                        cqlSessionFactory.getSessionProvider(stateDoc.getScyllaDbRef());
-                new TemporalRangedStateDao(sessionProvider, stateDoc.getName()).insert(list);
+                final StateStoreDao<TemporalRangedState> dao = isLmdb(stateDoc)
+                        ? lmdbStateDaoFactory.createTemporalRangedStateDao(stateDoc)
+                        : configure(new TemporalRangedStateDao(getSessionProvider(stateDoc), stateDoc.getName()));
+                insert(stateDoc, dao, list);
                 list.forEach(state -> byteBufferFactory.release(state.value()));
                 list.clear();
             } catch (final Exception e) {
@@ -315,9 +344,10 @@ public class StateFilter extends AbstractXMLFilter {
 
         sessionMap.forEach((stateDoc, list) -> {
             try {
-                final Provider<CqlSession> sessionProvider =
-                        cqlSessionFactory.getSessionProvider(stateDoc.getScyllaDbRef());
-                new SessionDao(sessionProvider, stateDoc.getName()).insert(list);
+                if (isLmdb(stateDoc)) {
+                    throw new RuntimeException("Session state is not supported with LMDB storage");
+                }
+                insert(stateDoc, configure(new SessionDao(getSessionProvider(stateDoc), stateDoc.getName())), list);
                 list.clear();
             } catch (final Exception e) {
                 errorReceiverProxy.log(Severity.ERROR, null, getElementId(), e.getMessage(), e);
@@ -326,6 +356,37 @@ public class StateFilter extends AbstractXMLFilter {
         sessionMap.clear();
     }
 
+    private <T> void insert(final StateDoc stateDoc, final StateStoreDao<T> dao, final List<T> list) {
+        final DurationTimer timer = DurationTimer.start();
+        dao.insert(list);
+        LOGGER.debug(() -> {
+            final Duration duration = timer.get();
+            return LogUtil.message("Inserted {} rows into '{}' in {} ({} rows/sec)",
+                    list.size(),
+                    stateDoc.getName(),
+                    duration,
+                    duration.isZero()
+                            ? "-"
+                            : (long) (list.size() / (duration.toNanos() / 1_000_000_000D)));
+        });
+    }
+
+    /**
+     * Apply the configured write settings to a ScyllaDB DAO.
+     */
+    private <D extends AbstractStateDao<?>> D configure(final D dao) {
+        dao.setMaxInFlightWrites(stateConfigProvider.get().getMaxInFlightWrites());
+        return dao;
+    }
+
+    private boolean isLmdb(final StateDoc stateDoc) {
+        return StateStorageType.LMDB.equals(stateDoc.getStorageType());
+    }
+
+    private Provider<CqlSession> getSessionProvider(final StateDoc stateDoc) {
+        return cqlSessionFactory.getSessionProvider(stateDoc.getScyllaDbRef());
+    }
+
     /**
      * Sets the locator to use when reporting errors.
      *
@@ -18,7 +18,9 @@ import stroom.state.impl.dao.TemporalRangedStateRequest;
 import stroom.state.impl.dao.TemporalState;
 import stroom.state.impl.dao.TemporalStateDao;
 import stroom.state.impl.dao.TemporalStateRequest;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 import stroom.util.pipeline.scope.PipelineScoped;
 
 import com.datastax.oss.driver.api.core.CqlSession;
@@ -44,14 +46,17 @@ public class StateLookupImpl implements StateLookup {
             .wrap(Boolean.toString(false).getBytes(StandardCharsets.UTF_8));
 
     private final CqlSessionFactory cqlSessionFactory;
+    private final LmdbStateDaoFactory lmdbStateDaoFactory;
     private final StateDocCache stateDocCache;
     private final Cache<Key, Optional<TemporalState>> cache;
     private final Map<String, Optional<StateDoc>> stateDocMap = new HashMap<>();
 
     @Inject
     public StateLookupImpl(final CqlSessionFactory cqlSessionFactory,
+                           final LmdbStateDaoFactory lmdbStateDaoFactory,
                            final StateDocCache stateDocCache) {
         this.cqlSessionFactory = cqlSessionFactory;
+        this.lmdbStateDaoFactory = lmdbStateDaoFactory;
         this.stateDocCache = stateDocCache;
         cache = Caffeine.newBuilder().maximumSize(1000).build();
     }
@@ -93,6 +98,10 @@ public class StateLookupImpl implements StateLookup {
                                              final String tableName,
                                              final String keyName,
                                              final Instant eventTime) {
+        if (StateStorageType.LMDB.equals(doc.getStorageType())) {
+            return lmdbStateDaoFactory.getState(doc, keyName, eventTime);
+        }
+
         Optional<TemporalState> optional;
         final Provider<CqlSession> sessionProvider = cqlSessionFactory.getSessionProvider(doc.getScyllaDbRef());
 
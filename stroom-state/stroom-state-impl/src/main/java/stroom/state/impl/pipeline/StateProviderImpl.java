@@ -17,7 +17,9 @@ import stroom.state.impl.dao.TemporalRangedStateRequest;
 import stroom.state.impl.dao.TemporalState;
 import stroom.state.impl.dao.TemporalStateDao;
 import stroom.state.impl.dao.TemporalStateRequest;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
 import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.github.benmanes.caffeine.cache.Cache;
@@ -34,14 +36,17 @@ import java.util.Optional;
 public class StateProviderImpl implements StateProvider {
 
     private final CqlSessionFactory cqlSessionFactory;
+    private final LmdbStateDaoFactory lmdbStateDaoFactory;
     private final StateDocCache stateDocCache;
     private final Cache<Key, Val> cache;
     private final Map<String, Optional<StateDoc>> stateDocMap = new HashMap<>();
 
     @Inject
     public StateProviderImpl(final CqlSessionFactory cqlSessionFactory,
+                             final LmdbStateDaoFactory lmdbStateDaoFactory,
                              final StateDocCache stateDocCache) {
         this.cqlSessionFactory = cqlSessionFactory;
+        this.lmdbStateDaoFactory = lmdbStateDaoFactory;
         this.stateDocCache = stateDocCache;
         cache = Caffeine.newBuilder().maximumSize(1000).build();
     }
@@ -64,6 +69,10 @@ public class StateProviderImpl implements StateProvider {
                          final String mapName,
                          final String keyName,
                          final Instant eventTime) {
+        if (StateStorageType.LMDB.equals(doc.getStorageType())) {
+            return getVal(lmdbStateDaoFactory.getState(doc, keyName, eventTime));
+        }
+
         final Provider<CqlSession> sessionProvider = cqlSessionFactory.getSessionProvider(doc.getScyllaDbRef());
         switch (doc.getStateType()) {
             case STATE -> {
@@ -0,0 +1,222 @@
+package stroom.state.impl.dao;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestBatchStatementExecutor {
+
+    @Mock
+    private CqlSession session;
+
+    // Each write made to the session along with the future the test uses to complete it.
+    private final List<Statement<?>> sent = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<AsyncResultSet>> futures = new CopyOnWriteArrayList<>();
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setup() {
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testRoutingKeyGrouping() {
+        completeWritesImmediately();
+
+        final BatchStatementExecutor executor = new BatchStatementExecutor(() -> session);
+        executor.addStatement(createStatement("a", 1));
+        executor.addStatement(createStatement("b", 2));
+        executor.addStatement(createStatement("a", 3));
+        executor.addStatement(createStatement(null, 4));
+        executor.addStatement(createStatement(null, 5));
+        executor.close();
+
+        // One write per routing key in the order the keys were first seen, with single statements sent as is.
+        assertThat(sent).hasSize(3);
+        assertThat(values(sent.get(0))).containsExactly(1, 3);
+        assertThat(sent.get(1)).isInstanceOf(SimpleStatement.class);
+        assertThat(values(sent.get(1))).containsExactly(2);
+        assertThat(values(sent.get(2))).containsExactly(4, 5);
+    }
+
+    @Test
+    void testSendWhenPendingLimitReached() {
+        completeWritesImmediately();
+
+        final BatchStatementExecutor executor = new BatchStatementExecutor(() -> session);
+        for (int i = 0; i < BatchStatementExecutor.MAX_PENDING_STATEMENTS - 1; i++) {
+            executor.addStatement(createStatement("key" + (i % 10), i));
+        }
+        assertThat(sent).isEmpty();
+
+        executor.addStatement(createStatement("key0", BatchStatementExecutor.MAX_PENDING_STATEMENTS));
+        assertThat(sent).hasSize(10);
+
+        executor.close();
+        assertThat(sent).hasSize(10);
+    }
+
+    @Test
+    void testInFlightLimit() throws Exception {
+        holdWrites();
+
+        final BatchStatementExecutor executor = new BatchStatementExecutor(() -> session, 2);
+        executor.addStatement(createStatement("a", 1));
+        executor.addStatement(createStatement("b", 2));
+        executor.addStatement(createStatement("c", 3));
+        final Future<?> close = executorService.submit(executor::close);
+
+        // Only two writes may be in flight so the third must wait.
+        waitForSent(2);
+        assertThatThrownBy(() -> close.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+        assertThat(sent).hasSize(2);
+
+        futures.get(0).complete(null);
+        waitForSent(3);
+
+        // Close must wait for the remaining writes to complete.
+        assertThatThrownBy(() -> close.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+        futures.get(1).complete(null);
+        futures.get(2).complete(null);
+        close.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testWriteFailureFromAddStatement() {
+        holdWrites();
+
+        final BatchStatementExecutor executor = new BatchStatementExecutor(() -> session);
+        for (int i = 0; i < BatchStatementExecutor.MAX_PENDING_STATEMENTS; i++) {
+            executor.addStatement(createStatement("a", i));
+        }
+        assertThat(sent).hasSize(1);
+        futures.getFirst().completeExceptionally(new RuntimeException("Write timeout"));
+
+        assertThatThrownBy(() -> executor.addStatement(createStatement("a", 0)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Write timeout");
+    }
+
+    @Test
+    void testWriteFailureFromClose() {
+        holdWrites();
+
+        final BatchStatementExecutor executor = new BatchStatementExecutor(() -> session);
+        executor.addStatement(createStatement("a", 1));
+        executor.addStatement(createStatement("b", 2));
+        final Future<?> close = executorService.submit(executor::close);
+
+        waitForSent(2);
+        futures.get(0).completeExceptionally(new RuntimeException("Write timeout"));
+        futures.get(1).complete(null);
+
+        assertThatThrownBy(() -> close.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Write timeout");
+    }
+
+    @Test
+    void testSendFailureDoesNotResend() {
+        final List<Statement<?>> attempted = new ArrayList<>();
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> {
+            final Statement<?> statement = invocation.getArgument(0);
+            attempted.add(statement);
+            if (attempted.size() == 2) {
+                throw new IllegalStateException("Session closed");
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+
+        final BatchStatementExecutor executor = new BatchStatementExecutor(() -> session);
+        executor.addStatement(createStatement("a", 1));
+        executor.addStatement(createStatement("b", 2));
+        executor.addStatement(createStatement("c", 3));
+        assertThatThrownBy(executor::close)
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(attempted).hasSize(2);
+
+        // Closing again only sends the group that was never attempted, not the first group a second time.
+        executor.close();
+        assertThat(attempted).hasSize(3);
+        assertThat(values(attempted.get(2))).containsExactly(3);
+    }
+
+    private void completeWritesImmediately() {
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private void holdWrites() {
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> {
+            final CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+            futures.add(future);
+            sent.add(invocation.getArgument(0));
+            return future;
+        });
+    }
+
+    private void waitForSent(final int count) {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sent.size() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadlineNanos);
+            Thread.onSpinWait();
+        }
+    }
+
+    private SimpleStatement createStatement(final String routingKey, final int value) {
+        return SimpleStatement.builder("INSERT INTO test (key, value) VALUES (?, ?)")
+                .addPositionalValues(routingKey, value)
+                .setRoutingKey(routingKey == null
+                        ? null
+                        : ByteBuffer.wrap(routingKey.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private List<Object> values(final Statement<?> statement) {
+        final List<Object> values = new ArrayList<>();
+        if (statement instanceof final BatchStatement batchStatement) {
+            for (final BatchableStatement<?> child : batchStatement) {
+                values.add(((SimpleStatement) child).getPositionalValues().get(1));
+            }
+        } else {
+            values.add(((SimpleStatement) statement).getPositionalValues().get(1));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,95 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.query.common.v2.ResultStoreLmdbConfig;
+import stroom.state.impl.dao.RangedState;
+import stroom.state.impl.dao.RangedStateRequest;
+import stroom.state.impl.dao.State;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLmdbRangedStateDao {
+
+    private ExecutorService executorService;
+    private LmdbStateStore store;
+    private LmdbRangedStateDao stateDao;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        executorService = Executors.newCachedThreadPool();
+        store = new LmdbStateStore(
+                new LmdbEnvDir(tempDir, true),
+                new ResultStoreLmdbConfig(),
+                () -> executorService);
+        stateDao = new LmdbRangedStateDao(store, new ByteBufferFactoryImpl(), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        executorService.shutdown();
+    }
+
+    @Test
+    void testGetState() {
+        insert(-20, -10, "negative");
+        insert(10, 30, "first");
+        insert(40, 50, "second");
+        insert(60, 70, "third");
+        store.flush();
+
+        assertThat(stateDao.count()).isEqualTo(4);
+
+        // Seeking backwards must find the range with the highest start at or before the key.
+        assertThat(getValue(10)).contains("first");
+        assertThat(getValue(11)).contains("first");
+        assertThat(getValue(30)).contains("first");
+        assertThat(getValue(40)).contains("second");
+        assertThat(getValue(50)).contains("second");
+        assertThat(getValue(65)).contains("third");
+        assertThat(getValue(-15)).contains("negative");
+
+        // Keys before the first range, in the gaps between ranges and after the last range.
+        assertThat(getValue(-21)).isEmpty();
+        assertThat(getValue(0)).isEmpty();
+        assertThat(getValue(35)).isEmpty();
+        assertThat(getValue(55)).isEmpty();
+        assertThat(getValue(71)).isEmpty();
+    }
+
+    @Test
+    void testGetStateKey() {
+        insert(10, 30, "first");
+        store.flush();
+
+        final State state = stateDao.getState(new RangedStateRequest("TEST_MAP", 11)).orElseThrow();
+        assertThat(state.key()).isEqualTo("11");
+        assertThat(state.typeId()).isEqualTo(StringValue.TYPE_ID);
+    }
+
+    private Optional<String> getValue(final long key) {
+        return stateDao.getState(new RangedStateRequest("TEST_MAP", key))
+                .map(State::getValueAsString);
+    }
+
+    private void insert(final long keyStart, final long keyEnd, final String value) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        stateDao.insert(Collections.singletonList(
+                new RangedState(keyStart, keyEnd, StringValue.TYPE_ID, byteBuffer)));
+    }
+}
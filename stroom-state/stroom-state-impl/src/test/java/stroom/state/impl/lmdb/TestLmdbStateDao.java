@@ -0,0 +1,159 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.entity.shared.ExpressionCriteria;
+import stroom.expression.api.DateTimeSettings;
+import stroom.expression.matcher.ExpressionMatcher;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.query.api.v2.ExpressionOperator;
+import stroom.query.api.v2.ExpressionTerm.Condition;
+import stroom.query.common.v2.ResultStoreLmdbConfig;
+import stroom.query.language.functions.FieldIndex;
+import stroom.state.impl.dao.State;
+import stroom.state.impl.dao.StateFields;
+import stroom.state.impl.dao.StateRequest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+class TestLmdbStateDao {
+
+    private ExecutorService executorService;
+    private LmdbStateStore store;
+    private LmdbStateDao stateDao;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        executorService = Executors.newCachedThreadPool();
+        store = new LmdbStateStore(
+                new LmdbEnvDir(tempDir, true),
+                new ResultStoreLmdbConfig(),
+                () -> executorService);
+
+        final ExpressionMatcherFactory expressionMatcherFactory = Mockito.mock(ExpressionMatcherFactory.class);
+        Mockito.when(expressionMatcherFactory.create(any(), any()))
+                .thenAnswer(invocation -> new ExpressionMatcher(invocation.getArgument(0)));
+        stateDao = new LmdbStateDao(store, new ByteBufferFactoryImpl(), expressionMatcherFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        executorService.shutdown();
+    }
+
+    @Test
+    void testGetState() {
+        insert("TEST_KEY", "test1");
+        insert("TEST_KEY", "test2");
+        insert("OTHER_KEY", "other");
+        store.flush();
+
+        // Later values replace earlier ones for the same key.
+        assertThat(stateDao.count()).isEqualTo(2);
+        final State res = stateDao.getState(new StateRequest("TEST_MAP", "TEST_KEY")).orElseThrow();
+        assertThat(res.key()).isEqualTo("TEST_KEY");
+        assertThat(res.typeId()).isEqualTo(StringValue.TYPE_ID);
+        assertThat(res.getValueAsString()).isEqualTo("test2");
+
+        assertThat(stateDao.getState(new StateRequest("TEST_MAP", "MISSING_KEY")))
+                .isEmpty();
+    }
+
+    @Test
+    void testSearch() {
+        for (int i = 0; i < 10; i++) {
+            insert("KEY_" + i, "value" + i);
+        }
+        store.flush();
+
+        final FieldIndex fieldIndex = new FieldIndex();
+        fieldIndex.create(StateFields.KEY);
+        fieldIndex.create(StateFields.VALUE);
+
+        assertThat(search(ExpressionOperator.builder().build(), fieldIndex))
+                .hasSize(10);
+
+        final List<String> values = search(ExpressionOperator.builder()
+                        .addTerm(StateFields.KEY, Condition.EQUALS, "KEY_3")
+                        .build(),
+                fieldIndex);
+        assertThat(values).containsExactly("KEY_3=value3");
+
+        assertThat(search(ExpressionOperator.builder()
+                        .addTerm(StateFields.KEY, Condition.EQUALS, "KEY_3")
+                        .enabled(false)
+                        .build(),
+                fieldIndex))
+                .hasSize(10);
+    }
+
+    @Test
+    void testRemoveOldData() {
+        insert("TEST_KEY", "test");
+        store.flush();
+
+        stateDao.removeOldData(Instant.parse("2000-01-01T00:00:00.000Z"));
+        assertThat(stateDao.count()).isEqualTo(1);
+
+        stateDao.removeOldData(Instant.now().plusSeconds(1));
+        assertThat(stateDao.count()).isEqualTo(0);
+    }
+
+    @Test
+    void testKeyTooLong() {
+        final String key = "a".repeat(AbstractLmdbStateDao.MAX_KEY_LENGTH + 1);
+        assertThatThrownBy(() -> insert(key, "test"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(String.valueOf(AbstractLmdbStateDao.MAX_KEY_LENGTH));
+
+        insert("a".repeat(AbstractLmdbStateDao.MAX_KEY_LENGTH), "test");
+        store.flush();
+        assertThat(stateDao.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testUseAfterClose() {
+        insert("TEST_KEY", "test");
+        store.close();
+
+        // A DAO that outlives its store must not touch the closed environment.
+        assertThatThrownBy(() -> stateDao.getState(new StateRequest("TEST_MAP", "TEST_KEY")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> insert("TEST_KEY", "test"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<String> search(final ExpressionOperator expression, final FieldIndex fieldIndex) {
+        final List<String> results = new ArrayList<>();
+        stateDao.search(new ExpressionCriteria(expression),
+                fieldIndex,
+                DateTimeSettings.builder().build(),
+                values -> results.add(values[0].toString() + "=" + values[1].toString()));
+        return results;
+    }
+
+    private void insert(final String key, final String value) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        stateDao.insert(Collections.singletonList(new State(key, StringValue.TYPE_ID, byteBuffer)));
+    }
+}
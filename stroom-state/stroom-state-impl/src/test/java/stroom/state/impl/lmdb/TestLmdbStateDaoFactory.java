@@ -0,0 +1,131 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.lmdb.LmdbLibrary;
+import stroom.lmdb.LmdbLibraryConfig;
+import stroom.lmdb2.LmdbEnvDirFactory;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.state.impl.StateConfig;
+import stroom.state.impl.dao.State;
+import stroom.state.impl.dao.TemporalState;
+import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
+import stroom.state.shared.StateType;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestLmdbStateDaoFactory {
+
+    private ExecutorService executorService;
+    private LmdbStateDaoFactory lmdbStateDaoFactory;
+    private Path storeDir;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        final PathCreator pathCreator = new SimplePathCreator(() -> tempDir, () -> tempDir);
+        final StateConfig stateConfig = new StateConfig();
+        storeDir = tempDir.resolve(stateConfig.getLmdbConfig().getLocalDir());
+        executorService = Executors.newCachedThreadPool();
+        lmdbStateDaoFactory = new LmdbStateDaoFactory(
+                new LmdbEnvDirFactory(
+                        new LmdbLibrary(pathCreator, () -> tempDir, LmdbLibraryConfig::new),
+                        pathCreator),
+                () -> stateConfig,
+                () -> executorService,
+                new ByteBufferFactoryImpl(),
+                null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lmdbStateDaoFactory.shutdown();
+        executorService.shutdown();
+    }
+
+    @Test
+    void testFlush() {
+        final StateDoc doc = createDoc();
+        final LmdbStateDao stateDao = lmdbStateDaoFactory.createStateDao(doc);
+        stateDao.insert(Collections.singletonList(
+                new State("TEST_KEY", StringValue.TYPE_ID, toBuffer("test"))));
+
+        // This is what the state filter does at the end of each stream.
+        lmdbStateDaoFactory.flush(doc);
+
+        final TemporalState state = lmdbStateDaoFactory.getState(doc, "TEST_KEY", Instant.now()).orElseThrow();
+        assertThat(state.getValueAsString()).isEqualTo("test");
+        assertThat(state.effectiveTime()).isEqualTo(Instant.ofEpochMilli(0));
+    }
+
+    @Test
+    void testDeleteEvent() {
+        final StateDoc doc = createDoc();
+        final LmdbStateDao stateDao = lmdbStateDaoFactory.createStateDao(doc);
+        stateDao.insert(Collections.singletonList(
+                new State("TEST_KEY", StringValue.TYPE_ID, toBuffer("test"))));
+        lmdbStateDaoFactory.flush(doc);
+        assertThat(storeDir.resolve(doc.getUuid())).isDirectory();
+
+        // Every node gets the delete event and removes its own copy of the store.
+        lmdbStateDaoFactory.onChange(new EntityEvent(doc.asDocRef(), EntityAction.DELETE));
+        assertThat(Files.exists(storeDir.resolve(doc.getUuid()))).isFalse();
+
+        // DAOs that are still held must fail rather than use the closed environment.
+        assertThatThrownBy(stateDao::count)
+                .isInstanceOf(IllegalStateException.class);
+
+        // Opening the store again gives an empty store.
+        assertThat(lmdbStateDaoFactory.createStateDao(doc).count()).isZero();
+    }
+
+    @Test
+    void testShutdown() {
+        final StateDoc doc = createDoc();
+        final LmdbStateDao stateDao = lmdbStateDaoFactory.createStateDao(doc);
+        stateDao.insert(Collections.singletonList(
+                new State("TEST_KEY", StringValue.TYPE_ID, toBuffer("test"))));
+
+        // Shutting down commits outstanding writes before closing the store.
+        lmdbStateDaoFactory.shutdown();
+        assertThatThrownBy(stateDao::count)
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(lmdbStateDaoFactory.getState(doc, "TEST_KEY", Instant.now()))
+                .map(TemporalState::getValueAsString)
+                .contains("test");
+    }
+
+    private StateDoc createDoc() {
+        final StateDoc doc = new StateDoc();
+        doc.setType(StateDoc.DOCUMENT_TYPE);
+        doc.setUuid(UUID.randomUUID().toString());
+        doc.setName("test");
+        doc.setStorageType(StateStorageType.LMDB);
+        doc.setStateType(StateType.STATE);
+        return doc;
+    }
+
+    private ByteBuffer toBuffer(final String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.query.common.v2.ResultStoreLmdbConfig;
+import stroom.state.impl.dao.TemporalRangedState;
+import stroom.state.impl.dao.TemporalRangedStateRequest;
+import stroom.state.impl.dao.TemporalState;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLmdbTemporalRangedStateDao {
+
+    private ExecutorService executorService;
+    private LmdbStateStore store;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        executorService = Executors.newCachedThreadPool();
+        store = new LmdbStateStore(
+                new LmdbEnvDir(tempDir, true),
+                new ResultStoreLmdbConfig(),
+                () -> executorService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        executorService.shutdown();
+    }
+
+    @Test
+    void testGetState() {
+        final LmdbTemporalRangedStateDao stateDao = new LmdbTemporalRangedStateDao(
+                store,
+                new ByteBufferFactoryImpl(),
+                null);
+
+        final Instant refTime = Instant.parse("2000-01-01T00:00:00.000Z");
+        insert(stateDao, 10, 30, refTime, "test");
+        insert(stateDao, 40, 50, refTime, "test");
+        insert(stateDao, 10, 30, refTime.plusSeconds(10), "later");
+        store.flush();
+
+        final Optional<TemporalState> optional = stateDao.getState(
+                new TemporalRangedStateRequest("TEST_MAP", 11, refTime.plusSeconds(1)));
+        assertThat(optional).isNotEmpty();
+        assertThat(optional.get().key()).isEqualTo("11");
+        assertThat(optional.get().getValueAsString()).isEqualTo("test");
+
+        // The latest range that is effective at the requested time wins.
+        assertThat(stateDao.getState(new TemporalRangedStateRequest("TEST_MAP", 30, refTime.plusSeconds(20))))
+                .map(TemporalState::getValueAsString)
+                .contains("later");
+
+        assertThat(stateDao.getState(new TemporalRangedStateRequest("TEST_MAP", 35, refTime)))
+                .isEmpty();
+        assertThat(stateDao.getState(new TemporalRangedStateRequest("TEST_MAP", 11, refTime.minusSeconds(1))))
+                .isEmpty();
+    }
+
+    private void insert(final LmdbTemporalRangedStateDao stateDao,
+                        final long keyStart,
+                        final long keyEnd,
+                        final Instant effectiveTime,
+                        final String value) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        stateDao.insert(Collections.singletonList(
+                new TemporalRangedState(keyStart, keyEnd, effectiveTime, StringValue.TYPE_ID, byteBuffer)));
+    }
+}
@@ -0,0 +1,131 @@
+package stroom.state.impl.lmdb;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.query.common.v2.ResultStoreLmdbConfig;
+import stroom.state.impl.dao.TemporalState;
+import stroom.state.impl.dao.TemporalStateRequest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLmdbTemporalStateDao {
+
+    private ExecutorService executorService;
+    private LmdbStateStore store;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        executorService = Executors.newCachedThreadPool();
+        store = new LmdbStateStore(
+                new LmdbEnvDir(tempDir, true),
+                new ResultStoreLmdbConfig(),
+                () -> executorService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        executorService.shutdown();
+    }
+
+    @Test
+    void testGetState() {
+        final LmdbTemporalStateDao stateDao = createTemporalStateDao();
+
+        final Instant refTime = Instant.parse("2000-01-01T00:00:00.000Z");
+        insertData(stateDao, refTime, "test", 100, 10);
+        insertData(stateDao, refTime.plusSeconds(5), "other", 1, 10);
+        store.flush();
+
+        assertThat(stateDao.count()).isEqualTo(101);
+
+        TemporalState res = stateDao.getState(new TemporalStateRequest("TEST_MAP", "TEST_KEY", refTime))
+                .orElseThrow();
+        assertThat(res.key()).isEqualTo("TEST_KEY");
+        assertThat(res.effectiveTime()).isEqualTo(refTime);
+        assertThat(res.typeId()).isEqualTo(StringValue.TYPE_ID);
+        assertThat(res.getValueAsString()).isEqualTo("test");
+
+        // We should get the latest state that is effective at or before the requested time.
+        res = stateDao.getState(new TemporalStateRequest("TEST_MAP", "TEST_KEY", refTime.plusSeconds(7)))
+                .orElseThrow();
+        assertThat(res.effectiveTime()).isEqualTo(refTime.plusSeconds(5));
+        assertThat(res.getValueAsString()).isEqualTo("other");
+
+        assertThat(stateDao.getState(new TemporalStateRequest("TEST_MAP", "TEST_KEY", refTime.minusSeconds(1))))
+                .isEmpty();
+        assertThat(stateDao.getState(new TemporalStateRequest("TEST_MAP", "OTHER_KEY", refTime)))
+                .isEmpty();
+    }
+
+    @Test
+    void testRemoveOldData() {
+        final LmdbTemporalStateDao stateDao = createTemporalStateDao();
+
+        final Instant refTime = Instant.parse("2000-01-01T00:00:00.000Z");
+        insertData(stateDao, refTime, "test", 100, 10);
+        insertData(stateDao, refTime, "test", 10, -10);
+        store.flush();
+
+        assertThat(stateDao.count()).isEqualTo(109);
+
+        stateDao.removeOldData(refTime);
+        assertThat(stateDao.count()).isEqualTo(100);
+
+        stateDao.removeOldData(Instant.now());
+        assertThat(stateDao.count()).isEqualTo(0);
+    }
+
+    @Test
+    void testCondense() {
+        final LmdbTemporalStateDao stateDao = createTemporalStateDao();
+
+        final Instant refTime = Instant.parse("2000-01-01T00:00:00.000Z");
+        insertData(stateDao, refTime, "test", 100, 10);
+        insertData(stateDao, refTime, "test", 10, -10);
+        store.flush();
+
+        assertThat(stateDao.count()).isEqualTo(109);
+
+        stateDao.condense(refTime);
+        assertThat(stateDao.count()).isEqualTo(100);
+
+        stateDao.condense(Instant.now());
+        assertThat(stateDao.count()).isEqualTo(1);
+    }
+
+    private LmdbTemporalStateDao createTemporalStateDao() {
+        return new LmdbTemporalStateDao(store, new ByteBufferFactoryImpl(), null);
+    }
+
+    private void insertData(final LmdbTemporalStateDao stateDao,
+                            final Instant refTime,
+                            final String value,
+                            final int rows,
+                            final long deltaSeconds) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap((value).getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < rows; i++) {
+            final Instant effectiveTime = refTime.plusSeconds(i * deltaSeconds);
+            final TemporalState state = new TemporalState(
+                    "TEST_KEY",
+                    effectiveTime,
+                    StringValue.TYPE_ID,
+                    byteBuffer);
+            stateDao.insert(Collections.singletonList(state));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package stroom.state.impl.pipeline;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.lmdb.LmdbLibrary;
+import stroom.lmdb.LmdbLibraryConfig;
+import stroom.lmdb2.LmdbEnvDirFactory;
+import stroom.meta.shared.Meta;
+import stroom.pipeline.LocationFactoryProxy;
+import stroom.pipeline.errorhandler.ErrorReceiverProxy;
+import stroom.pipeline.errorhandler.LoggingErrorReceiver;
+import stroom.pipeline.state.MetaHolder;
+import stroom.state.impl.StateConfig;
+import stroom.state.impl.StateDocCache;
+import stroom.state.impl.dao.TemporalState;
+import stroom.state.impl.lmdb.LmdbStateDaoFactory;
+import stroom.state.shared.StateDoc;
+import stroom.state.shared.StateStorageType;
+import stroom.state.shared.StateType;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+import stroom.util.shared.Severity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestStateFilter {
+
+    private static final String MAP_NAME = "test_map";
+    private static final String NAMESPACE = "reference-data:2";
+
+    private ExecutorService executorService;
+    private LmdbStateDaoFactory lmdbStateDaoFactory;
+    private LoggingErrorReceiver loggingErrorReceiver;
+    private StateFilter stateFilter;
+    private StateDoc stateDoc;
+
+    @BeforeEach
+    void setup(@TempDir final Path tempDir) {
+        final PathCreator pathCreator = new SimplePathCreator(() -> tempDir, () -> tempDir);
+        final StateConfig stateConfig = new StateConfig();
+        executorService = Executors.newCachedThreadPool();
+        lmdbStateDaoFactory = new LmdbStateDaoFactory(
+                new LmdbEnvDirFactory(
+                        new LmdbLibrary(pathCreator, () -> tempDir, LmdbLibraryConfig::new),
+                        pathCreator),
+                () -> stateConfig,
+                () -> executorService,
+                new ByteBufferFactoryImpl(),
+                null);
+
+        stateDoc = new StateDoc();
+        stateDoc.setType(StateDoc.DOCUMENT_TYPE);
+        stateDoc.setUuid(UUID.randomUUID().toString());
+        stateDoc.setName(MAP_NAME);
+        stateDoc.setStorageType(StateStorageType.LMDB);
+        stateDoc.setStateType(StateType.STATE);
+
+        final MetaHolder metaHolder = new MetaHolder();
+        metaHolder.setMeta(Meta.builder().id(1).createMs(System.currentTimeMillis()).build());
+        loggingErrorReceiver = new LoggingErrorReceiver();
+
+        stateFilter = new StateFilter(
+                new ErrorReceiverProxy(loggingErrorReceiver),
+                new LocationFactoryProxy(),
+                metaHolder,
+                null,
+                () -> stateConfig,
+                lmdbStateDaoFactory,
+                new StateDocCacheStub(stateDoc),
+                new ByteBufferFactoryImpl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        lmdbStateDaoFactory.shutdown();
+        executorService.shutdown();
+    }
+
+    @Test
+    void testEndStreamFlushes() throws SAXException {
+        stateFilter.startProcessing();
+        stateFilter.startStream();
+        stateFilter.startDocument();
+        startElement("referenceData");
+        for (int i = 0; i < 10; i++) {
+            startElement("reference");
+            element("map", MAP_NAME);
+            element("key", "key" + i);
+            element("value", "value" + i);
+            endElement("reference");
+        }
+        endElement("referenceData");
+        stateFilter.endDocument();
+
+        // The LMDB writes are batched with other pipelines so ending the stream must commit them.
+        stateFilter.endStream();
+
+        assertThat(loggingErrorReceiver.getTotal(Severity.ERROR)).isZero();
+        for (int i = 0; i < 10; i++) {
+            assertThat(lmdbStateDaoFactory.getState(stateDoc, "key" + i, Instant.now()))
+                    .map(TemporalState::getValueAsString)
+                    .contains("value" + i);
+        }
+
+        stateFilter.endProcessing();
+    }
+
+    private void element(final String name, final String value) throws SAXException {
+        startElement(name);
+        stateFilter.characters(value.toCharArray(), 0, value.length());
+        endElement(name);
+    }
+
+    private void startElement(final String name) throws SAXException {
+        stateFilter.startElement(NAMESPACE, name, name, new AttributesImpl());
+    }
+
+    private void endElement(final String name) throws SAXException {
+        stateFilter.endElement(NAMESPACE, name, name);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record StateDocCacheStub(StateDoc stateDoc) implements StateDocCache {
+
+        @Override
+        public StateDoc get(final String name) {
+            return MAP_NAME.equals(name)
+                    ? stateDoc
+                    : null;
+        }
+
+        @Override
+        public void remove(final String name) {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package stroom.task.impl;
+
+import stroom.util.config.annotations.RequiresRestart;
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@JsonPropertyOrder(alphabetic = true)
+public class ExecutorConfig extends AbstractConfig implements IsStroomConfig {
+
+    public static final int DEFAULT_BOUNDED_QUEUE_SIZE = 10_000;
+
+    private final Map<String, Integer> boundedThreadPools;
+    private final int boundedQueueSize;
+    private final List<String> virtualThreadPools;
+
+    public ExecutorConfig() {
+        // Use a treemap so we get a consistent order in the yaml so TestYamlUtil doesn't fail
+        boundedThreadPools = new TreeMap<>();
+        boundedQueueSize = DEFAULT_BOUNDED_QUEUE_SIZE;
+        virtualThreadPools = Collections.emptyList();
+    }
+
+    @JsonCreator
+    public ExecutorConfig(@JsonProperty("boundedThreadPools") final Map<String, Integer> boundedThreadPools,
+                          @JsonProperty("boundedQueueSize") final int boundedQueueSize,
+                          @JsonProperty("virtualThreadPools") final List<String> virtualThreadPools) {
+        this.boundedThreadPools = boundedThreadPools;
+        this.boundedQueueSize = boundedQueueSize;
+        this.virtualThreadPools = virtualThreadPools;
+    }
+
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The maximum number of threads to use for named thread pools, keyed by the name of " +
+            "the thread pool, e.g. 'Search Index Shard'. Tasks submitted to a bounded pool once all of its " +
+            "threads are busy are queued and once the queue is full the submitting thread is blocked until " +
+            "there is space in the queue. Thread pools that are not listed here or in virtualThreadPools will " +
+            "create a new thread for each task if no idle thread is available. Do not bound a pool whose tasks " +
+            "wait on other tasks submitted to the same pool as this can cause a deadlock.")
+    public Map<String, Integer> getBoundedThreadPools() {
+        return boundedThreadPools;
+    }
+
+    @Min(1)
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The maximum number of tasks that can be queued for each of the bounded thread pools " +
+            "before submitting threads are blocked.")
+    public int getBoundedQueueSize() {
+        return boundedQueueSize;
+    }
+
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The names of thread pools that should run each task on a new virtual thread rather " +
+            "than a platform thread. This is suited to pools whose tasks spend most of their time waiting on IO. " +
+            "Thread priorities are ignored for virtual threads.")
+    public List<String> getVirtualThreadPools() {
+        return virtualThreadPools;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorConfig{" +
+                "boundedThreadPools=" + boundedThreadPools +
+                ", boundedQueueSize=" + boundedQueueSize +
+                ", virtualThreadPools=" + virtualThreadPools +
+                '}';
+    }
+}
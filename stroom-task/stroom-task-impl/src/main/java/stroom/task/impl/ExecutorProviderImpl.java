@@ -19,31 +19,44 @@ package stroom.task.impl;
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.ThreadPoolImpl;
 import stroom.task.shared.ThreadPool;
-import stroom.util.thread.CustomThreadFactory;
-import stroom.util.thread.StroomThreadGroup;
+import stroom.util.NullSafe;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
 
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Singleton
-public class ExecutorProviderImpl implements ExecutorProvider {
+public class ExecutorProviderImpl implements ExecutorProvider, HasSystemInfo {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ExecutorProviderImpl.class);
 
     public static final ThreadPool DEFAULT_THREAD_POOL = new ThreadPoolImpl("Stroom P2", 2);
 
+    private final Provider<ExecutorConfig> executorConfigProvider;
+
     // The thread pools that will be used to execute tasks.
-    private final ConcurrentHashMap<ThreadPool, ExecutorService> threadPoolMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ThreadPool, MeteredExecutor> threadPoolMap = new ConcurrentHashMap<>();
     private final ReentrantLock poolCreationLock = new ReentrantLock();
     private final AtomicBoolean stop = new AtomicBoolean();
 
+    @Inject
+    public ExecutorProviderImpl(final Provider<ExecutorConfig> executorConfigProvider) {
+        this.executorConfigProvider = executorConfigProvider;
+    }
+
     @Override
     public Executor get() {
         return get(DEFAULT_THREAD_POOL);
@@ -56,7 +69,7 @@ public class ExecutorProviderImpl implements ExecutorProvider {
 
     private Executor getRealExecutor(final ThreadPool threadPool) {
         Objects.requireNonNull(threadPool, "Null thread pool");
-        ExecutorService executor = threadPoolMap.get(threadPool);
+        MeteredExecutor executor = threadPoolMap.get(threadPool);
         if (executor == null) {
             poolCreationLock.lock();
             try {
@@ -65,15 +78,7 @@ public class ExecutorProviderImpl implements ExecutorProvider {
                     throw new RejectedExecutionException("Stopping");
                 }
 
-                executor = threadPoolMap.computeIfAbsent(threadPool, k -> {
-                    // Create a thread factory for the thread pool
-                    final ThreadGroup poolThreadGroup = new ThreadGroup(StroomThreadGroup.instance(),
-                            threadPool.getName());
-                    final CustomThreadFactory taskThreadFactory = new CustomThreadFactory(
-                            threadPool.getName() + " #", poolThreadGroup, threadPool.getPriority());
-
-                    return Executors.newCachedThreadPool(taskThreadFactory);
-                });
+                executor = threadPoolMap.computeIfAbsent(threadPool, this::createExecutor);
             } finally {
                 poolCreationLock.unlock();
             }
@@ -81,6 +86,22 @@ public class ExecutorProviderImpl implements ExecutorProvider {
         return executor;
     }
 
+    private MeteredExecutor createExecutor(final ThreadPool threadPool) {
+        final ExecutorConfig executorConfig = executorConfigProvider.get();
+        final String name = threadPool.getName();
+        final Integer maxThreads = NullSafe.get(executorConfig.getBoundedThreadPools(), map -> map.get(name));
+
+        if (NullSafe.list(executorConfig.getVirtualThreadPools()).contains(name)) {
+            LOGGER.info("Creating virtual thread pool '{}'", name);
+            return MeteredExecutor.virtual(threadPool);
+        } else if (maxThreads != null && maxThreads > 0) {
+            LOGGER.info("Creating bounded thread pool '{}' with {} threads and a queue size of {}",
+                    name, maxThreads, executorConfig.getBoundedQueueSize());
+            return MeteredExecutor.bounded(threadPool, maxThreads, executorConfig.getBoundedQueueSize());
+        }
+        return MeteredExecutor.cached(threadPool);
+    }
+
     void setStop(final boolean stop) {
         this.stop.set(stop);
     }
@@ -90,7 +111,7 @@ public class ExecutorProviderImpl implements ExecutorProvider {
         try {
             final Iterator<ThreadPool> iter = threadPoolMap.keySet().iterator();
             iter.forEachRemaining(threadPool -> {
-                final ExecutorService executor = threadPoolMap.get(threadPool);
+                final MeteredExecutor executor = threadPoolMap.get(threadPool);
                 if (executor != null) {
                     executor.shutdown();
                     threadPoolMap.remove(threadPool);
@@ -100,4 +121,15 @@ public class ExecutorProviderImpl implements ExecutorProvider {
             poolCreationLock.unlock();
         }
     }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        final SystemInfoResult.Builder builder = SystemInfoResult.builder(this)
+                .description("Task counts and queue wait times for each thread pool");
+        threadPoolMap.entrySet()
+                .stream()
+                .sorted(Comparator.comparing(entry -> entry.getKey().getName()))
+                .forEach(entry -> builder.addDetail(entry.getKey().getName(), entry.getValue().getStats()));
+        return builder.build();
+    }
 }
@@ -0,0 +1,190 @@
+package stroom.task.impl;
+
+import stroom.task.shared.ThreadPool;
+import stroom.util.thread.CustomThreadFactory;
+import stroom.util.thread.StroomThreadGroup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps the executor service for a {@link ThreadPool} and keeps counts of the tasks that pass through it so we can
+ * see how busy each pool is.
+ */
+class MeteredExecutor implements Executor {
+
+    enum Type {
+        CACHED,
+        BOUNDED,
+        VIRTUAL
+    }
+
+    private final Type type;
+    private final ExecutorService executorService;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder blocked;
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private MeteredExecutor(final Type type,
+                            final ExecutorService executorService,
+                            final LongAdder blocked) {
+        this.type = type;
+        this.executorService = executorService;
+        this.blocked = blocked;
+    }
+
+    /**
+     * Create an executor that creates new platform threads as needed and reuses idle ones.
+     */
+    static MeteredExecutor cached(final ThreadPool threadPool) {
+        return new MeteredExecutor(
+                Type.CACHED,
+                Executors.newCachedThreadPool(createThreadFactory(threadPool)),
+                new LongAdder());
+    }
+
+    /**
+     * Create an executor with a fixed maximum number of platform threads and a bounded queue. Once the queue is
+     * full the submitting thread is blocked until there is space.
+     */
+    static MeteredExecutor bounded(final ThreadPool threadPool,
+                                   final int maxThreads,
+                                   final int queueSize) {
+        final LongAdder blocked = new LongAdder();
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                maxThreads,
+                maxThreads,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize),
+                createThreadFactory(threadPool),
+                new BlockingPolicy(blocked));
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return new MeteredExecutor(Type.BOUNDED, threadPoolExecutor, blocked);
+    }
+
+    /**
+     * Create an executor that runs every task on a new virtual thread.
+     */
+    static MeteredExecutor virtual(final ThreadPool threadPool) {
+        final ThreadFactory threadFactory = Thread.ofVirtual()
+                .name(threadPool.getName() + " #", 1)
+                .factory();
+        return new MeteredExecutor(
+                Type.VIRTUAL,
+                Executors.newThreadPerTaskExecutor(threadFactory),
+                new LongAdder());
+    }
+
+    private static ThreadFactory createThreadFactory(final ThreadPool threadPool) {
+        // Create a thread factory for the thread pool
+        final ThreadGroup poolThreadGroup = new ThreadGroup(StroomThreadGroup.instance(),
+                threadPool.getName());
+        return new CustomThreadFactory(
+                threadPool.getName() + " #", poolThreadGroup, threadPool.getPriority());
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        final long submitTime = System.nanoTime();
+        submitted.increment();
+        try {
+            executorService.execute(() -> run(command, submitTime));
+        } catch (final RejectedExecutionException e) {
+            submitted.decrement();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(final Runnable command, final long submitTime) {
+        final long waitNanos = System.nanoTime() - submitTime;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        started.increment();
+        try {
+            command.run();
+        } finally {
+            completed.increment();
+        }
+    }
+
+    void shutdown() {
+        executorService.shutdown();
+    }
+
+    Map<String, Object> getStats() {
+        // Read completed before started and started before submitted so the derived counts can't go negative.
+        final long completed = this.completed.sum();
+        final long started = this.started.sum();
+        final long submitted = this.submitted.sum();
+
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", type);
+        if (executorService instanceof final ThreadPoolExecutor threadPoolExecutor) {
+            stats.put("maxThreads", threadPoolExecutor.getMaximumPoolSize());
+            stats.put("threads", threadPoolExecutor.getPoolSize());
+        }
+        stats.put("active", started - completed);
+        stats.put("queued", submitted - started);
+        stats.put("completed", completed);
+        stats.put("rejected", rejected.sum());
+        stats.put("blocked", blocked.sum());
+        stats.put("averageWaitMs", started == 0
+                ? 0
+                : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / started));
+        stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        return stats;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Applies back pressure by blocking the submitting thread until there is space in the queue rather than
+     * rejecting the task or running it on the submitting thread.
+     */
+    private static class BlockingPolicy implements RejectedExecutionHandler {
+
+        private final LongAdder blocked;
+
+        private BlockingPolicy(final LongAdder blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Stopping");
+            }
+            blocked.increment();
+            try {
+                executor.getQueue().put(runnable);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in queue", e);
+            }
+        }
+    }
+}
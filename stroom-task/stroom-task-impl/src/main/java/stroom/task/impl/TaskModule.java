@@ -24,6 +24,7 @@ import stroom.task.shared.TaskResource;
 import stroom.util.RunnableWrapper;
 import stroom.util.guice.GuiceUtil;
 import stroom.util.guice.RestResourcesBinder;
+import stroom.util.sysinfo.HasSystemInfoBinder;
 
 import com.google.inject.AbstractModule;
 import jakarta.inject.Inject;
@@ -53,6 +54,9 @@ public class TaskModule extends AbstractModule {
                 .addBinding(SearchableTaskProgress.class)
                 .addBinding(SearchableDual.class);
 
+        HasSystemInfoBinder.create(binder())
+                .bind(ExecutorProviderImpl.class);
+
         // Make sure the first thing to start and the last thing to stop is the task manager.
         LifecycleBinder.create(binder())
                 .bindStartupTaskTo(TaskManagerStartup.class, 10)
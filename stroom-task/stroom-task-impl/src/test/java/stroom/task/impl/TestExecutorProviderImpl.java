@@ -0,0 +1,110 @@
+package stroom.task.impl;
+
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestExecutorProviderImpl {
+
+    private static final ThreadPool BOUNDED_POOL = new ThreadPoolImpl("Bounded");
+    private static final ThreadPool VIRTUAL_POOL = new ThreadPoolImpl("Virtual");
+    private static final ThreadPool CACHED_POOL = new ThreadPoolImpl("Cached");
+
+    private final ExecutorProviderImpl executorProvider = new ExecutorProviderImpl(() -> new ExecutorConfig(
+            Map.of(BOUNDED_POOL.getName(), 1),
+            1,
+            List.of(VIRTUAL_POOL.getName())));
+
+    @AfterEach
+    void tearDown() {
+        executorProvider.shutdownExecutors();
+    }
+
+    @Test
+    void testBoundedBlocksWhenQueueFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final Runnable task = () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // The first task occupies the only thread and the second fills the queue.
+        executorProvider.get(BOUNDED_POOL).execute(task);
+        executorProvider.get(BOUNDED_POOL).execute(task);
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The third submission should block until there is space in the queue. It is counted as queued while the
+        // submitting thread waits.
+        final AtomicBoolean submitted = new AtomicBoolean();
+        final CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            executorProvider.get(BOUNDED_POOL).execute(task);
+            submitted.set(true);
+        });
+        Thread.sleep(200);
+        assertThat(submitted).isFalse();
+        assertThat(getStats(BOUNDED_POOL))
+                .containsEntry("type", MeteredExecutor.Type.BOUNDED)
+                .containsEntry("active", 1L)
+                .containsEntry("queued", 2L)
+                .containsEntry("blocked", 1L);
+
+        release.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        assertThat(submitted).isTrue();
+        waitForCompletion(BOUNDED_POOL, 3);
+    }
+
+    @Test
+    void testVirtual() throws Exception {
+        final CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(
+                () -> Thread.currentThread().isVirtual(),
+                executorProvider.get(VIRTUAL_POOL));
+        assertThat(future.get(5, TimeUnit.SECONDS)).isTrue();
+        waitForCompletion(VIRTUAL_POOL, 1);
+        assertThat(getStats(VIRTUAL_POOL))
+                .containsEntry("type", MeteredExecutor.Type.VIRTUAL);
+    }
+
+    @Test
+    void testCached() throws Exception {
+        final CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(
+                () -> Thread.currentThread().isVirtual(),
+                executorProvider.get(CACHED_POOL));
+        assertThat(future.get(5, TimeUnit.SECONDS)).isFalse();
+        waitForCompletion(CACHED_POOL, 1);
+        assertThat(getStats(CACHED_POOL))
+                .containsEntry("type", MeteredExecutor.Type.CACHED)
+                .containsEntry("active", 0L)
+                .containsEntry("queued", 0L);
+    }
+
+    private void waitForCompletion(final ThreadPool threadPool, final long count) throws InterruptedException {
+        for (int i = 0; i < 500 && !Long.valueOf(count).equals(getStats(threadPool).get("completed")); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(getStats(threadPool)).containsEntry("completed", count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getStats(final ThreadPool threadPool) {
+        final SystemInfoResult systemInfoResult = executorProvider.getSystemInfo();
+        return (Map<String, Object>) systemInfoResult.getDetails().get(threadPool.getName());
+    }
+}
@@ -3,6 +3,8 @@ package stroom.util.concurrent;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 
+import java.util.Collection;
+
 public class CompletableObjectQueue<T> {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(CompletableObjectQueue.class);
@@ -22,6 +24,16 @@ public class CompletableObjectQueue<T> {
         }
     }
 
+    public void putAll(final Collection<T> values) {
+        try {
+            queue.putAll(values);
+        } catch (final InterruptedException e) {
+            LOGGER.debug(e::getMessage, e);
+            Thread.currentThread().interrupt();
+            throw new UncheckedInterruptedException(e);
+        }
+    }
+
     public T take() {
         try {
             return queue.take();
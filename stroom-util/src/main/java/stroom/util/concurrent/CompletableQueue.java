@@ -1,5 +1,6 @@
 package stroom.util.concurrent;
 
+import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -74,6 +75,31 @@ public class CompletableQueue<T> {
         }
     }
 
+    /**
+     * Put all of the supplied values on the queue, taking the lock once for the whole collection rather than once
+     * per value. The lock is released while waiting for space.
+     */
+    public void putAll(final Collection<T> values) throws InterruptedException {
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            for (final T value : values) {
+                Objects.requireNonNull(value);
+                while (!complete && count == items.length) {
+                    notFull.await();
+                }
+                if (!complete) {
+                    enqueue(value);
+                } else {
+                    notEmpty.signal();
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public T take() throws InterruptedException, CompleteException {
         final ReentrantLock lock = this.lock;
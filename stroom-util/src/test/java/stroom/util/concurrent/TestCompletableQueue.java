@@ -261,6 +261,30 @@ class TestCompletableQueue {
                 .isEqualTo(5);
     }
 
+    @Test
+    void putAll() throws InterruptedException, CompleteException {
+        // Put more items than the queue can hold so that putAll has to wait for space.
+        final List<Integer> items = IntStream.range(0, 25)
+                .boxed()
+                .toList();
+        final CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            try {
+                completableQueue.putAll(items);
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        final List<Integer> outputItems = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            outputItems.add(completableQueue.take());
+        }
+        future.join();
+
+        assertThat(outputItems)
+                .containsExactlyElementsOf(items);
+    }
+
     @Test
     void isEmpty() throws InterruptedException, CompleteException {
         assertThat(completableQueue.isEmpty())